@@ -0,0 +1,356 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parser for ReadyAPI composite projects, which are stored as a directory tree with
+ * one XML file per interface, test suite and test case.
+ * <p>
+ * The expected layout is:
+ * <pre>
+ * project/
+ *   settings.xml         project root element with properties and script libraries
+ *   element.order        optional ordering of the entries below
+ *   Interface.xml        one interface element per file
+ *   Suite.xml            a test suite in a single file, or
+ *   Suite/
+ *     settings.xml       the test suite element
+ *     element.order      optional ordering of the test case files
+ *     TestCase.xml       one test case element per file
+ * </pre>
+ * A subdirectory is a test suite if element.order lists it or its settings.xml
+ * holds a test suite element; other subdirectories are skipped. Every file is
+ * parsed concurrently and the results are assembled in element order.
+ */
+public class CompositeProjectParser {
+    private static final Logger logger = LoggerFactory.getLogger(CompositeProjectParser.class);
+
+    private static final String SETTINGS_FILE = "settings.xml";
+    private static final String ORDER_FILE = "element.order";
+
+    private final ForkJoinPool pool;
+    private final PayloadSpillFile spillFile;
+    private final StringPool stringPool;
+    private ParseSnapshotStore snapshotStore;
+    private ParserMetrics metrics = new ParserMetrics();
+    private Consumer<Object> snapshotLoadHandler;
+
+    /**
+     * @param pool Pool the files are parsed on
+     * @param spillFile File receiving large payloads, or null to keep them in memory
+     */
+    public CompositeProjectParser(ForkJoinPool pool, PayloadSpillFile spillFile) {
+        this(pool, spillFile, new StringPool());
+    }
+
+    /**
+     * @param pool Pool the files are parsed on
+     * @param spillFile File receiving large payloads, or null to keep them in memory
+     * @param stringPool Pool deduplicating repeated attribute values across all files
+     */
+    public CompositeProjectParser(ForkJoinPool pool, PayloadSpillFile spillFile, StringPool stringPool) {
+        this.pool = pool;
+        this.spillFile = spillFile;
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * Load unchanged files from parse snapshots instead of parsing them.
+     *
+     * @param snapshotStore The snapshot store, or null to always parse
+     * @param snapshotLoadHandler Called with each model object returned by the store
+     */
+    public void setSnapshotStore(ParseSnapshotStore snapshotStore, Consumer<Object> snapshotLoadHandler) {
+        this.snapshotStore = snapshotStore;
+        this.snapshotLoadHandler = snapshotLoadHandler;
+    }
+
+    /**
+     * Record section timings and allocations in shared metrics.
+     *
+     * @param metrics The metrics of the current parse
+     */
+    public void setMetrics(ParserMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Check whether a path looks like a composite project directory.
+     *
+     * @param path The path to check
+     * @return true if the path is a directory whose settings.xml holds a project element
+     */
+    public static boolean isCompositeProject(Path path) {
+        return Files.isDirectory(path) && "soapui-project".equals(rootElement(path.resolve(SETTINGS_FILE)));
+    }
+
+    /**
+     * Parse a composite project directory.
+     *
+     * @param directory The project directory
+     * @return The assembled project
+     * @throws IOException If a file can't be read
+     * @throws XMLStreamException If a file can't be parsed
+     */
+    public ReadyApiProject parse(Path directory) throws IOException, XMLStreamException {
+        logger.info("Parsing composite ReadyAPI project with parallelism {}: {}", pool.getParallelism(), directory);
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        try {
+            Path settingsFile = directory.resolve(SETTINGS_FILE);
+            ForkJoinTask<Object> projectTask = Files.isRegularFile(settingsFile) ? submit(tasks, directory, settingsFile) : null;
+
+            // Submit every file before waiting on any of them
+            List<Object> entries = new ArrayList<>();
+            Set<Path> listed = listedEntries(directory);
+            for (Path entry : orderedEntries(directory, listed)) {
+                if (Files.isDirectory(entry)) {
+                    if (listed.contains(entry) || "testSuite".equals(rootElement(entry.resolve(SETTINGS_FILE)))) {
+                        entries.add(submitSuiteDirectory(tasks, directory, entry));
+                    } else {
+                        logger.debug("Skipping composite project directory that isn't a test suite: {}", entry);
+                    }
+                } else {
+                    entries.add(submit(tasks, directory, entry));
+                }
+            }
+
+            ReadyApiProject project;
+            if (projectTask != null) {
+                project = expect(join(projectTask), ReadyApiProject.class, settingsFile);
+            } else {
+                project = new ReadyApiProject();
+                project.setName(directory.getFileName().toString());
+            }
+
+            for (Object entry : entries) {
+                if (entry instanceof SuiteDirectory) {
+                    project.addTestSuite(((SuiteDirectory) entry).assemble());
+                    continue;
+                }
+                Object parsed = join((ForkJoinTask<?>) entry);
+                if (parsed instanceof ReadyApiInterface) {
+                    project.addInterface((ReadyApiInterface) parsed);
+                } else if (parsed instanceof ReadyApiTestSuite) {
+                    project.addTestSuite((ReadyApiTestSuite) parsed);
+                }
+            }
+
+            logger.info("Parsed composite ReadyAPI project: {}", project);
+            return project;
+        } finally {
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    private SuiteDirectory submitSuiteDirectory(List<ForkJoinTask<?>> tasks, Path root, Path directory) throws IOException {
+        Path settingsFile = directory.resolve(SETTINGS_FILE);
+        SuiteDirectory suite = new SuiteDirectory(directory);
+        suite.settings = Files.isRegularFile(settingsFile) ? submit(tasks, root, settingsFile) : null;
+        for (Path entry : orderedEntries(directory, listedEntries(directory))) {
+            if (Files.isRegularFile(entry)) {
+                suite.testCases.add(submit(tasks, root, entry));
+            }
+        }
+        return suite;
+    }
+
+    private ForkJoinTask<Object> submit(List<ForkJoinTask<?>> tasks, Path root, Path file) {
+        ForkJoinTask<Object> task = pool.submit((Callable<Object>) () -> {
+            if (snapshotStore == null) {
+                return parseFile(file);
+            }
+            // Composite files are small, so they are hashed from a heap copy
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+            Object model = snapshotStore.get(root.relativize(file).toString(), content, () -> parseFile(file));
+            snapshotLoadHandler.accept(model);
+            return model;
+        });
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Parse a single file of the composite project, based on its root element.
+     *
+     * @param file The XML file
+     * @return The parsed project, interface, test suite or test case, or null for
+     *         files with any other root element
+     */
+    private Object parseFile(Path file) throws IOException, XMLStreamException {
+        ReadyApiStreamingParser parser = new ReadyApiStreamingParser(spillFile, stringPool);
+        parser.setMetrics(metrics);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            XMLStreamReader reader = parser.createReader(in, null);
+            try {
+                ReadyApiStreamingParser.nextStartElement(reader);
+                switch (ReadyApiStreamingParser.localName(reader)) {
+                    case "soapui-project":
+                        return parser.parseProject(reader);
+                    case "interface":
+                        return metrics.time(ParserMetrics.INTERFACES, () -> parser.parseInterface(reader));
+                    case "testSuite":
+                        return metrics.time(ParserMetrics.TEST_SUITES, () -> parser.parseTestSuite(reader));
+                    case "testCase":
+                        return metrics.time(ParserMetrics.TEST_SUITES, () -> parser.parseTestCase(reader));
+                    default:
+                        logger.debug("Skipping composite project file with root element {}: {}",
+                                ReadyApiStreamingParser.localName(reader), file);
+                        return null;
+                }
+            } catch (XMLStreamException e) {
+                throw new XMLStreamException("Error parsing " + file + ": " + e.getMessage(), e);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Read the local name of a file's root element.
+     *
+     * @return The name, or null if the file is missing or isn't XML
+     */
+    private static String rootElement(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            XMLStreamReader reader = new ReadyApiStreamingParser().createReader(in, null);
+            try {
+                ReadyApiStreamingParser.nextStartElement(reader);
+                return ReadyApiStreamingParser.localName(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            logger.debug("Can't read the root element of {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the entries a directory's element.order file lists, or none without one.
+     */
+    private static Set<Path> listedEntries(Path directory) throws IOException {
+        Set<Path> listed = new LinkedHashSet<>();
+        Path orderFile = directory.resolve(ORDER_FILE);
+        if (Files.isRegularFile(orderFile)) {
+            for (String line : Files.readAllLines(orderFile, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    listed.add(directory.resolve(line.trim()));
+                }
+            }
+        }
+        return listed;
+    }
+
+    /**
+     * List the XML files and subdirectories of a directory, in the order given by its
+     * element.order file followed by any remaining entries sorted by name.
+     */
+    private static List<Path> orderedEntries(Path directory, Set<Path> listed) throws IOException {
+        List<Path> candidates;
+        try (Stream<Path> listing = Files.list(directory)) {
+            candidates = listing
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .filter(path -> !SETTINGS_FILE.equals(path.getFileName().toString()))
+                    .filter(path -> Files.isDirectory(path) || path.getFileName().toString().endsWith(".xml"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        Set<Path> ordered = new LinkedHashSet<>();
+        for (Path entry : listed) {
+            if (candidates.contains(entry)) {
+                ordered.add(entry);
+            }
+        }
+        ordered.addAll(candidates);
+        return new ArrayList<>(ordered);
+    }
+
+    private static Object join(ForkJoinTask<?> task) throws IOException, XMLStreamException {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof XMLStreamException) {
+                throw (XMLStreamException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing composite project", e);
+        }
+    }
+
+    private static <T> T expect(Object parsed, Class<T> type, Path file) throws XMLStreamException {
+        if (!type.isInstance(parsed)) {
+            throw new XMLStreamException("Unexpected root element in " + file);
+        }
+        return type.cast(parsed);
+    }
+
+    /**
+     * Pending parse of a test suite stored as a directory.
+     */
+    private static class SuiteDirectory {
+        private final Path directory;
+        private ForkJoinTask<Object> settings;
+        private final List<ForkJoinTask<Object>> testCases = new ArrayList<>();
+
+        SuiteDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        ReadyApiTestSuite assemble() throws IOException, XMLStreamException {
+            ReadyApiTestSuite testSuite;
+            Object parsedSettings = settings != null ? join(settings) : null;
+            if (parsedSettings instanceof ReadyApiTestSuite) {
+                testSuite = (ReadyApiTestSuite) parsedSettings;
+            } else {
+                if (settings != null) {
+                    // Listed in element.order, with settings that aren't the suite's
+                    logger.debug("Ignoring settings.xml without a test suite element: {}", directory);
+                }
+                testSuite = new ReadyApiTestSuite();
+                testSuite.setName(directory.getFileName().toString());
+            }
+            for (ForkJoinTask<Object> task : testCases) {
+                Object parsed = join(task);
+                if (parsed instanceof ReadyApiTestCase) {
+                    testSuite.addTestCase((ReadyApiTestCase) parsed);
+                }
+            }
+            return testSuite;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.readyapi.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * State shared by the builders of one conversion run.
+ * <p>
+ * The collection and the environment both carry the script libraries, and
+ * requests often repeat the same assertion, such as a status code check; each
+ * assertion belongs to one request, so assertions are matched by their type and
+ * configuration. The context converts each of them the first time a builder
+ * asks and hands the same result to every later caller, so every piece of work
+ * runs once per run whichever builder needs it. It also
+ * holds the Jackson mappers, which are expensive to create and safe to share.
+ * Lookups are thread-safe: a caller asking for a conversion another thread has
+ * started waits for it instead of repeating it. Conversions run outside the maps'
+ * locks, so a slow one never holds up lookups of other keys.
+ */
+public class ConversionContext {
+    private final ReadyApiProject project;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectWriter prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+
+    // Keyed by identity: ReadyApiScriptLibrary doesn't override equals
+    private final ConcurrentMap<ReadyApiScriptLibrary, FutureTask<String>> libraryScripts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ReadyApiScriptLibrary, FutureTask<String>> libraryVariables = new ConcurrentHashMap<>();
+    // Keyed by content: see ReadyApiAssertion.getContentKey
+    private final ConcurrentMap<String, FutureTask<String>> assertionTests = new ConcurrentHashMap<>();
+    // Libraries cut down to the functions some folder uses, by the set of functions kept
+    private final ConcurrentMap<ReadyApiScriptLibrary, ConcurrentMap<Set<String>, FutureTask<String>>> prunedLibraryScripts =
+            new ConcurrentHashMap<>();
+    private LibraryCallGraph libraryCallGraph;
+
+    public ConversionContext(ReadyApiProject project) {
+        this.project = project;
+    }
+
+    public ReadyApiProject getProject() {
+        return project;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @return A writer for indented JSON output files
+     */
+    public ObjectWriter getPrettyWriter() {
+        return prettyWriter;
+    }
+
+    /**
+     * Get the JavaScript of a script library.
+     *
+     * @param scriptLibrary The script library
+     * @return The JavaScript, or null if the library has no content
+     */
+    public String getLibraryScript(ReadyApiScriptLibrary scriptLibrary) {
+        if (scriptLibrary.getContent() == null) {
+            return null;
+        }
+        return memoize(libraryScripts, scriptLibrary,
+                () -> FunctionLibraryConverter.convertGroovyToJavaScript(scriptLibrary.getContent()));
+    }
+
+    /**
+     * Get the JavaScript of a script library with only some of its functions. Test
+     * cases that use the same functions share the result.
+     *
+     * @param scriptLibrary The script library
+     * @param functions The functions to keep, as found by {@link #getLibraryCallGraph()}
+     * @return The JavaScript, or null if the library has no content
+     */
+    public String getLibraryScript(ReadyApiScriptLibrary scriptLibrary, Set<String> functions) {
+        if (scriptLibrary.getContent() == null) {
+            return null;
+        }
+        // Creating the inner map is cheap; only the conversion has to stay out of the lock
+        return memoize(prunedLibraryScripts.computeIfAbsent(scriptLibrary, library -> new ConcurrentHashMap<>()), functions,
+                () -> FunctionLibraryConverter.convertGroovyToJavaScript(scriptLibrary.getContent(), functions));
+    }
+
+    /**
+     * @return The call graph of the project's script libraries, built on first use
+     */
+    synchronized LibraryCallGraph getLibraryCallGraph() {
+        if (libraryCallGraph == null) {
+            libraryCallGraph = new LibraryCallGraph(project.getScriptLibraries());
+        }
+        return libraryCallGraph;
+    }
+
+    /**
+     * Get the collection variable value of a script library: the library variable
+     * JSON the collection's pre-request script parses, built from
+     * {@link #getLibraryScript} without translating the library again.
+     *
+     * @param scriptLibrary The script library
+     * @return The variable value, empty if the library has no content
+     */
+    public String getLibraryVariable(ReadyApiScriptLibrary scriptLibrary) {
+        if (scriptLibrary.getContent() == null || scriptLibrary.getContent().isEmpty()) {
+            return "";
+        }
+        String script = getLibraryScript(scriptLibrary);
+        return memoize(libraryVariables, scriptLibrary,
+                () -> ScriptConverter.toLibraryVariable(scriptLibrary.getContent(), script));
+    }
+
+    /**
+     * Get the Postman test script of an assertion.
+     *
+     * @param assertion The assertion
+     * @return The test script
+     */
+    public String getAssertionTest(ReadyApiAssertion assertion) {
+        return memoize(assertionTests, assertion.getContentKey(), assertion::toPostmanTest);
+    }
+
+    /**
+     * Get a memoized result, computing it on the calling thread the first time.
+     * <p>
+     * The map only holds the task, so the work runs without a lock on the map: other
+     * keys, even those in the same bin, stay available, and callers of the same key
+     * wait on the task instead. A failed task is removed, so a later call tries again.
+     */
+    private static <K> String memoize(ConcurrentMap<K, FutureTask<String>> memo, K key, Supplier<String> conversion) {
+        FutureTask<String> task = memo.get(key);
+        if (task == null) {
+            FutureTask<String> created = new FutureTask<>(conversion::get);
+            task = memo.putIfAbsent(key, created);
+            if (task == null) {
+                task = created;
+                created.run();
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a conversion");
+        } catch (ExecutionException e) {
+            memo.remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Conversion failed", cause);
+        }
+    }
+}
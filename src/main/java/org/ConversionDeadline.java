@@ -0,0 +1,119 @@
+package com.readyapi.converter;
+
+/**
+ * Time budget for converting one script.
+ * <p>
+ * Regular expressions can backtrack for a very long time on unlucky input, and
+ * {@link java.util.regex.Matcher} can't be interrupted. Instead, the text a rule
+ * matches against is wrapped by {@link #guard(CharSequence)}, whose {@code charAt}
+ * checks the clock every few thousand characters and throws {@link ExceededException}
+ * once the deadline has passed, which unwinds the matcher wherever it is.
+ */
+public final class ConversionDeadline {
+    /** A deadline that never passes. */
+    public static final ConversionDeadline NONE = new ConversionDeadline(0, Long.MAX_VALUE);
+
+    // Characters read between clock checks, minus one
+    private static final int CHECK_MASK = 0x3FFF;
+
+    private final long budgetMillis;
+    private final long deadlineNanos;
+
+    private ConversionDeadline(long budgetMillis, long deadlineNanos) {
+        this.budgetMillis = budgetMillis;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Start a budget now.
+     *
+     * @param budgetMillis The budget in milliseconds; 0 or less for no budget
+     * @return The deadline
+     */
+    public static ConversionDeadline after(long budgetMillis) {
+        if (budgetMillis <= 0) {
+            return NONE;
+        }
+        return new ConversionDeadline(budgetMillis, System.nanoTime() + budgetMillis * 1_000_000);
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * Throw if the deadline has passed.
+     *
+     * @throws ExceededException If the deadline has passed
+     */
+    public void check() {
+        if (this != NONE && System.nanoTime() - deadlineNanos > 0) {
+            throw new ExceededException(budgetMillis);
+        }
+    }
+
+    /**
+     * Wrap text so that reading it checks the deadline.
+     *
+     * @param text The text
+     * @return A view of the text, or the text itself if there is no budget
+     */
+    public CharSequence guard(CharSequence text) {
+        return this == NONE ? text : new GuardedText(text, this);
+    }
+
+    /**
+     * Thrown when a conversion runs past its deadline.
+     */
+    public static class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final long budgetMillis;
+
+        ExceededException(long budgetMillis) {
+            super("Script conversion exceeded its budget of " + budgetMillis + " ms");
+            this.budgetMillis = budgetMillis;
+        }
+
+        public long getBudgetMillis() {
+            return budgetMillis;
+        }
+    }
+
+    /**
+     * Text that checks a deadline as it is read.
+     */
+    private static final class GuardedText implements CharSequence {
+        private final CharSequence text;
+        private final ConversionDeadline deadline;
+        private int reads;
+
+        GuardedText(CharSequence text, ConversionDeadline deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & CHECK_MASK) == 0) {
+                deadline.check();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new GuardedText(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conversion cache that persists across runs.
+ * <p>
+ * Each converted script or assertion is stored in its own file under
+ * {@code entries/}, named by the SHA-256 hash of its namespace and source text.
+ * A fixed-slot index, {@code index.dat}, is memory-mapped and records the key, size
+ * and last access time of every entry, so opening the cache reads one small file and
+ * a hit costs a lookup plus a single file read. When the entries exceed the size cap,
+ * the least recently used ones are evicted.
+ * <p>
+ * The index header holds a version stamp. Opening a cache written with a different
+ * stamp, for example by an older converter, discards every entry. A cache directory
+ * is locked while open, so only one process uses it at a time.
+ */
+public class ConversionDiskCache implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ConversionDiskCache.class);
+
+    private static final String INDEX_FILE = "index.dat";
+    private static final String ENTRIES_DIRECTORY = "entries";
+    private static final String ENTRY_SUFFIX = ".js";
+
+    private static final int MAGIC = 0x52504343;
+    private static final int FORMAT = 1;
+    private static final int KEY_BYTES = 32;
+    // Header: magic, format, slot count, stamp hash
+    private static final int HEADER_BYTES = 4 + 4 + 4 + KEY_BYTES;
+    // Slot: key, last access millis, entry size, used flag
+    private static final int SLOT_BYTES = KEY_BYTES + 8 + 4 + 4;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Path directory;
+    private final Path entriesDirectory;
+    private final long maxBytes;
+    private final FileChannel indexChannel;
+    private final FileLock lock;
+    private MappedByteBuffer index;
+    private int slotCount;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Open a cache directory, creating it if needed.
+     *
+     * @param directory The cache directory
+     * @param maxBytes Total size of the entries above which the least recently used are evicted
+     * @param versionStamp Identifies the converter; entries written with another stamp are discarded
+     * @throws IOException If the directory can't be used, or is in use by another process
+     */
+    public ConversionDiskCache(Path directory, long maxBytes, String versionStamp) throws IOException {
+        this.directory = directory;
+        this.entriesDirectory = directory.resolve(ENTRIES_DIRECTORY);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(entriesDirectory);
+
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock acquired = indexChannel.tryLock();
+        if (acquired == null) {
+            indexChannel.close();
+            throw new IOException("Conversion cache is in use by another process: " + directory);
+        }
+        this.lock = acquired;
+
+        try {
+            byte[] stamp = sha256(versionStamp);
+            if (!load(stamp)) {
+                reset(stamp);
+            }
+            // The cap may be smaller than on the last run
+            evict();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        logger.info("Opened conversion cache {} with {} entries ({} KB)", directory, slots.size(), totalBytes / 1024);
+    }
+
+    /**
+     * Look up a conversion.
+     *
+     * @param namespace What the source is converted as, such as a script type and backend
+     * @param source The source text
+     * @return The cached conversion, or null on a miss
+     */
+    public String get(String namespace, String source) {
+        String key = key(namespace, source);
+        synchronized (this) {
+            Slot slot = slots.get(key);
+            if (slot == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            slot.lastAccess = System.currentTimeMillis();
+            index.putLong(slotOffset(slot.index) + KEY_BYTES, slot.lastAccess);
+        }
+
+        try {
+            String value = new String(Files.readAllBytes(entryPath(key)), StandardCharsets.UTF_8);
+            hits.incrementAndGet();
+            return value;
+        } catch (NoSuchFileException e) {
+            // Deleted behind our back
+            synchronized (this) {
+                remove(key);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read conversion cache entry {}: {}", key, e.getMessage());
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a conversion, evicting least recently used entries to stay under the size cap.
+     *
+     * @param namespace What the source is converted as, such as a script type and backend
+     * @param source The source text
+     * @param value The conversion
+     */
+    public void put(String namespace, String source, String value) {
+        String key = key(namespace, source);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        Path entry = entryPath(key);
+        try {
+            Path temporary = Files.createTempFile(entriesDirectory, key, ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write conversion cache entry {}: {}", key, e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            Slot slot = slots.get(key);
+            if (slot == null) {
+                slot = new Slot(allocateSlot());
+                slots.put(key, slot);
+            } else {
+                totalBytes -= slot.size;
+            }
+            slot.size = bytes.length;
+            slot.lastAccess = System.currentTimeMillis();
+            totalBytes += bytes.length;
+            writeSlot(slot.index, key, slot);
+            evict();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Log the hit, miss and eviction counts.
+     */
+    public void logStatistics() {
+        logger.info("Conversion disk cache: {} hits, {} misses, {} evicted, {} entries ({} KB) in {}",
+                hits.get(), misses.get(), evictions.get(), size(), getTotalBytes() / 1024, directory);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (index != null) {
+                index.force();
+            }
+        } finally {
+            index = null;
+            if (lock != null && lock.isValid()) {
+                lock.release();
+            }
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Read the index into memory.
+     *
+     * @return false if there is no usable index for this version stamp
+     */
+    private boolean load(byte[] stamp) throws IOException {
+        long fileSize = indexChannel.size();
+        if (fileSize < HEADER_BYTES) {
+            return false;
+        }
+        map(fileSize);
+        byte[] storedStamp = new byte[KEY_BYTES];
+        index.position(12);
+        index.get(storedStamp);
+        int storedSlots = index.getInt(8);
+        if (index.getInt(0) != MAGIC || index.getInt(4) != FORMAT || !Arrays.equals(stamp, storedStamp)
+                || fileSize < HEADER_BYTES + (long) storedSlots * SLOT_BYTES) {
+            logger.info("Conversion cache {} was written by another converter version, discarding it", directory);
+            return false;
+        }
+        slotCount = storedSlots;
+
+        List<Map.Entry<String, Slot>> used = new ArrayList<>();
+        byte[] keyBytes = new byte[KEY_BYTES];
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(i);
+            if (index.getInt(offset + KEY_BYTES + 12) == 0) {
+                freeSlots.add(i);
+                continue;
+            }
+            index.position(offset);
+            index.get(keyBytes);
+            Slot slot = new Slot(i);
+            slot.lastAccess = index.getLong(offset + KEY_BYTES);
+            slot.size = index.getInt(offset + KEY_BYTES + 8);
+            used.add(Map.entry(hex(keyBytes), slot));
+        }
+
+        // Rebuild the access order from the recorded access times
+        used.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<String, Slot> entry : used) {
+            slots.put(entry.getKey(), entry.getValue());
+            totalBytes += entry.getValue().size;
+        }
+        return true;
+    }
+
+    /**
+     * Discard every entry and write an empty index.
+     */
+    private void reset(byte[] stamp) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(entriesDirectory)) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        }
+        slots.clear();
+        freeSlots.clear();
+        totalBytes = 0;
+
+        indexChannel.truncate(0);
+        slotCount = INITIAL_SLOTS;
+        map(HEADER_BYTES + (long) slotCount * SLOT_BYTES);
+        index.putInt(0, MAGIC);
+        index.putInt(4, FORMAT);
+        index.putInt(8, slotCount);
+        index.position(12);
+        index.put(stamp);
+        for (int i = 0; i < slotCount; i++) {
+            freeSlots.add(i);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private int allocateSlot() {
+        if (freeSlots.isEmpty()) {
+            // Double the index; the new slots are zeroed, which marks them free
+            int oldCount = slotCount;
+            slotCount *= 2;
+            try {
+                index.force();
+                map(HEADER_BYTES + (long) slotCount * SLOT_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to grow conversion cache index", e);
+            }
+            index.putInt(8, slotCount);
+            for (int i = oldCount; i < slotCount; i++) {
+                freeSlots.add(i);
+            }
+        }
+        return freeSlots.poll();
+    }
+
+    private void writeSlot(int slotIndex, String key, Slot slot) {
+        int offset = slotOffset(slotIndex);
+        index.position(offset);
+        index.put(unhex(key));
+        index.putLong(offset + KEY_BYTES, slot.lastAccess);
+        index.putInt(offset + KEY_BYTES + 8, slot.size);
+        index.putInt(offset + KEY_BYTES + 12, 1);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Slot>> eldest = slots.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Slot> entry = eldest.next();
+            eldest.remove();
+            release(entry.getKey(), entry.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String key) {
+        Slot slot = slots.remove(key);
+        if (slot != null) {
+            release(key, slot);
+        }
+    }
+
+    private void release(String key, Slot slot) {
+        totalBytes -= slot.size;
+        index.putInt(slotOffset(slot.index) + KEY_BYTES + 12, 0);
+        freeSlots.add(slot.index);
+        try {
+            Files.deleteIfExists(entryPath(key));
+        } catch (IOException e) {
+            logger.warn("Failed to delete conversion cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path entryPath(String key) {
+        return entriesDirectory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static int slotOffset(int slotIndex) {
+        return HEADER_BYTES + slotIndex * SLOT_BYTES;
+    }
+
+    private static String key(String namespace, String source) {
+        return hex(sha256(namespace + '\0' + source));
+    }
+
+    private static byte[] sha256(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] unhex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * In-memory copy of an index slot.
+     */
+    private static final class Slot {
+        private final int index;
+        private int size;
+        private long lastAccess;
+
+        Slot(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.readyapi.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream that reads a decompressing source on a background thread.
+ * <p>
+ * The worker thread inflates the source into fixed-size chunks and hands them over
+ * through a bounded queue, so decompression overlaps with parsing while at most
+ * {@code QUEUE_CHUNKS} chunks are buffered in memory. Errors on the worker,
+ * whatever their type, are rethrown from {@link #read} as an {@link IOException}.
+ */
+class DecompressingInputStream extends InputStream {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int QUEUE_CHUNKS = 16;
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+    private final Thread worker;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private byte[] chunk;
+    private int position;
+    private boolean finished;
+
+    /**
+     * Start decompressing a source.
+     *
+     * @param source The decompressing stream, closed by the worker when it's done
+     * @param name Name of the source, used for the worker thread name
+     */
+    DecompressingInputStream(InputStream source, String name) {
+        this.worker = new Thread(() -> pump(source), "decompress-" + name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    private void pump(InputStream source) {
+        try (InputStream in = source) {
+            while (!closed) {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int count = in.readNBytes(buffer, 0, CHUNK_SIZE);
+                if (count <= 0) {
+                    break;
+                }
+                chunks.put(count == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, count));
+            }
+        } catch (InterruptedException e) {
+            // Closed by the reader
+        } catch (IOException e) {
+            failure = e;
+        } catch (Throwable e) {
+            // Runtime exceptions and errors too, or the reader would wait for a chunk that never comes
+            failure = new IOException("Decompression failed: " + e, e);
+        } finally {
+            if (!closed) {
+                try {
+                    chunks.put(END);
+                } catch (InterruptedException e) {
+                    // Closed by the reader
+                }
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk != null ? chunk.length - position : 0;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        chunks.clear();
+    }
+
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (!finished && (chunk == null || position == chunk.length)) {
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+            }
+            position = 0;
+            if (chunk == END) {
+                finished = true;
+                chunk = null;
+            }
+        }
+        if (finished && failure != null) {
+            throw failure;
+        }
+        return !finished;
+    }
+}
@@ -1,135 +1,608 @@
 package com.readyapi.converter;
 
+import com.readyapi.converter.GroovyMemberSplitter.Kind;
+import com.readyapi.converter.GroovyMemberSplitter.Member;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
+/**
+ * Converts Groovy script libraries to JavaScript for Postman.
+ * <p>
+ * A library is split into its classes and methods, and each method is translated
+ * on its own by {@link GroovyScriptTranslator}. Converted methods are cached by the
+ * hash of their source, in memory and in the persistent cache when there is one,
+ * so an edited library only converts the methods that changed. The methods of a
+ * large library are converted in parallel, one task per method.
+ */
 public class FunctionLibraryConverter {
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    // Leaves the caller's writer open
+    private static final ObjectWriter variableWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    
+    // Converted methods, shared by every library with the same method
+    private static final ScriptConversionCache METHOD_CACHE = new ScriptConversionCache("Library method cache");
+    
+    // Libraries with at least this many methods convert them in parallel
+    private static final int PARALLEL_METHODS = 8;
+    
+    // Fields holding the SoapUI objects, which Postman provides under other names
+    private static final Set<String> SANDBOX_FIELDS = new HashSet<>(Arrays.asList("log", "context", "testRunner"));
+    private static final Pattern FIELD_PATTERN = Pattern.compile("(?:[A-Za-z_][A-Za-z0-9_<>,.\\[\\]\\s]*\\s+)?([A-Za-z_][A-Za-z0-9_]*)\\s*;?");
+    private static final Pattern MODIFIERS_PATTERN = Pattern.compile(
+            "^(?:(?:public|private|protected|static|final|transient|volatile)\\s+)+");
+    private static final Pattern PRIVATE_PATTERN = Pattern.compile("\\bprivate\\b");
+    // this.<name> left in a converted method, where this isn't the class
+    private static final Pattern THIS_MEMBER_PATTERN = Pattern.compile("(?<![\\w$])this\\s*\\.\\s*([A-Za-z_$][\\w$]*)");
+    
+    // Stands for this in the methods of a class, which are called without a receiver
+    private static final String RECEIVER = "$this";
     
     public static String convertGroovyToJavaScript(String groovyScript) {
         try {
-            // Create a JavaScript class that mimics the Groovy functionality
             StringBuilder jsScript = new StringBuilder();
-            
-            // Add Postman environment setup and documentation
-            jsScript.append("// Function Library converted from ReadyAPI Groovy script\n");
-            jsScript.append("// Note: This is a Postman-compatible version of the original Groovy script\n\n");
-            
-            // Create the main class
-            jsScript.append("class FunctionLibrary {\n");
-            jsScript.append("    constructor(log, context, testRunner) {\n");
-            jsScript.append("        this.log = log;\n");
-            jsScript.append("        this.context = context;\n");
-            jsScript.append("        this.testRunner = testRunner;\n");
-            jsScript.append("    }\n\n");
-            
-            // Add runTestCaseMultipleTimes method
-            jsScript.append("    async runTestCaseMultipleTimes(testSuiteName, testCaseName, count) {\n");
-            jsScript.append("        try {\n");
-            jsScript.append("            const project = this.testRunner.testCase.testSuite.project;\n");
-            jsScript.append("            const tcase = project.testSuites[testSuiteName].testCases[testCaseName];\n");
-            jsScript.append("            const myContext = new Map(this.context);\n");
-            jsScript.append("            for (let i = 0; i < count; i++) {\n");
-            jsScript.append("                await tcase.run(myContext, false);\n");
-            jsScript.append("                this.log.info(`Running ${testCaseName} -- ${count}`);\n");
-            jsScript.append("            }\n");
-            jsScript.append("        } catch (e) {\n");
-            jsScript.append("            return e;\n");
-            jsScript.append("        }\n");
-            jsScript.append("    }\n\n");
-            
-            // Add enableDisableTestStep method
-            jsScript.append("    enableDisableTestStep(testStepName, enabled) {\n");
-            jsScript.append("        const testStep = this.testRunner.testCase.testSteps[testStepName];\n");
-            jsScript.append("        testStep.disabled = !enabled;\n");
-            jsScript.append("    }\n\n");
-            
-            // Add SignInAvion method
-            jsScript.append("    SignInAvion(cardNumber, env) {\n");
-            jsScript.append("        this.log.info(`Signing in with card number: ${cardNumber} in environment: ${env}`);\n");
-            jsScript.append("        const headers = new Map();\n");
-            jsScript.append("        const testSteps = this.context.testCase.getTestStepList();\n");
-            jsScript.append("        testSteps.forEach(step => {\n");
-            jsScript.append("            if (step.config.type === 'restrequest' && !['Signin', 'pvqvalidation', 'WIM'].includes(step.name)) {\n");
-            jsScript.append("                headers.set('Cookie', '');\n");
-            jsScript.append("                headers.set('Content-Type', 'application/xml');\n");
-            jsScript.append("                step.httpRequest.setRequestHeaders(headers);\n");
-            jsScript.append("                this.SetEndpoint(step);\n");
-            jsScript.append("            }\n");
-            jsScript.append("        });\n");
-            jsScript.append("        return 'JSESSIONID=ESC8BF5BFD9020E5E9D356334D6F7AEF';\n");
-            jsScript.append("    }\n\n");
-            
-            // Add MobiliserEnvType method
-            jsScript.append("    MobiliserEnvType() {\n");
-            jsScript.append("        return pm.variables.get('envType');\n");
-            jsScript.append("    }\n\n");
-            
-            // Add SetEndpoint method
-            jsScript.append("    SetEndpoint(testStep) {\n");
-            jsScript.append("        const endpoint = 'https://mobile.sterbcroyalbank.com';\n");
-            jsScript.append("        testStep.testRequest.endpoint = endpoint;\n");
-            jsScript.append("    }\n\n");
-            
-            // Add TestCaseFailureCheck method
-            jsScript.append("    TestCaseFailureCheck(testCase) {\n");
-            jsScript.append("        let result = true;\n");
-            jsScript.append("        testCase.getTestStepList().forEach(step => {\n");
-            jsScript.append("            if (step.assertionStatus.toString() === 'FAILED') {\n");
-            jsScript.append("                result = false;\n");
-            jsScript.append("            }\n");
-            jsScript.append("        });\n");
-            jsScript.append("        return result;\n");
-            jsScript.append("    }\n\n");
-            
-            // Add CreateLogFile method
-            jsScript.append("    CreateLogFile(fileName) {\n");
-            jsScript.append("        // In Postman, we'll use pm.variables to store log data\n");
-            jsScript.append("        const logKey = fileName || 'default_log';\n");
-            jsScript.append("        let logData = pm.variables.get(logKey);\n");
-            jsScript.append("        if (!logData) {\n");
-            jsScript.append("            logData = [];\n");
-            jsScript.append("            pm.variables.set(logKey, JSON.stringify(logData));\n");
-            jsScript.append("        }\n");
-            jsScript.append("        return logKey;\n");
-            jsScript.append("    }\n");
-            
-            jsScript.append("}\n\n");
-            
-            // Add initialization code
-            jsScript.append("// Initialize the function library\n");
-            jsScript.append("const functionLibrary = new FunctionLibrary(\n");
-            jsScript.append("    console, // log\n");
-            jsScript.append("    pm.variables, // context\n");
-            jsScript.append("    pm.testRunner // testRunner\n");
-            jsScript.append(");\n\n");
-            
-            // Export the library for use in other scripts
-            jsScript.append("// Export the library for use in other scripts\n");
-            jsScript.append("pm.functionLibrary = functionLibrary;\n");
-            
+            writeJavaScript(groovyScript, jsScript);
+            return jsScript.toString();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to convert Groovy script to JavaScript: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Convert a Groovy script library read from a reader, writing the JavaScript to
+     * an appendable.
+     * 
+     * @param groovyScript The Groovy script; read to the end but not closed
+     * @param out The appendable the JavaScript is written to
+     * @throws IOException If reading the script or writing the JavaScript fails
+     */
+    public static void convertGroovyToJavaScript(Reader groovyScript, Appendable out) throws IOException {
+        writeJavaScript(ScriptConverter.readFully(groovyScript), out);
+    }
+    
+    /**
+     * Convert a Groovy script library, keeping only some of its methods.
+     * 
+     * @param groovyScript The Groovy script
+     * @param functions Names of the methods to keep, in any class; the fields,
+     *                  statements and classes of the library are always kept
+     * @return The JavaScript
+     */
+    public static String convertGroovyToJavaScript(String groovyScript, Set<String> functions) {
+        try {
+            StringBuilder jsScript = new StringBuilder();
+            writeJavaScript(groovyScript, functions, jsScript);
             return jsScript.toString();
         } catch (Exception e) {
             throw new RuntimeException("Failed to convert Groovy script to JavaScript: " + e.getMessage(), e);
         }
     }
+    
+    static void writeJavaScript(CharSequence groovyScript, Appendable jsScript) throws IOException {
+        writeJavaScript(groovyScript, null, jsScript);
+    }
+    
+    private static void writeJavaScript(CharSequence groovyScript, Set<String> functions, Appendable jsScript) throws IOException {
+        List<Member> members = GroovyMemberSplitter.split(groovyScript);
+        
+        // Start converting the methods, one task per method for a large library
+        List<Member> methods = new ArrayList<>();
+        Map<Member, Receiver> receivers = new IdentityHashMap<>();
+        collectMethods(groovyScript, members, functions, null, methods, receivers);
+        Map<Member, ForkJoinTask<String>> conversions = new IdentityHashMap<>();
+        if (methods.size() >= PARALLEL_METHODS) {
+            for (Member method : methods) {
+                Receiver receiver = receivers.get(method);
+                conversions.put(method, ForkJoinPool.commonPool().submit(() -> convertMethod(groovyScript, method, receiver)));
+            }
+        }
+        
+        // Add Postman environment setup and documentation
+        jsScript.append("// Function Library converted from ReadyAPI Groovy script\n");
+        jsScript.append("// Note: This is a Postman-compatible version of the original Groovy script\n\n");
+        
+        // Whitespace at the end of the library isn't kept
+        Member last = members.isEmpty() ? null : members.get(members.size() - 1);
+        if (last != null && last.getKind() == Kind.TRIVIA
+                && groovyScript.subSequence(last.getStart(), last.getEnd()).toString().trim().isEmpty()) {
+            members = members.subList(0, members.size() - 1);
+        }
+        writeMembers(groovyScript, members, functions, null, receivers, conversions, jsScript);
+        
+        // Export the library for use in other scripts
+        String library = null;
+        for (Member member : members) {
+            if (member.getKind() == Kind.CLASS) {
+                library = member.getName();
+                break;
+            }
+        }
+        jsScript.append("\n\n// Export the library for use in other scripts\n");
+        jsScript.append("pm.functionLibrary = ").append(library != null ? library : exports(groovyScript, members, functions)).append(";\n");
+    }
+    
+    public static ScriptConversionCache getMethodCache() {
+        return METHOD_CACHE;
+    }
+    
+    /**
+     * Collect the kept methods, and for each class what its methods reach through
+     * {@code this}. The receiver of a class is mapped from the class and from each
+     * of its kept methods.
+     */
+    private static void collectMethods(CharSequence source, List<Member> members, Set<String> functions,
+            Receiver receiver, List<Member> methods, Map<Member, Receiver> receivers) {
+        for (Member member : members) {
+            if (member.getKind() == Kind.METHOD && isKept(member, functions)) {
+                methods.add(member);
+                if (receiver != null) {
+                    receivers.put(member, receiver);
+                    receiver.methods.add(member.getName());
+                }
+            } else if (member.getKind() == Kind.STATEMENT && receiver != null) {
+                String field = fieldName(source.subSequence(member.getCodeStart(), member.getEnd()).toString());
+                if (field != null) {
+                    (SANDBOX_FIELDS.contains(field) ? receiver.sandboxFields : receiver.fields).add(field);
+                }
+            } else if (member.getKind() == Kind.CLASS) {
+                Receiver classReceiver = new Receiver();
+                receivers.put(member, classReceiver);
+                collectMethods(source, member.getMembers(), functions, classReceiver, methods, receivers);
+                for (Member method : member.getMembers()) {
+                    if (receivers.get(method) == classReceiver
+                            && !routeReceiver(source.subSequence(method.getCodeStart(), method.getEnd()), classReceiver)
+                                    .contentEquals(source.subSequence(method.getCodeStart(), method.getEnd()))) {
+                        classReceiver.used = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * The name declared by a field statement, as in {@code private String baseUrl = "x"},
+     * or null if the statement doesn't declare one.
+     */
+    private static String fieldName(String statement) {
+        String declaration = MODIFIERS_PATTERN.matcher(statement).replaceFirst("");
+        int assignment = declaration.indexOf('=');
+        if (assignment >= 0 && (assignment + 1 == declaration.length() || declaration.charAt(assignment + 1) != '=')) {
+            declaration = declaration.substring(0, assignment).trim();
+        }
+        Matcher field = FIELD_PATTERN.matcher(declaration);
+        return field.matches() ? field.group(1) : null;
+    }
+    
+    private static boolean isKept(Member method, Set<String> functions) {
+        return functions == null || functions.contains(method.getName());
+    }
+    
+    /**
+     * Write the members of the library or of one class. Comments and whitespace
+     * between them are copied as they are; a class becomes a function scope holding
+     * its methods, so methods can keep calling each other without a receiver.
+     * Methods that aren't kept are left out with the comments before them, and
+     * overloaded methods are renamed and called through a function choosing one
+     * by the number of arguments.
+     * 
+     * @param owner The class whose members these are, or null for the library
+     */
+    private static void writeMembers(CharSequence source, List<Member> members, Set<String> functions, Member owner,
+            Map<Member, Receiver> receivers, Map<Member, ForkJoinTask<String>> conversions, Appendable out) throws IOException {
+        Map<String, List<Member>> overloads = new HashMap<>();
+        for (Member member : members) {
+            if (member.getKind() == Kind.METHOD && isKept(member, functions)) {
+                overloads.computeIfAbsent(member.getName(), name -> new ArrayList<>()).add(member);
+            }
+        }
+        overloads.values().removeIf(overloaded -> overloaded.size() < 2);
+        
+        for (Member member : members) {
+            if (member.getKind() == Kind.METHOD && !isKept(member, functions)) {
+                continue;
+            }
+            out.append(source, member.getStart(), member.getCodeStart());
+            switch (member.getKind()) {
+                case PACKAGE:
+                case IMPORT:
+                    out.append("// ").append(source, member.getCodeStart(), member.getEnd());
+                    break;
+                    
+                case CLASS:
+                    String indent = indentation(source, member.getCodeStart());
+                    out.append("const ").append(member.getName()).append(" = (function() {");
+                    Receiver receiver = receivers.get(member);
+                    if (receiver.used) {
+                        writeReceiver(receiver, indent + "    ", out);
+                    }
+                    writeMembers(source, member.getMembers(), functions, member, receivers, conversions, out);
+                    Member last = member.getMembers().isEmpty() ? null : member.getMembers().get(member.getMembers().size() - 1);
+                    if (last == null || last.getKind() != Kind.TRIVIA
+                            || !source.subSequence(last.getStart(), last.getEnd()).toString().contains("\n")) {
+                        out.append('\n').append(indent);
+                    }
+                    out.append("    return ").append(exports(source, member.getMembers(), functions)).append(";\n");
+                    out.append(indent).append("})();");
+                    break;
+                    
+                case METHOD:
+                    ForkJoinTask<String> conversion = conversions.get(member);
+                    String function = conversion != null ? conversion.join() : convertMethod(source, member, receivers.get(member));
+                    if (owner != null) {
+                        checkReceiver(owner, member, function, receivers.get(owner));
+                    }
+                    List<Member> overloaded = overloads.get(member.getName());
+                    if (overloaded == null) {
+                        out.append(function);
+                        break;
+                    }
+                    // Converted as function name(...
+                    int index = overloaded.indexOf(member) + 1;
+                    out.append("function ").append(member.getName()).append('$').append(String.valueOf(index))
+                            .append(function, "function ".length() + member.getName().length(), function.length());
+                    if (index == overloaded.size()) {
+                        writeDispatcher(source, overloaded, owner, indentation(source, member.getCodeStart()), out);
+                    }
+                    break;
+                    
+                case CONSTRUCTOR:
+                    out.append("// The constructor is kept as a comment: the class is converted to a set of functions\n");
+                    out.append(indentation(source, member.getCodeStart()));
+                    appendCommented(source, member.getCodeStart(), member.getEnd(), out);
+                    break;
+                    
+                case STATEMENT:
+                    String statement = source.subSequence(member.getCodeStart(), member.getEnd()).toString();
+                    Matcher field = FIELD_PATTERN.matcher(statement);
+                    if (field.matches() && SANDBOX_FIELDS.contains(field.group(1))) {
+                        // Declared for the SoapUI objects, which scripts reach through Postman instead
+                        out.append("// ").append(statement);
+                    } else {
+                        String declaration = MODIFIERS_PATTERN.matcher(statement).replaceFirst("");
+                        out.append(new GroovyScriptTranslator().translate(declaration, "library"));
+                    }
+                    break;
+                    
+                default:
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Convert a method to a JavaScript function, or take it from the caches if the
+     * same method was converted before, in this library, another one or an earlier run.
+     * 
+     * @param receiver What the method reaches through {@code this}, or null outside a class
+     */
+    private static String convertMethod(CharSequence source, Member method, Receiver receiver) {
+        CharSequence methodText = source.subSequence(method.getCodeStart(), method.getEnd());
+        // Cached by the routed text, which the function is translated from
+        String text = receiver != null ? routeReceiver(methodText, receiver) : methodText.toString();
+        return METHOD_CACHE.get(text, "library-method", () -> {
+            ConversionDiskCache cache = ScriptConverter.getDiskCache();
+            String function = cache != null ? cache.get("library-method", text) : null;
+            if (function == null) {
+                function = translateMethod(source, method, receiver);
+                if (cache != null) {
+                    cache.put("library-method", text, function);
+                }
+            }
+            return function;
+        });
+    }
+    
+    private static String translateMethod(CharSequence source, Member method, Receiver receiver) {
+        StringBuilder function = new StringBuilder(method.getEnd() - method.getCodeStart() + 32);
+        function.append("function ").append(method.getName()).append('(');
+        appendParameters(source.subSequence(method.getParametersStart(), method.getParametersEnd()), function);
+        function.append(") {");
+        CharSequence body = source.subSequence(method.getBodyStart(), method.getBodyEnd());
+        function.append(new GroovyScriptTranslator().translate(receiver != null ? routeReceiver(body, receiver) : body, "library"));
+        function.append('}');
+        return function.toString();
+    }
+    
+    /**
+     * Write a parameter list without its types, keeping default values and varargs.
+     * 
+     * @param out Where the parameters are written, or null to only count them
+     * @return The least and the most number of arguments the parameters take, the
+     *         most being -1 with varargs
+     */
+    private static int[] appendParameters(CharSequence parameters, StringBuilder out) {
+        GroovyLexer lexer = new GroovyLexer(parameters);
+        int depth = 0;
+        int defaultStart = -1;
+        String name = null;
+        boolean varargs = false;
+        boolean first = true;
+        int required = 0;
+        int most = 0;
+        while (true) {
+            GroovyLexer.Token token = lexer.next();
+            String text = parameters.subSequence(token.getStart(), token.getEnd()).toString();
+            boolean end = token.getType() == GroovyLexer.Type.EOF;
+            if (!end && token.getType() == GroovyLexer.Type.BRACKET) {
+                depth += "([{".contains(text) ? 1 : -1;
+            } else if (defaultStart < 0 && token.getType() == GroovyLexer.Type.OPERATOR) {
+                // Type arguments, as in Map<String, Object>
+                depth += "<".equals(text) ? 1 : ">".equals(text) ? -1 : 0;
+            }
+            if (end || (depth == 0 && ",".equals(text) && token.getType() == GroovyLexer.Type.OPERATOR)) {
+                if (name != null && out != null) {
+                    out.append(first ? "" : ", ").append(varargs ? "..." : "").append(name);
+                    if (defaultStart >= 0) {
+                        String defaultValue = parameters.subSequence(defaultStart, token.getStart()).toString().trim();
+                        out.append(" = ").append(new GroovyScriptTranslator().translate(defaultValue, "library"));
+                    }
+                }
+                if (name != null) {
+                    first = false;
+                    required += defaultStart < 0 && !varargs ? 1 : 0;
+                    most = varargs || most < 0 ? -1 : most + 1;
+                }
+                if (end) {
+                    return new int[] {required, most};
+                }
+                name = null;
+                varargs = false;
+                defaultStart = -1;
+            } else if (defaultStart < 0 && depth == 0) {
+                if (token.getType() == GroovyLexer.Type.IDENTIFIER) {
+                    name = text;
+                } else if ("...".equals(text)) {
+                    varargs = true;
+                } else if ("=".equals(text)) {
+                    defaultStart = token.getEnd();
+                }
+            }
+        }
+    }
+    
+    /**
+     * List the functions and classes of a scope as an object literal. Private
+     * methods are only called from within the scope, so they aren't listed.
+     */
+    private static String exports(CharSequence source, List<Member> members, Set<String> functions) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Member member : members) {
+            if ((member.getKind() == Kind.METHOD && isKept(member, functions)
+                    && !PRIVATE_PATTERN.matcher(source.subSequence(member.getCodeStart(), member.getParametersStart())).find())
+                    || member.getKind() == Kind.CLASS) {
+                names.add(member.getName());
+            }
+        }
+        return names.isEmpty() ? "{}" : "{ " + String.join(", ", names) + " }";
+    }
+    
+    /**
+     * Write the function choosing between the overloads of a method, which are
+     * converted as name$1, name$2 and so on. JavaScript doesn't know the types of
+     * the arguments, so the overloads can only be told apart by how many there are.
+     */
+    private static void writeDispatcher(CharSequence source, List<Member> overloaded, Member owner, String indent,
+            Appendable out) throws IOException {
+        String name = overloaded.get(0).getName();
+        out.append('\n').append(indent).append("function ").append(name).append("(...args) {");
+        List<int[]> arities = new ArrayList<>();
+        for (int i = 0; i < overloaded.size(); i++) {
+            Member method = overloaded.get(i);
+            int[] arity = appendParameters(source.subSequence(method.getParametersStart(), method.getParametersEnd()), null);
+            for (int[] earlier : arities) {
+                if ((earlier[1] < 0 || arity[0] <= earlier[1]) && (arity[1] < 0 || earlier[0] <= arity[1])) {
+                    ScriptConverter.reportConversionIssue("Library " + (owner != null ? "class " + owner.getName() : "script")
+                            + ": overloads of " + name + " take the same number of arguments; calls go to the first that fits");
+                    break;
+                }
+            }
+            arities.add(arity);
+            String condition = arity[1] < 0 ? "args.length >= " + arity[0]
+                    : arity[0] == arity[1] ? "args.length === " + arity[0]
+                    : "args.length >= " + arity[0] + " && args.length <= " + arity[1];
+            out.append('\n').append(indent).append("    if (").append(condition).append(") return ")
+                    .append(name).append('$').append(String.valueOf(i + 1)).append("(...args);");
+        }
+        out.append('\n').append(indent).append("    throw new Error(\"No overload of ").append(name)
+                .append(" takes \" + args.length + \" arguments\");");
+        out.append('\n').append(indent).append('}');
+    }
+    
+    /**
+     * Route {@code this.<member>} in the Groovy source of a method through the
+     * receiver object, for the fields and methods of its class. The SoapUI objects
+     * are reached without {@code this}, as the translation expects.
+     */
+    private static String routeReceiver(CharSequence text, Receiver receiver) {
+        StringBuilder routed = new StringBuilder(text.length() + 16);
+        GroovyLexer lexer = new GroovyLexer(text);
+        List<GroovyLexer.Token> tokens = new ArrayList<>();
+        for (GroovyLexer.Token token = lexer.next(); token.getType() != GroovyLexer.Type.EOF; token = lexer.next()) {
+            tokens.add(token);
+        }
+        int copied = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            GroovyLexer.Token token = tokens.get(i);
+            if (token.getType() != GroovyLexer.Type.IDENTIFIER || !"this".contentEquals(text.subSequence(token.getStart(), token.getEnd()))) {
+                continue;
+            }
+            int dot = nextSignificant(tokens, i + 1);
+            int next = dot < 0 ? -1 : nextSignificant(tokens, dot + 1);
+            if (next < 0 || !".".contentEquals(text.subSequence(tokens.get(dot).getStart(), tokens.get(dot).getEnd()))
+                    || tokens.get(next).getType() != GroovyLexer.Type.IDENTIFIER) {
+                continue;
+            }
+            GroovyLexer.Token name = tokens.get(next);
+            String member = text.subSequence(name.getStart(), name.getEnd()).toString();
+            if (receiver.sandboxFields.contains(member)) {
+                routed.append(text, copied, token.getStart());
+                copied = name.getStart();
+            } else if (receiver.fields.contains(member) || receiver.methods.contains(member)) {
+                routed.append(text, copied, token.getStart()).append(RECEIVER);
+                copied = token.getEnd();
+            }
+        }
+        return routed.append(text, copied, text.length()).toString();
+    }
+    
+    private static int nextSignificant(List<GroovyLexer.Token> tokens, int from) {
+        for (int i = from; i < tokens.size(); i++) {
+            if (tokens.get(i).isSignificant()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Write the receiver object of a class: accessors for its fields, which live in
+     * the function scope of the class, and its methods.
+     */
+    private static void writeReceiver(Receiver receiver, String indent, Appendable out) throws IOException {
+        out.append('\n').append(indent).append("// Stands for this in the methods, which are called without a receiver");
+        out.append('\n').append(indent).append("const ").append(RECEIVER).append(" = {");
+        List<String> properties = new ArrayList<>();
+        for (String field : receiver.fields) {
+            properties.add("get " + field + "() { return " + field + "; }");
+            properties.add("set " + field + "(value) { " + field + " = value; }");
+        }
+        properties.addAll(receiver.methods);
+        for (int i = 0; i < properties.size(); i++) {
+            out.append('\n').append(indent).append("    ").append(properties.get(i)).append(i + 1 < properties.size() ? "," : "");
+        }
+        out.append('\n').append(indent).append("};");
+    }
+    
+    /**
+     * Report a method still using {@code this} for a field of its class, as in a
+     * GString, where the other methods of the class wouldn't see the value.
+     */
+    private static void checkReceiver(Member owner, Member method, String function, Receiver receiver) {
+        Matcher member = THIS_MEMBER_PATTERN.matcher(function);
+        while (member.find()) {
+            if (receiver.fields.contains(member.group(1))) {
+                ScriptConverter.reportConversionIssue("Library class " + owner.getName() + ": method " + method.getName()
+                        + " uses this." + member.group(1) + ", which isn't the field the other methods use");
+                return;
+            }
+        }
+    }
+    
+    /**
+     * What the methods of a class reach through {@code this}.
+     */
+    private static final class Receiver {
+        final Set<String> fields = new LinkedHashSet<>();
+        final Set<String> sandboxFields = new HashSet<>();
+        final Set<String> methods = new LinkedHashSet<>();
+        // Whether any method uses this for one of them
+        boolean used;
+    }
+    
+    private static void appendCommented(CharSequence source, int start, int end, Appendable out) throws IOException {
+        int lineStart = start;
+        while (lineStart < end) {
+            int codeStart = lineStart;
+            while (codeStart < end && (source.charAt(codeStart) == ' ' || source.charAt(codeStart) == '\t')) {
+                codeStart++;
+            }
+            int lineEnd = codeStart;
+            while (lineEnd < end && source.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            out.append(source, lineStart, codeStart).append("// ").append(source, codeStart, lineEnd);
+            if (lineEnd < end) {
+                out.append('\n');
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+    
+    private static String indentation(CharSequence source, int position) {
+        int lineStart = position;
+        while (lineStart > 0 && (source.charAt(lineStart - 1) == ' ' || source.charAt(lineStart - 1) == '\t')) {
+            lineStart--;
+        }
+        return source.subSequence(lineStart, position).toString();
+    }
 
     public static String convertLibraryToPostmanVariable(String libraryName, String groovyScript) {
         try {
-            String jsScript = convertGroovyToJavaScript(groovyScript);
-            
-            Map<String, Object> libraryVar = new HashMap<>();
-            libraryVar.put("key", libraryName);
-            libraryVar.put("value", jsScript);
-            libraryVar.put("type", "string");
-            libraryVar.put("enabled", true);
-            
-            return objectMapper.writeValueAsString(libraryVar);
+            StringBuilder variable = new StringBuilder();
+            writeLibraryVariable(libraryName, groovyScript, variable);
+            return variable.toString();
         } catch (Exception e) {
             throw new RuntimeException("Failed to convert library to Postman variable: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Convert a Groovy script library read from a reader to a Postman variable,
+     * writing the variable's JSON to an appendable.
+     * 
+     * @param libraryName The variable name
+     * @param groovyScript The Groovy script; read to the end but not closed
+     * @param out The appendable the JSON is written to
+     * @throws IOException If reading the script or writing the JSON fails
+     */
+    public static void convertLibraryToPostmanVariable(String libraryName, Reader groovyScript, Appendable out) throws IOException {
+        writeLibraryVariable(libraryName, ScriptConverter.readFully(groovyScript), out);
+    }
+    
+    static void writeLibraryVariable(String libraryName, CharSequence groovyScript, Appendable out) throws IOException {
+        StringBuilder jsScript = new StringBuilder();
+        writeJavaScript(groovyScript, jsScript);
+        writeVariable(libraryName, jsScript.toString(), out);
+    }
+    
+    /**
+     * Write the Postman variable JSON of an already converted library.
+     */
+    static void writeVariable(String libraryName, String jsScript, Appendable out) throws IOException {
+        Map<String, Object> libraryVar = new HashMap<>();
+        libraryVar.put("key", libraryName);
+        libraryVar.put("value", jsScript);
+        libraryVar.put("type", "string");
+        libraryVar.put("enabled", true);
+        
+        variableWriter.writeValue(asWriter(out), libraryVar);
+    }
+    
+    private static Writer asWriter(Appendable out) {
+        if (out instanceof Writer) {
+            return (Writer) out;
+        }
+        return new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                out.append(CharBuffer.wrap(buffer, offset, length));
+            }
+            
+            @Override
+            public void flush() {
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+    }
 }
\ No newline at end of file
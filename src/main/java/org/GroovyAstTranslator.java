@@ -0,0 +1,836 @@
+package com.readyapi.converter;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ImportNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.AttributeExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.BitwiseNegationExpression;
+import org.codehaus.groovy.ast.expr.BooleanExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ClosureListExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.ElvisOperatorExpression;
+import org.codehaus.groovy.ast.expr.EmptyExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.GStringExpression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.expr.MapEntryExpression;
+import org.codehaus.groovy.ast.expr.MapExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.NotExpression;
+import org.codehaus.groovy.ast.expr.PostfixExpression;
+import org.codehaus.groovy.ast.expr.PrefixExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.TernaryExpression;
+import org.codehaus.groovy.ast.expr.TupleExpression;
+import org.codehaus.groovy.ast.expr.UnaryMinusExpression;
+import org.codehaus.groovy.ast.expr.UnaryPlusExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.AssertStatement;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.BreakStatement;
+import org.codehaus.groovy.ast.stmt.CaseStatement;
+import org.codehaus.groovy.ast.stmt.CatchStatement;
+import org.codehaus.groovy.ast.stmt.ContinueStatement;
+import org.codehaus.groovy.ast.stmt.DoWhileStatement;
+import org.codehaus.groovy.ast.stmt.EmptyStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ForStatement;
+import org.codehaus.groovy.ast.stmt.IfStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.ast.stmt.SwitchStatement;
+import org.codehaus.groovy.ast.stmt.ThrowStatement;
+import org.codehaus.groovy.ast.stmt.TryCatchStatement;
+import org.codehaus.groovy.ast.stmt.WhileStatement;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Translates Groovy step scripts to Postman JavaScript from the syntax tree built by
+ * the Groovy compiler.
+ * <p>
+ * Each script is compiled up to {@link Phases#CONVERSION}, which parses it and
+ * builds the AST without resolving classes, so scripts referring to SoapUI or
+ * ReadyAPI types still compile. The statements and expressions of the tree are then
+ * printed as JavaScript, with SoapUI object paths mapped like
+ * {@link GroovyScriptTranslator} maps them. Comments and the original layout aren't
+ * part of the tree and are not kept.
+ * <p>
+ * Parsed trees are cached by the SHA-256 hash of the script text, so a script
+ * shared by many steps is compiled once. Trees are only read after they are built,
+ * so a translator can be shared between threads.
+ */
+public class GroovyAstTranslator {
+    private static final Logger logger = LoggerFactory.getLogger(GroovyAstTranslator.class);
+
+    private static final String INDENT = "    ";
+    private static final Map<String, String> CLOSURE_METHODS = new HashMap<>();
+
+    static {
+        CLOSURE_METHODS.put("each", "forEach");
+        CLOSURE_METHODS.put("eachWithIndex", "forEach");
+        CLOSURE_METHODS.put("collect", "map");
+        CLOSURE_METHODS.put("findAll", "filter");
+        CLOSURE_METHODS.put("find", "find");
+        CLOSURE_METHODS.put("any", "some");
+        CLOSURE_METHODS.put("every", "every");
+    }
+
+    private final Map<String, ParsedScript> astCache = new ConcurrentHashMap<>();
+
+    /**
+     * The result of translating one script.
+     */
+    public static final class Translation {
+        private final String script;
+        private final List<String> imports;
+
+        Translation(String script, List<String> imports) {
+            this.script = script;
+            this.imports = imports;
+        }
+
+        public String getScript() {
+            return script;
+        }
+
+        /**
+         * @return Imports such as "import groovy.json.JsonSlurper"
+         */
+        public List<String> getImports() {
+            return imports;
+        }
+    }
+
+    /**
+     * Translate a script.
+     *
+     * @param script The Groovy script
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @return The translation, or null if the script doesn't compile
+     */
+    public Translation translate(String script, String scriptType) {
+        return translate(script, scriptType, ConversionDeadline.NONE);
+    }
+
+    /**
+     * Translate a script within a deadline, checked before each statement is
+     * printed. Parsing isn't covered: the Groovy parser reads the whole script at once.
+     *
+     * @param script The Groovy script
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @param deadline The deadline
+     * @return The translation, or null if the script doesn't compile
+     * @throws ConversionDeadline.ExceededException If the deadline passes while printing
+     */
+    public Translation translate(String script, String scriptType, ConversionDeadline deadline) {
+        ModuleNode module = parse(script);
+        if (module == null) {
+            return null;
+        }
+
+        List<String> imports = new ArrayList<>();
+        for (ImportNode importNode : module.getImports()) {
+            imports.add("import " + importNode.getClassName());
+        }
+        for (ImportNode importNode : module.getStarImports()) {
+            imports.add("import " + importNode.getPackageName() + "*");
+        }
+
+        Printer printer = new Printer(scriptType, imports.stream().anyMatch(ScriptConverter.FUNCTION_LIBRARY_IMPORTS::contains), deadline);
+        for (MethodNode method : module.getMethods()) {
+            printer.printMethod(method);
+        }
+        for (ClassNode classNode : module.getClasses()) {
+            if (!classNode.isScript()) {
+                printer.line("// WARNING: class " + classNode.getNameWithoutPackage() + " is not supported in Postman");
+            }
+        }
+        for (Statement statement : module.getStatementBlock().getStatements()) {
+            printer.printStatement(statement);
+        }
+        String translated = printer.toString();
+        if (translated.endsWith("\n")) {
+            translated = translated.substring(0, translated.length() - 1);
+        }
+        return new Translation(translated, imports);
+    }
+
+    /**
+     * Parse a script, or take its tree from the cache.
+     *
+     * @param script The Groovy script
+     * @return The module, or null if the script doesn't compile
+     */
+    ModuleNode parse(String script) {
+        return astCache.computeIfAbsent(ScriptConversionCache.hash(script), key -> compile(key, script)).module;
+    }
+
+    public int getCachedCount() {
+        return astCache.size();
+    }
+
+    public void clearCache() {
+        astCache.clear();
+    }
+
+    private static ParsedScript compile(String key, String script) {
+        CompilationUnit unit = new CompilationUnit(new CompilerConfiguration());
+        SourceUnit source = unit.addSource("Script_" + key.substring(0, 12) + ".groovy", script);
+        try {
+            unit.compile(Phases.CONVERSION);
+            return new ParsedScript(source.getAST());
+        } catch (CompilationFailedException e) {
+            logger.debug("Script doesn't compile, falling back to the lexer: {}", e.getMessage());
+            return new ParsedScript(null);
+        }
+    }
+
+    /**
+     * A cache entry; the module is null for scripts that don't compile.
+     */
+    private static final class ParsedScript {
+        private final ModuleNode module;
+
+        ParsedScript(ModuleNode module) {
+            this.module = module;
+        }
+    }
+
+    /**
+     * Prints the statements and expressions of one script.
+     */
+    private static final class Printer {
+        private final String scriptType;
+        // Whether new FunctionLibrary(...) is the sandbox global; the parse doesn't resolve imports
+        private final boolean functionLibraryImported;
+        private final ConversionDeadline deadline;
+        private final StringBuilder out = new StringBuilder();
+        private int depth;
+
+        Printer(String scriptType, boolean functionLibraryImported, ConversionDeadline deadline) {
+            this.scriptType = scriptType;
+            this.functionLibraryImported = functionLibraryImported;
+            this.deadline = deadline;
+        }
+
+        void line(String text) {
+            indent();
+            out.append(text).append('\n');
+        }
+
+        private void indent() {
+            for (int i = 0; i < depth; i++) {
+                out.append(INDENT);
+            }
+        }
+
+        void printMethod(MethodNode method) {
+            indent();
+            out.append("function ").append(method.getName()).append('(').append(parameters(method.getParameters())).append(") ");
+            printBlock(method.getCode(), true);
+            out.append('\n');
+        }
+
+        /**
+         * Print a statement as a braced block, starting on the current line.
+         *
+         * @param implicitReturn Whether the last expression is the value of the block, as in closures
+         */
+        private void printBlock(Statement statement, boolean implicitReturn) {
+            out.append("{\n");
+            depth++;
+            List<Statement> statements = statement instanceof BlockStatement
+                    ? ((BlockStatement) statement).getStatements()
+                    : Collections.singletonList(statement);
+            for (int i = 0; i < statements.size(); i++) {
+                Statement child = statements.get(i);
+                if (implicitReturn && i == statements.size() - 1 && child instanceof ExpressionStatement
+                        && !(((ExpressionStatement) child).getExpression() instanceof DeclarationExpression)) {
+                    line("return " + expression(((ExpressionStatement) child).getExpression()) + ";");
+                } else {
+                    printStatement(child);
+                }
+            }
+            depth--;
+            indent();
+            out.append('}');
+        }
+
+        void printStatement(Statement statement) {
+            deadline.check();
+            if (statement instanceof BlockStatement) {
+                for (Statement child : ((BlockStatement) statement).getStatements()) {
+                    printStatement(child);
+                }
+            } else if (statement instanceof ExpressionStatement) {
+                line(expression(((ExpressionStatement) statement).getExpression()) + ";");
+            } else if (statement instanceof ReturnStatement) {
+                Expression value = ((ReturnStatement) statement).getExpression();
+                boolean empty = value instanceof ConstantExpression && ((ConstantExpression) value).isNullExpression();
+                line(empty ? "return;" : "return " + expression(value) + ";");
+            } else if (statement instanceof IfStatement) {
+                printIf((IfStatement) statement);
+            } else if (statement instanceof ForStatement) {
+                printFor((ForStatement) statement);
+            } else if (statement instanceof WhileStatement) {
+                WhileStatement loop = (WhileStatement) statement;
+                indent();
+                out.append("while (").append(expression(loop.getBooleanExpression().getExpression())).append(") ");
+                printBlock(loop.getLoopBlock(), false);
+                out.append('\n');
+            } else if (statement instanceof DoWhileStatement) {
+                DoWhileStatement loop = (DoWhileStatement) statement;
+                indent();
+                out.append("do ");
+                printBlock(loop.getLoopBlock(), false);
+                out.append(" while (").append(expression(loop.getBooleanExpression().getExpression())).append(");\n");
+            } else if (statement instanceof TryCatchStatement) {
+                printTry((TryCatchStatement) statement);
+            } else if (statement instanceof SwitchStatement) {
+                printSwitch((SwitchStatement) statement);
+            } else if (statement instanceof ThrowStatement) {
+                line("throw " + expression(((ThrowStatement) statement).getExpression()) + ";");
+            } else if (statement instanceof AssertStatement) {
+                AssertStatement assertion = (AssertStatement) statement;
+                Expression message = assertion.getMessageExpression();
+                boolean hasMessage = !(message instanceof ConstantExpression && ((ConstantExpression) message).isNullExpression());
+                line("pm.expect(" + expression(assertion.getBooleanExpression().getExpression())
+                        + (hasMessage ? ", " + expression(message) : "") + ").to.be.true;");
+            } else if (statement instanceof BreakStatement) {
+                String label = ((BreakStatement) statement).getLabel();
+                line(label != null ? "break " + label + ";" : "break;");
+            } else if (statement instanceof ContinueStatement) {
+                String label = ((ContinueStatement) statement).getLabel();
+                line(label != null ? "continue " + label + ";" : "continue;");
+            } else if (!(statement instanceof EmptyStatement)) {
+                line("// WARNING: unsupported Groovy statement: " + statement.getClass().getSimpleName());
+            }
+        }
+
+        private void printIf(IfStatement statement) {
+            indent();
+            while (true) {
+                out.append("if (").append(expression(statement.getBooleanExpression().getExpression())).append(") ");
+                printBlock(statement.getIfBlock(), false);
+                Statement elseBlock = statement.getElseBlock();
+                if (elseBlock instanceof IfStatement) {
+                    out.append(" else ");
+                    statement = (IfStatement) elseBlock;
+                } else {
+                    if (!(elseBlock instanceof EmptyStatement) && elseBlock != null) {
+                        out.append(" else ");
+                        printBlock(elseBlock, false);
+                    }
+                    out.append('\n');
+                    return;
+                }
+            }
+        }
+
+        private void printFor(ForStatement statement) {
+            indent();
+            Expression collection = statement.getCollectionExpression();
+            if (collection instanceof ClosureListExpression) {
+                // Classic for (init; condition; update) loop
+                List<Expression> parts = ((ClosureListExpression) collection).getExpressions();
+                out.append("for (");
+                for (int i = 0; i < parts.size(); i++) {
+                    if (i > 0) {
+                        out.append("; ");
+                    }
+                    if (!(parts.get(i) instanceof EmptyExpression)) {
+                        out.append(expression(parts.get(i)));
+                    }
+                }
+                out.append(") ");
+            } else {
+                out.append("for (const ").append(statement.getVariable().getName()).append(" of ")
+                        .append(expression(collection)).append(") ");
+            }
+            printBlock(statement.getLoopBlock(), false);
+            out.append('\n');
+        }
+
+        private void printTry(TryCatchStatement statement) {
+            indent();
+            out.append("try ");
+            printBlock(statement.getTryStatement(), false);
+            List<CatchStatement> catches = statement.getCatchStatements();
+            if (!catches.isEmpty()) {
+                // JavaScript has a single untyped catch clause
+                out.append(" catch (").append(catches.get(0).getVariable().getName()).append(") ");
+                printBlock(catches.get(0).getCode(), false);
+            }
+            Statement finallyStatement = statement.getFinallyStatement();
+            if (finallyStatement != null && !(finallyStatement instanceof EmptyStatement)
+                    && !(finallyStatement instanceof BlockStatement && ((BlockStatement) finallyStatement).isEmpty())) {
+                out.append(" finally ");
+                printBlock(finallyStatement, false);
+            }
+            out.append('\n');
+        }
+
+        private void printSwitch(SwitchStatement statement) {
+            indent();
+            out.append("switch (").append(expression(statement.getExpression())).append(") {\n");
+            depth++;
+            for (CaseStatement caseStatement : statement.getCaseStatements()) {
+                line("case " + expression(caseStatement.getExpression()) + ":");
+                depth++;
+                printStatement(caseStatement.getCode());
+                depth--;
+            }
+            if (!(statement.getDefaultStatement() instanceof EmptyStatement)) {
+                line("default:");
+                depth++;
+                printStatement(statement.getDefaultStatement());
+                depth--;
+            }
+            depth--;
+            line("}");
+        }
+
+        String expression(Expression expression) {
+            if (expression instanceof DeclarationExpression) {
+                DeclarationExpression declaration = (DeclarationExpression) expression;
+                String target = declaration.isMultipleAssignmentDeclaration()
+                        ? "[" + arguments(declaration.getTupleExpression()) + "]"
+                        : declaration.getVariableExpression().getName();
+                if (declaration.getRightExpression() instanceof EmptyExpression) {
+                    return "let " + target;
+                }
+                return "let " + target + " = " + expression(declaration.getRightExpression());
+            }
+            if (expression instanceof BinaryExpression) {
+                return binary((BinaryExpression) expression);
+            }
+            if (expression instanceof MethodCallExpression) {
+                return methodCall((MethodCallExpression) expression);
+            }
+            if (expression instanceof StaticMethodCallExpression) {
+                StaticMethodCallExpression call = (StaticMethodCallExpression) expression;
+                return call(call.getMethod(), call.getArguments());
+            }
+            if (expression instanceof ConstructorCallExpression) {
+                return constructorCall((ConstructorCallExpression) expression);
+            }
+            if (expression instanceof PropertyExpression) {
+                return property((PropertyExpression) expression);
+            }
+            if (expression instanceof VariableExpression) {
+                String name = ((VariableExpression) expression).getName();
+                String mapped = GroovyScriptTranslator.mapPath(name, scriptType);
+                return mapped != null ? mapped : "this".equals(name) ? "this" : name;
+            }
+            if (expression instanceof GStringExpression) {
+                return gString((GStringExpression) expression);
+            }
+            if (expression instanceof ConstantExpression) {
+                return constant(((ConstantExpression) expression).getValue());
+            }
+            if (expression instanceof ClosureExpression) {
+                return closure((ClosureExpression) expression, true);
+            }
+            if (expression instanceof MapExpression) {
+                StringBuilder map = new StringBuilder("{");
+                for (MapEntryExpression entry : ((MapExpression) expression).getMapEntryExpressions()) {
+                    if (map.length() > 1) {
+                        map.append(", ");
+                    }
+                    Expression key = entry.getKeyExpression();
+                    map.append(key instanceof ConstantExpression ? constant(((ConstantExpression) key).getValue())
+                            : "[" + expression(key) + "]");
+                    map.append(": ").append(expression(entry.getValueExpression()));
+                }
+                return map.append('}').toString();
+            }
+            if (expression instanceof ListExpression) {
+                return "[" + list(((ListExpression) expression).getExpressions()) + "]";
+            }
+            if (expression instanceof ElvisOperatorExpression) {
+                ElvisOperatorExpression elvis = (ElvisOperatorExpression) expression;
+                return "(" + expression(elvis.getTrueExpression()) + " || " + expression(elvis.getFalseExpression()) + ")";
+            }
+            if (expression instanceof TernaryExpression) {
+                TernaryExpression ternary = (TernaryExpression) expression;
+                return "(" + expression(ternary.getBooleanExpression().getExpression()) + " ? "
+                        + expression(ternary.getTrueExpression()) + " : " + expression(ternary.getFalseExpression()) + ")";
+            }
+            if (expression instanceof NotExpression) {
+                return "!" + operand(((NotExpression) expression).getExpression());
+            }
+            if (expression instanceof BooleanExpression) {
+                return expression(((BooleanExpression) expression).getExpression());
+            }
+            if (expression instanceof UnaryMinusExpression) {
+                return "-" + operand(((UnaryMinusExpression) expression).getExpression());
+            }
+            if (expression instanceof UnaryPlusExpression) {
+                return "+" + operand(((UnaryPlusExpression) expression).getExpression());
+            }
+            if (expression instanceof BitwiseNegationExpression) {
+                return "~" + operand(((BitwiseNegationExpression) expression).getExpression());
+            }
+            if (expression instanceof PrefixExpression) {
+                PrefixExpression prefix = (PrefixExpression) expression;
+                return prefix.getOperation().getText() + expression(prefix.getExpression());
+            }
+            if (expression instanceof PostfixExpression) {
+                PostfixExpression postfix = (PostfixExpression) expression;
+                return expression(postfix.getExpression()) + postfix.getOperation().getText();
+            }
+            if (expression instanceof CastExpression) {
+                return expression(((CastExpression) expression).getExpression());
+            }
+            if (expression instanceof ClassExpression) {
+                return ((ClassExpression) expression).getType().getNameWithoutPackage();
+            }
+            if (expression instanceof TupleExpression) {
+                return arguments(expression);
+            }
+            if (expression instanceof EmptyExpression) {
+                return "";
+            }
+            return "undefined /* WARNING: unsupported Groovy expression: " + expression.getText().replace("*/", "* /") + " */";
+        }
+
+        private String binary(BinaryExpression binary) {
+            String operator = binary.getOperation().getText();
+            String left = operand(binary.getLeftExpression());
+            String right = operand(binary.getRightExpression());
+            switch (operator) {
+                case "[":
+                    return left + "[" + expression(binary.getRightExpression()) + "]";
+                case "==~":
+                    return "new RegExp('^(?:' + " + right + " + ')$').test(" + left + ")";
+                case "=~":
+                    return left + ".match(new RegExp(" + right + "))";
+                case "in":
+                    return right + ".includes(" + left + ")";
+                case "?:":
+                    return "(" + left + " || " + right + ")";
+                case "=":
+                    return expression(binary.getLeftExpression()) + " = " + expression(binary.getRightExpression());
+                default:
+                    return left + " " + operator + " " + right;
+            }
+        }
+
+        /**
+         * Print a subexpression, in parentheses when it's a binary expression of its own.
+         */
+        private String operand(Expression expression) {
+            String text = expression(expression);
+            boolean compound = expression instanceof BinaryExpression
+                    && !"[".equals(((BinaryExpression) expression).getOperation().getText());
+            return compound ? "(" + text + ")" : text;
+        }
+
+        private String methodCall(MethodCallExpression call) {
+            String method = call.getMethodAsString();
+            Expression receiver = call.getObjectExpression();
+            List<Expression> arguments = argumentList(call.getArguments());
+            if (method == null) {
+                return "undefined /* WARNING: dynamic method call " + call.getText().replace("*/", "* /") + " */";
+            }
+            if (call.isImplicitThis()) {
+                return call(method, call.getArguments());
+            }
+
+            // SoapUI object paths, such as testRunner.testCase.testSuite.project.getPropertyValue
+            String path = path(receiver);
+            if (path != null) {
+                String mapped = GroovyScriptTranslator.mapPath(path + "." + method, scriptType);
+                if (mapped != null) {
+                    return mapped + "(" + list(arguments) + ")";
+                }
+            }
+
+            if (receiver instanceof ConstructorCallExpression
+                    && "JsonSlurper".equals(((ConstructorCallExpression) receiver).getType().getNameWithoutPackage())
+                    && ("parseText".equals(method) || "parse".equals(method))) {
+                return "JSON.parse(" + list(arguments) + ")";
+            }
+            if (receiver instanceof ConstructorCallExpression
+                    && "XmlSlurper".equals(((ConstructorCallExpression) receiver).getType().getNameWithoutPackage())) {
+                return "undefined /* WARNING: XmlSlurper is not supported in Postman. Use pm.response.text() and parse manually. */";
+            }
+
+            String target = operand(receiver);
+            String dot = call.isSafe() ? "?." : ".";
+            String closureMethod = CLOSURE_METHODS.get(method);
+            if (closureMethod != null && arguments.size() == 1 && arguments.get(0) instanceof ClosureExpression) {
+                boolean returnsValue = !"forEach".equals(closureMethod);
+                return target + dot + closureMethod + "(" + closure((ClosureExpression) arguments.get(0), returnsValue) + ")";
+            }
+            if (call.isSpreadSafe()) {
+                return target + ".map((it) => it." + method + "(" + list(arguments) + "))";
+            }
+
+            switch (method) {
+                case "size":
+                    if (arguments.isEmpty()) {
+                        return target + dot + "length";
+                    }
+                    break;
+                case "contains":
+                    return target + dot + "includes(" + list(arguments) + ")";
+                case "matches":
+                    if (arguments.size() == 1) {
+                        return "new RegExp('^(?:' + " + expression(arguments.get(0)) + " + ')$').test(" + target + ")";
+                    }
+                    break;
+                case "replaceAll":
+                    if (arguments.size() == 2) {
+                        return target + dot + "replace(new RegExp(" + expression(arguments.get(0)) + ", 'g'), "
+                                + expression(arguments.get(1)) + ")";
+                    }
+                    break;
+                case "toInteger":
+                    return "parseInt(" + target + ", 10)";
+                case "toDouble":
+                case "toBigDecimal":
+                    return "parseFloat(" + target + ")";
+                default:
+                    break;
+            }
+            return target + dot + method + "(" + list(arguments) + ")";
+        }
+
+        /**
+         * Print a call without a receiver, such as println or assertEquals.
+         */
+        private String call(String method, Expression argumentExpression) {
+            List<Expression> arguments = argumentList(argumentExpression);
+            String mapped = GroovyScriptTranslator.mapPath(method, scriptType);
+            if (mapped != null) {
+                return mapped + "(" + list(arguments) + ")";
+            }
+            switch (method) {
+                case "print":
+                    return "console.log(" + list(arguments) + ")";
+                case "assertEquals":
+                    if (arguments.size() == 2) {
+                        return "pm.expect(" + expression(arguments.get(1)) + ").to.equal(" + expression(arguments.get(0)) + ")";
+                    }
+                    break;
+                case "assertNotNull":
+                    return "pm.expect(" + list(arguments) + ").to.not.be.null";
+                case "assertNull":
+                    return "pm.expect(" + list(arguments) + ").to.be.null";
+                case "assertTrue":
+                    return "pm.expect(" + list(arguments) + ").to.be.true";
+                case "assertFalse":
+                    return "pm.expect(" + list(arguments) + ").to.be.false";
+                case "sleep":
+                    return "setTimeout(() => {}, " + list(arguments) + ")";
+                case "random":
+                    return "Math.floor(Math.random() * (" + list(arguments) + "))";
+                default:
+                    break;
+            }
+            return method + "(" + list(arguments) + ")";
+        }
+
+        private String constructorCall(ConstructorCallExpression call) {
+            String type = call.getType().getName();
+            switch (call.getType().getNameWithoutPackage()) {
+                case "FunctionLibrary":
+                    if (type.startsWith("soapui.utils.") || (functionLibraryImported && type.equals("FunctionLibrary"))) {
+                        return ScriptConverter.FUNCTION_LIBRARY;
+                    }
+                    break;
+                case "Date":
+                    return "new Date(" + arguments(call.getArguments()) + ")";
+                case "ArrayList":
+                case "LinkedList":
+                    return "[]";
+                case "HashMap":
+                case "LinkedHashMap":
+                    return "{}";
+                case "StringBuilder":
+                case "StringBuffer":
+                    return "String(" + arguments(call.getArguments()) + ")";
+                case "HTTPBuilder":
+                    return "undefined /* WARNING: HTTPBuilder is not supported in Postman. Use pm.sendRequest() instead. */";
+                default:
+                    break;
+            }
+            return "new " + call.getType().getNameWithoutPackage() + "(" + arguments(call.getArguments()) + ")";
+        }
+
+        private String property(PropertyExpression property) {
+            String path = path(property);
+            if (path != null) {
+                String mapped = GroovyScriptTranslator.mapPath(path, scriptType);
+                if (mapped != null) {
+                    return mapped;
+                }
+            }
+            String target = operand(property.getObjectExpression());
+            String name = property.getPropertyAsString();
+            if (name == null) {
+                return target + "[" + expression(property.getProperty()) + "]";
+            }
+            if (property.isSpreadSafe()) {
+                return target + ".map((it) => it." + name + ")";
+            }
+            // XML attribute access, as in node.@id, reads a property too
+            return target + (property.isSafe() ? "?." : ".") + name;
+        }
+
+        /**
+         * @return The dotted name of a chain of variables and properties, or null for other expressions
+         */
+        private String path(Expression expression) {
+            if (expression instanceof VariableExpression) {
+                return ((VariableExpression) expression).getName();
+            }
+            if (expression instanceof PropertyExpression && !(expression instanceof AttributeExpression)) {
+                PropertyExpression property = (PropertyExpression) expression;
+                String name = property.getPropertyAsString();
+                String parent = path(property.getObjectExpression());
+                return parent != null && name != null && !property.isSpreadSafe() ? parent + "." + name : null;
+            }
+            return null;
+        }
+
+        /**
+         * Print a closure as an arrow function.
+         *
+         * @param returnsValue Whether the closure's last expression is its value
+         */
+        private String closure(ClosureExpression closure, boolean returnsValue) {
+            Parameter[] parameters = closure.getParameters();
+            String header = "(" + (parameters == null || parameters.length == 0 ? "it" : parameters(parameters)) + ") => ";
+
+            Statement code = closure.getCode();
+            List<Statement> statements = code instanceof BlockStatement
+                    ? ((BlockStatement) code).getStatements() : Collections.singletonList(code);
+            if (returnsValue && statements.size() == 1 && statements.get(0) instanceof ExpressionStatement) {
+                return header + "(" + expression(((ExpressionStatement) statements.get(0)).getExpression()) + ")";
+            }
+
+            Printer body = new Printer(scriptType, functionLibraryImported, deadline);
+            body.depth = depth;
+            body.printBlock(code, returnsValue);
+            return header + body;
+        }
+
+        private String parameters(Parameter[] parameters) {
+            StringBuilder names = new StringBuilder();
+            for (Parameter parameter : parameters) {
+                if (names.length() > 0) {
+                    names.append(", ");
+                }
+                names.append(parameter.getName());
+                if (parameter.hasInitialExpression()) {
+                    names.append(" = ").append(expression(parameter.getInitialExpression()));
+                }
+            }
+            return names.toString();
+        }
+
+        private String gString(GStringExpression gString) {
+            StringBuilder template = new StringBuilder("`");
+            List<ConstantExpression> strings = gString.getStrings();
+            List<Expression> values = gString.getValues();
+            for (int i = 0; i < strings.size(); i++) {
+                String text = String.valueOf(strings.get(i).getValue());
+                template.append(text.replace("\\", "\\\\").replace("`", "\\`").replace("${", "\\${"));
+                if (i < values.size()) {
+                    template.append("${").append(expression(values.get(i))).append('}');
+                }
+            }
+            for (int i = strings.size(); i < values.size(); i++) {
+                template.append("${").append(expression(values.get(i))).append('}');
+            }
+            return template.append('`').toString();
+        }
+
+        private String constant(Object value) {
+            if (value == null) {
+                return "null";
+            }
+            if (value instanceof String || value instanceof Character) {
+                String text = value.toString();
+                StringBuilder quoted = new StringBuilder(text.length() + 2).append('\'');
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    switch (c) {
+                        case '\'':
+                            quoted.append("\\'");
+                            break;
+                        case '\\':
+                            quoted.append("\\\\");
+                            break;
+                        case '\n':
+                            quoted.append("\\n");
+                            break;
+                        case '\r':
+                            quoted.append("\\r");
+                            break;
+                        case '\t':
+                            quoted.append("\\t");
+                            break;
+                        default:
+                            quoted.append(c);
+                            break;
+                    }
+                }
+                return quoted.append('\'').toString();
+            }
+            return value.toString();
+        }
+
+        private String arguments(Expression arguments) {
+            return list(argumentList(arguments));
+        }
+
+        private List<Expression> argumentList(Expression arguments) {
+            // Named arguments arrive as a tuple holding a single map
+            if (arguments instanceof TupleExpression) {
+                return ((TupleExpression) arguments).getExpressions();
+            }
+            return Collections.singletonList(arguments);
+        }
+
+        private String list(List<Expression> expressions) {
+            StringBuilder list = new StringBuilder();
+            for (Expression expression : expressions) {
+                if (list.length() > 0) {
+                    list.append(", ");
+                }
+                list.append(expression(expression));
+            }
+            return list.toString();
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+    }
+}
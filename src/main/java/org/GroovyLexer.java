@@ -0,0 +1,354 @@
+package com.readyapi.converter;
+
+/**
+ * Single-pass tokenizer for Groovy scripts.
+ * <p>
+ * Tokens are offsets into the source {@link CharSequence}, so tokenizing copies no
+ * text. The lexer distinguishes what a text rewrite must not touch, namely
+ * comments, single-quoted strings, GStrings and slashy regular expressions, from
+ * the identifiers and operators around them. Every character is read once, so
+ * tokenizing is linear in the script length.
+ */
+public class GroovyLexer {
+    /**
+     * Token types.
+     */
+    public enum Type {
+        WHITESPACE,
+        NEWLINE,
+        LINE_COMMENT,
+        BLOCK_COMMENT,
+        /** A single-quoted or triple-single-quoted string. */
+        STRING,
+        /** A double-quoted or triple-double-quoted string, possibly with interpolation. */
+        GSTRING,
+        /** A slashy string, used for regular expressions. */
+        REGEX,
+        NUMBER,
+        IDENTIFIER,
+        /** One of ( ) [ ] { }. */
+        BRACKET,
+        OPERATOR,
+        EOF
+    }
+
+    /**
+     * A token, as a range of the source.
+     */
+    public static final class Token {
+        private final Type type;
+        private final int start;
+        private final int end;
+
+        Token(Type type, int start, int end) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * @return true for tokens other than whitespace, newlines and comments
+         */
+        public boolean isSignificant() {
+            return type != Type.WHITESPACE && type != Type.NEWLINE
+                    && type != Type.LINE_COMMENT && type != Type.BLOCK_COMMENT;
+        }
+    }
+
+    // Longest operators first, so that the first match is the longest
+    private static final String[] OPERATORS = {
+            "<=>", "===", "!==", "==~", "?.@", "**=", "<<=", ">>=", "...",
+            "?.", "?:", "*.", ".@", "=~", "->", "==", "!=", "<=", ">=", "&&", "||", "++", "--",
+            "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=", "<<", "..", "**", "::"
+    };
+
+    private final CharSequence source;
+    private final int length;
+    private int position;
+    private Token lastSignificant;
+
+    public GroovyLexer(CharSequence source) {
+        this.source = source;
+        this.length = source.length();
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * Read the next token.
+     *
+     * @return The next token, or an EOF token at the end of the source
+     */
+    public Token next() {
+        Token token = scan();
+        if (token.isSignificant()) {
+            lastSignificant = token;
+        }
+        return token;
+    }
+
+    private Token scan() {
+        if (position >= length) {
+            return new Token(Type.EOF, length, length);
+        }
+
+        int start = position;
+        char c = source.charAt(position);
+
+        if (c == '\n') {
+            position++;
+            return new Token(Type.NEWLINE, start, position);
+        }
+        if (c == '\r') {
+            position++;
+            if (position < length && source.charAt(position) == '\n') {
+                position++;
+            }
+            return new Token(Type.NEWLINE, start, position);
+        }
+        if (c == ' ' || c == '\t' || c == '\f') {
+            while (position < length && isInlineWhitespace(source.charAt(position))) {
+                position++;
+            }
+            return new Token(Type.WHITESPACE, start, position);
+        }
+        if (c == '/' && position + 1 < length) {
+            char following = source.charAt(position + 1);
+            if (following == '/') {
+                while (position < length && source.charAt(position) != '\n' && source.charAt(position) != '\r') {
+                    position++;
+                }
+                return new Token(Type.LINE_COMMENT, start, position);
+            }
+            if (following == '*') {
+                position += 2;
+                while (position < length && !(source.charAt(position) == '*'
+                        && position + 1 < length && source.charAt(position + 1) == '/')) {
+                    position++;
+                }
+                position = Math.min(length, position + 2);
+                return new Token(Type.BLOCK_COMMENT, start, position);
+            }
+        }
+        if (c == '#' && position == 0 && position + 1 < length && source.charAt(1) == '!') {
+            // Shebang line
+            while (position < length && source.charAt(position) != '\n') {
+                position++;
+            }
+            return new Token(Type.LINE_COMMENT, start, position);
+        }
+        if (c == '\'') {
+            scanQuoted('\'', false);
+            return new Token(Type.STRING, start, position);
+        }
+        if (c == '"') {
+            scanQuoted('"', true);
+            return new Token(Type.GSTRING, start, position);
+        }
+        if (c == '/' && regexAllowed()) {
+            if (scanSlashy()) {
+                return new Token(Type.REGEX, start, position);
+            }
+            position = start;
+        }
+        if (Character.isDigit(c)) {
+            scanNumber();
+            return new Token(Type.NUMBER, start, position);
+        }
+        if (Character.isJavaIdentifierStart(c)) {
+            while (position < length && Character.isJavaIdentifierPart(source.charAt(position))) {
+                position++;
+            }
+            return new Token(Type.IDENTIFIER, start, position);
+        }
+        if (c == '(' || c == ')' || c == '[' || c == ']' || c == '{' || c == '}') {
+            position++;
+            return new Token(Type.BRACKET, start, position);
+        }
+
+        for (String operator : OPERATORS) {
+            if (matches(operator)) {
+                position += operator.length();
+                return new Token(Type.OPERATOR, start, position);
+            }
+        }
+        position++;
+        return new Token(Type.OPERATOR, start, position);
+    }
+
+    /**
+     * Scan a quoted string starting at the current position, including the triple-quoted form.
+     */
+    private void scanQuoted(char quote, boolean interpolated) {
+        boolean triple = position + 2 < length
+                && source.charAt(position + 1) == quote && source.charAt(position + 2) == quote;
+        position += triple ? 3 : 1;
+        while (position < length) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position = Math.min(length, position + 2);
+            } else if (interpolated && c == '$' && position + 1 < length && source.charAt(position + 1) == '{') {
+                position = skipInterpolation(position + 2);
+            } else if (c == quote) {
+                if (!triple) {
+                    position++;
+                    return;
+                }
+                if (position + 2 < length && source.charAt(position + 1) == quote && source.charAt(position + 2) == quote) {
+                    position += 3;
+                    return;
+                }
+                position++;
+            } else if (!triple && (c == '\n' || c == '\r')) {
+                // Unterminated single-line string
+                return;
+            } else {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Find the end of a ${...} interpolation, skipping nested braces and strings.
+     *
+     * @param from Offset just after the opening brace
+     * @return Offset just after the closing brace
+     */
+    int skipInterpolation(int from) {
+        int depth = 1;
+        int i = from;
+        while (i < length && depth > 0) {
+            char c = source.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '\'' || c == '"') {
+                i++;
+                while (i < length && source.charAt(i) != c) {
+                    if (source.charAt(i) == '\\') {
+                        i++;
+                    }
+                    i++;
+                }
+            }
+            i++;
+        }
+        return Math.min(i, length);
+    }
+
+    private boolean scanSlashy() {
+        position++;
+        while (position < length) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position = Math.min(length, position + 2);
+            } else if (c == '/') {
+                position++;
+                return true;
+            } else if (c == '\n' || c == '\r') {
+                return false;
+            } else {
+                position++;
+            }
+        }
+        return false;
+    }
+
+    private void scanNumber() {
+        if (source.charAt(position) == '0' && position + 1 < length
+                && (source.charAt(position + 1) == 'x' || source.charAt(position + 1) == 'X')) {
+            position += 2;
+            while (position < length && (Character.digit(source.charAt(position), 16) >= 0 || source.charAt(position) == '_')) {
+                position++;
+            }
+        } else {
+            while (position < length && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '_')) {
+                position++;
+            }
+            if (position + 1 < length && source.charAt(position) == '.' && Character.isDigit(source.charAt(position + 1))) {
+                position++;
+                while (position < length && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+            if (position < length && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+                int exponent = position + 1;
+                if (exponent < length && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < length && Character.isDigit(source.charAt(exponent))) {
+                    position = exponent;
+                    while (position < length && Character.isDigit(source.charAt(position))) {
+                        position++;
+                    }
+                }
+            }
+        }
+        if (position < length && "gGlLiIdDfF".indexOf(source.charAt(position)) >= 0) {
+            position++;
+        }
+    }
+
+    /**
+     * A slash starts a regular expression unless it follows an operand, where it's a division.
+     */
+    private boolean regexAllowed() {
+        if (lastSignificant == null) {
+            return true;
+        }
+        switch (lastSignificant.type) {
+            case IDENTIFIER:
+                return isKeyword(lastSignificant, "return") || isKeyword(lastSignificant, "in");
+            case NUMBER:
+            case STRING:
+            case GSTRING:
+            case REGEX:
+                return false;
+            case BRACKET:
+                char bracket = source.charAt(lastSignificant.start);
+                return bracket == '(' || bracket == '[' || bracket == '{';
+            default:
+                return true;
+        }
+    }
+
+    private boolean isKeyword(Token token, String keyword) {
+        return token.length() == keyword.length() && regionMatches(token.start, keyword);
+    }
+
+    private boolean matches(String text) {
+        return position + text.length() <= length && regionMatches(position, text);
+    }
+
+    private boolean regionMatches(int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (source.charAt(offset + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInlineWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+}
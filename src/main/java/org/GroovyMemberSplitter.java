@@ -0,0 +1,364 @@
+package com.readyapi.converter;
+
+import com.readyapi.converter.GroovyLexer.Token;
+import com.readyapi.converter.GroovyLexer.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a Groovy script library into its top-level declarations: classes, with
+ * their own members, methods, constructors, and the statements and fields between
+ * them.
+ * <p>
+ * The split works on the tokens of a {@link GroovyLexer}, so braces in strings and
+ * comments don't confuse it, and it only looks at the head of each declaration; a
+ * method body is kept as a range of the source to be translated on its own. Every
+ * character of the source belongs to exactly one member, comments and whitespace
+ * before a declaration included, so the members can be put back together in order.
+ */
+final class GroovyMemberSplitter {
+    /**
+     * What a member declares.
+     */
+    enum Kind {
+        PACKAGE,
+        IMPORT,
+        CLASS,
+        METHOD,
+        CONSTRUCTOR,
+        /** A field declaration, or a script statement outside any method. */
+        STATEMENT,
+        /** Whitespace and comments after the last declaration of a scope. */
+        TRIVIA
+    }
+
+    private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList(
+            "public", "private", "protected", "static", "final", "abstract", "synchronized", "transient", "volatile"));
+    private static final Set<String> TYPE_KEYWORDS = new HashSet<>(Arrays.asList("class", "interface", "enum", "trait"));
+    // Words that start a statement even when followed by a name and parentheses
+    private static final Set<String> STATEMENT_KEYWORDS = new HashSet<>(Arrays.asList(
+            "if", "else", "for", "while", "switch", "return", "new", "try", "catch", "finally", "throw", "assert",
+            "do", "case", "default", "synchronized"));
+    private static final Set<String> TYPE_OPERATORS = new HashSet<>(Arrays.asList("<", ">", ",", ".", "?", "&", "..."));
+
+    /**
+     * A declaration, or the whitespace and comments ending a scope.
+     */
+    static final class Member {
+        private final Kind kind;
+        private final int start;
+        private final int codeStart;
+        private int end;
+        private String name;
+        private int parametersStart = -1;
+        private int parametersEnd = -1;
+        private int bodyStart = -1;
+        private int bodyEnd = -1;
+        private List<Member> members = new ArrayList<>();
+
+        Member(Kind kind, int start, int codeStart) {
+            this.kind = kind;
+            this.start = start;
+            this.codeStart = codeStart;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return Offset of the whitespace and comments before the declaration
+         */
+        int getStart() {
+            return start;
+        }
+
+        /**
+         * @return Offset of the declaration itself
+         */
+        int getCodeStart() {
+            return codeStart;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        /**
+         * @return The class, method or constructor name, or null
+         */
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return Offset just inside the parameter list's opening parenthesis
+         */
+        int getParametersStart() {
+            return parametersStart;
+        }
+
+        int getParametersEnd() {
+            return parametersEnd;
+        }
+
+        /**
+         * @return Offset just inside the body's opening brace
+         */
+        int getBodyStart() {
+            return bodyStart;
+        }
+
+        /**
+         * @return Offset of the body's closing brace
+         */
+        int getBodyEnd() {
+            return bodyEnd;
+        }
+
+        /**
+         * @return The members of a class, the last one holding the whitespace before its closing brace
+         */
+        List<Member> getMembers() {
+            return members;
+        }
+    }
+
+    private final CharSequence source;
+    private final List<Token> tokens = new ArrayList<>();
+
+    private GroovyMemberSplitter(CharSequence source) {
+        this.source = source;
+        GroovyLexer lexer = new GroovyLexer(source);
+        for (Token token = lexer.next(); token.getType() != Type.EOF; token = lexer.next()) {
+            tokens.add(token);
+        }
+    }
+
+    /**
+     * Split a script library.
+     *
+     * @param source The Groovy source
+     * @return The top-level members, in source order
+     */
+    static List<Member> split(CharSequence source) {
+        GroovyMemberSplitter splitter = new GroovyMemberSplitter(source);
+        return splitter.scope(0, splitter.tokens.size(), null);
+    }
+
+    private List<Member> scope(int from, int to, String className) {
+        List<Member> members = new ArrayList<>();
+        int index = from;
+        while (index < to) {
+            int first = index;
+            while (first < to && !tokens.get(first).isSignificant()) {
+                first++;
+            }
+            if (first == to) {
+                int end = tokens.get(to - 1).getEnd();
+                Member trivia = new Member(Kind.TRIVIA, tokens.get(index).getStart(), end);
+                trivia.end = end;
+                members.add(trivia);
+                break;
+            }
+            int[] next = new int[1];
+            Member member = member(index, first, to, className, next);
+            members.add(member);
+            index = next[0];
+        }
+        return members;
+    }
+
+    private Member member(int index, int first, int to, String className, int[] next) {
+        int start = tokens.get(index).getStart();
+        int codeStart = tokens.get(first).getStart();
+        String firstWord = text(first);
+
+        if ("package".equals(firstWord) || "import".equals(firstWord)) {
+            Member member = new Member("package".equals(firstWord) ? Kind.PACKAGE : Kind.IMPORT, start, codeStart);
+            return endStatement(member, first, to, next);
+        }
+
+        int head = first;
+        while (head < to && isIdentifier(head) && MODIFIERS.contains(text(head)) && isIdentifier(onLine(head + 1, to))) {
+            head = onLine(head + 1, to);
+        }
+
+        // class Name ... { members }
+        if (head < to && isIdentifier(head) && TYPE_KEYWORDS.contains(text(head))) {
+            int nameIndex = significant(head + 1, to);
+            int open = nameIndex;
+            while (open < to && !isBracket(open, '{')) {
+                open++;
+            }
+            int close = open < to ? matching(open, to) : to;
+            if (isIdentifier(nameIndex) && close < to) {
+                Member member = new Member(Kind.CLASS, start, codeStart);
+                member.name = text(nameIndex);
+                member.bodyStart = tokens.get(open).getEnd();
+                member.bodyEnd = tokens.get(close).getStart();
+                member.members = scope(open + 1, close, member.name);
+                member.end = tokens.get(close).getEnd();
+                next[0] = close + 1;
+                return member;
+            }
+        }
+
+        // [modifiers] [type] name(parameters) [throws ...] { body }
+        if (head < to && !STATEMENT_KEYWORDS.contains(text(head))) {
+            int names = 0;
+            int genericDepth = 0;
+            int last = -1;
+            int beforeLast = -1;
+            int position = head;
+            while (position < to && (isIdentifier(position) || isTypeOperator(position)
+                    || isBracket(position, '[') || isBracket(position, ']'))) {
+                String word = text(position);
+                if ("<".equals(word)) {
+                    genericDepth++;
+                } else if (">".equals(word)) {
+                    genericDepth--;
+                } else if (isIdentifier(position) && genericDepth == 0) {
+                    names++;
+                }
+                beforeLast = last;
+                last = position;
+                position = onLine(position + 1, to);
+            }
+            boolean constructor = names == 1 && className != null && last >= 0 && className.equals(text(last));
+            // A name after a dot is a method call, as in list.with(x) { ... }
+            boolean qualified = beforeLast >= 0 && ".".equals(text(beforeLast));
+            if (position < to && isBracket(position, '(') && last >= 0 && isIdentifier(last) && !qualified
+                    && (names >= 2 || constructor)) {
+                int closeParenthesis = matching(position, to);
+                int open = closeParenthesis < to ? significant(closeParenthesis + 1, to) : to;
+                if (open < to && "throws".equals(text(open))) {
+                    while (open < to && !isBracket(open, '{') && !isNewline(open)) {
+                        open++;
+                    }
+                }
+                if (open < to && isBracket(open, '{')) {
+                    int close = matching(open, to);
+                    if (close < to) {
+                        Member member = new Member(constructor ? Kind.CONSTRUCTOR : Kind.METHOD, start, codeStart);
+                        member.name = text(last);
+                        member.parametersStart = tokens.get(position).getEnd();
+                        member.parametersEnd = tokens.get(closeParenthesis).getStart();
+                        member.bodyStart = tokens.get(open).getEnd();
+                        member.bodyEnd = tokens.get(close).getStart();
+                        member.end = tokens.get(close).getEnd();
+                        next[0] = close + 1;
+                        return member;
+                    }
+                }
+            }
+        }
+
+        return endStatement(new Member(Kind.STATEMENT, start, codeStart), first, to, next);
+    }
+
+    /**
+     * End a member at the first line break or semicolon outside brackets that
+     * doesn't follow an operator.
+     */
+    private Member endStatement(Member member, int first, int to, int[] next) {
+        int depth = 0;
+        Token lastSignificant = null;
+        int index = first;
+        for (; index < to; index++) {
+            Token token = tokens.get(index);
+            if (token.getType() == Type.BRACKET) {
+                char bracket = source.charAt(token.getStart());
+                if (bracket == '(' || bracket == '[' || bracket == '{') {
+                    depth++;
+                } else if (--depth < 0) {
+                    break;
+                }
+            } else if (depth == 0 && token.getType() == Type.NEWLINE && !isContinuation(lastSignificant)) {
+                break;
+            } else if (depth == 0 && token.getType() == Type.OPERATOR && ";".equals(text(index))) {
+                index++;
+                break;
+            }
+            if (token.isSignificant()) {
+                lastSignificant = token;
+            }
+        }
+        member.end = index > first ? tokens.get(index - 1).getEnd() : tokens.get(first).getEnd();
+        next[0] = Math.max(index, first + 1);
+        return member;
+    }
+
+    private boolean isContinuation(Token token) {
+        if (token == null || token.getType() != Type.OPERATOR) {
+            return false;
+        }
+        String operator = source.subSequence(token.getStart(), token.getEnd()).toString();
+        return !"++".equals(operator) && !"--".equals(operator) && !";".equals(operator);
+    }
+
+    /**
+     * @return The index of the bracket closing the one at open, or to if it isn't closed
+     */
+    private int matching(int open, int to) {
+        int depth = 0;
+        for (int index = open; index < to; index++) {
+            if (tokens.get(index).getType() != Type.BRACKET) {
+                continue;
+            }
+            char bracket = source.charAt(tokens.get(index).getStart());
+            if (bracket == '(' || bracket == '[' || bracket == '{') {
+                depth++;
+            } else if (--depth == 0) {
+                return index;
+            }
+        }
+        return to;
+    }
+
+    private int significant(int index, int to) {
+        while (index < to && !tokens.get(index).isSignificant()) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return The index of the next significant token on the same line, or of the line break
+     */
+    private int onLine(int index, int to) {
+        while (index < to && !tokens.get(index).isSignificant() && !isNewline(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private String text(int index) {
+        if (index >= tokens.size()) {
+            return "";
+        }
+        Token token = tokens.get(index);
+        return source.subSequence(token.getStart(), token.getEnd()).toString();
+    }
+
+    private boolean isIdentifier(int index) {
+        return index < tokens.size() && tokens.get(index).getType() == Type.IDENTIFIER;
+    }
+
+    private boolean isNewline(int index) {
+        return tokens.get(index).getType() == Type.NEWLINE;
+    }
+
+    private boolean isTypeOperator(int index) {
+        return tokens.get(index).getType() == Type.OPERATOR && TYPE_OPERATORS.contains(text(index));
+    }
+
+    private boolean isBracket(int index, char bracket) {
+        Token token = tokens.get(index);
+        return token.getType() == Type.BRACKET && source.charAt(token.getStart()) == bracket;
+    }
+}
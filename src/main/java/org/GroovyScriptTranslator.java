@@ -0,0 +1,1039 @@
+package com.readyapi.converter;
+
+import com.readyapi.converter.GroovyLexer.Token;
+import com.readyapi.converter.GroovyLexer.Type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates Groovy step scripts to Postman JavaScript in a single pass over the
+ * tokens of a {@link GroovyLexer}.
+ * <p>
+ * Comments, single-quoted strings and regular expressions are copied unchanged,
+ * GStrings become template literals, and SoapUI object paths, Groovy keywords,
+ * assertions, closures and well-known method calls are rewritten where they occur
+ * as code. Each token is emitted once, and lookahead never goes past the current
+ * line, so translation is linear in the script length.
+ * <p>
+ * Output can also be written to an {@link Appendable} as the translation goes,
+ * so that only the statement being translated is buffered.
+ * <p>
+ * A translator is not thread-safe; create one per conversion.
+ */
+public class GroovyScriptTranslator {
+    private static final List<PathMapping> PATH_MAPPINGS = new ArrayList<>();
+    private static final Map<String, String> CLOSURE_METHODS = new HashMap<>();
+    private static final Map<String, CallRewrite> CALL_REWRITES = new HashMap<>();
+    private static final Set<String> DECLARATION_TYPES = new HashSet<>(Arrays.asList(
+            "String", "int", "Integer", "long", "Long", "short", "byte", "boolean", "Boolean", "double", "Double",
+            "float", "Float", "BigDecimal", "BigInteger", "Number", "Object", "Map", "List", "Set", "Date", "var"));
+
+    static {
+        // SoapUI object paths, longest path first
+        PATH_MAPPINGS.add(new PathMapping("testRunner.testCase.testSuite.project.getPropertyValue", "pm.collectionVariables.get"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner.testCase.testSuite.project.setPropertyValue", "pm.collectionVariables.set"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner.testCase.testSuite.project", "pm.collectionVariables"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner.testCase.testSuite", "pm.testSuite"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner.testCase", "pm.testCase"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner.runTestStep", "pm.testCase.runTestStep", "test"));
+        PATH_MAPPINGS.add(new PathMapping("testRunner", "pm"));
+        PATH_MAPPINGS.add(new PathMapping("context", "pm.context"));
+        PATH_MAPPINGS.add(new PathMapping("JsonOutput.toJson", "JSON.stringify"));
+
+        // Logging, which Groovy also allows without parentheses
+        PATH_MAPPINGS.add(new PathMapping("log.info", "console.log").command());
+        PATH_MAPPINGS.add(new PathMapping("log.debug", "console.debug").command());
+        PATH_MAPPINGS.add(new PathMapping("log.error", "console.error").command());
+        PATH_MAPPINGS.add(new PathMapping("log.warn", "console.warn").command());
+        PATH_MAPPINGS.add(new PathMapping("println", "console.log").command());
+
+        // Collection methods taking a closure
+        CLOSURE_METHODS.put("each", "forEach");
+        CLOSURE_METHODS.put("eachWithIndex", "forEach");
+        CLOSURE_METHODS.put("collect", "map");
+        CLOSURE_METHODS.put("findAll", "filter");
+        CLOSURE_METHODS.put("find", "find");
+        CLOSURE_METHODS.put("any", "some");
+        CLOSURE_METHODS.put("every", "every");
+
+        // Assertion and utility calls
+        CALL_REWRITES.put("assertNotNull", new CallRewrite("pm.expect(", ").to.not.be.null", null));
+        CALL_REWRITES.put("assertNull", new CallRewrite("pm.expect(", ").to.be.null", null));
+        CALL_REWRITES.put("assertTrue", new CallRewrite("pm.expect(", ").to.be.true", null));
+        CALL_REWRITES.put("assertFalse", new CallRewrite("pm.expect(", ").to.be.false", null));
+        CALL_REWRITES.put("random", new CallRewrite("Math.floor(Math.random() * (", "))", null));
+        CALL_REWRITES.put("sleep", new CallRewrite("setTimeout(() => {}, ", ")", null));
+    }
+
+    private static final String XML_SLURPER_WARNING =
+            "undefined /* WARNING: XmlSlurper is not supported in Postman. Use pm.response.text() and parse manually. */";
+    private static final String HTTP_BUILDER_WARNING =
+            "undefined /* WARNING: HTTPBuilder is not supported in Postman. Use pm.sendRequest() instead. */";
+
+    // Buffered output written to the sink once it reaches this many characters
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private CharSequence source;
+    private GroovyLexer lexer;
+    private StringBuilder out;
+    private Appendable sink;
+    private String scriptType;
+    private final ArrayDeque<Token> lookahead = new ArrayDeque<>();
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private final List<String> imports = new ArrayList<>();
+    private Token lastSignificant;
+    private boolean statementStart;
+    // Open assertEquals calls, whose output is still to be rearranged
+    private int pendingSwaps;
+
+    /**
+     * Translate a script.
+     *
+     * @param script The Groovy script
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @return The JavaScript translation
+     */
+    public String translate(CharSequence script, String scriptType) {
+        StringBuilder result = new StringBuilder(script.length() + script.length() / 8 + 16);
+        translate(script, scriptType, result, true);
+        return result.toString();
+    }
+
+    /**
+     * Translate a script, writing the JavaScript to an appendable as it goes.
+     * Translated lines are written in batches, once no open assertion still has to
+     * rearrange them.
+     *
+     * @param script The Groovy script
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @param target The appendable the JavaScript is written to
+     * @throws IOException If writing to the appendable fails
+     */
+    public void translate(CharSequence script, String scriptType, Appendable target) throws IOException {
+        StringBuilder buffer = new StringBuilder(Math.min(script.length(), FLUSH_THRESHOLD) + 256);
+        this.sink = target;
+        try {
+            translate(script, scriptType, buffer, true);
+            target.append(buffer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            this.sink = null;
+        }
+    }
+
+    /**
+     * Get the import statements found by the last translation.
+     *
+     * @return Imports such as "import groovy.json.JsonSlurper", in script order
+     */
+    public List<String> getImports() {
+        return imports;
+    }
+
+    /**
+     * Map a dotted object path, such as {@code testRunner.testCase.name}, with the
+     * longest matching SoapUI path mapping.
+     *
+     * @param path The dotted path
+     * @param scriptType The script type
+     * @return The JavaScript path, or null if no mapping applies
+     */
+    static String mapPath(String path, String scriptType) {
+        for (PathMapping mapping : PATH_MAPPINGS) {
+            if ((mapping.scriptType == null || mapping.scriptType.equals(scriptType)) && path.startsWith(mapping.name)
+                    && (path.length() == mapping.name.length() || path.charAt(mapping.name.length()) == '.')) {
+                return mapping.replacement + path.substring(mapping.name.length());
+            }
+        }
+        return null;
+    }
+
+    private void translate(CharSequence script, String type, StringBuilder target, boolean statements) {
+        this.source = script;
+        this.lexer = new GroovyLexer(script);
+        this.out = target;
+        this.scriptType = type;
+        this.lookahead.clear();
+        this.frames.clear();
+        this.imports.clear();
+        this.lastSignificant = null;
+        this.statementStart = statements;
+        this.pendingSwaps = 0;
+
+        while (true) {
+            Token token = take();
+            if (token.getType() == Type.EOF) {
+                closeStatements();
+                return;
+            }
+
+            boolean atStatementStart = statementStart;
+            if (token.isSignificant()) {
+                statementStart = false;
+            }
+
+            switch (token.getType()) {
+                case NEWLINE:
+                    handleNewline(token);
+                    break;
+                case STRING:
+                    emitString(token);
+                    break;
+                case GSTRING:
+                    emitGString(token);
+                    break;
+                case NUMBER:
+                    emitNumber(token);
+                    break;
+                case IDENTIFIER:
+                    handleIdentifier(token, atStatementStart);
+                    break;
+                case BRACKET:
+                    handleBracket(token);
+                    break;
+                case OPERATOR:
+                    handleOperator(token);
+                    break;
+                default:
+                    // Whitespace, comments and regular expressions are copied as they are
+                    emit(token);
+                    break;
+            }
+
+            // Handlers that consume lookahead have already moved lastSignificant past this token
+            if (token.isSignificant() && (lastSignificant == null || lastSignificant.getEnd() <= token.getStart())) {
+                lastSignificant = token;
+            }
+        }
+    }
+
+    private void handleNewline(Token token) {
+        if (!frames.isEmpty() && frames.peek().statement && !isContinuation(lastSignificant)) {
+            closeStatements();
+        }
+        emit(token);
+        if (frames.isEmpty() || frames.peek().open == '{') {
+            statementStart = true;
+        }
+        if (sink != null && pendingSwaps == 0 && out.length() >= FLUSH_THRESHOLD) {
+            // Nothing before the newline is changed again: statements are closed and
+            // whitespace trimmed after it
+            try {
+                sink.append(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            out.setLength(0);
+        }
+    }
+
+    private void handleIdentifier(Token token, boolean atStatementStart) {
+        String name = text(token);
+
+        if (lastSignificant != null && isOperator(lastSignificant, ".", "?.", "*.")) {
+            handleMember(token, name);
+            return;
+        }
+
+        if (atStatementStart) {
+            switch (name) {
+                case "import":
+                    emitImport(token);
+                    return;
+                case "assert":
+                    out.append("pm.expect(");
+                    frames.push(Frame.statement(").to.be.true", true));
+                    skipWhitespace();
+                    return;
+                case "def":
+                    out.append("let");
+                    return;
+                default:
+                    if (DECLARATION_TYPES.contains(name) && isDeclaration()) {
+                        out.append("let");
+                        return;
+                    }
+                    break;
+            }
+        }
+
+        if ("new".equals(name) && rewriteConstructor()) {
+            return;
+        }
+        if (("XmlSlurper".equals(name) || "HTTPBuilder".equals(name)) && isOperator(peek(0), ".")
+                && peek(1).getType() == Type.IDENTIFIER && isBracket(peek(2), '(')) {
+            take();
+            lastSignificant = take();
+            skipCall();
+            out.append("XmlSlurper".equals(name) ? XML_SLURPER_WARNING : HTTP_BUILDER_WARNING);
+            return;
+        }
+
+        for (PathMapping mapping : PATH_MAPPINGS) {
+            if ((mapping.scriptType == null || mapping.scriptType.equals(scriptType)) && matchesPath(token, mapping.path)) {
+                for (int i = 1; i < mapping.path.length; i++) {
+                    take();
+                    lastSignificant = take();
+                }
+                out.append(mapping.replacement);
+                if (mapping.command) {
+                    openCommandCall();
+                }
+                return;
+            }
+        }
+
+        if ("assertEquals".equals(name) && isBracket(peek(0), '(')) {
+            // assertEquals(expected, actual): the arguments swap places when the call closes
+            lastSignificant = take();
+            out.append("pm.expect(");
+            Frame frame = Frame.call(")", null);
+            frame.expectedStart = out.length();
+            frames.push(frame);
+            pendingSwaps++;
+            return;
+        }
+
+        CallRewrite call = CALL_REWRITES.get(name);
+        if (call != null && isBracket(peek(0), '(')) {
+            lastSignificant = take();
+            out.append(call.open);
+            frames.push(Frame.call(call.close, call.comma));
+            return;
+        }
+
+        emit(token);
+    }
+
+    private void handleMember(Token token, String name) {
+        String closureMethod = CLOSURE_METHODS.get(name);
+        if (closureMethod != null) {
+            int brace = peek(0).getType() == Type.WHITESPACE ? 1 : 0;
+            if (isBracket(peek(brace), '{')) {
+                for (int i = 0; i <= brace; i++) {
+                    lastSignificant = take();
+                }
+                out.append(closureMethod).append('(');
+                emitClosureParameters();
+                if (!"forEach".equals(closureMethod) && isExpressionClosure()) {
+                    // A one-line closure returns its expression
+                    out.append('(');
+                    frames.push(new Frame('{', "))", null, false, false));
+                } else {
+                    out.append('{');
+                    frames.push(new Frame('{', "})", null, false, false));
+                    statementStart = true;
+                }
+                return;
+            }
+        }
+
+        switch (name) {
+            case "size":
+                if (isBracket(peek(0), '(') && isBracket(peek(1), ')')) {
+                    take();
+                    lastSignificant = take();
+                    out.append("length");
+                    return;
+                }
+                break;
+            case "contains":
+                if (isBracket(peek(0), '(')) {
+                    out.append("includes");
+                    return;
+                }
+                break;
+            case "matches":
+                if (isBracket(peek(0), '(')) {
+                    out.append("match");
+                    return;
+                }
+                break;
+            case "replaceAll":
+                if (isBracket(peek(0), '(')) {
+                    lastSignificant = take();
+                    out.append("replace(new RegExp(");
+                    frames.push(Frame.call(")", ", 'g'), "));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        emit(token);
+    }
+
+    /**
+     * Emit the parameters and arrow of a closure whose opening brace was just read,
+     * consuming an explicit parameter list such as {@code key, value ->}.
+     */
+    private void emitClosureParameters() {
+        List<String> parameters = new ArrayList<>();
+        int index = 0;
+        boolean explicit = false;
+        while (true) {
+            index = skipBlank(index);
+            Token first = peek(index);
+            if (first.getType() != Type.IDENTIFIER) {
+                break;
+            }
+            // Optional type before the parameter name
+            int next = skipBlank(index + 1);
+            Token name = first;
+            if (peek(next).getType() == Type.IDENTIFIER) {
+                name = peek(next);
+                next = skipBlank(next + 1);
+            }
+            parameters.add(text(name));
+            if (isOperator(peek(next), "->")) {
+                explicit = true;
+                index = next + 1;
+                break;
+            }
+            if (!isOperator(peek(next), ",")) {
+                break;
+            }
+            index = next + 1;
+        }
+
+        if (explicit) {
+            for (int i = 0; i < index; i++) {
+                take();
+            }
+            out.append('(').append(String.join(", ", parameters)).append(") => ");
+        } else {
+            out.append("(it) => ");
+        }
+    }
+
+    /**
+     * @return true if the rest of the closure just opened is a single expression on
+     *         the current line
+     */
+    private boolean isExpressionClosure() {
+        int depth = 0;
+        for (int i = 0; ; i++) {
+            Token token = peek(i);
+            switch (token.getType()) {
+                case EOF:
+                case NEWLINE:
+                    return false;
+                case IDENTIFIER:
+                    if (regionEquals(token, "return") || regionEquals(token, "def") || regionEquals(token, "if")) {
+                        return false;
+                    }
+                    break;
+                case OPERATOR:
+                    if (depth == 0 && isOperator(token, ";")) {
+                        return false;
+                    }
+                    break;
+                case BRACKET:
+                    char bracket = source.charAt(token.getStart());
+                    if (bracket == '(' || bracket == '[' || bracket == '{') {
+                        depth++;
+                    } else if (depth == 0) {
+                        return bracket == '}';
+                    } else {
+                        depth--;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Rewrite constructor calls with a JavaScript equivalent, when the {@code new}
+     * keyword was just read.
+     *
+     * @return true if the constructor was rewritten
+     */
+    private boolean rewriteConstructor() {
+        if (peek(0).getType() != Type.WHITESPACE) {
+            return false;
+        }
+
+        int index = 1;
+        int matched = matchPathAt(index, "soapui", "utils", "FunctionLibrary");
+        if (matched < 0 && imports.stream().anyMatch(ScriptConverter.FUNCTION_LIBRARY_IMPORTS::contains)) {
+            matched = matchPathAt(index, "FunctionLibrary");
+        }
+        if (matched > 0 && isBracket(peek(index + matched), '(')) {
+            consume(index + matched);
+            skipCall();
+            out.append(ScriptConverter.FUNCTION_LIBRARY);
+            return true;
+        }
+
+        for (String type : new String[] {"JsonSlurper", "XmlSlurper"}) {
+            matched = matchPathAt(index, type);
+            if (matched < 0) {
+                matched = matchPathAt(index, "groovy", "json", type);
+            }
+            if (matched < 0) {
+                matched = matchPathAt(index, "groovy", "util", type);
+            }
+            if (matched < 0) {
+                matched = matchPathAt(index, "groovy", "xml", type);
+            }
+            int call = index + matched;
+            if (matched > 0 && isBracket(peek(call), '(') && isBracket(peek(call + 1), ')')
+                    && isOperator(peek(call + 2), ".") && peek(call + 3).getType() == Type.IDENTIFIER
+                    && isBracket(peek(call + 4), '(')) {
+                String method = text(peek(call + 3));
+                if ("JsonSlurper".equals(type) && "parseText".equals(method)) {
+                    consume(call + 4);
+                    out.append("JSON.parse");
+                    return true;
+                }
+                if ("XmlSlurper".equals(type)) {
+                    consume(call + 4);
+                    skipCall();
+                    out.append(XML_SLURPER_WARNING);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void handleBracket(Token token) {
+        char bracket = source.charAt(token.getStart());
+        switch (bracket) {
+            case '(':
+                frames.push(new Frame('(', ")", null, false, false));
+                out.append('(');
+                // The initializer of a for loop declares its variable like a statement
+                statementStart = lastSignificant != null && lastSignificant.getType() == Type.IDENTIFIER
+                        && regionEquals(lastSignificant, "for");
+                break;
+            case '[':
+                openSquareBracket();
+                break;
+            case '{':
+                frames.push(new Frame('{', "}", null, false, false));
+                out.append('{');
+                statementStart = true;
+                break;
+            default:
+                closeStatements();
+                char open = bracket == ')' ? '(' : bracket == ']' ? '[' : '{';
+                if (!frames.isEmpty() && frames.peek().open == open) {
+                    closeFrame(frames.pop());
+                } else {
+                    out.append(bracket);
+                }
+                if (bracket == '}') {
+                    statementStart = frames.isEmpty() || frames.peek().open == '{';
+                }
+                break;
+        }
+    }
+
+    /**
+     * Open a list, or a map literal which becomes an object literal.
+     */
+    private void openSquareBracket() {
+        int index = skipBlank(0);
+        Token first = peek(index);
+        if (isOperator(first, ":") && isBracket(peek(skipBlank(index + 1)), ']')) {
+            consume(skipBlank(index + 1) + 1);
+            out.append("{}");
+            return;
+        }
+        Type type = first.getType();
+        if ((type == Type.IDENTIFIER || type == Type.STRING || type == Type.GSTRING || type == Type.NUMBER)
+                && isOperator(peek(skipBlank(index + 1)), ":")) {
+            frames.push(new Frame('[', "}", null, false, false));
+            out.append('{');
+            return;
+        }
+        frames.push(new Frame('[', "]", null, false, false));
+        out.append('[');
+    }
+
+    private void handleOperator(Token token) {
+        Frame frame = frames.peek();
+        switch (text(token)) {
+            case ";":
+                if (frame == null || frame.open != '(') {
+                    closeStatements();
+                    statementStart = true;
+                }
+                emit(token);
+                break;
+            case ",":
+                if (frame != null && frame.expectedStart >= 0 && frame.actualStart < 0) {
+                    frame.expectedEnd = out.length();
+                    skipWhitespace();
+                    frame.actualStart = out.length();
+                } else if (frame != null && frame.comma != null) {
+                    out.append(frame.comma);
+                    frame.comma = null;
+                    skipWhitespace();
+                } else {
+                    emit(token);
+                }
+                break;
+            case "?":
+                if (frame != null) {
+                    frame.ternaries++;
+                }
+                emit(token);
+                break;
+            case ":":
+                if (frame != null && frame.ternaries > 0) {
+                    frame.ternaries--;
+                    emit(token);
+                } else if (frame != null && frame.assertion) {
+                    // assert condition : message
+                    trimTrailingWhitespace();
+                    out.append(", ");
+                    skipWhitespace();
+                } else {
+                    emit(token);
+                }
+                break;
+            case "?:":
+                out.append("||");
+                break;
+            default:
+                emit(token);
+                break;
+        }
+    }
+
+    /**
+     * Turn a Groovy command expression such as {@code log.info "text"} into a call,
+     * when the mapped name just emitted is followed by an argument rather than
+     * parentheses.
+     */
+    private void openCommandCall() {
+        if (peek(0).getType() != Type.WHITESPACE) {
+            return;
+        }
+        Token argument = peek(1);
+        Type type = argument.getType();
+        boolean startsArgument = type == Type.STRING || type == Type.GSTRING || type == Type.IDENTIFIER
+                || type == Type.NUMBER || type == Type.REGEX || isBracket(argument, '[');
+        if (startsArgument) {
+            take();
+            out.append('(');
+            frames.push(Frame.statement(")", false));
+        }
+    }
+
+    private void emitImport(Token token) {
+        out.append("// ");
+        emit(token);
+        StringBuilder path = new StringBuilder();
+        while (peek(0).getType() != Type.NEWLINE && peek(0).getType() != Type.EOF) {
+            Token part = take();
+            emit(part);
+            if (part.getType() == Type.IDENTIFIER || isOperator(part, ".") || isOperator(part, "*")) {
+                if (path.length() == 0 && "static".equals(text(part))) {
+                    continue;
+                }
+                if (part.getType() == Type.IDENTIFIER && path.length() > 0
+                        && path.charAt(path.length() - 1) != '.') {
+                    // "import a.b.C as D"
+                    break;
+                }
+                path.append(source, part.getStart(), part.getEnd());
+            } else if (isOperator(part, ";")) {
+                break;
+            }
+        }
+        while (peek(0).getType() != Type.NEWLINE && peek(0).getType() != Type.EOF) {
+            emit(take());
+        }
+        imports.add("import " + path);
+        statementStart = true;
+    }
+
+    private void emitString(Token token) {
+        if (!isTriple(token)) {
+            emit(token);
+            return;
+        }
+        // Multi-line strings become template literals without interpolation
+        out.append('`');
+        int end = contentEnd(token, 3);
+        for (int i = token.getStart() + 3; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '`' || (c == '$' && i + 1 < end && source.charAt(i + 1) == '{')) {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('`');
+    }
+
+    /**
+     * Emit a double-quoted string. Strings with interpolation or on several lines
+     * become template literals, with each interpolated expression translated too.
+     */
+    private void emitGString(Token token) {
+        int quoteLength = isTriple(token) ? 3 : 1;
+        int start = token.getStart() + quoteLength;
+        int end = contentEnd(token, quoteLength);
+        if (quoteLength == 1 && !hasInterpolation(start, end)) {
+            emit(token);
+            return;
+        }
+
+        out.append('`');
+        int i = start;
+        while (i < end) {
+            char c = source.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                out.append(source, i, i + 2);
+                i += 2;
+            } else if (c == '`') {
+                out.append("\\`");
+                i++;
+            } else if (c == '$' && i + 1 < end && source.charAt(i + 1) == '{') {
+                int close = Math.min(lexer.skipInterpolation(i + 2), end);
+                out.append("${");
+                appendExpression(source.subSequence(i + 2, Math.max(i + 2, close - 1)));
+                out.append('}');
+                i = close;
+            } else if (c == '$' && i + 1 < end && Character.isJavaIdentifierStart(source.charAt(i + 1))) {
+                int pathEnd = i + 1;
+                while (pathEnd < end && (Character.isJavaIdentifierPart(source.charAt(pathEnd))
+                        || (source.charAt(pathEnd) == '.' && pathEnd + 1 < end
+                        && Character.isJavaIdentifierStart(source.charAt(pathEnd + 1))))) {
+                    pathEnd++;
+                }
+                out.append("${");
+                appendExpression(source.subSequence(i + 1, pathEnd));
+                out.append('}');
+                i = pathEnd;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        out.append('`');
+    }
+
+    private void appendExpression(CharSequence expression) {
+        new GroovyScriptTranslator().translate(expression, scriptType, out, false);
+    }
+
+    private boolean hasInterpolation(int start, int end) {
+        for (int i = start; i < end - 1; i++) {
+            char c = source.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '$' && (source.charAt(i + 1) == '{' || Character.isJavaIdentifierStart(source.charAt(i + 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void emitNumber(Token token) {
+        int end = token.getEnd();
+        char last = source.charAt(end - 1);
+        boolean hex = token.length() > 2 && (source.charAt(token.getStart() + 1) == 'x' || source.charAt(token.getStart() + 1) == 'X');
+        String suffixes = hex ? "gGlLiI" : "gGlLiIdDfF";
+        if (token.length() > 1 && suffixes.indexOf(last) >= 0) {
+            end--;
+        }
+        out.append(source, token.getStart(), end);
+    }
+
+    private void closeFrame(Frame frame) {
+        if (frame.expectedStart >= 0) {
+            pendingSwaps--;
+        }
+        if (frame.actualStart < 0) {
+            out.append(frame.close);
+            return;
+        }
+        String expected = out.substring(frame.expectedStart, frame.expectedEnd);
+        String actual = out.substring(frame.actualStart);
+        out.setLength(frame.expectedStart);
+        out.append(actual).append(").to.equal(").append(expected).append(')');
+    }
+
+    /**
+     * Close the statement frames on top of the stack, keeping the closing text in
+     * front of any whitespace already emitted.
+     */
+    private void closeStatements() {
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ' ' || out.charAt(end - 1) == '\t')) {
+            end--;
+        }
+        while (!frames.isEmpty() && frames.peek().statement) {
+            String close = frames.pop().close;
+            out.insert(end, close);
+            end += close.length();
+        }
+    }
+
+    /**
+     * Consume the tokens of a call up to and including its closing parenthesis, when
+     * the next token is the opening parenthesis.
+     */
+    private void skipCall() {
+        int depth = 0;
+        while (true) {
+            Token token = take();
+            if (token.getType() == Type.EOF) {
+                return;
+            }
+            if (isBracket(token, '(')) {
+                depth++;
+            } else if (isBracket(token, ')') && --depth == 0) {
+                lastSignificant = token;
+                return;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (peek(0).getType() == Type.WHITESPACE) {
+            take();
+        }
+    }
+
+    private void trimTrailingWhitespace() {
+        int length = out.length();
+        while (length > 0 && (out.charAt(length - 1) == ' ' || out.charAt(length - 1) == '\t')) {
+            length--;
+        }
+        out.setLength(length);
+    }
+
+    /**
+     * @return The lookahead index of the first token at or after index that isn't
+     *         whitespace, a newline or a comment
+     */
+    private int skipBlank(int index) {
+        while (!peek(index).isSignificant() && peek(index).getType() != Type.EOF) {
+            index++;
+        }
+        return index;
+    }
+
+    private boolean isDeclaration() {
+        int name = skipBlank(0);
+        if (peek(0).getType() != Type.WHITESPACE || peek(name).getType() != Type.IDENTIFIER) {
+            return false;
+        }
+        return isOperator(peek(skipBlank(name + 1)), "=");
+    }
+
+    private boolean matchesPath(Token token, String[] path) {
+        if (!regionEquals(token, path[0])) {
+            return false;
+        }
+        return matchMembersAt(0, path, 1) >= 0;
+    }
+
+    private int matchPathAt(int index, String... names) {
+        if (peek(index).getType() != Type.IDENTIFIER || !regionEquals(peek(index), names[0])) {
+            return -1;
+        }
+        int rest = matchMembersAt(index + 1, names, 1);
+        return rest >= 0 ? rest + 1 : -1;
+    }
+
+    /**
+     * Match ".name.name..." at a lookahead index, for names from an offset on.
+     *
+     * @return The number of tokens matched, or -1
+     */
+    private int matchMembersAt(int index, String[] names, int from) {
+        int i = index;
+        for (int n = from; n < names.length; n++) {
+            String name = names[n];
+            if (!isOperator(peek(i), ".") || peek(i + 1).getType() != Type.IDENTIFIER || !regionEquals(peek(i + 1), name)) {
+                return -1;
+            }
+            i += 2;
+        }
+        return i - index;
+    }
+
+    private void consume(int count) {
+        for (int i = 0; i < count; i++) {
+            Token token = take();
+            if (token.isSignificant()) {
+                lastSignificant = token;
+            }
+        }
+    }
+
+    private Token take() {
+        return lookahead.isEmpty() ? lexer.next() : lookahead.poll();
+    }
+
+    private Token peek(int index) {
+        while (lookahead.size() <= index) {
+            Token token = lexer.next();
+            lookahead.add(token);
+            if (token.getType() == Type.EOF) {
+                break;
+            }
+        }
+        if (index >= lookahead.size()) {
+            return lookahead.peekLast();
+        }
+        int i = 0;
+        for (Token token : lookahead) {
+            if (i++ == index) {
+                return token;
+            }
+        }
+        return lookahead.peekLast();
+    }
+
+    private boolean isContinuation(Token token) {
+        return token != null && token.getType() == Type.OPERATOR
+                && !isOperator(token, "++") && !isOperator(token, "--") && !isOperator(token, ";");
+    }
+
+    private boolean isOperator(Token token, String... operators) {
+        if (token.getType() != Type.OPERATOR) {
+            return false;
+        }
+        for (String operator : operators) {
+            if (regionEquals(token, operator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBracket(Token token, char bracket) {
+        return token.getType() == Type.BRACKET && source.charAt(token.getStart()) == bracket;
+    }
+
+    private boolean isTriple(Token token) {
+        char quote = source.charAt(token.getStart());
+        return token.length() >= 6 && source.charAt(token.getStart() + 1) == quote && source.charAt(token.getStart() + 2) == quote;
+    }
+
+    private int contentEnd(Token token, int quoteLength) {
+        char quote = source.charAt(token.getStart());
+        int end = token.getEnd();
+        for (int i = 0; i < quoteLength; i++) {
+            if (end - 1 < token.getStart() + quoteLength || source.charAt(end - 1) != quote) {
+                return token.getEnd();
+            }
+            end--;
+        }
+        return end;
+    }
+
+    private boolean regionEquals(Token token, String text) {
+        if (token.length() != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (source.charAt(token.getStart() + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String text(Token token) {
+        return source.subSequence(token.getStart(), token.getEnd()).toString();
+    }
+
+    private void emit(Token token) {
+        out.append(source, token.getStart(), token.getEnd());
+    }
+
+    /**
+     * A dotted path of identifiers and its JavaScript replacement.
+     */
+    private static final class PathMapping {
+        private final String name;
+        private final String[] path;
+        private final String replacement;
+        private final String scriptType;
+        private boolean command;
+
+        PathMapping(String path, String replacement) {
+            this(path, replacement, null);
+        }
+
+        PathMapping(String path, String replacement, String scriptType) {
+            this.name = path;
+            this.path = path.split("\\.");
+            this.replacement = replacement;
+            this.scriptType = scriptType;
+        }
+
+        PathMapping command() {
+            this.command = true;
+            return this;
+        }
+    }
+
+    /**
+     * A call whose parentheses and first argument separator are replaced.
+     */
+    private static final class CallRewrite {
+        private final String open;
+        private final String close;
+        private final String comma;
+
+        CallRewrite(String open, String close, String comma) {
+            this.open = open;
+            this.close = close;
+            this.comma = comma;
+        }
+    }
+
+    /**
+     * An open bracket, rewritten call or statement, with the text that closes it.
+     */
+    private static final class Frame {
+        private final char open;
+        private final String close;
+        private String comma;
+        private final boolean statement;
+        private final boolean assertion;
+        private int ternaries;
+        // Output offsets of the assertEquals arguments, or -1
+        private int expectedStart = -1;
+        private int expectedEnd = -1;
+        private int actualStart = -1;
+
+        Frame(char open, String close, String comma, boolean statement, boolean assertion) {
+            this.open = open;
+            this.close = close;
+            this.comma = comma;
+            this.statement = statement;
+            this.assertion = assertion;
+        }
+
+        static Frame call(String close, String comma) {
+            return new Frame('(', close, comma, false, false);
+        }
+
+        static Frame statement(String close, boolean assertion) {
+            return new Frame(' ', close, null, true, assertion);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.readyapi.converter;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Text content that may be held outside the heap and decoded only when read.
+ * <p>
+ * Large payloads such as Groovy scripts and request bodies are stored behind this
+ * handle so that a parsed project doesn't keep every payload in memory at once.
+ */
+public interface LazyContent {
+    
+    /**
+     * Decode the content. Each call may decode again, so callers that need the
+     * text more than once should keep the returned string for as long as needed.
+     * 
+     * @return The content text
+     */
+    String get();
+    
+    /**
+     * Get the length of the content in characters without decoding it.
+     * 
+     * @return The number of characters
+     */
+    int length();
+    
+    default boolean isEmpty() {
+        return length() == 0;
+    }
+    
+    /**
+     * Open a reader over the content. Implementations that keep the content outside
+     * the heap decode it as it is read rather than all at once.
+     * 
+     * @return A reader positioned at the start of the content
+     */
+    default Reader openReader() {
+        return new StringReader(get());
+    }
+    
+    /**
+     * Wrap a string that is already in memory.
+     * 
+     * @param text The text, may be null
+     * @return A handle for the text, or null if the text is null
+     */
+    static LazyContent of(String text) {
+        if (text == null) {
+            return null;
+        }
+        return new LazyContent() {
+            @Override
+            public String get() {
+                return text;
+            }
+            
+            @Override
+            public int length() {
+                return text.length();
+            }
+        };
+    }
+}
@@ -0,0 +1,267 @@
+package com.readyapi.converter;
+
+import com.readyapi.converter.GroovyLexer.Token;
+import com.readyapi.converter.GroovyLexer.Type;
+import com.readyapi.converter.GroovyMemberSplitter.Member;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which functions of a project's script libraries a set of scripts can call.
+ * <p>
+ * Each library function is a node whose edges are the names its body refers to.
+ * The analysis is by name only, as Groovy is dynamically typed: a script that
+ * mentions {@code signIn} anywhere, as a call, a method pointer or a word in an
+ * interpolated string, reaches every library function called {@code signIn}, and
+ * a library is loaded when one of its functions is reached or its name or one of
+ * its class names is mentioned. Loading a library also runs its fields and
+ * statements outside methods, so their references are followed too. This keeps
+ * more than is called, never less, with one exception the graph can't see through:
+ * a method called by a computed name, as in {@code lib."$name"()} or
+ * {@code invokeMethod}, which makes every function of the library doing it, or of
+ * every library for a test step doing it, reachable.
+ */
+final class LibraryCallGraph {
+    private static final Pattern WORD = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    /**
+     * The functions and load-time references of one library.
+     */
+    private static final class LibraryNode {
+        private final ReadyApiScriptLibrary library;
+        private final Map<String, References> functions = new LinkedHashMap<>();
+        private final References statements = new References();
+
+        LibraryNode(ReadyApiScriptLibrary library) {
+            this.library = library;
+        }
+    }
+
+    /**
+     * The names a piece of code mentions.
+     */
+    private static final class References {
+        private final Set<String> names = new HashSet<>();
+        private boolean dynamic;
+
+        void add(References other) {
+            names.addAll(other.names);
+            dynamic |= other.dynamic;
+        }
+    }
+
+    private final List<LibraryNode> libraries = new ArrayList<>();
+    // Libraries by the names that load them: their own, their classes' and their functions'
+    private final Map<String, List<LibraryNode>> definitions = new HashMap<>();
+
+    /**
+     * Build the graph of a project's script libraries.
+     *
+     * @param scriptLibraries The script libraries
+     */
+    LibraryCallGraph(Collection<ReadyApiScriptLibrary> scriptLibraries) {
+        for (ReadyApiScriptLibrary scriptLibrary : scriptLibraries) {
+            if (scriptLibrary.getContent() == null || scriptLibrary.getContent().isEmpty()) {
+                continue;
+            }
+            LibraryNode node = new LibraryNode(scriptLibrary);
+            define(scriptLibrary.getName(), node);
+            addMembers(scriptLibrary.getContent(), GroovyMemberSplitter.split(scriptLibrary.getContent()), node);
+            libraries.add(node);
+        }
+    }
+
+    private void addMembers(String source, List<Member> members, LibraryNode node) {
+        for (Member member : members) {
+            switch (member.getKind()) {
+                case CLASS:
+                    define(member.getName(), node);
+                    addMembers(source, member.getMembers(), node);
+                    break;
+
+                case METHOD:
+                    // Overloads share a node, as the analysis can't tell them apart
+                    node.functions.computeIfAbsent(member.getName(), name -> new References())
+                            .add(references(source.subSequence(member.getParametersStart(), member.getBodyEnd())));
+                    define(member.getName(), node);
+                    break;
+
+                case STATEMENT:
+                    node.statements.add(references(source.subSequence(member.getCodeStart(), member.getEnd())));
+                    break;
+
+                default:
+                    // Constructors are kept as comments, and imports don't run
+                    break;
+            }
+        }
+    }
+
+    private void define(String name, LibraryNode node) {
+        List<LibraryNode> nodes = definitions.computeIfAbsent(name, key -> new ArrayList<>(1));
+        if (!nodes.contains(node)) {
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Find the library functions a set of scripts can reach.
+     *
+     * @param scripts The Groovy sources of the calling scripts
+     * @return The functions to keep of each library the scripts load, in library order;
+     *         a library can be loaded with no function kept
+     */
+    Map<ReadyApiScriptLibrary, Set<String>> reachable(Collection<String> scripts) {
+        Map<LibraryNode, Set<String>> kept = new HashMap<>();
+        Deque<String> pending = new ArrayDeque<>();
+        Set<String> seen = new HashSet<>();
+
+        for (String script : scripts) {
+            if (script == null) {
+                continue;
+            }
+            References roots = references(script);
+            if (roots.dynamic) {
+                for (LibraryNode node : libraries) {
+                    keepAll(node, kept, pending);
+                }
+            }
+            pending.addAll(roots.names);
+        }
+
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            if (!seen.add(name)) {
+                continue;
+            }
+            for (LibraryNode node : definitions.getOrDefault(name, Collections.emptyList())) {
+                load(node, kept, pending);
+                References function = node.functions.get(name);
+                if (function != null && kept.get(node).add(name)) {
+                    pending.addAll(function.names);
+                    if (function.dynamic) {
+                        keepAll(node, kept, pending);
+                    }
+                }
+            }
+        }
+
+        Map<ReadyApiScriptLibrary, Set<String>> reachable = new LinkedHashMap<>();
+        for (LibraryNode node : libraries) {
+            Set<String> functions = kept.get(node);
+            if (functions != null) {
+                reachable.put(node.library, inDeclarationOrder(node.library, functions));
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Order function names as the library declares them, so that equal sets found
+     * from different scripts compare and print alike.
+     *
+     * @param scriptLibrary The script library
+     * @param functions Names of functions of the library
+     * @return The names, in declaration order
+     */
+    Set<String> inDeclarationOrder(ReadyApiScriptLibrary scriptLibrary, Set<String> functions) {
+        Set<String> ordered = new LinkedHashSet<>();
+        for (LibraryNode node : libraries) {
+            if (node.library == scriptLibrary) {
+                for (String function : node.functions.keySet()) {
+                    if (functions.contains(function)) {
+                        ordered.add(function);
+                    }
+                }
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * @return The number of distinct function names of a library
+     */
+    int functionCount(ReadyApiScriptLibrary scriptLibrary) {
+        for (LibraryNode node : libraries) {
+            if (node.library == scriptLibrary) {
+                return node.functions.size();
+            }
+        }
+        return 0;
+    }
+
+    private void load(LibraryNode node, Map<LibraryNode, Set<String>> kept, Deque<String> pending) {
+        if (kept.containsKey(node)) {
+            return;
+        }
+        kept.put(node, new HashSet<>());
+        pending.addAll(node.statements.names);
+        if (node.statements.dynamic) {
+            keepAll(node, kept, pending);
+        }
+    }
+
+    private void keepAll(LibraryNode node, Map<LibraryNode, Set<String>> kept, Deque<String> pending) {
+        load(node, kept, pending);
+        for (Map.Entry<String, References> function : node.functions.entrySet()) {
+            if (kept.get(node).add(function.getKey())) {
+                pending.addAll(function.getValue().names);
+            }
+        }
+    }
+
+    /**
+     * Collect the names a piece of Groovy code mentions, and whether it calls a
+     * method by a computed name.
+     */
+    private static References references(CharSequence code) {
+        References references = new References();
+        GroovyLexer lexer = new GroovyLexer(code);
+        boolean afterDot = false;
+        for (Token token = lexer.next(); token.getType() != Type.EOF; token = lexer.next()) {
+            if (!token.isSignificant()) {
+                continue;
+            }
+            String text = code.subSequence(token.getStart(), token.getEnd()).toString();
+            switch (token.getType()) {
+                case IDENTIFIER:
+                    references.names.add(text);
+                    if ("invokeMethod".equals(text)) {
+                        references.dynamic = true;
+                    }
+                    break;
+
+                case STRING:
+                case GSTRING:
+                    if (afterDot) {
+                        references.dynamic = true;
+                    }
+                    if (token.getType() == Type.GSTRING) {
+                        Matcher word = WORD.matcher(text);
+                        while (word.find()) {
+                            references.names.add(word.group());
+                        }
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+            afterDot = token.getType() == Type.OPERATOR && text.endsWith(".");
+        }
+        return references;
+    }
+}
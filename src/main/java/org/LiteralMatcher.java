@@ -0,0 +1,214 @@
+package com.readyapi.converter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton that finds many literal patterns in one scan.
+ * <p>
+ * Matches are reported leftmost-longest and without overlaps: of the patterns that
+ * start at the earliest position, the longest wins, and scanning resumes after it.
+ * So {@code testRunner.testCase.testSuite} is matched as a whole rather than as
+ * {@code testRunner.testCase} followed by the rest, whatever order the patterns
+ * were given in. A matcher is immutable once built and can be shared by threads.
+ */
+final class LiteralMatcher {
+    private final String[] patterns;
+    private final int maxLength;
+
+    // Trie, one entry per node: sorted edge characters and their target nodes
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    // Pattern ending at the node, or -1
+    private final int[] patternAt;
+    // Nearest node along the failure links where a pattern ends, or -1
+    private final int[] outputLink;
+
+    /**
+     * A match of one pattern.
+     */
+    static final class Match {
+        private final int start;
+        private final int end;
+        private final int pattern;
+
+        Match(int start, int end, int pattern) {
+            this.start = start;
+            this.end = end;
+            this.pattern = pattern;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        /**
+         * @return Index of the matched pattern, in the order the patterns were given
+         */
+        int getPattern() {
+            return pattern;
+        }
+    }
+
+    /**
+     * Build a matcher.
+     *
+     * @param patterns The non-empty patterns; for duplicates, the first one is reported
+     */
+    LiteralMatcher(List<String> patterns) {
+        this.patterns = patterns.toArray(new String[0]);
+
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        ends.add(-1);
+
+        int longest = 0;
+        for (int p = 0; p < this.patterns.length; p++) {
+            String pattern = this.patterns[p];
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern at index " + p);
+            }
+            longest = Math.max(longest, pattern.length());
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int edge = chars.get(node).indexOf(String.valueOf(pattern.charAt(i)));
+                if (edge >= 0) {
+                    node = targets.get(node).get(edge);
+                } else {
+                    chars.get(node).append(pattern.charAt(i));
+                    targets.get(node).add(chars.size());
+                    node = chars.size();
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    ends.add(-1);
+                }
+            }
+            if (ends.get(node) < 0) {
+                ends.set(node, p);
+            }
+        }
+        this.maxLength = longest;
+
+        int nodeCount = chars.size();
+        edgeChars = new char[nodeCount][];
+        edgeTargets = new int[nodeCount][];
+        patternAt = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            // Sort the edges by character for binary search
+            String edges = chars.get(node).toString();
+            Integer[] order = new Integer[edges.length()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Character.compare(edges.charAt(a), edges.charAt(b)));
+            edgeChars[node] = new char[order.length];
+            edgeTargets[node] = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                edgeChars[node][i] = edges.charAt(order[i]);
+                edgeTargets[node][i] = targets.get(node).get(order[i]);
+            }
+            patternAt[node] = ends.get(node);
+        }
+
+        // Failure and output links, breadth first
+        failure = new int[nodeCount];
+        outputLink = new int[nodeCount];
+        outputLink[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            failure[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                char c = edgeChars[node][i];
+                int child = edgeTargets[node][i];
+                int fallback = failure[node];
+                while (fallback != 0 && child(fallback, c) < 0) {
+                    fallback = failure[fallback];
+                }
+                int target = child(fallback, c);
+                failure[child] = target >= 0 && target != child ? target : 0;
+                outputLink[child] = patternAt[failure[child]] >= 0 ? failure[child] : outputLink[failure[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    int size() {
+        return patterns.length;
+    }
+
+    String pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Find the leftmost-longest, non-overlapping matches in a text.
+     *
+     * @param text The text to scan
+     * @return The matches, in text order
+     */
+    List<Match> findAll(CharSequence text) {
+        List<Match> matches = new ArrayList<>();
+        int length = text.length();
+        int state = 0;
+        int bestStart = -1;
+        int bestEnd = -1;
+        int bestPattern = -1;
+        for (int i = 0; i < length; i++) {
+            state = step(state, text.charAt(i));
+            int node = patternAt[state] >= 0 ? state : outputLink[state];
+            while (node >= 0) {
+                int pattern = patternAt[node];
+                int start = i + 1 - patterns[pattern].length();
+                if (bestPattern < 0 || start < bestStart || (start == bestStart && i + 1 > bestEnd)) {
+                    bestStart = start;
+                    bestEnd = i + 1;
+                    bestPattern = pattern;
+                }
+                node = outputLink[node];
+            }
+
+            // Once no pattern starting at bestStart can still end, the best match is final
+            if (bestPattern >= 0 && (i + 1 - bestStart >= maxLength || i == length - 1)) {
+                matches.add(new Match(bestStart, bestEnd, bestPattern));
+                i = bestEnd - 1;
+                state = 0;
+                bestPattern = -1;
+            }
+        }
+        return matches;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = child(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    private int child(int node, char c) {
+        int edge = Arrays.binarySearch(edgeChars[node], c);
+        return edge >= 0 ? edgeTargets[node][edge] : -1;
+    }
+}
@@ -0,0 +1,287 @@
+package com.readyapi.converter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk store of parsed model snapshots keyed by the content hash of the XML they
+ * were parsed from.
+ * <p>
+ * Each interface, test suite or composite project file is hashed from its raw bytes.
+ * When a snapshot for the hash exists the model is loaded from it instead of being
+ * parsed again, so a re-run only parses the elements whose bytes changed. Each
+ * project file or directory has an index file recording which hash each of its
+ * elements had on its last run, used to delete the snapshots that project no
+ * longer references. Projects can share a directory: a snapshot still listed in
+ * another project's index is kept.
+ */
+public class ParseSnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(ParseSnapshotStore.class);
+
+    // Bump when the model or the parser changes so that old snapshots are not reused
+    private static final String SNAPSHOT_VERSION = "1";
+    private static final String INDEX_PREFIX = "index-";
+
+    private static final Map<String, Class<?>> MODEL_TYPES = new HashMap<>();
+
+    static {
+        MODEL_TYPES.put("project", ReadyApiProject.class);
+        MODEL_TYPES.put("interface", ReadyApiInterface.class);
+        MODEL_TYPES.put("testSuite", ReadyApiTestSuite.class);
+        MODEL_TYPES.put("testCase", ReadyApiTestCase.class);
+    }
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> currentEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ParseSnapshotStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.objectMapper.addMixIn(ReadyApiTestStep.class, TestStepMixIn.class);
+        this.objectMapper.addMixIn(ReadyApiRequest.class, RequestMixIn.class);
+    }
+
+    /**
+     * Load the model for an element from its snapshot, or parse it and store a new snapshot.
+     *
+     * @param key Stable name of the element within the project, recorded in the index
+     * @param content The raw bytes of the element
+     * @param parser Parses the element when there's no usable snapshot
+     * @return The parsed or loaded model object
+     * @throws Exception If parsing fails
+     */
+    public Object get(String key, ByteBuffer content, ElementParser parser) throws Exception {
+        String hash = hash(content);
+        currentEntries.put(key, hash);
+
+        Path snapshotFile = snapshotFile(hash);
+        if (Files.isRegularFile(snapshotFile)) {
+            try {
+                JsonNode snapshot = objectMapper.readTree(snapshotFile.toFile());
+                Class<?> type = MODEL_TYPES.get(snapshot.path("type").asText());
+                if (type != null) {
+                    Object model = objectMapper.treeToValue(snapshot.get("model"), type);
+                    hits.incrementAndGet();
+                    return model;
+                }
+            } catch (IOException e) {
+                logger.warn("Ignoring unreadable parse snapshot {}: {}", snapshotFile, e.getMessage());
+            }
+        }
+
+        misses.incrementAndGet();
+        Object model = parser.parse();
+        if (model != null) {
+            write(snapshotFile, model);
+        }
+        return model;
+    }
+
+    /**
+     * Write the index of the elements seen in this run and delete snapshots that the
+     * previous run referenced but this one doesn't.
+     *
+     * @param source The project file or directory the elements were parsed from
+     */
+    public void commit(String source) {
+        source = Paths.get(source).toAbsolutePath().normalize().toString();
+        Path indexFile = indexFile(source);
+        Set<String> previousHashes = new HashSet<>();
+        if (Files.isRegularFile(indexFile)) {
+            readHashes(indexFile, previousHashes);
+        }
+
+        ObjectNode index = objectMapper.createObjectNode();
+        index.put("version", SNAPSHOT_VERSION);
+        index.put("source", source);
+        ObjectNode elements = index.putObject("elements");
+        for (Map.Entry<String, String> entry : new TreeMap<>(currentEntries).entrySet()) {
+            elements.put(entry.getKey(), entry.getValue());
+        }
+
+        try {
+            writeAtomically(indexFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(index));
+        } catch (IOException e) {
+            logger.warn("Failed to write parse snapshot index {}: {}", indexFile, e.getMessage());
+            return;
+        }
+
+        previousHashes.removeAll(currentEntries.values());
+        if (!previousHashes.isEmpty()) {
+            // Snapshots of identical elements in other projects are the same files
+            try (DirectoryStream<Path> indexes = Files.newDirectoryStream(directory, INDEX_PREFIX + "*.json")) {
+                for (Path otherIndex : indexes) {
+                    if (!otherIndex.equals(indexFile)) {
+                        Set<String> otherHashes = new HashSet<>();
+                        readHashes(otherIndex, otherHashes);
+                        previousHashes.removeAll(otherHashes);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Keeping stale parse snapshots, other indexes can't be listed: {}", e.getMessage());
+                previousHashes.clear();
+            }
+        }
+        for (String staleHash : previousHashes) {
+            try {
+                Files.deleteIfExists(snapshotFile(staleHash));
+            } catch (IOException e) {
+                logger.debug("Failed to delete stale parse snapshot {}: {}", staleHash, e.getMessage());
+            }
+        }
+
+        logger.info("Parse snapshots: {} reused, {} parsed, {} removed", hits.get(), misses.get(), previousHashes.size());
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private void write(Path snapshotFile, Object model) {
+        String type = null;
+        for (Map.Entry<String, Class<?>> entry : MODEL_TYPES.entrySet()) {
+            if (entry.getValue().isInstance(model)) {
+                type = entry.getKey();
+            }
+        }
+
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        snapshot.put("type", type);
+        snapshot.set("model", objectMapper.valueToTree(model));
+        try {
+            writeAtomically(snapshotFile, objectMapper.writeValueAsBytes(snapshot));
+        } catch (IOException e) {
+            logger.warn("Failed to write parse snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private static void writeAtomically(Path file, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void readHashes(Path indexFile, Set<String> hashes) {
+        try {
+            Iterator<JsonNode> elements = objectMapper.readTree(indexFile.toFile()).path("elements").elements();
+            while (elements.hasNext()) {
+                hashes.add(elements.next().asText());
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable parse snapshot index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    private Path snapshotFile(String hash) {
+        return directory.resolve(hash + ".json");
+    }
+
+    /**
+     * The index of one project, named by the hash of its path. The name doesn't
+     * depend on the snapshot version, so a new version still finds and removes the
+     * snapshots of the old one.
+     */
+    private Path indexFile(String source) {
+        MessageDigest digest = digest();
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+        return directory.resolve(INDEX_PREFIX + hex(digest.digest()) + ".json");
+    }
+
+    private static String hash(ByteBuffer content) {
+        MessageDigest digest = digest();
+        digest.update(SNAPSHOT_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update(content.duplicate());
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Parses an element when no snapshot can be used.
+     */
+    public interface ElementParser {
+        Object parse() throws Exception;
+    }
+
+    /**
+     * Snapshot mapping for test steps: derived flags are not stored and content is
+     * always written as plain text.
+     */
+    abstract static class TestStepMixIn {
+        @JsonIgnore
+        abstract boolean isPreRequestScript();
+
+        @JsonIgnore
+        abstract boolean isTestScript();
+
+        @JsonProperty("content")
+        abstract void setContent(String content);
+
+        @JsonIgnore
+        abstract void setContent(LazyContent content);
+    }
+
+    /**
+     * Snapshot mapping for requests: the body is always written as plain text.
+     */
+    abstract static class RequestMixIn {
+        @JsonProperty("requestBody")
+        abstract void setRequestBody(String requestBody);
+
+        @JsonIgnore
+        abstract void setRequestBody(LazyContent requestBody);
+    }
+}
@@ -0,0 +1,316 @@
+package com.readyapi.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and heap instrumentation for a single project parse.
+ * <p>
+ * Parsers run each project section (properties, interfaces, test suites and script
+ * libraries) through {@link #time}, which records the wall time and the bytes allocated
+ * by the current thread, as reported by {@link ThreadMXBean}. Sections parsed on
+ * worker threads add up their own time and allocation, so section times of a
+ * parallel parse are summed across threads. Element counts are taken from the
+ * parsed model when the parse finishes.
+ */
+public class ParserMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(ParserMetrics.class);
+
+    public static final String PROPERTIES = "properties";
+    public static final String INTERFACES = "interfaces";
+    public static final String TEST_SUITES = "testSuites";
+    public static final String SCRIPT_LIBRARIES = "scriptLibraries";
+
+    private static final List<String> SECTION_ORDER = Arrays.asList(PROPERTIES, INTERFACES, TEST_SUITES, SCRIPT_LIBRARIES);
+
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+    private final Thread ownerThread = Thread.currentThread();
+    private final long startNanos = System.nanoTime();
+    private final long startAllocatedBytes = allocatedBytes();
+    private final LongAdder workerAllocatedBytes = new LongAdder();
+
+    private String source;
+    private long elapsedNanos;
+    private long inputBytes;
+    private long allocatedBytes = -1;
+    private final Map<String, Long> elementCounts = new LinkedHashMap<>();
+
+    /**
+     * Parsing work that produces a result.
+     */
+    @FunctionalInterface
+    public interface Timed<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Parsing work that adds to the project rather than returning a result.
+     */
+    @FunctionalInterface
+    public interface TimedAction<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Time a section on the current thread.
+     *
+     * @param section The section name, such as {@link #INTERFACES}
+     * @param body The work, timed whether it returns or throws
+     * @return What the work returns
+     * @throws E If the work throws
+     */
+    public <T, E extends Exception> T time(String section, Timed<T, E> body) throws E {
+        Timer timer = new Timer(sections.computeIfAbsent(section, name -> new Section()));
+        try {
+            return body.run();
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Time a section on the current thread.
+     *
+     * @param section The section name, such as {@link #INTERFACES}
+     * @param action The work, timed whether it returns or throws
+     * @throws E If the work throws
+     */
+    public <E extends Exception> void time(String section, TimedAction<E> action) throws E {
+        Timer timer = new Timer(sections.computeIfAbsent(section, name -> new Section()));
+        try {
+            action.run();
+        } finally {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Stop the overall clock and count the elements of the parsed project.
+     *
+     * @param source The parsed file or directory
+     * @param inputBytes Size of the input on disk
+     * @param project The parsed project, or null if parsing failed
+     */
+    public void finish(String source, long inputBytes, ReadyApiProject project) {
+        this.elapsedNanos = System.nanoTime() - startNanos;
+        this.source = source;
+        this.inputBytes = inputBytes;
+        long ownerAllocated = allocatedBytes();
+        if (ownerAllocated >= 0 && startAllocatedBytes >= 0) {
+            this.allocatedBytes = ownerAllocated - startAllocatedBytes + workerAllocatedBytes.sum();
+        }
+        if (project != null) {
+            countElements(project);
+        }
+    }
+
+    private void countElements(ReadyApiProject project) {
+        long resources = 0;
+        long methods = 0;
+        long requests = 0;
+        long assertions = 0;
+        long properties = project.getProperties().size();
+        for (ReadyApiInterface apiInterface : project.getInterfaces()) {
+            resources += apiInterface.getResources().size();
+            for (ReadyApiResource resource : apiInterface.getResources()) {
+                methods += resource.getMethods().size();
+                for (ReadyApiMethod method : resource.getMethods()) {
+                    requests += method.getRequests().size();
+                    for (ReadyApiRequest request : method.getRequests()) {
+                        assertions += request.getAssertions().size();
+                    }
+                }
+            }
+        }
+
+        long testCases = 0;
+        long testSteps = 0;
+        for (ReadyApiTestSuite testSuite : project.getTestSuites()) {
+            testCases += testSuite.getTestCases().size();
+            properties += testSuite.getProperties().size();
+            for (ReadyApiTestCase testCase : testSuite.getTestCases()) {
+                testSteps += testCase.getTestSteps().size();
+                properties += testCase.getProperties().size();
+                for (ReadyApiTestStep testStep : testCase.getTestSteps()) {
+                    if (testStep.getRequest() != null) {
+                        requests++;
+                        assertions += testStep.getRequest().getAssertions().size();
+                    }
+                }
+            }
+        }
+
+        elementCounts.put("interface", (long) project.getInterfaces().size());
+        elementCounts.put("resource", resources);
+        elementCounts.put("method", methods);
+        elementCounts.put("request", requests);
+        elementCounts.put("assertion", assertions);
+        elementCounts.put("testSuite", (long) project.getTestSuites().size());
+        elementCounts.put("testCase", testCases);
+        elementCounts.put("testStep", testSteps);
+        elementCounts.put("scriptLibrary", (long) project.getScriptLibraries().size());
+        elementCounts.put("property", properties);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    /**
+     * @return Bytes allocated by the parse across all threads, or -1 if the JVM can't measure it
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public Map<String, Long> getElementCounts() {
+        return elementCounts;
+    }
+
+    public long getElementCount() {
+        long total = 0;
+        for (long count : elementCounts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public double getBytesPerSecond() {
+        return elapsedNanos > 0 ? inputBytes * 1e9 / elapsedNanos : 0;
+    }
+
+    public double getElementsPerSecond() {
+        return elapsedNanos > 0 ? getElementCount() * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Log the summary and one line per section.
+     */
+    public void log() {
+        logger.info("Parsed {} ({} bytes) in {} ms: {} MB/s, {} elements/s, {} MB allocated",
+                source, inputBytes, elapsedNanos / 1_000_000,
+                String.format("%.1f", getBytesPerSecond() / (1024 * 1024)),
+                String.format("%.0f", getElementsPerSecond()),
+                allocatedBytes >= 0 ? String.format("%.1f", allocatedBytes / (1024.0 * 1024)) : "n/a");
+        logger.info("Parsed elements: {}", elementCounts);
+        for (String name : sectionNames()) {
+            Section section = sections.get(name);
+            logger.info("Parse section {}: {} ms over {} calls, {} KB allocated",
+                    name, section.nanos.sum() / 1_000_000, section.calls.sum(), section.allocatedBytes.sum() / 1024);
+        }
+    }
+
+    /**
+     * Write the metrics as a JSON document.
+     *
+     * @param filePath Path to save the file to
+     * @throws IOException If there's an error writing the file
+     */
+    public void saveToFile(String filePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+
+        ObjectNode root = mapper.createObjectNode();
+        root.put("source", source);
+        root.put("inputBytes", inputBytes);
+        root.put("elapsedMillis", elapsedNanos / 1_000_000.0);
+        root.put("bytesPerSecond", getBytesPerSecond());
+        root.put("elementsPerSecond", getElementsPerSecond());
+        root.put("allocatedBytes", allocatedBytes);
+        ObjectNode counts = root.putObject("elementCounts");
+        for (Map.Entry<String, Long> entry : elementCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        ObjectNode sectionsNode = root.putObject("sections");
+        for (String name : sectionNames()) {
+            Section section = sections.get(name);
+            ObjectNode sectionNode = sectionsNode.putObject(name);
+            sectionNode.put("calls", section.calls.sum());
+            sectionNode.put("elapsedMillis", section.nanos.sum() / 1_000_000.0);
+            sectionNode.put("allocatedBytes", section.allocatedBytes.sum());
+        }
+
+        mapper.writeValue(new File(filePath), root);
+        logger.info("Saved parser metrics to: {}", filePath);
+    }
+
+    private List<String> sectionNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : SECTION_ORDER) {
+            if (sections.containsKey(name)) {
+                names.add(name);
+            }
+        }
+        for (String name : sections.keySet()) {
+            if (!names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or -1 if the JVM can't report it.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static class Section {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+    }
+
+    /**
+     * Measures one run of a section on the current thread.
+     */
+    private class Timer {
+        private final Section section;
+        private final long startNanos = System.nanoTime();
+        private final long startAllocatedBytes = allocatedBytes();
+
+        private Timer(Section section) {
+            this.section = section;
+        }
+
+        void stop() {
+            section.calls.increment();
+            section.nanos.add(System.nanoTime() - startNanos);
+            long endAllocatedBytes = allocatedBytes();
+            if (startAllocatedBytes >= 0 && endAllocatedBytes >= 0) {
+                long allocated = endAllocatedBytes - startAllocatedBytes;
+                section.allocatedBytes.add(allocated);
+                if (Thread.currentThread() != ownerThread) {
+                    workerAllocatedBytes.add(allocated);
+                }
+            }
+        }
+    }
+}
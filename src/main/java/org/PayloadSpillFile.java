@@ -0,0 +1,167 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Temporary file that large payloads are spilled to while a project is parsed.
+ * <p>
+ * Each spilled payload is appended as UTF-8 and represented by a {@link LazyContent}
+ * holding its offset and length, which reads and decodes it again on demand. The
+ * file is deleted when it is closed or when the JVM exits.
+ */
+public class PayloadSpillFile implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(PayloadSpillFile.class);
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final int threshold;
+    private long size;
+    private int payloadCount;
+    
+    /**
+     * Create a spill file in the default temporary directory.
+     * 
+     * @param threshold Minimum payload length in characters that is spilled
+     * @throws IOException If the file can't be created
+     */
+    public PayloadSpillFile(int threshold) throws IOException {
+        this.threshold = threshold;
+        this.path = Files.createTempFile("readyapi-payloads", ".spill");
+        this.path.toFile().deleteOnExit();
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+    
+    /**
+     * Get a handle for a payload, spilling it to disk if it's at least the threshold length.
+     * 
+     * @param text The payload text, may be null
+     * @return A handle for the payload, or null if the text is null
+     */
+    public LazyContent store(String text) {
+        if (text == null || text.length() < threshold) {
+            return LazyContent.of(text);
+        }
+        
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(text);
+        int byteLength = bytes.remaining();
+        long offset;
+        synchronized (this) {
+            offset = size;
+            size += byteLength;
+            payloadCount++;
+        }
+        try {
+            long position = offset;
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to spill payload to {}, keeping it in memory: {}", path, e.getMessage());
+            return LazyContent.of(text);
+        }
+        return new SpilledContent(offset, byteLength, text.length());
+    }
+    
+    /**
+     * Get the number of payloads spilled so far.
+     * 
+     * @return The spilled payload count
+     */
+    public synchronized int getPayloadCount() {
+        return payloadCount;
+    }
+    
+    /**
+     * Get the number of bytes spilled so far.
+     * 
+     * @return The spill file size
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Handle to a payload stored in the spill file.
+     */
+    private class SpilledContent implements LazyContent {
+        private final long offset;
+        private final int byteLength;
+        private final int charLength;
+        
+        SpilledContent(long offset, int byteLength, int charLength) {
+            this.offset = offset;
+            this.byteLength = byteLength;
+            this.charLength = charLength;
+        }
+        
+        @Override
+        public String get() {
+            ByteBuffer bytes = ByteBuffer.allocate(byteLength);
+            try {
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, offset + bytes.position()) < 0) {
+                        throw new IOException("Unexpected end of spill file " + path);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read spilled payload from " + path, e);
+            }
+            bytes.flip();
+            return StandardCharsets.UTF_8.decode(bytes).toString();
+        }
+        
+        @Override
+        public Reader openReader() {
+            InputStream stream = new InputStream() {
+                private long position = offset;
+                private final long end = offset + byteLength;
+                
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+                }
+                
+                @Override
+                public int read(byte[] buffer, int off, int len) throws IOException {
+                    if (position >= end) {
+                        return -1;
+                    }
+                    ByteBuffer target = ByteBuffer.wrap(buffer, off, (int) Math.min(len, end - position));
+                    int read = channel.read(target, position);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of spill file " + path);
+                    }
+                    position += read;
+                    return read;
+                }
+            };
+            return new InputStreamReader(stream, StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public int length() {
+            return charLength;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.readyapi.converter;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +22,7 @@ public class PostmanCollection {
     
     private PostmanInfo info;
     private List<PostmanItem> item = new ArrayList<>();
+    private List<PostmanEvent> event;
     private List<PostmanVariable> variable = new ArrayList<>();
     private List<String> conversionIssues = new ArrayList<>();
     
@@ -51,6 +54,28 @@ public class PostmanCollection {
         this.item.add(item);
     }
     
+    /**
+     * Scripts that run around every request of the collection, before those of its folders and the request.
+     * 
+     * @return The collection-level events, or null if there are none
+     */
+    @JsonProperty("event")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<PostmanEvent> getEvent() {
+        return event;
+    }
+    
+    public void setEvent(List<PostmanEvent> event) {
+        this.event = event;
+    }
+    
+    public void addEvent(PostmanEvent event) {
+        if (this.event == null) {
+            this.event = new ArrayList<>();
+        }
+        this.event.add(event);
+    }
+    
     @JsonProperty("variable")
     public List<PostmanVariable> getVariable() {
         return variable;
@@ -85,7 +110,18 @@ public class PostmanCollection {
     public void saveToFile(String filePath) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        mapper.writeValue(new File(filePath), this);
+        saveToFile(filePath, mapper.writer());
+    }
+    
+    /**
+     * Save the collection to a JSON file with a given writer.
+     * 
+     * @param filePath Path to save the file
+     * @param writer The JSON writer, such as a conversion context's pretty writer
+     * @throws IOException If there's an error writing the file
+     */
+    public void saveToFile(String filePath, ObjectWriter writer) throws IOException {
+        writer.writeValue(new File(filePath), this);
         logger.info("Saved Postman collection to: {}", filePath);
     }
     
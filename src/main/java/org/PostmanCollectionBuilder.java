@@ -3,16 +3,19 @@ package com.readyapi.converter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.TextNode;
-import com.fasterxml.jackson.databind.node.NullNode;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Builder for creating Postman collections from ReadyAPI projects.
@@ -20,13 +23,34 @@ import com.fasterxml.jackson.databind.node.NullNode;
 public class PostmanCollectionBuilder {
     private static final Logger logger = LoggerFactory.getLogger(PostmanCollectionBuilder.class);
     
+    // Postman variables, kept as they are when a URL part is encoded
+    private static final Pattern POSTMAN_VARIABLE = Pattern.compile("\\{\\{[^{}]*\\}\\}");
+    
     private final ReadyApiProject project;
+    private final ConversionContext context;
     private final List<String> conversionIssues = new ArrayList<>();
-    private final ObjectMapper objectMapper;
+    
+    // Scripts are converted on this many threads before the collection is assembled
+    private int conversionThreads = Runtime.getRuntime().availableProcessors();
+    private ScriptConversionStage scriptStage;
+    
+    // Inline only the library functions test cases can call, in the folders that use them
+    private boolean libraryPruning = true;
+    // Library functions to load, by the project, test suite or test case whose folder loads them
+    private Map<Object, Map<ReadyApiScriptLibrary, Set<String>>> libraryPlan = Collections.emptyMap();
     
     public PostmanCollectionBuilder(ReadyApiProject project) {
-        this.project = project;
-        this.objectMapper = new ObjectMapper();
+        this(new ConversionContext(project));
+    }
+    
+    /**
+     * Create a builder that shares converted scripts with the other builders of a run.
+     * 
+     * @param context The run's conversion context
+     */
+    public PostmanCollectionBuilder(ConversionContext context) {
+        this.project = context.getProject();
+        this.context = context;
     }
     
     /**
@@ -49,14 +73,34 @@ public class PostmanCollectionBuilder {
         PostmanItem testSuitesFolder = new PostmanItem();
         testSuitesFolder.setName("Test Suites");
         
-        // Add interfaces
-        addInterfaces(interfacesFolder);
-        
-        // Add test suites
-        addTestSuites(testSuitesFolder);
+        try (ScriptConversionStage stage = new ScriptConversionStage(conversionThreads)) {
+            // Start converting every script, then assemble the events in project order
+            scriptStage = stage;
+            stage.submitAll(context);
+            
+            // Add interfaces
+            addInterfaces(interfacesFolder);
+            
+            // Without pruning, every request loads every library
+            if (libraryPruning) {
+                libraryPlan = planLibraries();
+                addLibraries(project, collection::addEvent);
+            } else {
+                addSharedPrelude(collection);
+            }
+            
+            // Add test suites
+            addTestSuites(testSuitesFolder);
+            
+            // Add variables
+            addVariables(collection);
+        } finally {
+            scriptStage = null;
+            libraryPlan = Collections.emptyMap();
+        }
         
-        // Add variables
-        addVariables(collection);
+        // Scripts kept as comments because they ran out of conversion time
+        conversionIssues.addAll(ScriptConverter.drainConversionIssues());
         
         // Add main folders to collection
         if (interfacesFolder.getItem() != null && !interfacesFolder.getItem().isEmpty()) {
@@ -103,6 +147,7 @@ public class PostmanCollectionBuilder {
                         
                         String urlString = endpoint + resource.getPath();
                         postmanRequest.setUrl(PostmanRequest.PostmanUrl.parse(urlString));
+                        addQueryParameters(postmanRequest, request);
                         
                         // Set headers
                         for (Map.Entry<String, String> header : request.getRequestHeaders().entrySet()) {
@@ -110,7 +155,7 @@ public class PostmanCollectionBuilder {
                         }
                         
                         // Set body
-                        if (request.getRequestBody() != null && !request.getRequestBody().isEmpty()) {
+                        if (request.hasRequestBody()) {
                             PostmanRequest.PostmanBody body = new PostmanRequest.PostmanBody();
                             body.setMode("raw");
                             body.setRaw(request.getRequestBody());
@@ -146,7 +191,7 @@ public class PostmanCollectionBuilder {
                             
                             // Add each assertion
                             for (ReadyApiAssertion assertion : request.getAssertions()) {
-                                String assertionScript = assertion.toPostmanTest();
+                                String assertionScript = context.getAssertionTest(assertion);
                                 testScript.append(assertionScript).append("\n");
                             }
                             
@@ -167,42 +212,209 @@ public class PostmanCollectionBuilder {
     }
     
     /**
-     * Add test suites to the Postman collection.
+     * Add the script library imports as a collection-level pre-request script.
+     * <p>
+     * Postman runs it once before each request, ahead of the folder and request
+     * scripts. The libraries are assigned without a declaration, which makes them
+     * globals of the sandbox and so visible to the scripts that run after it.
      * 
-     * @param testSuitesFolder The test suites folder item
+     * @param collection The Postman collection
      */
-    private void addTestSuites(PostmanItem testSuitesFolder) {
-        Map<String, String> scriptLibraryMap = new HashMap<>();
+    private void addSharedPrelude(PostmanCollection collection) {
+        if (project.getScriptLibraries().isEmpty()) {
+            return;
+        }
         
-        // First, convert script libraries to JavaScript
+        StringBuilder prelude = new StringBuilder();
+        prelude.append("// Import script libraries\n");
         for (ReadyApiScriptLibrary scriptLibrary : project.getScriptLibraries()) {
-            String jsLibrary = scriptLibrary.convertToJavaScript();
-            scriptLibraryMap.put(scriptLibrary.getName(), jsLibrary);
+            String name = scriptLibrary.getName();
+            prelude.append("// Include ").append(name).append("\n");
+            prelude.append(name).append(" = pm.collectionVariables.get(\"").append(name).append("\");\n");
+            prelude.append("if (").append(name).append(" !== null) {\n");
+            prelude.append("    ").append(name).append(" = JSON.parse(").append(name).append(");\n");
+            prelude.append("}\n\n");
+        }
+        collection.addEvent(PostmanEvent.createPreRequestScript(prelude.toString()));
+    }
+    
+    /**
+     * Find the script library functions each test case can call, with
+     * {@link LibraryCallGraph}, and decide which folder loads them. A library is
+     * loaded once, with the functions any of its users need, by the innermost
+     * folder holding all the test cases that use it: the test case's own, its test
+     * suite's, or the collection. Libraries no test case uses aren't loaded at all.
+     * 
+     * @return The libraries and functions to load, by the project, test suite or test case loading them
+     */
+    private Map<Object, Map<ReadyApiScriptLibrary, Set<String>>> planLibraries() {
+        Map<Object, Map<ReadyApiScriptLibrary, Set<String>>> plan = new IdentityHashMap<>();
+        if (project.getScriptLibraries().isEmpty()) {
+            return plan;
+        }
+        
+        LibraryCallGraph callGraph = context.getLibraryCallGraph();
+        Map<ReadyApiScriptLibrary, Set<String>> functions = new IdentityHashMap<>();
+        Map<ReadyApiScriptLibrary, Set<ReadyApiTestSuite>> suites = new IdentityHashMap<>();
+        Map<ReadyApiScriptLibrary, Set<ReadyApiTestCase>> testCases = new IdentityHashMap<>();
+        for (ReadyApiTestSuite testSuite : project.getTestSuites()) {
+            for (ReadyApiTestCase testCase : testSuite.getTestCases()) {
+                // Only test cases with a request become folders whose scripts run
+                List<String> scripts = new ArrayList<>();
+                boolean hasRequest = false;
+                for (ReadyApiTestStep testStep : testCase.getTestSteps()) {
+                    if ("restrequest".equalsIgnoreCase(testStep.getType())) {
+                        hasRequest |= testStep.getRequest() != null;
+                    } else if (testStep.isPreRequestScript() || testStep.isTestScript()) {
+                        scripts.add(testStep.getContent());
+                    }
+                }
+                if (!hasRequest || scripts.isEmpty()) {
+                    continue;
+                }
+                
+                for (Map.Entry<ReadyApiScriptLibrary, Set<String>> used : callGraph.reachable(scripts).entrySet()) {
+                    functions.computeIfAbsent(used.getKey(), library -> new HashSet<>()).addAll(used.getValue());
+                    suites.computeIfAbsent(used.getKey(), library -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                            .add(testSuite);
+                    testCases.computeIfAbsent(used.getKey(), library -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                            .add(testCase);
+                }
+            }
         }
         
+        // In project order, keeping the functions in declaration order
+        for (ReadyApiScriptLibrary library : project.getScriptLibraries()) {
+            Set<String> used = functions.get(library);
+            if (used == null) {
+                continue;
+            }
+            Object owner;
+            if (suites.get(library).size() > 1) {
+                owner = project;
+            } else if (testCases.get(library).size() > 1) {
+                owner = suites.get(library).iterator().next();
+            } else {
+                owner = testCases.get(library).iterator().next();
+            }
+            plan.computeIfAbsent(owner, key -> new LinkedHashMap<>()).put(library, callGraph.inDeclarationOrder(library, used));
+        }
+        return plan;
+    }
+    
+    /**
+     * Add a pre-request script loading the libraries planned for a project or test
+     * suite to its collection or folder.
+     */
+    private void addLibraries(Object owner, Consumer<PostmanEvent> events) {
+        StringBuilder script = new StringBuilder();
+        appendLibraries(owner, script);
+        if (script.length() > 0) {
+            events.accept(PostmanEvent.createPreRequestScript(script.toString()));
+        }
+    }
+    
+    /**
+     * Append the libraries planned for a project, test suite or test case to a
+     * pre-request script. Each library is assigned to a sandbox global named after
+     * it, as the shared prelude does, so the scripts that run after it, in inner
+     * folders and after the request, can call it.
+     */
+    private void appendLibraries(Object owner, StringBuilder script) {
+        Map<ReadyApiScriptLibrary, Set<String>> libraries = libraryPlan.get(owner);
+        if (libraries == null) {
+            return;
+        }
+        LibraryCallGraph callGraph = context.getLibraryCallGraph();
+        for (Map.Entry<ReadyApiScriptLibrary, Set<String>> used : libraries.entrySet()) {
+            ReadyApiScriptLibrary library = used.getKey();
+            script.append("// Include ").append(library.getName()).append(": ")
+                    .append(used.getValue().size()).append(" of ").append(callGraph.functionCount(library))
+                    .append(" functions, the ones the test cases in this folder can call\n");
+            script.append(library.getName()).append(" = (function() {\n");
+            script.append(context.getLibraryScript(library, used.getValue()));
+            script.append("return pm.functionLibrary;\n");
+            script.append("})();\n\n");
+        }
+    }
+    
+    /**
+     * Check that the script steps of a test case that create
+     * {@code soapui.utils.FunctionLibrary}, translated to a reference to the
+     * {@link ScriptConverter#FUNCTION_LIBRARY} global, run after a script loading the
+     * library of that name, and report them as a conversion issue if they don't.
+     * 
+     * @param testSuite The test suite
+     * @param testCase The test case
+     * @param scriptSteps Script steps of the test case
+     * @param restRequestSteps REST request steps of the test case, without which its scripts don't run
+     */
+    private void checkLibraryReferences(ReadyApiTestSuite testSuite, ReadyApiTestCase testCase,
+            List<ReadyApiTestStep> scriptSteps, List<ReadyApiTestStep> restRequestSteps) {
+        boolean hasRequest = false;
+        for (ReadyApiTestStep restStep : restRequestSteps) {
+            hasRequest |= restStep.getRequest() != null;
+        }
+        if (!hasRequest) {
+            return;
+        }
+        for (ReadyApiTestStep scriptStep : scriptSteps) {
+            String content = scriptStep.getContent();
+            if (content != null && ScriptConverter.createsFunctionLibrary(content)
+                    && !isLibraryLoaded(ScriptConverter.FUNCTION_LIBRARY, testSuite, testCase)) {
+                conversionIssues.add("Script library " + ScriptConverter.FUNCTION_LIBRARY + " not loaded for step: "
+                        + scriptStep.getName() + " in test case: " + testCase.getName());
+            }
+        }
+    }
+    
+    /**
+     * @return Whether a script library is loaded by the collection or by the folder of
+     *         a test suite or test case, so the test case's scripts can use its global
+     */
+    private boolean isLibraryLoaded(String name, ReadyApiTestSuite testSuite, ReadyApiTestCase testCase) {
+        if (!libraryPruning) {
+            // The shared prelude loads every library
+            for (ReadyApiScriptLibrary library : project.getScriptLibraries()) {
+                if (name.equals(library.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Object owner : new Object[] {project, testSuite, testCase}) {
+            Map<ReadyApiScriptLibrary, Set<String>> libraries = libraryPlan.get(owner);
+            if (libraries == null) {
+                continue;
+            }
+            for (ReadyApiScriptLibrary library : libraries.keySet()) {
+                if (name.equals(library.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Add test suites to the Postman collection.
+     * <p>
+     * The scripts a test case shares between its requests go on the test case
+     * folder, so each request only carries its own assertions.
+     * 
+     * @param testSuitesFolder The test suites folder item
+     */
+    private void addTestSuites(PostmanItem testSuitesFolder) {
         // Convert test suites
         for (ReadyApiTestSuite testSuite : project.getTestSuites()) {
             PostmanItem testSuiteFolder = new PostmanItem();
             testSuiteFolder.setName(testSuite.getName());
+            addLibraries(testSuite, testSuiteFolder::addEvent);
             
             for (ReadyApiTestCase testCase : testSuite.getTestCases()) {
                 PostmanItem testCaseFolder = new PostmanItem();
                 testCaseFolder.setName(testCase.getName());
                 
-                // Add setup script with library imports
-                StringBuilder setupScript = new StringBuilder();
-                setupScript.append("// Import script libraries\n");
-                
-                for (Map.Entry<String, String> libraryEntry : scriptLibraryMap.entrySet()) {
-                    setupScript.append("// Include ").append(libraryEntry.getKey()).append("\n");
-                    setupScript.append("let ").append(libraryEntry.getKey()).append(" = pm.collectionVariables.get(\"")
-                            .append(libraryEntry.getKey()).append("\");\n");
-                    setupScript.append("if (").append(libraryEntry.getKey()).append(" !== null) {\n");
-                    setupScript.append("    ").append(libraryEntry.getKey()).append(" = JSON.parse(")
-                            .append(libraryEntry.getKey()).append(");\n");
-                    setupScript.append("}\n\n");
-                }
-                
                 // Process test steps
                 List<ReadyApiTestStep> restRequestSteps = new ArrayList<>();
                 List<ReadyApiTestStep> preRequestScriptSteps = new ArrayList<>();
@@ -222,10 +434,28 @@ public class PostmanCollectionBuilder {
                     }
                 }
                 
-                // Process pre-request scripts
+                checkLibraryReferences(testSuite, testCase, preRequestScriptSteps, restRequestSteps);
+                checkLibraryReferences(testSuite, testCase, testScriptSteps, restRequestSteps);
+                
+                // Process pre-request scripts, run before each request of the test case
+                StringBuilder setupScript = new StringBuilder();
+                appendLibraries(testCase, setupScript);
                 for (ReadyApiTestStep scriptStep : preRequestScriptSteps) {
                     setupScript.append("// From test step: ").append(scriptStep.getName()).append("\n");
-                    setupScript.append(scriptStep.convertGroovyToJavaScript()).append("\n\n");
+                    setupScript.append(scriptStage.get(scriptStep)).append("\n\n");
+                }
+                if (setupScript.length() > 0) {
+                    testCaseFolder.addEvent(PostmanEvent.createPreRequestScript(setupScript.toString()));
+                }
+                
+                // Process test scripts, run after each request of the test case
+                StringBuilder sharedTestScript = new StringBuilder();
+                for (ReadyApiTestStep scriptStep : testScriptSteps) {
+                    sharedTestScript.append("// From test step: ").append(scriptStep.getName()).append("\n");
+                    sharedTestScript.append(scriptStage.get(scriptStep)).append("\n\n");
+                }
+                if (sharedTestScript.length() > 0) {
+                    testCaseFolder.addEvent(PostmanEvent.createTest(sharedTestScript.toString()));
                 }
                 
                 // Add test steps to test case folder
@@ -257,6 +487,7 @@ public class PostmanCollectionBuilder {
                     String endpoint = readyRequest.getEndpoint();
                     
                     postmanRequest.setUrl(PostmanRequest.PostmanUrl.parse(endpoint));
+                    addQueryParameters(postmanRequest, readyRequest);
                     
                     // Set headers
                     for (Map.Entry<String, String> header : readyRequest.getRequestHeaders().entrySet()) {
@@ -264,7 +495,7 @@ public class PostmanCollectionBuilder {
                     }
                     
                     // Set body
-                    if (readyRequest.getRequestBody() != null && !readyRequest.getRequestBody().isEmpty()) {
+                    if (readyRequest.hasRequestBody()) {
                         PostmanRequest.PostmanBody body = new PostmanRequest.PostmanBody();
                         body.setMode("raw");
                         body.setRaw(readyRequest.getRequestBody());
@@ -294,25 +525,15 @@ public class PostmanCollectionBuilder {
                         postmanRequest.setBody(body);
                     }
                     
-                    // Add pre-request script
-                    PostmanEvent preRequestEvent = PostmanEvent.createPreRequestScript(setupScript.toString());
-                    requestItem.addEvent(preRequestEvent);
-                    
                     // Add assertions as test scripts
                     StringBuilder testScript = new StringBuilder();
                     
                     // Add each assertion
                     for (ReadyApiAssertion assertion : readyRequest.getAssertions()) {
-                        String assertionScript = assertion.toPostmanTest();
+                        String assertionScript = context.getAssertionTest(assertion);
                         testScript.append(assertionScript).append("\n");
                     }
                     
-                    // Add test scripts
-                    for (ReadyApiTestStep scriptStep : testScriptSteps) {
-                        testScript.append("// From test step: ").append(scriptStep.getName()).append("\n");
-                        testScript.append(scriptStep.convertGroovyToJavaScript()).append("\n\n");
-                    }
-                    
                     if (testScript.length() > 0) {
                         PostmanEvent testEvent = PostmanEvent.createTest(testScript.toString());
                         requestItem.addEvent(testEvent);
@@ -335,6 +556,53 @@ public class PostmanCollectionBuilder {
         }
     }
     
+    /**
+     * Add the query parameters of a ReadyAPI request to a Postman request URL. Names
+     * and values are percent-encoded, in the raw URL and in the query list alike, so
+     * Postman reads the same parameters back from either.
+     * 
+     * @param postmanRequest The Postman request with its URL already set
+     * @param readyRequest The ReadyAPI request
+     */
+    private void addQueryParameters(PostmanRequest postmanRequest, ReadyApiRequest readyRequest) {
+        PostmanRequest.PostmanUrl url = postmanRequest.getUrl();
+        if (readyRequest.getQueryParameters().isEmpty() || url == null || url.getRaw() == null) {
+            return;
+        }
+        
+        StringBuilder raw = new StringBuilder(url.getRaw());
+        for (Map.Entry<String, String> parameter : readyRequest.getQueryParameters().entrySet()) {
+            String name = encodeQueryComponent(parameter.getKey());
+            String value = encodeQueryComponent(parameter.getValue());
+            raw.append(raw.indexOf("?") < 0 ? '?' : '&').append(name).append('=').append(value);
+            url.addQueryParam(name, value);
+        }
+        url.setRaw(raw.toString());
+    }
+    
+    /**
+     * Percent-encode a query parameter name or value, leaving Postman variables such
+     * as {@code {{token}}} to be resolved when the request is sent.
+     * 
+     * @param text The name or value, or null for an empty one
+     * @return The encoded text
+     */
+    private static String encodeQueryComponent(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder encoded = new StringBuilder(text.length() + 16);
+        Matcher variable = POSTMAN_VARIABLE.matcher(text);
+        int start = 0;
+        while (variable.find()) {
+            encoded.append(URLEncoder.encode(text.substring(start, variable.start()), StandardCharsets.UTF_8).replace("+", "%20"));
+            encoded.append(variable.group());
+            start = variable.end();
+        }
+        encoded.append(URLEncoder.encode(text.substring(start), StandardCharsets.UTF_8).replace("+", "%20"));
+        return encoded.toString();
+    }
+    
     /**
      * Add variables to the Postman collection.
      * 
@@ -347,14 +615,45 @@ public class PostmanCollectionBuilder {
             collection.addVariable(variable);
         }
         
-        // Add script libraries as variables
+        // Add script libraries as variables, for the shared prelude to load
+        if (libraryPruning) {
+            return;
+        }
         for (ReadyApiScriptLibrary scriptLibrary : project.getScriptLibraries()) {
             PostmanVariable variable = new PostmanVariable(scriptLibrary.getName(), 
-                    scriptLibrary.convertToJavaScript(), "string");
+                    context.getLibraryVariable(scriptLibrary), "string");
             collection.addVariable(variable);
         }
     }
     
+    public boolean isLibraryPruning() {
+        return libraryPruning;
+    }
+    
+    /**
+     * Choose how script libraries reach the test scripts.
+     * 
+     * @param libraryPruning true to inline only the library functions the test cases
+     *                       can call, once, in the folders that use them; false to load
+     *                       every library before every request from collection variables
+     */
+    public void setLibraryPruning(boolean libraryPruning) {
+        this.libraryPruning = libraryPruning;
+    }
+    
+    public int getConversionThreads() {
+        return conversionThreads;
+    }
+    
+    /**
+     * Set the number of threads that convert scripts.
+     * 
+     * @param conversionThreads Thread count; 1 converts every script on the building thread
+     */
+    public void setConversionThreads(int conversionThreads) {
+        this.conversionThreads = Math.max(1, conversionThreads);
+    }
+    
     /**
      * Get the list of conversion issues.
      * 
@@ -14,6 +14,21 @@ import java.io.IOException;
 public class PostmanCollectionValidator {
     private static final Logger logger = LoggerFactory.getLogger(PostmanCollectionValidator.class);
     
+    private final ObjectMapper mapper;
+    
+    public PostmanCollectionValidator() {
+        this(new ObjectMapper());
+    }
+    
+    /**
+     * Create a validator that reads collections with a shared mapper.
+     * 
+     * @param mapper The mapper, such as a conversion context's
+     */
+    public PostmanCollectionValidator(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+    
     /**
      * Validate a Postman collection JSON file.
      * 
@@ -25,7 +40,6 @@ public class PostmanCollectionValidator {
         
         try {
             // Load the collection JSON
-            ObjectMapper mapper = new ObjectMapper();
             JsonNode rootNode = mapper.readTree(new File(filePath));
             
             // Validate required fields
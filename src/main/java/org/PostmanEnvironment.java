@@ -2,6 +2,7 @@ package com.readyapi.converter;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,7 +76,18 @@ public class PostmanEnvironment {
     public void saveToFile(String filePath) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        mapper.writeValue(new File(filePath), this);
+        saveToFile(filePath, mapper.writer());
+    }
+    
+    /**
+     * Save the environment to a JSON file with a given writer.
+     * 
+     * @param filePath Path to save the file
+     * @param writer The JSON writer, such as a conversion context's pretty writer
+     * @throws IOException If there's an error writing the file
+     */
+    public void saveToFile(String filePath, ObjectWriter writer) throws IOException {
+        writer.writeValue(new File(filePath), this);
         logger.info("Saved Postman environment to: {}", filePath);
     }
     
@@ -1,6 +1,5 @@
 package com.readyapi.converter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -15,13 +14,20 @@ public class PostmanEnvironmentBuilder {
     private static final Logger logger = LoggerFactory.getLogger(PostmanEnvironmentBuilder.class);
     
     private final ReadyApiProject project;
-    private final ObjectMapper objectMapper;
-    private final FunctionLibraryConverter libraryConverter;
+    private final ConversionContext context;
     
     public PostmanEnvironmentBuilder(ReadyApiProject project) {
-        this.project = project;
-        this.objectMapper = new ObjectMapper();
-        this.libraryConverter = new FunctionLibraryConverter();
+        this(new ConversionContext(project));
+    }
+    
+    /**
+     * Create a builder that reuses the script libraries already converted for the collection.
+     * 
+     * @param context The run's conversion context
+     */
+    public PostmanEnvironmentBuilder(ConversionContext context) {
+        this.project = context.getProject();
+        this.context = context;
     }
     
     /**
@@ -51,9 +57,12 @@ public class PostmanEnvironmentBuilder {
         // Add function libraries as environment variables
         for (ReadyApiScriptLibrary library : project.getScriptLibraries()) {
             try {
-                String libraryJson = libraryConverter.convertLibraryToPostmanVariable(library.getName(), library.getContent());
-                PostmanEnvironment.PostmanEnvironmentVariable variable = objectMapper.readValue(libraryJson, PostmanEnvironment.PostmanEnvironmentVariable.class);
-                variables.add(variable);
+                String libraryScript = context.getLibraryScript(library);
+                if (libraryScript == null) {
+                    logger.error("Failed to convert library: {}: no content", library.getName());
+                    continue;
+                }
+                variables.add(new PostmanEnvironment.PostmanEnvironmentVariable(library.getName(), libraryScript, "string"));
             } catch (Exception e) {
                 // Log error but continue with other variables
                 logger.error("Failed to convert library: {}: {}", library.getName(), e.getMessage());
@@ -2,6 +2,7 @@ package com.readyapi.converter;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Represents a ReadyAPI assertion.
@@ -58,6 +59,52 @@ public class ReadyApiAssertion {
      * @return JavaScript code for Postman tests
      */
     public String toPostmanTest() {
+        ConversionDiskCache cache = ScriptConverter.getDiskCache();
+        if (cache == null) {
+            return buildPostmanTest();
+        }
+        
+        String key = getContentKey();
+        String test = cache.get("assertion", key);
+        if (test == null) {
+            test = buildPostmanTest();
+            cache.put("assertion", key, test);
+        }
+        return test;
+    }
+    
+    /**
+     * Key on everything the test is built from, with the configuration in a stable
+     * order, so that assertions with the same type and configuration share a test.
+     * 
+     * @return The key
+     */
+    String getContentKey() {
+        StringBuilder key = new StringBuilder();
+        appendKeyPart(key, type);
+        for (Map.Entry<String, String> property : new TreeMap<>(configuration).entrySet()) {
+            appendKeyPart(key, property.getKey());
+            appendKeyPart(key, property.getValue());
+        }
+        return key.toString();
+    }
+    
+    /**
+     * Append a string to a cache key, prefixed with its length so that the parts of
+     * different keys can't run together into the same text.
+     * 
+     * @param key The key being built
+     * @param part The string, or null
+     */
+    private static void appendKeyPart(StringBuilder key, String part) {
+        if (part == null) {
+            key.append("-;");
+        } else {
+            key.append(part.length()).append(':').append(part).append(';');
+        }
+    }
+    
+    private String buildPostmanTest() {
         StringBuilder js = new StringBuilder();
         
         switch (type) {
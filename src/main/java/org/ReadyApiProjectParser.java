@@ -7,8 +7,27 @@ import org.dom4j.io.SAXReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Parser for ReadyAPI project XML files.
@@ -16,18 +35,172 @@ import java.util.List;
 public class ReadyApiProjectParser {
     private static final Logger logger = LoggerFactory.getLogger(ReadyApiProjectParser.class);
     
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String ZIP_SUFFIX = ".zip";
+    
+    // Elements recorded by the byte-level index of a mapped project file
+    private static final Set<String> INDEXED_ELEMENTS = new HashSet<>(Arrays.asList(
+            "interface", "testSuite", "testCase", "testStep", "scriptLibrary"));
+    
+    // When set, projects are parsed with StAX instead of being loaded into a DOM
+    private boolean streaming;
+    
+    public boolean isStreaming() {
+        return streaming;
+    }
+    
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+    
+    // When set, the project file is memory-mapped and parsed range by range
+    private boolean memoryMapped;
+    
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+    
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+    
+    // When set, streamed scripts and request bodies over its threshold are spilled to this file
+    private PayloadSpillFile payloadSpillFile;
+    
+    public PayloadSpillFile getPayloadSpillFile() {
+        return payloadSpillFile;
+    }
+    
+    public void setPayloadSpillFile(PayloadSpillFile payloadSpillFile) {
+        this.payloadSpillFile = payloadSpillFile;
+    }
+    
+    // When set, unchanged interfaces and test suites are loaded from snapshots in this store
+    private ParseSnapshotStore snapshotStore;
+    
+    public ParseSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+    
+    public void setSnapshotStore(ParseSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+    }
+    
+    // Deduplicates repeated attribute values; replaced at the start of every parse
+    private StringPool stringPool = new StringPool();
+    
+    // Decodes request headers and parameters into the current string pool
+    private RequestSettingsDecoder requestSettingsDecoder = new RequestSettingsDecoder(stringPool);
+    
+    // Throughput and allocation metrics of the last parse
+    private ParserMetrics metrics = new ParserMetrics();
+    
+    public ParserMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // When set, test suites are parsed concurrently on this pool
+    private ForkJoinPool forkJoinPool;
+    
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+    
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+    
     /**
-     * Parse a ReadyAPI project XML file.
+     * Parse a ReadyAPI project XML file or composite project directory.
      * 
-     * @param filePath Path to the ReadyAPI project XML file
+     * @param filePath Path to the ReadyAPI project XML file or composite project directory
      * @return A ReadyApiProject object with parsed project data
      * @throws DocumentException If there's an error parsing the XML
      */
     public ReadyApiProject parse(String filePath) throws DocumentException {
+        stringPool = new StringPool();
+        requestSettingsDecoder = new RequestSettingsDecoder(stringPool);
+        metrics = new ParserMetrics();
+        ReadyApiProject project = null;
+        try {
+            project = parseProject(filePath);
+            return project;
+        } finally {
+            stringPool.logSavings();
+            metrics.finish(filePath, inputSize(filePath), project);
+            metrics.log();
+        }
+    }
+    
+    /**
+     * Get the size of the parse input on disk, summed over all files for a directory.
+     * 
+     * @param filePath Path to the project file or directory
+     * @return The size in bytes, or 0 if it can't be read
+     */
+    private static long inputSize(String filePath) {
+        Path path = Paths.get(filePath);
+        try {
+            if (!Files.isDirectory(path)) {
+                return Files.size(path);
+            }
+            try (Stream<Path> files = Files.walk(path)) {
+                return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    /**
+     * Create a streaming parser that shares this parse's spill file, string pool and metrics.
+     * 
+     * @return A new streaming parser
+     */
+    private ReadyApiStreamingParser newStreamingParser() {
+        ReadyApiStreamingParser streamingParser = new ReadyApiStreamingParser(payloadSpillFile, stringPool);
+        streamingParser.setMetrics(metrics);
+        return streamingParser;
+    }
+    
+    /**
+     * Parse a project file or directory with the configured strategy.
+     * 
+     * @param filePath Path to the ReadyAPI project XML file or composite project directory
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error parsing the XML
+     */
+    private ReadyApiProject parseProject(String filePath) throws DocumentException {
+        if (isArchive(filePath)) {
+            return parseArchive(filePath);
+        }
+        if (CompositeProjectParser.isCompositeProject(Paths.get(filePath))) {
+            return parseComposite(filePath);
+        }
+        if (Files.isDirectory(Paths.get(filePath))) {
+            throw new DocumentException("Not a composite ReadyAPI project, " + filePath
+                    + " has no settings.xml with a soapui-project element");
+        }
+        if (memoryMapped || forkJoinPool != null || snapshotStore != null) {
+            return parseIndexed(filePath);
+        }
+        if (streaming) {
+            return parseStreaming(filePath);
+        }
+        
         logger.info("Parsing ReadyAPI project file: {}", filePath);
         
         SAXReader reader = new SAXReader();
-        Document document = reader.read(new File(filePath));
+        return parseDocument(reader.read(new File(filePath)));
+    }
+    
+    /**
+     * Build the project model from a loaded project document.
+     * 
+     * @param document The ReadyAPI project document
+     * @return A ReadyApiProject object with parsed project data
+     */
+    private ReadyApiProject parseDocument(Document document) {
         Element rootElement = document.getRootElement();
         
         ReadyApiProject project = new ReadyApiProject();
@@ -35,21 +208,389 @@ public class ReadyApiProjectParser {
         project.setName(rootElement.attributeValue("name"));
         
         // Parse project properties
-        parseProperties(rootElement, project);
+        metrics.time(ParserMetrics.PROPERTIES, () -> parseProperties(rootElement, project));
         
         // Parse interfaces
-        parseInterfaces(rootElement, project);
+        metrics.time(ParserMetrics.INTERFACES, () -> parseInterfaces(rootElement, project));
         
         // Parse test suites
-        parseTestSuites(rootElement, project);
+        metrics.time(ParserMetrics.TEST_SUITES, () -> parseTestSuites(rootElement, project));
         
         // Parse script libraries
-        parseScriptLibraries(rootElement, project);
+        metrics.time(ParserMetrics.SCRIPT_LIBRARIES, () -> parseScriptLibraries(rootElement, project));
         
         logger.info("Parsed ReadyAPI project: {}", project);
         return project;
     }
     
+    /**
+     * Check whether a path names a compressed project file or a zip archive.
+     * 
+     * @param filePath Path to the project input
+     * @return true for .gz and .zip files
+     */
+    public static boolean isArchive(String filePath) {
+        String name = filePath.toLowerCase(Locale.ROOT);
+        return (name.endsWith(GZIP_SUFFIX) || name.endsWith(ZIP_SUFFIX)) && !Files.isDirectory(Paths.get(filePath));
+    }
+    
+    /**
+     * Parse a gzip-compressed project file or a zip archive holding a project file or
+     * a composite project, without extracting it to disk.
+     * <p>
+     * Single project files are inflated on a background thread and parsed from the
+     * stream. Memory mapping and parallel parsing need random access to the
+     * decompressed bytes, so those settings only apply to composite projects here.
+     * 
+     * @param filePath Path to the .gz or .zip file
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing the archive
+     */
+    private ReadyApiProject parseArchive(String filePath) throws DocumentException {
+        Path archivePath = Paths.get(filePath);
+        if (filePath.toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX)) {
+            logger.info("Parsing gzip-compressed ReadyAPI project file: {}", filePath);
+            try {
+                InputStream file = Files.newInputStream(archivePath);
+                InputStream gzip;
+                try {
+                    gzip = new GZIPInputStream(file, 64 * 1024);
+                } catch (IOException | RuntimeException e) {
+                    // Not gzip data: the header is read, and rejected, before parseStream takes the stream
+                    try {
+                        file.close();
+                    } catch (IOException closeFailure) {
+                        e.addSuppressed(closeFailure);
+                    }
+                    throw e;
+                }
+                return parseStream(gzip, filePath);
+            } catch (IOException e) {
+                throw new DocumentException("Error reading " + filePath + ": " + e.getMessage(), e);
+            }
+        }
+        
+        logger.info("Parsing zipped ReadyAPI project: {}", filePath);
+        try (FileSystem zip = FileSystems.newFileSystem(archivePath, (ClassLoader) null)) {
+            Path root = zip.getPath("/");
+            Path compositeRoot = findCompositeRoot(root);
+            if (compositeRoot != null) {
+                return parseComposite(compositeRoot, filePath);
+            }
+            
+            List<Path> projectFiles;
+            try (Stream<Path> entries = Files.walk(root)) {
+                projectFiles = entries
+                        .filter(entry -> entry.getFileName() != null && entry.getFileName().toString().endsWith(".xml"))
+                        .filter(Files::isRegularFile)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            if (projectFiles.size() != 1) {
+                throw new DocumentException("Expected a single project file or a composite project in " + filePath
+                        + ", found " + projectFiles.size() + " XML files");
+            }
+            return parseStream(Files.newInputStream(projectFiles.get(0)), filePath + "!" + projectFiles.get(0));
+        } catch (IOException e) {
+            throw new DocumentException("Error reading " + filePath + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Find the composite project inside a zip archive: either at its root or in the
+     * archive's only top-level directory.
+     * 
+     * @param root The root of the zip file system
+     * @return The composite project directory, or null if the archive doesn't hold one
+     * @throws IOException If the archive can't be listed
+     */
+    private static Path findCompositeRoot(Path root) throws IOException {
+        if (CompositeProjectParser.isCompositeProject(root)) {
+            return root;
+        }
+        List<Path> entries;
+        try (Stream<Path> listing = Files.list(root)) {
+            entries = listing.collect(Collectors.toList());
+        }
+        if (entries.size() == 1 && CompositeProjectParser.isCompositeProject(entries.get(0))) {
+            return entries.get(0);
+        }
+        return null;
+    }
+    
+    /**
+     * Parse a project document from a decompressing stream, with the stream inflated
+     * on a background thread.
+     * 
+     * @param source The decompressing stream, closed when parsing ends
+     * @param name Name of the source, for logging and errors
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing the XML
+     */
+    private ReadyApiProject parseStream(InputStream source, String name) throws DocumentException {
+        if (memoryMapped || forkJoinPool != null || snapshotStore != null) {
+            logger.info("Compressed input can't be mapped or split, parsing {} in a single pass", name);
+        }
+        try (InputStream in = new DecompressingInputStream(source, Paths.get(name).getFileName().toString())) {
+            if (streaming || memoryMapped || forkJoinPool != null || snapshotStore != null) {
+                return newStreamingParser().parse(in);
+            }
+            SAXReader reader = new SAXReader();
+            return parseDocument(reader.read(in, name));
+        } catch (IOException | XMLStreamException e) {
+            throw new DocumentException("Error parsing ReadyAPI project " + name + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse a ReadyAPI project XML file in a single streaming pass.
+     * 
+     * @param filePath Path to the ReadyAPI project XML file
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing the XML
+     */
+    private ReadyApiProject parseStreaming(String filePath) throws DocumentException {
+        try {
+            return newStreamingParser().parse(filePath);
+        } catch (IOException | XMLStreamException e) {
+            throw new DocumentException("Error streaming ReadyAPI project " + filePath + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse a composite project directory, with each file parsed concurrently on the
+     * fork-join pool (the common pool when none is set).
+     * 
+     * @param directoryPath Path to the composite project directory
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing a file
+     */
+    private ReadyApiProject parseComposite(String directoryPath) throws DocumentException {
+        return parseComposite(Paths.get(directoryPath), directoryPath);
+    }
+    
+    /**
+     * Parse a composite project directory on any file system, such as a zip file system.
+     * 
+     * @param directory The composite project directory
+     * @param source Name of the project source, recorded with parse snapshots
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing a file
+     */
+    private ReadyApiProject parseComposite(Path directory, String source) throws DocumentException {
+        ForkJoinPool pool = forkJoinPool != null ? forkJoinPool : ForkJoinPool.commonPool();
+        try {
+            CompositeProjectParser compositeParser = new CompositeProjectParser(pool, payloadSpillFile, stringPool);
+            compositeParser.setSnapshotStore(snapshotStore, this::spillPayloads);
+            compositeParser.setMetrics(metrics);
+            ReadyApiProject project = compositeParser.parse(directory);
+            if (snapshotStore != null) {
+                snapshotStore.commit(source);
+            }
+            return project;
+        } catch (IOException | XMLStreamException e) {
+            throw new DocumentException("Error parsing composite ReadyAPI project " + source + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Memory-map a ReadyAPI project XML file and index its structural elements
+     * (interfaces, test suites, test cases, test steps and script libraries).
+     * <p>
+     * Nothing is decoded until a range is parsed, so callers can page through very
+     * large projects one suite or test case at a time.
+     * 
+     * @param filePath Path to the ReadyAPI project XML file
+     * @return The element index over the mapped file
+     * @throws IOException If the file can't be mapped or indexed
+     */
+    public XmlElementIndex index(String filePath) throws IOException {
+        return XmlElementIndex.map(Paths.get(filePath), INDEXED_ELEMENTS);
+    }
+    
+    /**
+     * Parse a single indexed testSuite element.
+     * 
+     * @param index The element index of the project file
+     * @param range The testSuite range within the index
+     * @return The parsed test suite
+     * @throws DocumentException If there's an error parsing the XML
+     */
+    public ReadyApiTestSuite parseTestSuite(XmlElementIndex index, XmlElementIndex.Range range) throws DocumentException {
+        try {
+            return newStreamingParser().parseTestSuite(index.open(range), index.getEncoding());
+        } catch (XMLStreamException e) {
+            throw new DocumentException("Error parsing test suite at byte " + range.getStart() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse a single indexed testCase element.
+     * 
+     * @param index The element index of the project file
+     * @param range The testCase range within the index
+     * @return The parsed test case
+     * @throws DocumentException If there's an error parsing the XML
+     */
+    public ReadyApiTestCase parseTestCase(XmlElementIndex index, XmlElementIndex.Range range) throws DocumentException {
+        try {
+            return newStreamingParser().parseTestCase(index.open(range), index.getEncoding());
+        } catch (XMLStreamException e) {
+            throw new DocumentException("Error parsing test case at byte " + range.getStart() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse a single indexed interface element.
+     * 
+     * @param index The element index of the project file
+     * @param range The interface range within the index
+     * @return The parsed interface
+     * @throws DocumentException If there's an error parsing the XML
+     */
+    public ReadyApiInterface parseInterface(XmlElementIndex index, XmlElementIndex.Range range) throws DocumentException {
+        try {
+            return newStreamingParser().parseInterface(index.open(range), index.getEncoding());
+        } catch (XMLStreamException e) {
+            throw new DocumentException("Error parsing interface at byte " + range.getStart() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parse a ReadyAPI project XML file through a memory-mapped element index.
+     * <p>
+     * Each top-level interface and testSuite range is parsed on its own, on the
+     * fork-join pool when one is set, while the rest of the project is parsed on the
+     * calling thread. With a snapshot store, ranges whose bytes haven't changed since
+     * the last run are loaded from their snapshots instead. The results are then
+     * added back in document order.
+     * 
+     * @param filePath Path to the ReadyAPI project XML file
+     * @return A ReadyApiProject object with parsed project data
+     * @throws DocumentException If there's an error reading or parsing the XML
+     */
+    private ReadyApiProject parseIndexed(String filePath) throws DocumentException {
+        logger.info("Parsing memory-mapped ReadyAPI project file with parallelism {}: {}",
+                forkJoinPool != null ? forkJoinPool.getParallelism() : 1, filePath);
+        
+        XmlElementIndex index;
+        try {
+            index = index(filePath);
+        } catch (IOException e) {
+            logger.warn("Can't index {} ({}), falling back to a serial parse", filePath, e.getMessage());
+            return parseStreaming(filePath);
+        }
+        
+        List<XmlElementIndex.Range> unitRanges = new ArrayList<>();
+        List<XmlElementIndex.Range> otherElements = new ArrayList<>();
+        for (XmlElementIndex.Range range : index.getChildren()) {
+            if ("testSuite".equals(range.getName()) || "interface".equals(range.getName())) {
+                unitRanges.add(range);
+            } else {
+                otherElements.add(range);
+            }
+        }
+        
+        List<ForkJoinTask<Object>> unitTasks = new ArrayList<>();
+        if (forkJoinPool != null) {
+            for (XmlElementIndex.Range range : unitRanges) {
+                unitTasks.add(forkJoinPool.submit(() -> parseUnit(index, range)));
+            }
+        }
+        
+        try {
+            ReadyApiProject project = newStreamingParser().parseDocument(index.openSkeleton(otherElements), index.getEncoding());
+            for (int i = 0; i < unitRanges.size(); i++) {
+                Object unit = forkJoinPool != null ? unitTasks.get(i).get() : parseUnit(index, unitRanges.get(i));
+                if (unit instanceof ReadyApiInterface) {
+                    project.addInterface((ReadyApiInterface) unit);
+                } else {
+                    project.addTestSuite((ReadyApiTestSuite) unit);
+                }
+            }
+            
+            if (snapshotStore != null) {
+                snapshotStore.commit(filePath);
+            }
+            
+            logger.info("Parsed ReadyAPI project: {}", project);
+            return project;
+        } catch (XMLStreamException e) {
+            throw new DocumentException("Error parsing ReadyAPI project " + filePath + ": " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentException) {
+                throw (DocumentException) e.getCause();
+            }
+            throw new DocumentException("Error parsing " + filePath + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentException("Interrupted while parsing " + filePath, e);
+        } finally {
+            for (ForkJoinTask<Object> task : unitTasks) {
+                task.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * Parse an interface or testSuite range, or load it from its snapshot.
+     * 
+     * @param index The element index of the project file
+     * @param range The element range
+     * @return The interface or test suite
+     * @throws DocumentException If there's an error parsing the XML
+     */
+    private Object parseUnit(XmlElementIndex index, XmlElementIndex.Range range) throws DocumentException {
+        boolean isInterface = "interface".equals(range.getName());
+        if (snapshotStore == null) {
+            return isInterface ? parseInterface(index, range) : parseTestSuite(index, range);
+        }
+        
+        try {
+            String key = range.getName() + "#" + range.getIndex();
+            Object unit = snapshotStore.get(key, index.bytes(range),
+                    () -> isInterface ? parseInterface(index, range) : parseTestSuite(index, range));
+            spillPayloads(unit);
+            return unit;
+        } catch (DocumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DocumentException("Error parsing " + range + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Move the payloads of a model loaded from a snapshot into the spill file, so
+     * snapshot loads keep the same memory profile as a fresh parse.
+     * 
+     * @param unit A parsed interface, test suite or test case
+     */
+    void spillPayloads(Object unit) {
+        if (payloadSpillFile == null) {
+            return;
+        }
+        if (unit instanceof ReadyApiInterface) {
+            for (ReadyApiResource resource : ((ReadyApiInterface) unit).getResources()) {
+                for (ReadyApiMethod method : resource.getMethods()) {
+                    for (ReadyApiRequest request : method.getRequests()) {
+                        request.setRequestBody(payloadSpillFile.store(request.getRequestBody()));
+                    }
+                }
+            }
+        } else if (unit instanceof ReadyApiTestSuite) {
+            for (ReadyApiTestCase testCase : ((ReadyApiTestSuite) unit).getTestCases()) {
+                spillPayloads(testCase);
+            }
+        } else if (unit instanceof ReadyApiTestCase) {
+            for (ReadyApiTestStep testStep : ((ReadyApiTestCase) unit).getTestSteps()) {
+                testStep.setContent(payloadSpillFile.store(testStep.getContent()));
+                if (testStep.getRequest() != null) {
+                    testStep.getRequest().setRequestBody(payloadSpillFile.store(testStep.getRequest().getRequestBody()));
+                }
+            }
+        }
+    }
+    
     /**
      * Parse project properties.
      * 
@@ -82,7 +623,7 @@ public class ReadyApiProjectParser {
             ReadyApiInterface apiInterface = new ReadyApiInterface();
             apiInterface.setId(interfaceElement.attributeValue("id"));
             apiInterface.setName(interfaceElement.attributeValue("name"));
-            apiInterface.setType(interfaceElement.attributeValue("type"));
+            apiInterface.setType(stringPool.intern(interfaceElement.attributeValue("type")));
             
             // Parse endpoints
             Element endpointsElement = interfaceElement.element("endpoints");
@@ -99,7 +640,7 @@ public class ReadyApiProjectParser {
                 ReadyApiResource resource = new ReadyApiResource();
                 resource.setId(resourceElement.attributeValue("id"));
                 resource.setName(resourceElement.attributeValue("name"));
-                resource.setPath(resourceElement.attributeValue("path"));
+                resource.setPath(stringPool.intern(resourceElement.attributeValue("path")));
                 
                 // Parse methods
                 List<Element> methodElements = resourceElement.elements("method");
@@ -107,59 +648,12 @@ public class ReadyApiProjectParser {
                     ReadyApiMethod method = new ReadyApiMethod();
                     method.setId(methodElement.attributeValue("id"));
                     method.setName(methodElement.attributeValue("name"));
-                    method.setHttpMethod(methodElement.attributeValue("method"));
+                    method.setHttpMethod(stringPool.intern(methodElement.attributeValue("method")));
                     
                     // Parse requests
                     List<Element> requestElements = methodElement.elements("request");
                     for (Element requestElement : requestElements) {
-                        ReadyApiRequest request = new ReadyApiRequest();
-                        request.setId(requestElement.attributeValue("id"));
-                        request.setName(requestElement.attributeValue("name"));
-                        request.setMediaType(requestElement.attributeValue("mediaType"));
-                        
-                        // Parse request settings (headers, etc.)
-                        Element settingsElement = requestElement.element("settings");
-                        if (settingsElement != null) {
-                            List<Element> settingElements = settingsElement.elements("setting");
-                            for (Element settingElement : settingElements) {
-                                if ("request-headers".equals(settingElement.attributeValue("id"))) {
-                                    // TODO: Parse request headers
-                                }
-                            }
-                        }
-                        
-                        // Set endpoint
-                        Element endpointElement = requestElement.element("endpoint");
-                        if (endpointElement != null) {
-                            request.setEndpoint(endpointElement.getTextTrim());
-                        }
-                        
-                        // Set request body
-                        Element requestBodyElement = requestElement.element("request");
-                        if (requestBodyElement != null) {
-                            request.setRequestBody(requestBodyElement.getTextTrim());
-                        }
-                        
-                        // Parse assertions
-                        List<Element> assertionElements = requestElement.elements("assertion");
-                        for (Element assertionElement : assertionElements) {
-                            ReadyApiAssertion assertion = new ReadyApiAssertion();
-                            assertion.setId(assertionElement.attributeValue("id"));
-                            assertion.setName(assertionElement.attributeValue("name"));
-                            assertion.setType(assertionElement.attributeValue("type"));
-                            
-                            // Parse assertion configuration
-                            Element configElement = assertionElement.element("configuration");
-                            if (configElement != null) {
-                                List<Element> configChildElements = configElement.elements();
-                                for (Element configChild : configChildElements) {
-                                    assertion.addConfigurationProperty(configChild.getName(), configChild.getTextTrim());
-                                }
-                            }
-                            
-                            request.addAssertion(assertion);
-                        }
-                        
+                        ReadyApiRequest request = parseRequest(requestElement, resource.getPath());
                         method.addRequest(request);
                     }
                     
@@ -173,6 +667,73 @@ public class ReadyApiProjectParser {
         }
     }
     
+    /**
+     * Parse a request or restRequest element, including its header setting and parameters.
+     * 
+     * @param requestElement The request element
+     * @param resourcePath Path of the resource the request belongs to, may be null
+     * @return The parsed request
+     */
+    private ReadyApiRequest parseRequest(Element requestElement, String resourcePath) {
+        ReadyApiRequest request = new ReadyApiRequest();
+        request.setId(requestElement.attributeValue("id"));
+        request.setName(requestElement.attributeValue("name"));
+        request.setMediaType(stringPool.intern(requestElement.attributeValue("mediaType")));
+        
+        // Set endpoint
+        Element endpointElement = requestElement.element("endpoint");
+        if (endpointElement != null) {
+            request.setEndpoint(stringPool.intern(endpointElement.getTextTrim()));
+        }
+        
+        // Parse request settings (headers, etc.)
+        Element settingsElement = requestElement.element("settings");
+        if (settingsElement != null) {
+            List<Element> settingElements = settingsElement.elements("setting");
+            for (Element settingElement : settingElements) {
+                requestSettingsDecoder.decodeSetting(settingElement.attributeValue("id"), settingElement.getText(), request);
+            }
+        }
+        
+        // Parse path and query parameters
+        Element parametersElement = requestElement.element("parameters");
+        if (parametersElement != null) {
+            List<Element> entryElements = parametersElement.elements("entry");
+            for (Element entryElement : entryElements) {
+                requestSettingsDecoder.decodeParameter(entryElement.attributeValue("key"),
+                        entryElement.attributeValue("value"), resourcePath, request);
+            }
+        }
+        
+        // Set request body
+        Element requestBodyElement = requestElement.element("request");
+        if (requestBodyElement != null) {
+            request.setRequestBody(requestBodyElement.getText().trim());
+        }
+        
+        // Parse assertions
+        List<Element> assertionElements = requestElement.elements("assertion");
+        for (Element assertionElement : assertionElements) {
+            ReadyApiAssertion assertion = new ReadyApiAssertion();
+            assertion.setId(assertionElement.attributeValue("id"));
+            assertion.setName(assertionElement.attributeValue("name"));
+            assertion.setType(stringPool.intern(assertionElement.attributeValue("type")));
+            
+            // Parse assertion configuration
+            Element configElement = assertionElement.element("configuration");
+            if (configElement != null) {
+                List<Element> configChildElements = configElement.elements();
+                for (Element configChild : configChildElements) {
+                    assertion.addConfigurationProperty(stringPool.intern(configChild.getName()), configChild.getTextTrim());
+                }
+            }
+            
+            request.addAssertion(assertion);
+        }
+        
+        return request;
+    }
+    
     /**
      * Parse test suites.
      * 
@@ -226,7 +787,7 @@ public class ReadyApiProjectParser {
                     ReadyApiTestStep testStep = new ReadyApiTestStep();
                     testStep.setId(testStepElement.attributeValue("id"));
                     testStep.setName(testStepElement.attributeValue("name"));
-                    testStep.setType(testStepElement.attributeValue("type"));
+                    testStep.setType(stringPool.intern(testStepElement.attributeValue("type")));
                     
                     // Parse test step configuration
                     Element configElement = testStepElement.element("config");
@@ -235,59 +796,14 @@ public class ReadyApiProjectParser {
                             // Parse Groovy script
                             Element scriptElement = configElement.element("script");
                             if (scriptElement != null) {
-                                testStep.setContent(scriptElement.getTextTrim());
+                                testStep.setContent(scriptElement.getText().trim());
                             }
                         } else if ("restrequest".equals(testStep.getType())) {
                             // Parse REST request
                             Element restRequestElement = configElement.element("restRequest");
                             if (restRequestElement != null) {
-                                ReadyApiRequest request = new ReadyApiRequest();
-                                request.setId(restRequestElement.attributeValue("id"));
-                                request.setName(restRequestElement.attributeValue("name"));
-                                request.setMediaType(restRequestElement.attributeValue("mediaType"));
-                                
-                                // Parse request settings (headers, etc.)
-                                Element settingsElement = restRequestElement.element("settings");
-                                if (settingsElement != null) {
-                                    List<Element> settingElements = settingsElement.elements("setting");
-                                    for (Element settingElement : settingElements) {
-                                        if ("request-headers".equals(settingElement.attributeValue("id"))) {
-                                            // TODO: Parse request headers
-                                        }
-                                    }
-                                }
-                                
-                                // Set endpoint
-                                Element endpointElement = restRequestElement.element("endpoint");
-                                if (endpointElement != null) {
-                                    request.setEndpoint(endpointElement.getTextTrim());
-                                }
-                                
-                                // Set request body
-                                Element requestBodyElement = restRequestElement.element("request");
-                                if (requestBodyElement != null) {
-                                    request.setRequestBody(requestBodyElement.getTextTrim());
-                                }
-                                
-                                // Parse assertions
-                                List<Element> assertionElements = restRequestElement.elements("assertion");
-                                for (Element assertionElement : assertionElements) {
-                                    ReadyApiAssertion assertion = new ReadyApiAssertion();
-                                    assertion.setId(assertionElement.attributeValue("id"));
-                                    assertion.setName(assertionElement.attributeValue("name"));
-                                    assertion.setType(assertionElement.attributeValue("type"));
-                                    
-                                    // Parse assertion configuration
-                                    Element assertionConfigElement = assertionElement.element("configuration");
-                                    if (assertionConfigElement != null) {
-                                        List<Element> configChildElements = assertionConfigElement.elements();
-                                        for (Element configChild : configChildElements) {
-                                            assertion.addConfigurationProperty(configChild.getName(), configChild.getTextTrim());
-                                        }
-                                    }
-                                    
-                                    request.addAssertion(assertion);
-                                }
+                                ReadyApiRequest request = parseRequest(restRequestElement,
+                                        configElement.attributeValue("resourcePath"));
                                 
                                 testStep.setRequest(request);
                             }
@@ -322,7 +838,7 @@ public class ReadyApiProjectParser {
                 // Parse script content
                 Element groovyScriptElement = libraryConfigElement.element("groovyScript");
                 if (groovyScriptElement != null) {
-                    scriptLibrary.setContent(groovyScriptElement.getTextTrim());
+                    scriptLibrary.setContent(groovyScriptElement.getText().trim());
                 }
                 
                 project.addScriptLibrary(scriptLibrary);
@@ -13,7 +13,7 @@ public class ReadyApiRequest {
     private String name;
     private String mediaType;
     private String endpoint;
-    private String requestBody;
+    private LazyContent requestBody;
     private Map<String, String> requestHeaders = new HashMap<>();
     private Map<String, String> queryParameters = new HashMap<>();
     private Map<String, String> pathParameters = new HashMap<>();
@@ -52,13 +52,31 @@ public class ReadyApiRequest {
     }
     
     public String getRequestBody() {
-        return requestBody;
+        return requestBody != null ? requestBody.get() : null;
     }
     
     public void setRequestBody(String requestBody) {
+        this.requestBody = LazyContent.of(requestBody);
+    }
+    
+    /**
+     * Set the request body as a handle that is only decoded when the body is read.
+     * 
+     * @param requestBody The request body handle
+     */
+    public void setRequestBody(LazyContent requestBody) {
         this.requestBody = requestBody;
     }
     
+    /**
+     * Check for a non-empty request body without decoding it.
+     * 
+     * @return true if the request has a body
+     */
+    public boolean hasRequestBody() {
+        return requestBody != null && !requestBody.isEmpty();
+    }
+    
     public Map<String, String> getRequestHeaders() {
         return requestHeaders;
     }
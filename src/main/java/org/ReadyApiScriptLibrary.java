@@ -1,5 +1,8 @@
 package com.readyapi.converter;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 /**
  * Represents a ReadyAPI script library.
  */
@@ -41,6 +44,18 @@ public class ReadyApiScriptLibrary {
         return ScriptConverter.convertToJavaScript(content, "library");
     }
     
+    /**
+     * Convert Groovy script library to JavaScript for Postman, writing it to an appendable.
+     * 
+     * @param out The appendable the JavaScript is written to
+     * @throws IOException If writing the JavaScript fails
+     */
+    public void convertToJavaScript(Appendable out) throws IOException {
+        if (content != null) {
+            ScriptConverter.convertToJavaScript(new StringReader(content), "library", out);
+        }
+    }
+    
     @Override
     public String toString() {
         return "ReadyApiScriptLibrary{" +
@@ -0,0 +1,712 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.StringTokenizer;
+
+/**
+ * Streaming (StAX) parser for ReadyAPI project XML files.
+ * <p>
+ * Builds the same model as the DOM based {@link ReadyApiProjectParser} in a single
+ * forward pass, so memory is bounded by the parsed model rather than by a full
+ * document tree. Element and attribute names are matched on their local name,
+ * which lets the same methods parse a complete project or an isolated fragment
+ * such as a single {@code testSuite} element.
+ */
+public class ReadyApiStreamingParser {
+    private static final Logger logger = LoggerFactory.getLogger(ReadyApiStreamingParser.class);
+
+    private final XMLInputFactory inputFactory;
+    private final PayloadSpillFile spillFile;
+    private final StringPool stringPool;
+    private final RequestSettingsDecoder requestSettingsDecoder;
+    private ParserMetrics metrics = new ParserMetrics();
+
+    public ReadyApiStreamingParser() {
+        this(null);
+    }
+
+    /**
+     * Create a parser that spills large scripts and request bodies to a file.
+     *
+     * @param spillFile File receiving payloads over its threshold, or null to keep them in memory
+     */
+    public ReadyApiStreamingParser(PayloadSpillFile spillFile) {
+        this(spillFile, new StringPool());
+    }
+
+    /**
+     * Create a parser that spills large payloads and shares a string pool with other parsers.
+     *
+     * @param spillFile File receiving payloads over its threshold, or null to keep them in memory
+     * @param stringPool Pool deduplicating repeated attribute values across the parse
+     */
+    public ReadyApiStreamingParser(PayloadSpillFile spillFile, StringPool stringPool) {
+        this.spillFile = spillFile;
+        this.stringPool = stringPool;
+        this.requestSettingsDecoder = new RequestSettingsDecoder(stringPool);
+        this.inputFactory = XMLInputFactory.newFactory();
+        // Prefixes are stripped by localName(), so fragments without namespace declarations still parse
+        this.inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Record section timings and allocations of this parser in shared metrics.
+     *
+     * @param metrics The metrics of the current parse
+     */
+    public void setMetrics(ParserMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Parse a ReadyAPI project XML file.
+     *
+     * @param filePath Path to the ReadyAPI project XML file
+     * @return A ReadyApiProject object with parsed project data
+     * @throws IOException If the file can't be read
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    public ReadyApiProject parse(String filePath) throws IOException, XMLStreamException {
+        logger.info("Streaming ReadyAPI project file: {}", filePath);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)), 64 * 1024)) {
+            return parse(in);
+        }
+    }
+
+    /**
+     * Parse a ReadyAPI project from a stream.
+     *
+     * @param in Stream positioned at the start of the project document
+     * @return A ReadyApiProject object with parsed project data
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    public ReadyApiProject parse(InputStream in) throws XMLStreamException {
+        ReadyApiProject project = parseDocument(in, null);
+        logger.info("Parsed ReadyAPI project: {}", project);
+        return project;
+    }
+
+    /**
+     * Parse a project document without logging the result, for callers that
+     * complete the project themselves.
+     *
+     * @param in Stream positioned at the start of the project document
+     * @param encoding Character encoding of the stream, or null to detect it
+     * @return The parsed project
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiProject parseDocument(InputStream in, String encoding) throws XMLStreamException {
+        XMLStreamReader reader = createReader(in, encoding);
+        try {
+            nextStartElement(reader);
+            return parseProject(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse a standalone testSuite element, such as one cut out of a larger project.
+     *
+     * @param in Stream of the testSuite element's markup
+     * @param encoding Character encoding of the stream, or null to detect it
+     * @return The parsed test suite
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    public ReadyApiTestSuite parseTestSuite(InputStream in, String encoding) throws XMLStreamException {
+        XMLStreamReader reader = createReader(in, encoding);
+        try {
+            return metrics.time(ParserMetrics.TEST_SUITES, () -> {
+                nextStartElement(reader);
+                return parseTestSuite(reader);
+            });
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse a standalone interface element.
+     *
+     * @param in Stream of the interface element's markup
+     * @param encoding Character encoding of the stream, or null to detect it
+     * @return The parsed interface
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    public ReadyApiInterface parseInterface(InputStream in, String encoding) throws XMLStreamException {
+        XMLStreamReader reader = createReader(in, encoding);
+        try {
+            return metrics.time(ParserMetrics.INTERFACES, () -> {
+                nextStartElement(reader);
+                return parseInterface(reader);
+            });
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Parse a standalone testCase element.
+     *
+     * @param in Stream of the testCase element's markup
+     * @param encoding Character encoding of the stream, or null to detect it
+     * @return The parsed test case
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    public ReadyApiTestCase parseTestCase(InputStream in, String encoding) throws XMLStreamException {
+        XMLStreamReader reader = createReader(in, encoding);
+        try {
+            return metrics.time(ParserMetrics.TEST_SUITES, () -> {
+                nextStartElement(reader);
+                return parseTestCase(reader);
+            });
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Create a reader over the given stream with this parser's settings.
+     *
+     * @param in The XML input
+     * @param encoding Character encoding of the stream, or null to detect it
+     * @return A new XMLStreamReader
+     * @throws XMLStreamException If the reader can't be created
+     */
+    XMLStreamReader createReader(InputStream in, String encoding) throws XMLStreamException {
+        return encoding != null ? inputFactory.createXMLStreamReader(in, encoding) : inputFactory.createXMLStreamReader(in);
+    }
+
+    /**
+     * Parse the project root element and all of its children.
+     *
+     * @param reader Reader positioned on the project start element
+     * @return The parsed project
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiProject parseProject(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiProject project = new ReadyApiProject();
+        project.setId(attribute(reader, "id"));
+        project.setName(attribute(reader, "name"));
+
+        boolean propertiesSeen = false;
+        boolean scriptLibrarySeen = false;
+        while (nextChild(reader)) {
+            switch (localName(reader)) {
+                case "properties":
+                    if (propertiesSeen) {
+                        skipElement(reader);
+                    } else {
+                        propertiesSeen = true;
+                        metrics.time(ParserMetrics.PROPERTIES, () -> parseProperties(reader, project::addProperty));
+                    }
+                    break;
+                case "interface":
+                    metrics.time(ParserMetrics.INTERFACES, () -> project.addInterface(parseInterface(reader)));
+                    break;
+                case "testSuite":
+                    metrics.time(ParserMetrics.TEST_SUITES, () -> project.addTestSuite(parseTestSuite(reader)));
+                    break;
+                case "scriptLibrary":
+                    if (scriptLibrarySeen) {
+                        skipElement(reader);
+                    } else {
+                        scriptLibrarySeen = true;
+                        metrics.time(ParserMetrics.SCRIPT_LIBRARIES, () -> parseScriptLibraries(reader, project));
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+        return project;
+    }
+
+    /**
+     * Parse a properties element.
+     *
+     * @param reader Reader positioned on the properties start element
+     * @param sink Receiver for each name/value pair
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    void parseProperties(XMLStreamReader reader, PropertySink sink) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (!"property".equals(localName(reader))) {
+                skipElement(reader);
+                continue;
+            }
+            String name = null;
+            String value = null;
+            while (nextChild(reader)) {
+                String child = localName(reader);
+                if ("name".equals(child) && name == null) {
+                    name = readText(reader);
+                } else if ("value".equals(child) && value == null) {
+                    value = readText(reader);
+                } else {
+                    skipElement(reader);
+                }
+            }
+            if (name != null && value != null) {
+                sink.accept(name, value);
+            }
+        }
+    }
+
+    /**
+     * Parse an interface element.
+     *
+     * @param reader Reader positioned on the interface start element
+     * @return The parsed interface
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiInterface parseInterface(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiInterface apiInterface = new ReadyApiInterface();
+        apiInterface.setId(attribute(reader, "id"));
+        apiInterface.setName(attribute(reader, "name"));
+        apiInterface.setType(stringPool.intern(attribute(reader, "type")));
+
+        boolean endpointsSeen = false;
+        while (nextChild(reader)) {
+            String child = localName(reader);
+            if ("endpoints".equals(child) && !endpointsSeen) {
+                endpointsSeen = true;
+                while (nextChild(reader)) {
+                    if ("endpoint".equals(localName(reader))) {
+                        apiInterface.addEndpoint(readTextTrim(reader));
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } else if ("resource".equals(child)) {
+                apiInterface.addResource(parseResource(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return apiInterface;
+    }
+
+    private ReadyApiResource parseResource(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiResource resource = new ReadyApiResource();
+        resource.setId(attribute(reader, "id"));
+        resource.setName(attribute(reader, "name"));
+        resource.setPath(stringPool.intern(attribute(reader, "path")));
+
+        while (nextChild(reader)) {
+            if ("method".equals(localName(reader))) {
+                resource.addMethod(parseMethod(reader, resource.getPath()));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return resource;
+    }
+
+    private ReadyApiMethod parseMethod(XMLStreamReader reader, String resourcePath) throws XMLStreamException {
+        ReadyApiMethod method = new ReadyApiMethod();
+        method.setId(attribute(reader, "id"));
+        method.setName(attribute(reader, "name"));
+        method.setHttpMethod(stringPool.intern(attribute(reader, "method")));
+
+        while (nextChild(reader)) {
+            if ("request".equals(localName(reader))) {
+                method.addRequest(parseRequest(reader, resourcePath));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return method;
+    }
+
+    /**
+     * Parse a request or restRequest element, including its header setting and parameters.
+     *
+     * @param reader Reader positioned on the request start element
+     * @param resourcePath Path of the resource the request belongs to, may be null
+     * @return The parsed request
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiRequest parseRequest(XMLStreamReader reader, String resourcePath) throws XMLStreamException {
+        ReadyApiRequest request = new ReadyApiRequest();
+        request.setId(attribute(reader, "id"));
+        request.setName(attribute(reader, "name"));
+        request.setMediaType(stringPool.intern(attribute(reader, "mediaType")));
+
+        boolean endpointSeen = false;
+        boolean bodySeen = false;
+        while (nextChild(reader)) {
+            switch (localName(reader)) {
+                case "settings":
+                    while (nextChild(reader)) {
+                        if ("setting".equals(localName(reader))) {
+                            String id = attribute(reader, "id");
+                            requestSettingsDecoder.decodeSetting(id, readText(reader), request);
+                        } else {
+                            skipElement(reader);
+                        }
+                    }
+                    break;
+                case "parameters":
+                    while (nextChild(reader)) {
+                        if ("entry".equals(localName(reader))) {
+                            requestSettingsDecoder.decodeParameter(attribute(reader, "key"), attribute(reader, "value"),
+                                    resourcePath, request);
+                        }
+                        skipElement(reader);
+                    }
+                    break;
+                case "endpoint":
+                    if (endpointSeen) {
+                        skipElement(reader);
+                    } else {
+                        endpointSeen = true;
+                        request.setEndpoint(stringPool.intern(readTextTrim(reader)));
+                    }
+                    break;
+                case "request":
+                    if (bodySeen) {
+                        skipElement(reader);
+                    } else {
+                        bodySeen = true;
+                        request.setRequestBody(readPayload(reader));
+                    }
+                    break;
+                case "assertion":
+                    request.addAssertion(parseAssertion(reader));
+                    break;
+                default:
+                    skipElement(reader);
+                    break;
+            }
+        }
+        return request;
+    }
+
+    private ReadyApiAssertion parseAssertion(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiAssertion assertion = new ReadyApiAssertion();
+        assertion.setId(attribute(reader, "id"));
+        assertion.setName(attribute(reader, "name"));
+        assertion.setType(stringPool.intern(attribute(reader, "type")));
+
+        boolean configurationSeen = false;
+        while (nextChild(reader)) {
+            if ("configuration".equals(localName(reader)) && !configurationSeen) {
+                configurationSeen = true;
+                while (nextChild(reader)) {
+                    String key = stringPool.intern(localName(reader));
+                    assertion.addConfigurationProperty(key, readTextTrim(reader));
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+        return assertion;
+    }
+
+    /**
+     * Parse a testSuite element.
+     *
+     * @param reader Reader positioned on the testSuite start element
+     * @return The parsed test suite
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiTestSuite parseTestSuite(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiTestSuite testSuite = new ReadyApiTestSuite();
+        testSuite.setId(attribute(reader, "id"));
+        testSuite.setName(attribute(reader, "name"));
+        testSuite.setRunType(attribute(reader, "runType"));
+
+        boolean propertiesSeen = false;
+        while (nextChild(reader)) {
+            String child = localName(reader);
+            if ("properties".equals(child) && !propertiesSeen) {
+                propertiesSeen = true;
+                parseProperties(reader, testSuite::addProperty);
+            } else if ("testCase".equals(child)) {
+                testSuite.addTestCase(parseTestCase(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return testSuite;
+    }
+
+    /**
+     * Parse a testCase element.
+     *
+     * @param reader Reader positioned on the testCase start element
+     * @return The parsed test case
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    ReadyApiTestCase parseTestCase(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiTestCase testCase = new ReadyApiTestCase();
+        testCase.setId(attribute(reader, "id"));
+        testCase.setName(attribute(reader, "name"));
+
+        boolean propertiesSeen = false;
+        while (nextChild(reader)) {
+            String child = localName(reader);
+            if ("properties".equals(child) && !propertiesSeen) {
+                propertiesSeen = true;
+                parseProperties(reader, testCase::addProperty);
+            } else if ("testStep".equals(child)) {
+                testCase.addTestStep(parseTestStep(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return testCase;
+    }
+
+    private ReadyApiTestStep parseTestStep(XMLStreamReader reader) throws XMLStreamException {
+        ReadyApiTestStep testStep = new ReadyApiTestStep();
+        testStep.setId(attribute(reader, "id"));
+        testStep.setName(attribute(reader, "name"));
+        testStep.setType(stringPool.intern(attribute(reader, "type")));
+
+        boolean configSeen = false;
+        while (nextChild(reader)) {
+            if (!"config".equals(localName(reader)) || configSeen) {
+                skipElement(reader);
+                continue;
+            }
+            configSeen = true;
+            String resourcePath = attribute(reader, "resourcePath");
+
+            boolean payloadSeen = false;
+            while (nextChild(reader)) {
+                String child = localName(reader);
+                if (payloadSeen) {
+                    skipElement(reader);
+                } else if ("groovy".equals(testStep.getType()) && "script".equals(child)) {
+                    // Parse Groovy script
+                    payloadSeen = true;
+                    testStep.setContent(readPayload(reader));
+                } else if ("restrequest".equals(testStep.getType()) && "restRequest".equals(child)) {
+                    // Parse REST request
+                    payloadSeen = true;
+                    testStep.setRequest(parseRequest(reader, resourcePath));
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+        return testStep;
+    }
+
+    private void parseScriptLibraries(XMLStreamReader reader, ReadyApiProject project) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (!"libraryConfig".equals(localName(reader))) {
+                skipElement(reader);
+                continue;
+            }
+            ReadyApiScriptLibrary scriptLibrary = new ReadyApiScriptLibrary();
+            scriptLibrary.setId(attribute(reader, "id"));
+            scriptLibrary.setName(attribute(reader, "name"));
+
+            boolean scriptSeen = false;
+            while (nextChild(reader)) {
+                if ("groovyScript".equals(localName(reader)) && !scriptSeen) {
+                    scriptSeen = true;
+                    scriptLibrary.setContent(readText(reader).trim());
+                } else {
+                    skipElement(reader);
+                }
+            }
+            project.addScriptLibrary(scriptLibrary);
+        }
+    }
+
+    /**
+     * Advance to the first start element in the document.
+     *
+     * @param reader The reader
+     * @throws XMLStreamException If the document has no root element
+     */
+    static void nextStartElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                return;
+            }
+        }
+        throw new XMLStreamException("Document has no root element");
+    }
+
+    /**
+     * Advance to the next child element of the current element.
+     * <p>
+     * Each child returned must be consumed up to its end element (by a parse or
+     * skip method) before this is called again.
+     *
+     * @param reader The reader
+     * @return true if positioned on a child start element, false at the parent's end element
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip the current element and everything inside it.
+     *
+     * @param reader Reader positioned on a start element
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Read the direct text content of the current element, skipping nested elements
+     * (the streaming equivalent of dom4j's {@code Element.getText()}).
+     *
+     * @param reader Reader positioned on a start element
+     * @return The text content, never null
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = null;
+        String single = "";
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                if (text == null && single.isEmpty()) {
+                    single = reader.getText();
+                } else {
+                    if (text == null) {
+                        text = new StringBuilder(single);
+                    }
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                skipElement(reader);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        return text != null ? text.toString() : single;
+    }
+
+    /**
+     * Read the trimmed text of a script or body element as a payload handle.
+     * <p>
+     * Only one payload is held as a string at a time; large ones are handed to the
+     * spill file before the next element is read.
+     *
+     * @param reader Reader positioned on a start element
+     * @return A handle for the trimmed text
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    private LazyContent readPayload(XMLStreamReader reader) throws XMLStreamException {
+        String text = readText(reader).trim();
+        return spillFile != null ? spillFile.store(text) : LazyContent.of(text);
+    }
+
+    /**
+     * Read the text of the current element, trimmed and with whitespace runs collapsed
+     * (the streaming equivalent of dom4j's {@code Element.getTextTrim()}).
+     *
+     * @param reader Reader positioned on a start element
+     * @return The normalized text content, never null
+     * @throws XMLStreamException If there's an error parsing the XML
+     */
+    static String readTextTrim(XMLStreamReader reader) throws XMLStreamException {
+        return normalize(readText(reader));
+    }
+
+    /**
+     * Trim text and collapse internal whitespace runs to a single space.
+     *
+     * @param text The text to normalize
+     * @return The normalized text
+     */
+    static String normalize(String text) {
+        StringTokenizer tokenizer = new StringTokenizer(text);
+        if (!tokenizer.hasMoreTokens()) {
+            return "";
+        }
+        String first = tokenizer.nextToken();
+        if (!tokenizer.hasMoreTokens()) {
+            return first;
+        }
+        StringBuilder normalized = new StringBuilder(first);
+        while (tokenizer.hasMoreTokens()) {
+            normalized.append(' ').append(tokenizer.nextToken());
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Get the local name (without prefix) of the current element.
+     *
+     * @param reader Reader positioned on a start or end element
+     * @return The local element name
+     */
+    static String localName(XMLStreamReader reader) {
+        return stripPrefix(reader.getLocalName());
+    }
+
+    /**
+     * Get the value of the first attribute with the given local name, as dom4j's
+     * {@code Element.attributeValue(String)} does.
+     *
+     * @param reader Reader positioned on a start element
+     * @param name The attribute's local name
+     * @return The attribute value or null if not present
+     */
+    static String attribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (name.equals(stripPrefix(reader.getAttributeLocalName(i)))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static String stripPrefix(String qualifiedName) {
+        int colon = qualifiedName.indexOf(':');
+        return colon < 0 ? qualifiedName : qualifiedName.substring(colon + 1);
+    }
+
+    /**
+     * Receiver for parsed name/value properties.
+     */
+    interface PropertySink {
+        void accept(String name, String value);
+    }
+}
@@ -1,5 +1,7 @@
 package com.readyapi.converter;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,7 +12,7 @@ public class ReadyApiTestStep {
     private String id;
     private String name;
     private String type;
-    private String content;  // Will contain script content for Groovy scripts or request config for REST requests
+    private LazyContent content;  // Will contain script content for Groovy scripts or request config for REST requests
     private Map<String, String> properties = new HashMap<>();
     private ReadyApiRequest request;  // For REST request test steps
     
@@ -39,13 +41,31 @@ public class ReadyApiTestStep {
     }
     
     public String getContent() {
-        return content;
+        return content != null ? content.get() : null;
     }
     
     public void setContent(String content) {
+        this.content = LazyContent.of(content);
+    }
+    
+    /**
+     * Set the content as a handle that is only decoded when the content is read.
+     * 
+     * @param content The content handle
+     */
+    public void setContent(LazyContent content) {
         this.content = content;
     }
     
+    /**
+     * Check for non-empty content without decoding it.
+     * 
+     * @return true if the step has content
+     */
+    public boolean hasContent() {
+        return content != null && !content.isEmpty();
+    }
+    
     public Map<String, String> getProperties() {
         return properties;
     }
@@ -76,14 +96,35 @@ public class ReadyApiTestStep {
      * @return JavaScript code for Postman
      */
     public String convertGroovyToJavaScript() {
-        if (!"groovy".equalsIgnoreCase(type) || content == null || content.isEmpty()) {
+        if (!"groovy".equalsIgnoreCase(type) || !hasContent()) {
             return "";
         }
         
         String scriptType = isPreRequestScript() ? "pre-request" : 
                            isTestScript() ? "test" : "library";
         
-        return ScriptConverter.convertToJavaScript(content, scriptType);
+        return ScriptConverter.convertToJavaScript(content.get(), scriptType);
+    }
+    
+    /**
+     * Convert the Groovy script to JavaScript, writing it to an appendable. The
+     * script is read through {@link LazyContent#openReader()}, so a spilled script
+     * isn't decoded into one string first.
+     * 
+     * @param out The appendable the JavaScript is written to
+     * @throws IOException If reading the script or writing the JavaScript fails
+     */
+    public void convertGroovyToJavaScript(Appendable out) throws IOException {
+        if (!"groovy".equalsIgnoreCase(type) || !hasContent()) {
+            return;
+        }
+        
+        String scriptType = isPreRequestScript() ? "pre-request" : 
+                           isTestScript() ? "test" : "library";
+        
+        try (Reader reader = content.openReader()) {
+            ScriptConverter.convertToJavaScript(reader, scriptType, out);
+        }
     }
     
     /**
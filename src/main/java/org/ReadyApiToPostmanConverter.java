@@ -4,8 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Main class for converting ReadyAPI projects to Postman collections.
@@ -16,28 +19,148 @@ public class ReadyApiToPostmanConverter {
     // List to track items that couldn't be converted
     private final List<String> conversionIssues = new ArrayList<>();
     
+    // Parser used for the ReadyAPI project; configurable before calling convert()
+    private final ReadyApiProjectParser parser = new ReadyApiProjectParser();
+    
+    // Scripts and request bodies at least this many characters long are spilled to disk (0 = never)
+    private int payloadSpillThreshold;
+    
+    // Threads converting scripts while the collection is built
+    private int conversionThreads = Runtime.getRuntime().availableProcessors();
+    
+    // Inline only the library functions each test case calls, instead of every library everywhere
+    private boolean libraryPruning = true;
+    
+    // Strip, deduplicate and minify the emitted scripts, writing a source map next to the collection
+    private boolean compactScripts;
+    
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Usage: java -jar readyapi-to-postman-converter.jar <readyapi_project_file.xml> [output_directory]");
+        List<String> positionalArgs = new ArrayList<>();
+        boolean streaming = false;
+        boolean memoryMapped = false;
+        int payloadSpillThreshold = 0;
+        String snapshotDirectory = null;
+        String scriptRulesFile = null;
+        ScriptConverter.Backend scriptBackend = null;
+        String cacheDirectory = null;
+        long cacheSizeMegabytes = 512;
+        int conversionThreads = Runtime.getRuntime().availableProcessors();
+        long scriptTimeoutMillis = ScriptConverter.DEFAULT_TIME_BUDGET_MILLIS;
+        boolean libraryPruning = true;
+        boolean compactScripts = false;
+        ForkJoinPool parsePool = null;
+        for (String arg : args) {
+            if ("--streaming".equals(arg)) {
+                streaming = true;
+            } else if ("--mmap".equals(arg)) {
+                memoryMapped = true;
+            } else if ("--spill-payloads".equals(arg)) {
+                payloadSpillThreshold = 64 * 1024;
+            } else if (arg.startsWith("--spill-payloads=")) {
+                payloadSpillThreshold = Integer.parseInt(arg.substring("--spill-payloads=".length()));
+            } else if (arg.startsWith("--script-rules=")) {
+                scriptRulesFile = arg.substring("--script-rules=".length());
+            } else if (arg.startsWith("--script-backend=")) {
+                scriptBackend = ScriptConverter.Backend.valueOf(
+                        arg.substring("--script-backend=".length()).toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith("--convert-threads=")) {
+                conversionThreads = Integer.parseInt(arg.substring("--convert-threads=".length()));
+            } else if (arg.startsWith("--script-timeout=")) {
+                scriptTimeoutMillis = Long.parseLong(arg.substring("--script-timeout=".length()));
+            } else if ("--no-library-pruning".equals(arg)) {
+                libraryPruning = false;
+            } else if ("--compact-scripts".equals(arg)) {
+                compactScripts = true;
+            } else if (arg.startsWith("--cache-dir=")) {
+                cacheDirectory = arg.substring("--cache-dir=".length());
+            } else if (arg.startsWith("--cache-size=")) {
+                cacheSizeMegabytes = Long.parseLong(arg.substring("--cache-size=".length()));
+            } else if (arg.startsWith("--snapshot-dir=")) {
+                snapshotDirectory = arg.substring("--snapshot-dir=".length());
+            } else if ("--parallel".equals(arg)) {
+                parsePool = ForkJoinPool.commonPool();
+            } else if (arg.startsWith("--parallel=")) {
+                parsePool = new ForkJoinPool(Integer.parseInt(arg.substring("--parallel=".length())));
+            } else {
+                positionalArgs.add(arg);
+            }
+        }
+        
+        if (positionalArgs.isEmpty()) {
+            System.out.println("Usage: java -jar readyapi-to-postman-converter.jar [--streaming] [--mmap] [--parallel[=threads]] [--spill-payloads[=chars]] [--snapshot-dir=dir] [--script-rules=rules.json] [--script-backend=lexer|ast|regex] [--cache-dir=dir] [--cache-size=MB] [--convert-threads=n] [--script-timeout=ms] [--no-library-pruning] [--compact-scripts] <readyapi_project_file.xml[.gz]|project.zip|composite_project_dir> [output_directory]");
             System.exit(1);
         }
         
-        String inputFilePath = args[0];
-        String outputDirectory = args.length > 1 ? args[1] : ".";
+        String inputFilePath = positionalArgs.get(0);
+        String outputDirectory = positionalArgs.size() > 1 ? positionalArgs.get(1) : ".";
+        
+        if (scriptRulesFile != null) {
+            try {
+                ScriptConverter.setRewriteRules(ScriptConverter.createDefaultRules().load(Paths.get(scriptRulesFile)));
+            } catch (IOException e) {
+                System.out.println("Can't load script rules " + scriptRulesFile + ": " + e.getMessage());
+                System.exit(1);
+            }
+            // Rule files are written for the rule backend
+            if (scriptBackend == null) {
+                scriptBackend = ScriptConverter.Backend.REGEX;
+            }
+        }
+        if (scriptBackend != null) {
+            ScriptConverter.setBackend(scriptBackend);
+        }
+        ScriptConverter.setTimeBudgetMillis(scriptTimeoutMillis);
+        
+        ConversionDiskCache diskCache = null;
+        if (cacheDirectory != null) {
+            try {
+                diskCache = new ConversionDiskCache(Paths.get(cacheDirectory), cacheSizeMegabytes * 1024 * 1024,
+                        ScriptConverter.CONVERSION_VERSION);
+                ScriptConverter.setDiskCache(diskCache);
+            } catch (IOException e) {
+                System.out.println("Can't use cache directory " + cacheDirectory + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
         
         ReadyApiToPostmanConverter converter = new ReadyApiToPostmanConverter();
+        if (snapshotDirectory != null) {
+            try {
+                converter.getParser().setSnapshotStore(new ParseSnapshotStore(Paths.get(snapshotDirectory)));
+            } catch (IOException e) {
+                System.out.println("Can't use snapshot directory " + snapshotDirectory + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        converter.getParser().setStreaming(streaming);
+        converter.getParser().setMemoryMapped(memoryMapped);
+        converter.getParser().setForkJoinPool(parsePool);
+        converter.setPayloadSpillThreshold(payloadSpillThreshold);
+        converter.setConversionThreads(conversionThreads);
+        converter.setLibraryPruning(libraryPruning);
+        converter.setCompactScripts(compactScripts);
         converter.convert(inputFilePath, outputDirectory);
+        
+        if (diskCache != null) {
+            diskCache.logStatistics();
+            try {
+                diskCache.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close conversion cache: {}", e.getMessage());
+            }
+        }
     }
     
     /**
      * Convert a ReadyAPI project to Postman collection
      * 
-     * @param readyApiFile Path to the ReadyAPI project file
+     * @param readyApiFile Path to the ReadyAPI project file, archive or composite project directory
      * @param outputDirectory Directory to save the output files
      */
     public void convert(String readyApiFile, String outputDirectory) {
         logger.info("Starting conversion of ReadyAPI project: {}", readyApiFile);
         
+        PayloadSpillFile spillFile = null;
         try {
             // Create output directory if it doesn't exist
             File outputDir = new File(outputDirectory);
@@ -48,19 +171,43 @@ public class ReadyApiToPostmanConverter {
                 }
             }
             
+            // Large payloads stay on disk until the builders read them
+            if (payloadSpillThreshold > 0) {
+                spillFile = new PayloadSpillFile(payloadSpillThreshold);
+                parser.setPayloadSpillFile(spillFile);
+            }
+            
+            // Conversions are memoized for this run only
+            ScriptConverter.getConversionCache().clear();
+            FunctionLibraryConverter.getMethodCache().clear();
+            ScriptConverter.drainConversionIssues();
+            
             // Parse the ReadyAPI project
             logger.info("Parsing ReadyAPI project...");
-            ReadyApiProject project = new ReadyApiProjectParser().parse(readyApiFile);
+            ReadyApiProject project = parser.parse(readyApiFile);
+            
+            // Save parser metrics next to the output
+            String metricsFile = outputDir.getPath() + File.separator + project.getName() + "_parser_metrics.json";
+            parser.getMetrics().saveToFile(metricsFile);
+            
+            // Libraries, assertions and mappers are shared by the builders
+            ConversionContext context = new ConversionContext(project);
             
             // Create Postman collection
             logger.info("Creating Postman collection...");
-            PostmanCollectionBuilder collectionBuilder = new PostmanCollectionBuilder(project);
+            PostmanCollectionBuilder collectionBuilder = new PostmanCollectionBuilder(context);
+            collectionBuilder.setConversionThreads(conversionThreads);
+            collectionBuilder.setLibraryPruning(libraryPruning);
             PostmanCollection collection = collectionBuilder.build();
             collection.setConversionIssues(collectionBuilder.getConversionIssues());
+            ScriptConverter.getConversionCache().logStatistics();
+            if (!project.getScriptLibraries().isEmpty()) {
+                FunctionLibraryConverter.getMethodCache().logStatistics();
+            }
             
             // Create Postman environment
             logger.info("Creating Postman environment...");
-            PostmanEnvironment environment = new PostmanEnvironmentBuilder(project).build();
+            PostmanEnvironment environment = new PostmanEnvironmentBuilder(context).build();
             
             // Save Postman collection and environment
             String projectName = project.getName();
@@ -68,11 +215,18 @@ public class ReadyApiToPostmanConverter {
             String environmentFile = outputDir.getPath() + File.separator + projectName + ".postman_environment.json";
             String issuesFile = outputDir.getPath() + File.separator + projectName + "_conversion_issues.txt";
             
+            if (compactScripts) {
+                logger.info("Compacting scripts...");
+                ScriptSourceMap sourceMap = new ScriptCompactor().compact(collection);
+                sourceMap.saveToFile(outputDir.getPath() + File.separator + projectName + "_script_sourcemap.json",
+                        context.getPrettyWriter());
+            }
+            
             logger.info("Saving Postman collection to: {}", collectionFile);
-            collection.saveToFile(collectionFile);
+            collection.saveToFile(collectionFile, context.getPrettyWriter());
             
             logger.info("Saving Postman environment to: {}", environmentFile);
-            environment.saveToFile(environmentFile);
+            environment.saveToFile(environmentFile, context.getPrettyWriter());
             
             // Save any CSV data files
             logger.info("Saving data files...");
@@ -85,7 +239,7 @@ public class ReadyApiToPostmanConverter {
             }
             
             logger.info("Validating Postman collection...");
-            boolean isValid = new PostmanCollectionValidator().validate(collectionFile);
+            boolean isValid = new PostmanCollectionValidator(context.getObjectMapper()).validate(collectionFile);
             if (isValid) {
                 logger.info("Postman collection validation successful!");
             } else {
@@ -96,9 +250,59 @@ public class ReadyApiToPostmanConverter {
             
         } catch (Exception e) {
             logger.error("Error during conversion: {}", e.getMessage(), e);
+        } finally {
+            if (spillFile != null) {
+                parser.setPayloadSpillFile(null);
+                try {
+                    spillFile.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to delete payload spill file: {}", e.getMessage());
+                }
+            }
         }
     }
     
+    public int getConversionThreads() {
+        return conversionThreads;
+    }
+    
+    public void setConversionThreads(int conversionThreads) {
+        this.conversionThreads = conversionThreads;
+    }
+    
+    public boolean isLibraryPruning() {
+        return libraryPruning;
+    }
+    
+    public void setLibraryPruning(boolean libraryPruning) {
+        this.libraryPruning = libraryPruning;
+    }
+    
+    public boolean isCompactScripts() {
+        return compactScripts;
+    }
+    
+    public void setCompactScripts(boolean compactScripts) {
+        this.compactScripts = compactScripts;
+    }
+    
+    public int getPayloadSpillThreshold() {
+        return payloadSpillThreshold;
+    }
+    
+    public void setPayloadSpillThreshold(int payloadSpillThreshold) {
+        this.payloadSpillThreshold = payloadSpillThreshold;
+    }
+    
+    /**
+     * Get the parser used to read the ReadyAPI project.
+     * 
+     * @return The project parser
+     */
+    public ReadyApiProjectParser getParser() {
+        return parser;
+    }
+    
     /**
      * Get the list of conversion issues
      * 
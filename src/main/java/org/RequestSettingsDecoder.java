@@ -0,0 +1,106 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+
+/**
+ * Decodes the request settings and parameters shared by interface requests and
+ * REST request test steps, for both the DOM and the streaming parser.
+ * <p>
+ * ReadyAPI stores request headers as an escaped {@code xml-fragment} inside the
+ * {@code request-headers} setting:
+ * <pre>
+ * &lt;con:setting id="...@request-headers"&gt;&amp;lt;xml-fragment&amp;gt;
+ *   &amp;lt;con:entry key="Accept" value="application/json"/&amp;gt;
+ * &amp;lt;/xml-fragment&amp;gt;&lt;/con:setting&gt;
+ * </pre>
+ * Request parameters are {@code entry} elements with a key and a value. A parameter
+ * whose key appears as a {@code {key}} template in the resource path or endpoint is
+ * a path parameter, any other is a query parameter.
+ */
+public class RequestSettingsDecoder {
+    private static final Logger logger = LoggerFactory.getLogger(RequestSettingsDecoder.class);
+
+    private static final String REQUEST_HEADERS_SETTING = "request-headers";
+
+    private final StringPool stringPool;
+    private final XMLInputFactory inputFactory;
+
+    /**
+     * @param stringPool Pool deduplicating header and parameter names
+     */
+    public RequestSettingsDecoder(StringPool stringPool) {
+        this.stringPool = stringPool;
+        this.inputFactory = XMLInputFactory.newFactory();
+        this.inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Apply a single request setting. Settings other than the request headers are ignored.
+     *
+     * @param id The setting id, such as {@code com.eviware.soapui.impl.wsdl.WsdlRequest@request-headers}
+     * @param value The unescaped setting text
+     * @param request The request to add headers to
+     */
+    public void decodeSetting(String id, String value, ReadyApiRequest request) {
+        if (id == null || !id.endsWith(REQUEST_HEADERS_SETTING) || value == null || value.trim().isEmpty()) {
+            return;
+        }
+
+        try {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(value));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "entry".equals(ReadyApiStreamingParser.localName(reader))) {
+                        String name = ReadyApiStreamingParser.attribute(reader, "key");
+                        if (name != null && !name.isEmpty()) {
+                            addHeader(request, stringPool.intern(name), ReadyApiStreamingParser.attribute(reader, "value"));
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            logger.warn("Ignoring unreadable request headers of request {}: {}", request.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Add a request parameter as a path or query parameter.
+     *
+     * @param key The parameter name
+     * @param value The parameter value
+     * @param resourcePath The resource path of the request, may be null
+     * @param request The request to add the parameter to
+     */
+    public void decodeParameter(String key, String value, String resourcePath, ReadyApiRequest request) {
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        String name = stringPool.intern(key);
+        String parameterValue = value != null ? value : "";
+        String template = "{" + key + "}";
+        if ((resourcePath != null && resourcePath.contains(template))
+                || (request.getEndpoint() != null && request.getEndpoint().contains(template))) {
+            request.addPathParameter(name, parameterValue);
+        } else {
+            request.addQueryParameter(name, parameterValue);
+        }
+    }
+
+    private static void addHeader(ReadyApiRequest request, String name, String value) {
+        String headerValue = value != null ? value : "";
+        // Repeated entries are multiple values of the same header
+        request.getRequestHeaders().merge(name, headerValue, (first, next) -> first + ", " + next);
+    }
+}
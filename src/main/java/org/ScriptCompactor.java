@@ -0,0 +1,1136 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Optional output stage that makes the scripts of a built collection smaller.
+ * <p>
+ * Every pre-request and test script is compacted in place:
+ * <ul>
+ *   <li>comments, blank lines and indentation are removed, and runs of spaces
+ *       collapsed; line breaks are kept, so automatic semicolon insertion still
+ *       sees the statements it did;</li>
+ *   <li>a repeated top-level {@code pm.test(...)} call or function declaration,
+ *       which would only run or declare the same thing again, is dropped;</li>
+ *   <li>variables and parameters declared inside functions get short names.</li>
+ * </ul>
+ * Renaming works on a scope analysis of the script's tokens, and is by name: a name
+ * is only shortened if every use of it is bound to a declaration inside a
+ * function, it never appears as a shorthand property, in a template literal or in
+ * a destructuring pattern, and the script has no {@code eval}, {@code with} or
+ * class. Each name gets a short name no other identifier of the script uses, so
+ * shadowing is preserved. Top-level declarations keep their names, as they may be
+ * shared with other scripts. The comments that name the test step or library each
+ * part of a script came from are recorded in a {@link ScriptSourceMap} before they
+ * are removed.
+ */
+public class ScriptCompactor {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptCompactor.class);
+
+    // Comments the collection builder puts before each part of a script
+    private static final Pattern STEP_BANNER = Pattern.compile("^// From test step: (.*)$");
+    private static final Pattern LIBRARY_BANNER = Pattern.compile("^// Include ([^:]*)(?::.*)?$");
+    private static final Pattern WORD = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "break", "case", "catch", "class", "const", "continue", "debugger", "default", "delete", "do", "else",
+            "export", "extends", "finally", "for", "function", "if", "import", "in", "instanceof", "new", "return",
+            "super", "switch", "this", "throw", "try", "typeof", "var", "void", "while", "with", "yield", "let",
+            "static", "enum", "await", "implements", "package", "protected", "interface", "private", "public",
+            "null", "true", "false", "undefined", "NaN", "Infinity", "arguments", "eval", "async", "of"));
+    // Words after which a slash starts a regular expression rather than a division
+    private static final Set<String> REGEX_PREFIX_KEYWORDS = new HashSet<>(Arrays.asList(
+            "return", "typeof", "case", "do", "else", "in", "of", "new", "delete", "void", "throw", "instanceof",
+            "yield", "await"));
+    // Longest first, so that the longest operator at a position wins
+    private static final String[] PUNCTUATORS = {
+            ">>>=", "...", "===", "!==", "**=", "<<=", ">>=", ">>>", "&&=", "||=", "??=",
+            "=>", "==", "!=", "<=", ">=", "&&", "||", "??", "?.", "++", "--", "+=", "-=", "*=", "/=", "%=",
+            "&=", "|=", "^=", "**", "<<", ">>"};
+
+    private boolean renameLocals = true;
+
+    public boolean isRenameLocals() {
+        return renameLocals;
+    }
+
+    /**
+     * Choose whether local variables and parameters get short names.
+     *
+     * @param renameLocals false to only remove comments, blank lines and repeated statements
+     */
+    public void setRenameLocals(boolean renameLocals) {
+        this.renameLocals = renameLocals;
+    }
+
+    /**
+     * Compact every script of a collection in place.
+     *
+     * @param collection The collection
+     * @return Where each part of the compacted scripts came from
+     */
+    public ScriptSourceMap compact(PostmanCollection collection) {
+        ScriptSourceMap sourceMap = new ScriptSourceMap();
+        long[] characters = new long[2];
+        compactEvents(collection.getEvent(), new ArrayList<>(), sourceMap, characters);
+        compactItems(collection.getItem(), new ArrayList<>(), sourceMap, characters);
+        logger.info("Compacted {} scripts from {} to {} characters",
+                sourceMap.getScripts().size(), characters[0], characters[1]);
+        return sourceMap;
+    }
+
+    private void compactItems(List<PostmanItem> items, List<String> path, ScriptSourceMap sourceMap, long[] characters) {
+        if (items == null) {
+            return;
+        }
+        for (PostmanItem item : items) {
+            List<String> itemPath = new ArrayList<>(path);
+            itemPath.add(item.getName());
+            compactEvents(item.getEvent(), itemPath, sourceMap, characters);
+            compactItems(item.getItem(), itemPath, sourceMap, characters);
+        }
+    }
+
+    private void compactEvents(List<PostmanEvent> events, List<String> path, ScriptSourceMap sourceMap, long[] characters) {
+        if (events == null) {
+            return;
+        }
+        for (PostmanEvent event : events) {
+            PostmanEvent.PostmanScript script = event.getScript();
+            if (script == null || script.getExec() == null || script.getExec().isEmpty()) {
+                continue;
+            }
+            String source = String.join("\n", script.getExec());
+            Compaction compaction;
+            try {
+                compaction = compact(source);
+            } catch (RuntimeException e) {
+                // The script is kept as it is rather than risk breaking it
+                logger.warn("Couldn't compact the {} script of {}: {}", event.getListen(), path, e.getMessage());
+                continue;
+            }
+            script.setExec(compaction.lines);
+            characters[0] += source.length();
+            characters[1] += String.join("\n", compaction.lines).length();
+
+            ScriptSourceMap.Script mapped = new ScriptSourceMap.Script();
+            mapped.setPath(path);
+            mapped.setListen(event.getListen());
+            mapped.setOriginalLines(compaction.originalLines);
+            mapped.setLines(compaction.lines.size());
+            mapped.setSections(compaction.sections);
+            mapped.setNames(compaction.names);
+            sourceMap.addScript(mapped);
+        }
+    }
+
+    /**
+     * The result of compacting one script.
+     */
+    static final class Compaction {
+        private final List<String> lines = new ArrayList<>();
+        private final List<ScriptSourceMap.Section> sections = new ArrayList<>();
+        private final Map<String, String> names = new LinkedHashMap<>();
+        private int originalLines;
+
+        List<String> getLines() {
+            return lines;
+        }
+
+        List<ScriptSourceMap.Section> getSections() {
+            return sections;
+        }
+
+        /**
+         * @return Original names by short name
+         */
+        Map<String, String> getNames() {
+            return names;
+        }
+    }
+
+    /**
+     * Compact one script.
+     *
+     * @param source The JavaScript
+     * @return The compacted lines, with their sections and renamed variables
+     */
+    Compaction compact(String source) {
+        List<Token> tokens = tokenize(source);
+        Analysis analysis = new Analysis(source, tokens);
+        analysis.run(renameLocals);
+
+        Compaction compaction = new Compaction();
+        for (Map.Entry<String, String> rename : analysis.renames.entrySet()) {
+            compaction.names.put(rename.getValue(), rename.getKey());
+        }
+
+        StringBuilder line = new StringBuilder();
+        int originalLine = 0;
+        boolean space = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (analysis.dropped[i]) {
+                originalLine += token.newlines(source);
+                continue;
+            }
+            switch (token.kind) {
+                case NEWLINE:
+                    flush(line, compaction);
+                    space = false;
+                    originalLine++;
+                    break;
+
+                case SPACE:
+                    space = line.length() > 0;
+                    break;
+
+                case COMMENT:
+                    String comment = source.substring(token.start, token.end);
+                    if (line.length() == 0) {
+                        String section = section(comment);
+                        if (section != null) {
+                            compaction.sections.add(new ScriptSourceMap.Section(section, compaction.lines.size(), originalLine));
+                        }
+                    }
+                    int newlines = token.newlines(source);
+                    if (newlines > 0) {
+                        // A block comment with a line break ends the line, as far as semicolon insertion goes
+                        flush(line, compaction);
+                        space = false;
+                        originalLine += newlines;
+                    } else {
+                        space = line.length() > 0;
+                    }
+                    break;
+
+                default:
+                    String text = source.substring(token.start, token.end);
+                    if (analysis.variable[i]) {
+                        text = analysis.renames.getOrDefault(text, text);
+                    }
+                    if (space && needsSpace(line.charAt(line.length() - 1), text)) {
+                        line.append(' ');
+                    }
+                    space = false;
+                    line.append(text);
+                    originalLine += token.newlines(source);
+                    break;
+            }
+        }
+        flush(line, compaction);
+        compaction.originalLines = originalLine + 1;
+        return compaction;
+    }
+
+    private static void flush(StringBuilder line, Compaction compaction) {
+        if (line.length() == 0) {
+            return;
+        }
+        // A string or template literal spanning lines is kept whole, over as many exec lines
+        Collections.addAll(compaction.lines, line.toString().split("\r?\n", -1));
+        line.setLength(0);
+    }
+
+    /**
+     * @return The source a banner comment names, or null if it isn't one
+     */
+    private static String section(String comment) {
+        Matcher step = STEP_BANNER.matcher(comment);
+        if (step.matches()) {
+            return "test step: " + step.group(1);
+        }
+        if ("// Import script libraries".equals(comment)) {
+            return "script libraries";
+        }
+        Matcher library = LIBRARY_BANNER.matcher(comment);
+        if (library.matches()) {
+            return "script library: " + library.group(1).trim();
+        }
+        return null;
+    }
+
+    /**
+     * Whether two tokens would run together, or into another token, without a space.
+     */
+    private static boolean needsSpace(char before, String text) {
+        char after = text.charAt(0);
+        // A number such as .5 after a word would read as a property
+        return (isWordChar(before) && (isWordChar(after) || (after == '.' && text.length() > 1 && Character.isDigit(text.charAt(1)))))
+                || (before == '+' && after == '+') || (before == '-' && after == '-')
+                || (before == '/' && (after == '/' || after == '*'))
+                || (Character.isDigit(before) && after == '.');
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isJavaIdentifierPart(c) && c != '\u0000';
+    }
+
+    private enum Kind {
+        SPACE,
+        NEWLINE,
+        COMMENT,
+        STRING,
+        TEMPLATE,
+        REGEX,
+        NUMBER,
+        NAME,
+        PUNCTUATOR
+    }
+
+    private static final class Token {
+        private final Kind kind;
+        private final int start;
+        private final int end;
+
+        Token(Kind kind, int start, int end) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isSignificant() {
+            return kind != Kind.SPACE && kind != Kind.NEWLINE && kind != Kind.COMMENT;
+        }
+
+        int newlines(String source) {
+            if (kind == Kind.NEWLINE) {
+                return 1;
+            }
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (source.charAt(i) == '\n') {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Split JavaScript into tokens. Template literals are one token, their
+     * substitutions included.
+     */
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int length = source.length();
+        int position = 0;
+        Token last = null;
+        while (position < length) {
+            int start = position;
+            char c = source.charAt(position);
+            char next = position + 1 < length ? source.charAt(position + 1) : '\0';
+            Kind kind;
+            if (c == '\n' || c == '\r') {
+                position += c == '\r' && next == '\n' ? 2 : 1;
+                kind = Kind.NEWLINE;
+            } else if (c == ' ' || c == '\t' || c == '\f' || c == '\u000B' || c == '\u00A0' || c == '\uFEFF') {
+                while (position < length && " \t\f\u000B\u00A0\uFEFF".indexOf(source.charAt(position)) >= 0) {
+                    position++;
+                }
+                kind = Kind.SPACE;
+            } else if (c == '/' && next == '/') {
+                while (position < length && source.charAt(position) != '\n' && source.charAt(position) != '\r') {
+                    position++;
+                }
+                kind = Kind.COMMENT;
+            } else if (c == '/' && next == '*') {
+                int close = source.indexOf("*/", position + 2);
+                position = close < 0 ? length : close + 2;
+                kind = Kind.COMMENT;
+            } else if (c == '\'' || c == '"') {
+                position = skipString(source, position);
+                kind = Kind.STRING;
+            } else if (c == '`') {
+                position = skipTemplate(source, position);
+                kind = Kind.TEMPLATE;
+            } else if (c == '/' && regexAllowed(source, last) && skipRegex(source, position) > 0) {
+                position = skipRegex(source, position);
+                kind = Kind.REGEX;
+            } else if (Character.isDigit(c) || (c == '.' && Character.isDigit(next))) {
+                position++;
+                while (position < length) {
+                    char d = source.charAt(position);
+                    if ((d == '+' || d == '-') && (source.charAt(position - 1) == 'e' || source.charAt(position - 1) == 'E')
+                            && !source.startsWith("0x", start) && !source.startsWith("0X", start)) {
+                        position++;
+                    } else if (Character.isLetterOrDigit(d) || d == '_' || d == '.') {
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                kind = Kind.NUMBER;
+            } else if (Character.isJavaIdentifierStart(c) || c == '\\') {
+                position++;
+                while (position < length && (Character.isJavaIdentifierPart(source.charAt(position)) || source.charAt(position) == '\\')) {
+                    position++;
+                }
+                kind = Kind.NAME;
+            } else {
+                position += punctuatorLength(source, position);
+                kind = Kind.PUNCTUATOR;
+            }
+            Token token = new Token(kind, start, position);
+            tokens.add(token);
+            if (token.isSignificant()) {
+                last = token;
+            }
+        }
+        return tokens;
+    }
+
+    private static int punctuatorLength(String source, int position) {
+        for (String punctuator : PUNCTUATORS) {
+            if (source.startsWith(punctuator, position)) {
+                // a?.5:b is a conditional, not optional chaining
+                if ("?.".equals(punctuator) && position + 2 < source.length() && Character.isDigit(source.charAt(position + 2))) {
+                    continue;
+                }
+                return punctuator.length();
+            }
+        }
+        return 1;
+    }
+
+    private static int skipString(String source, int position) {
+        char quote = source.charAt(position);
+        position++;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == quote) {
+                return position + 1;
+            } else if (c == '\n' || c == '\r') {
+                // Unterminated
+                return position;
+            } else {
+                position++;
+            }
+        }
+        return source.length();
+    }
+
+    private static int skipTemplate(String source, int position) {
+        position++;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == '`') {
+                return position + 1;
+            } else if (c == '$' && position + 1 < source.length() && source.charAt(position + 1) == '{') {
+                position = skipSubstitution(source, position + 2);
+            } else {
+                position++;
+            }
+        }
+        return source.length();
+    }
+
+    /**
+     * @return The offset just after the brace closing a template substitution
+     */
+    private static int skipSubstitution(String source, int position) {
+        int depth = 1;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '{') {
+                depth++;
+                position++;
+            } else if (c == '}') {
+                position++;
+                if (--depth == 0) {
+                    return position;
+                }
+            } else if (c == '\'' || c == '"') {
+                position = skipString(source, position);
+            } else if (c == '`') {
+                position = skipTemplate(source, position);
+            } else {
+                position++;
+            }
+        }
+        return source.length();
+    }
+
+    /**
+     * @return The offset after a regular expression literal, or -1 if the slash doesn't start one
+     */
+    private static int skipRegex(String source, int position) {
+        boolean inClass = false;
+        position++;
+        while (position < source.length()) {
+            char c = source.charAt(position);
+            if (c == '\\') {
+                position += 2;
+            } else if (c == '\n' || c == '\r') {
+                return -1;
+            } else if (c == '[') {
+                inClass = true;
+                position++;
+            } else if (c == ']') {
+                inClass = false;
+                position++;
+            } else if (c == '/' && !inClass) {
+                position++;
+                while (position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) {
+                    position++;
+                }
+                return position;
+            } else {
+                position++;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regexAllowed(String source, Token last) {
+        if (last == null) {
+            return true;
+        }
+        String text = source.substring(last.start, last.end);
+        switch (last.kind) {
+            case NAME:
+                return REGEX_PREFIX_KEYWORDS.contains(text);
+            case NUMBER:
+            case STRING:
+            case TEMPLATE:
+            case REGEX:
+                return false;
+            default:
+                return !")".equals(text) && !"]".equals(text) && !"}".equals(text)
+                        && !"++".equals(text) && !"--".equals(text);
+        }
+    }
+
+    /**
+     * A scope: the whole script, a function or a block.
+     */
+    private static final class Scope {
+        private final boolean function;
+        // Token range, from the parameter list for a function
+        private final int start;
+        private int end = Integer.MAX_VALUE;
+        private final Set<String> names = new HashSet<>();
+
+        Scope(boolean function, int start) {
+            this.function = function;
+            this.start = start;
+        }
+    }
+
+    /**
+     * An open bracket while analysing.
+     */
+    private static final class Frame {
+        // For a brace: whether it opens an object literal rather than a block
+        private final boolean object;
+        private Scope scope;
+        // A for statement's scope, closed with its body
+        private Scope forScope;
+        private boolean keyPosition;
+        // Destructuring pattern, whose names can't be renamed without rewriting it
+        private boolean pattern;
+        private final int sigIndex;
+        // For a parenthesis: "function", "catch", "for" or null
+        private String role;
+
+        Frame(boolean object, int sigIndex) {
+            this.object = object;
+            this.sigIndex = sigIndex;
+        }
+    }
+
+    /**
+     * Scope analysis, renaming and duplicate detection of one script.
+     */
+    private static final class Analysis {
+        private final String source;
+        private final List<Token> tokens;
+        // Indices of the significant tokens
+        private final int[] sig;
+        // Whether a newline comes between a significant token and the one before it
+        private final boolean[] newlineBefore;
+        // Significant index of the matching bracket, or -1
+        private final int[] match;
+        private final int[] depth;
+
+        private final boolean[] variable;
+        private final boolean[] dropped;
+        private final Map<String, String> renames = new LinkedHashMap<>();
+
+        private final List<Scope> scopes = new ArrayList<>();
+        private final Set<String> pinned = new HashSet<>();
+        private boolean bail;
+
+        Analysis(String source, List<Token> tokens) {
+            this.source = source;
+            this.tokens = tokens;
+            this.variable = new boolean[tokens.size()];
+            this.dropped = new boolean[tokens.size()];
+
+            List<Integer> significant = new ArrayList<>();
+            List<Boolean> newlines = new ArrayList<>();
+            boolean newline = false;
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.isSignificant()) {
+                    significant.add(i);
+                    newlines.add(newline);
+                    newline = false;
+                } else if (token.newlines(source) > 0) {
+                    newline = true;
+                }
+            }
+            sig = new int[significant.size()];
+            newlineBefore = new boolean[sig.length];
+            for (int k = 0; k < sig.length; k++) {
+                sig[k] = significant.get(k);
+                newlineBefore[k] = newlines.get(k);
+            }
+
+            match = new int[sig.length];
+            depth = new int[sig.length];
+            Arrays.fill(match, -1);
+            Deque<Integer> open = new ArrayDeque<>();
+            for (int k = 0; k < sig.length; k++) {
+                String text = text(k);
+                depth[k] = open.size();
+                if ("(".equals(text) || "[".equals(text) || "{".equals(text)) {
+                    open.push(k);
+                } else if (")".equals(text) || "]".equals(text) || "}".equals(text)) {
+                    if (open.isEmpty() || !closes(text(open.peek()), text)) {
+                        bail = true;
+                        continue;
+                    }
+                    int opening = open.pop();
+                    match[opening] = k;
+                    match[k] = opening;
+                    depth[k] = open.size();
+                }
+            }
+            if (!open.isEmpty()) {
+                bail = true;
+            }
+        }
+
+        void run(boolean rename) {
+            if (bail) {
+                // Unbalanced brackets: only comments and whitespace are safe to touch
+                return;
+            }
+            findDuplicates();
+            if (rename) {
+                analyseScopes();
+                if (!bail) {
+                    chooseNames();
+                }
+            }
+        }
+
+        private String text(int k) {
+            Token token = tokens.get(sig[k]);
+            return source.substring(token.start, token.end);
+        }
+
+        private Kind kind(int k) {
+            return tokens.get(sig[k]).kind;
+        }
+
+        private Kind kindAt(int k) {
+            return k >= 0 && k < sig.length ? kind(k) : null;
+        }
+
+        private String textAt(int k) {
+            return k >= 0 && k < sig.length ? text(k) : "";
+        }
+
+        private static boolean closes(String open, String close) {
+            return ("(".equals(open) && ")".equals(close)) || ("[".equals(open) && "]".equals(close))
+                    || ("{".equals(open) && "}".equals(close));
+        }
+
+        /**
+         * Mark top-level {@code pm.test(...)} calls and function declarations that
+         * repeat an earlier one, token for token, to be dropped.
+         */
+        private void findDuplicates() {
+            Set<String> seen = new HashSet<>();
+            for (int k = 0; k < sig.length; k++) {
+                if (depth[k] != 0 || (k > 0 && !newlineBefore[k])) {
+                    continue;
+                }
+                int end = -1;
+                if ("pm".equals(text(k)) && ".".equals(textAt(k + 1)) && "test".equals(textAt(k + 2))
+                        && "(".equals(textAt(k + 3))) {
+                    end = match[k + 3];
+                } else if ("function".equals(text(k)) && kindAt(k + 1) == Kind.NAME && "(".equals(textAt(k + 2))) {
+                    int body = match[k + 2] + 1;
+                    end = "{".equals(textAt(body)) ? match[body] : -1;
+                }
+                if (end < 0) {
+                    continue;
+                }
+                if (";".equals(textAt(end + 1)) && !newlineBefore[end + 1]) {
+                    end++;
+                }
+                // Only a statement that is alone on its lines
+                if (end + 1 < sig.length && !newlineBefore[end + 1]) {
+                    continue;
+                }
+                StringBuilder key = new StringBuilder();
+                for (int j = k; j <= end; j++) {
+                    key.append(text(j)).append(' ');
+                }
+                if (!seen.add(key.toString())) {
+                    for (int i = sig[k]; i <= sig[end]; i++) {
+                        dropped[i] = true;
+                    }
+                }
+                k = end;
+            }
+        }
+
+        /**
+         * Find the scopes and declarations, and which names are variables where they appear.
+         */
+        private void analyseScopes() {
+            Scope root = new Scope(true, 0);
+            scopes.add(root);
+            Deque<Scope> scopeStack = new ArrayDeque<>();
+            scopeStack.push(root);
+            Deque<Frame> frames = new ArrayDeque<>();
+
+            String parenthesisRole = null;
+            // Parameters waiting for the function or catch body that follows them
+            List<String> pendingParameters = null;
+            int pendingStart = -1;
+            boolean pendingFunction = false;
+            Scope pendingForScope = null;
+            // Declaration statement being read: "let", "const", "var" or null
+            String declaring = null;
+            int declaringDepth = 0;
+            boolean expectDeclarator = false;
+
+            for (int k = 0; k < sig.length; k++) {
+                String text = text(k);
+                Kind kind = kind(k);
+                String previous = textAt(k - 1);
+                String following = textAt(k + 1);
+                Frame frame = frames.peek();
+                boolean keyPosition = frame != null && frame.object && frame.keyPosition;
+                if (frame != null) {
+                    frame.keyPosition = false;
+                }
+                // A role applies to a parenthesis right after its keyword, as catch can come without one
+                if (!"(".equals(text)) {
+                    parenthesisRole = null;
+                }
+                boolean inPattern = false;
+                for (Frame open : frames) {
+                    inPattern |= open.pattern;
+                }
+
+                // A declaration ends at a line break that doesn't continue it
+                if (declaring != null && newlineBefore[k] && frames.size() == declaringDepth
+                        && !",".equals(previous) && !"=".equals(previous)) {
+                    declaring = null;
+                    expectDeclarator = false;
+                }
+
+                if (kind == Kind.NAME) {
+                    if (".".equals(previous) || "?.".equals(previous)) {
+                        continue;
+                    }
+                    if (keyPosition) {
+                        if (":".equals(following)) {
+                            continue;
+                        }
+                        if ("(".equals(following)) {
+                            // Method shorthand
+                            parenthesisRole = "function";
+                            continue;
+                        }
+                        if (kindAt(k + 1) == Kind.NAME) {
+                            // A modifier such as get or async before a method name
+                            frame.keyPosition = true;
+                            continue;
+                        }
+                        // Shorthand property: the name is also the key
+                        pinned.add(text);
+                    }
+                    if ("eval".equals(text) || "with".equals(text) || "class".equals(text)) {
+                        bail = true;
+                        return;
+                    }
+                    if ("function".equals(text)) {
+                        parenthesisRole = "function";
+                        if (kindAt(k + 1) == Kind.NAME) {
+                            // Declared names keep their names
+                            pinned.add(following);
+                            k++;
+                        }
+                        continue;
+                    }
+                    if ("let".equals(text) || "const".equals(text) || "var".equals(text)) {
+                        declaring = text;
+                        declaringDepth = frames.size();
+                        expectDeclarator = true;
+                        continue;
+                    }
+                    if ("catch".equals(text)) {
+                        parenthesisRole = "catch";
+                        continue;
+                    }
+                    if ("for".equals(text)) {
+                        parenthesisRole = "for";
+                        continue;
+                    }
+                    if (KEYWORDS.contains(text)) {
+                        continue;
+                    }
+
+                    variable[sig[k]] = true;
+                    if (inPattern) {
+                        pinned.add(text);
+                    }
+                    if (expectDeclarator && declaring != null) {
+                        declare(text, declaring, scopeStack);
+                        expectDeclarator = false;
+                    }
+                    continue;
+                }
+
+                if (kind == Kind.TEMPLATE) {
+                    // Substitutions aren't analysed, so nothing they mention is renamed
+                    Matcher word = WORD.matcher(text);
+                    while (word.find()) {
+                        pinned.add(word.group());
+                    }
+                    continue;
+                }
+
+                if (kind != Kind.PUNCTUATOR) {
+                    continue;
+                }
+                switch (text) {
+                    case "(": {
+                        Frame parenthesis = new Frame(false, k);
+                        parenthesis.role = parenthesisRole;
+                        parenthesisRole = null;
+                        if ("for".equals(parenthesis.role)) {
+                            parenthesis.forScope = new Scope(false, sig[k]);
+                            scopes.add(parenthesis.forScope);
+                            scopeStack.push(parenthesis.forScope);
+                        }
+                        frames.push(parenthesis);
+                        break;
+                    }
+                    case ")": {
+                        Frame parenthesis = frames.pop();
+                        if ("function".equals(parenthesis.role) || "catch".equals(parenthesis.role)) {
+                            pendingParameters = parameters(parenthesis.sigIndex, k);
+                            pendingStart = sig[parenthesis.sigIndex];
+                            pendingFunction = "function".equals(parenthesis.role);
+                            if (!"{".equals(following)) {
+                                pinned.addAll(pendingParameters);
+                                pendingParameters = null;
+                            }
+                        } else if (parenthesis.forScope != null) {
+                            if ("{".equals(following)) {
+                                pendingForScope = parenthesis.forScope;
+                            } else {
+                                // A body without braces; its end isn't tracked
+                                scopeStack.remove(parenthesis.forScope);
+                                parenthesis.forScope.end = sig[k];
+                                pinned.addAll(parenthesis.forScope.names);
+                            }
+                        }
+                        break;
+                    }
+                    case "=>": {
+                        List<String> arrowParameters;
+                        int start;
+                        if (")".equals(previous)) {
+                            arrowParameters = parameters(match[k - 1], k - 1);
+                            start = sig[match[k - 1]];
+                        } else {
+                            arrowParameters = Collections.singletonList(previous);
+                            start = sig[k - 1];
+                        }
+                        if ("{".equals(following)) {
+                            pendingParameters = arrowParameters;
+                            pendingStart = start;
+                            pendingFunction = true;
+                        } else {
+                            // An expression body, whose end isn't tracked
+                            pinned.addAll(arrowParameters);
+                        }
+                        break;
+                    }
+                    case "{": {
+                        boolean object = expectDeclarator || isObjectLiteral(k);
+                        Frame brace = new Frame(object, k);
+                        if (expectDeclarator) {
+                            brace.pattern = true;
+                            expectDeclarator = false;
+                        }
+                        if (object) {
+                            brace.keyPosition = true;
+                        } else {
+                            Scope scope = new Scope(pendingParameters != null && pendingFunction,
+                                    pendingParameters != null ? pendingStart : sig[k]);
+                            if (pendingParameters != null) {
+                                scope.names.addAll(pendingParameters);
+                            }
+                            pendingParameters = null;
+                            brace.scope = scope;
+                            brace.forScope = pendingForScope;
+                            pendingForScope = null;
+                            scopes.add(scope);
+                            scopeStack.push(scope);
+                        }
+                        frames.push(brace);
+                        break;
+                    }
+                    case "}": {
+                        Frame brace = frames.pop();
+                        if (brace.scope != null) {
+                            scopeStack.remove(brace.scope);
+                            brace.scope.end = sig[k];
+                        }
+                        if (brace.forScope != null) {
+                            scopeStack.remove(brace.forScope);
+                            brace.forScope.end = sig[k];
+                        }
+                        if (declaring != null && frames.size() < declaringDepth) {
+                            declaring = null;
+                        }
+                        break;
+                    }
+                    case "[": {
+                        Frame bracket = new Frame(false, k);
+                        if (expectDeclarator) {
+                            bracket.pattern = true;
+                            expectDeclarator = false;
+                        }
+                        frames.push(bracket);
+                        break;
+                    }
+                    case "]":
+                        frames.pop();
+                        break;
+
+                    case ",":
+                        if (frame != null && frame.object) {
+                            frame.keyPosition = true;
+                        }
+                        if (declaring != null && frames.size() == declaringDepth) {
+                            expectDeclarator = true;
+                        }
+                        break;
+
+                    case ";":
+                        if (frames.size() <= declaringDepth) {
+                            declaring = null;
+                            expectDeclarator = false;
+                        }
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        private void declare(String name, String declaring, Deque<Scope> scopeStack) {
+            Scope target = scopeStack.peek();
+            if ("var".equals(declaring)) {
+                for (Scope scope : scopeStack) {
+                    if (scope.function) {
+                        target = scope;
+                        break;
+                    }
+                }
+            }
+            if (target == scopes.get(0)) {
+                // Top-level names may be used by other scripts
+                pinned.add(name);
+            }
+            target.names.add(name);
+        }
+
+        /**
+         * Read the parameter names between two parentheses. Names in destructuring
+         * patterns are pinned, and default values are left to be read as references.
+         */
+        private List<String> parameters(int open, int close) {
+            List<String> names = new ArrayList<>();
+            boolean parameterStart = true;
+            for (int k = open + 1; k < close; k++) {
+                String text = text(k);
+                if (depth[k] == depth[open] + 1 && ",".equals(text)) {
+                    parameterStart = true;
+                } else if (parameterStart && "...".equals(text)) {
+                    continue;
+                } else if (parameterStart && kind(k) == Kind.NAME) {
+                    names.add(text);
+                    parameterStart = false;
+                } else if (parameterStart && ("{".equals(text) || "[".equals(text))) {
+                    for (int j = k; j <= match[k]; j++) {
+                        if (kind(j) == Kind.NAME) {
+                            pinned.add(text(j));
+                        }
+                    }
+                    k = match[k];
+                    parameterStart = false;
+                } else {
+                    parameterStart = false;
+                }
+            }
+            return names;
+        }
+
+        /**
+         * A brace opens an object literal where an expression is expected, and a block
+         * after a statement, a parenthesised head or an arrow.
+         */
+        private boolean isObjectLiteral(int k) {
+            if (k == 0) {
+                return false;
+            }
+            String previous = text(k - 1);
+            if (kind(k - 1) == Kind.NAME) {
+                return REGEX_PREFIX_KEYWORDS.contains(previous) && !"else".equals(previous) && !"do".equals(previous);
+            }
+            if (kind(k - 1) != Kind.PUNCTUATOR) {
+                return false;
+            }
+            switch (previous) {
+                case ")":
+                case "{":
+                case "}":
+                case ";":
+                case "=>":
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * Give a short name to every variable name that is only ever bound inside functions.
+         */
+        private void chooseNames() {
+            // Innermost scope of each variable, with scopes sorted by start and, for equal starts, outermost first
+            List<Scope> sorted = new ArrayList<>(scopes);
+            sorted.sort((a, b) -> a.start != b.start ? Integer.compare(a.start, b.start) : Integer.compare(b.end, a.end));
+            Set<String> free = new HashSet<>();
+            Set<String> declaredInFunctions = new HashSet<>();
+            for (Scope scope : scopes) {
+                if (scope != scopes.get(0)) {
+                    declaredInFunctions.addAll(scope.names);
+                }
+            }
+            Map<String, Integer> uses = new HashMap<>();
+            Deque<Scope> open = new ArrayDeque<>();
+            int next = 0;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (!variable[i]) {
+                    continue;
+                }
+                while (next < sorted.size() && sorted.get(next).start <= i) {
+                    Scope scope = sorted.get(next++);
+                    while (!open.isEmpty() && open.peek().end < scope.start) {
+                        open.pop();
+                    }
+                    open.push(scope);
+                }
+                while (!open.isEmpty() && open.peek().end < i) {
+                    open.pop();
+                }
+                String name = source.substring(tokens.get(i).start, tokens.get(i).end);
+                boolean bound = false;
+                for (Scope scope : open) {
+                    if (scope.names.contains(name)) {
+                        bound = true;
+                        break;
+                    }
+                }
+                if (!bound) {
+                    free.add(name);
+                }
+                uses.merge(name, 1, Integer::sum);
+            }
+
+            List<String> renamable = new ArrayList<>();
+            for (String name : declaredInFunctions) {
+                if (!pinned.contains(name) && !free.contains(name) && !KEYWORDS.contains(name)) {
+                    renamable.add(name);
+                }
+            }
+            // Most used first, so they get the shortest names
+            renamable.sort((a, b) -> {
+                int byUses = Integer.compare(uses.getOrDefault(b, 0), uses.getOrDefault(a, 0));
+                return byUses != 0 ? byUses : a.compareTo(b);
+            });
+
+            Set<String> taken = new HashSet<>(KEYWORDS);
+            for (Token token : tokens) {
+                if (token.kind == Kind.NAME) {
+                    taken.add(source.substring(token.start, token.end));
+                } else if (token.kind == Kind.TEMPLATE) {
+                    Matcher word = WORD.matcher(source.substring(token.start, token.end));
+                    while (word.find()) {
+                        taken.add(word.group());
+                    }
+                }
+            }
+            int counter = 0;
+            for (String name : renamable) {
+                if (name.length() == 1) {
+                    continue;
+                }
+                String shortName;
+                do {
+                    shortName = shortName(counter++);
+                } while (taken.contains(shortName));
+                if (shortName.length() < name.length()) {
+                    renames.put(name, shortName);
+                }
+            }
+        }
+
+        private static final String FIRST = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_$";
+        private static final String REST = FIRST + "0123456789";
+
+        private static String shortName(int index) {
+            StringBuilder name = new StringBuilder();
+            name.append(FIRST.charAt(index % FIRST.length()));
+            index /= FIRST.length();
+            while (index > 0) {
+                index--;
+                name.append(REST.charAt(index % REST.length()));
+                index /= REST.length();
+            }
+            return name.toString();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Run-scoped cache of converted scripts, keyed by the script type and the SHA-256
+ * hash of the script text.
+ * <p>
+ * Projects often paste the same setup and validation snippets into many test steps;
+ * each distinct snippet is converted once per script type, and every copy shares the
+ * same JavaScript string. The cache is safe to use from several threads. Two threads
+ * converting the same new script at once may both convert it, but only one result
+ * is kept.
+ */
+public class ScriptConversionCache {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptConversionCache.class);
+
+    private final String description;
+    private final ConcurrentHashMap<String, String> conversions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ScriptConversionCache() {
+        this("Script conversion cache");
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param description What the cache holds, for its statistics
+     */
+    public ScriptConversionCache(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Get the cached conversion of a script, converting it on a miss.
+     *
+     * @param script The script text
+     * @param scriptType The script type, such as "test", "pre-request" or "library"
+     * @param converter Converts the script on a miss
+     * @return The converted script
+     */
+    public String get(String script, String scriptType, Supplier<String> converter) {
+        String key = scriptType + ':' + hash(script);
+        String converted = conversions.get(key);
+        if (converted != null) {
+            hits.incrementAndGet();
+            return converted;
+        }
+        misses.incrementAndGet();
+        converted = converter.get();
+        String existing = conversions.putIfAbsent(key, converted);
+        return existing != null ? existing : converted;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return conversions.size();
+    }
+
+    /**
+     * Drop every conversion and reset the counters, at the start of a run or when the
+     * conversion settings change.
+     */
+    public void clear() {
+        conversions.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Log the hit and miss counts.
+     */
+    public void logStatistics() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        logger.info("{}: {} hits, {} misses ({}% hits), {} distinct entries",
+                description, hitCount, misses.get(), total > 0 ? hitCount * 100 / total : 0, conversions.size());
+    }
+
+    /**
+     * Hash a script's text.
+     *
+     * @param script The script text
+     * @return The SHA-256 hash as lowercase hex
+     */
+    static String hash(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
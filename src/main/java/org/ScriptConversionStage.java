@@ -0,0 +1,155 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Converts the Groovy scripts of a project ahead of collection building.
+ * <p>
+ * Every script step and script library is submitted to a fixed pool of worker
+ * threads, whose queue is bounded so that submitting a very large project doesn't
+ * buffer every task: when the queue is full, the submitting thread converts the
+ * script itself. The builder then takes each result with {@link #get}, in the
+ * order it assembles its events, so the collection is the same as with a serial
+ * conversion. With one thread, scripts are converted when they are first requested.
+ */
+public class ScriptConversionStage implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptConversionStage.class);
+
+    private static final int QUEUED_TASKS_PER_THREAD = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Object, Future<String>> conversions = new IdentityHashMap<>();
+
+    /**
+     * Create a stage.
+     *
+     * @param threads Number of worker threads; 1 converts on the calling thread
+     */
+    public ScriptConversionStage(int threads) {
+        if (threads > 1) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads * QUEUED_TASKS_PER_THREAD),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "script-conversion-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Submit every script of a project. Script libraries are converted into the
+     * context, where the builders take them from.
+     *
+     * @param context The conversion context of the project
+     */
+    public void submitAll(ConversionContext context) {
+        long start = System.nanoTime();
+        ReadyApiProject project = context.getProject();
+        for (ReadyApiScriptLibrary scriptLibrary : project.getScriptLibraries()) {
+            submit(scriptLibrary, () -> context.getLibraryVariable(scriptLibrary));
+        }
+        int steps = 0;
+        for (ReadyApiTestSuite testSuite : project.getTestSuites()) {
+            for (ReadyApiTestCase testCase : testSuite.getTestCases()) {
+                for (ReadyApiTestStep testStep : testCase.getTestSteps()) {
+                    if (testStep.isPreRequestScript() || testStep.isTestScript()) {
+                        submit(testStep, testStep::convertGroovyToJavaScript);
+                        steps++;
+                    }
+                }
+            }
+        }
+        logger.debug("Submitted {} script steps and {} script libraries in {} ms",
+                steps, project.getScriptLibraries().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Get the converted script of a test step.
+     *
+     * @param testStep A script test step
+     * @return The JavaScript, converted now if the step wasn't submitted
+     */
+    public String get(ReadyApiTestStep testStep) {
+        return join(testStep, testStep::convertGroovyToJavaScript);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit(Object source, Supplier<String> conversion) {
+        if (conversions.containsKey(source)) {
+            return;
+        }
+        Future<String> future = executor != null
+                ? executor.submit(conversion::get)
+                : new LazyConversion(conversion);
+        conversions.put(source, future);
+    }
+
+    private String join(Object source, Supplier<String> conversion) {
+        Future<String> future = conversions.get(source);
+        if (future == null) {
+            return conversion.get();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for script conversion");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Script conversion failed", cause);
+        }
+    }
+
+    /**
+     * A conversion run on the first {@link #get()}, for a single-threaded stage.
+     */
+    private static final class LazyConversion extends CompletableFuture<String> {
+        private final Supplier<String> conversion;
+
+        LazyConversion(Supplier<String> conversion) {
+            this.conversion = conversion;
+        }
+
+        @Override
+        public String get() throws InterruptedException, ExecutionException {
+            if (!isDone()) {
+                try {
+                    complete(conversion.get());
+                } catch (RuntimeException | Error e) {
+                    completeExceptionally(e);
+                }
+            }
+            return super.get();
+        }
+    }
+}
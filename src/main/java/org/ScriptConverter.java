@@ -1,61 +1,93 @@
 package com.readyapi.converter;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Handles conversion of ReadyAPI Groovy scripts to Postman JavaScript.
  */
 public class ScriptConverter {
-    private static final Map<String, String> GROOVY_TO_JS_PATTERNS = new HashMap<>();
-    private static final Map<String, String> SOAPUI_TO_POSTMAN_MAPPINGS = new HashMap<>();
-    private static final Map<String, String> GROOVY_METHODS_TO_POSTMAN = new HashMap<>();
-    private static final List<String> UNSUPPORTED_IMPORTS = new ArrayList<>();
+    private static final Logger logger = LoggerFactory.getLogger(ScriptConverter.class);
+    
+    /**
+     * How scripts are translated.
+     */
+    public enum Backend {
+        /** Single pass over the tokens of {@link GroovyLexer}, leaving strings and comments alone. */
+        LEXER,
+        /** The Groovy compiler's syntax tree, see {@link GroovyAstTranslator}; falls back to the lexer. */
+        AST,
+        /** The ordered regular expression {@link ScriptRewriteRules}. */
+        REGEX
+    }
+    
+    private static final Pattern CLASS_PATTERN = Pattern.compile("class\\s+([a-zA-Z0-9_]+)\\s*\\{");
+    private static final Set<String> UNSUPPORTED_IMPORTS = new LinkedHashSet<>();
+    private static final String IMPORT_KEYWORD = "import";
+    
+    // Rewrite rules, applied in order: SoapUI object paths are rewritten before the
+    // generic testRunner rule can split them up
+    private static volatile ScriptRewriteRules rewriteRules = createDefaultRules();
+    
+    private static volatile Backend backend = Backend.LEXER;
+    
+    // Parsed syntax trees are cached for the whole run
+    private static final GroovyAstTranslator AST_TRANSLATOR = new GroovyAstTranslator();
+    
+    // Converted scripts, shared by every step with the same script text
+    private static final ScriptConversionCache CONVERSION_CACHE = new ScriptConversionCache();
+    
+    /**
+     * Version stamp of the conversion output, to be changed whenever a change to the
+     * converter changes what it produces for the same input.
+     */
+    public static final String CONVERSION_VERSION = "readyapi-to-postman-scripts-4";
+    
+    /**
+     * The sandbox global {@code new soapui.utils.FunctionLibrary(...)} is translated to:
+     * the script library of that name, loaded by a collection or folder pre-request script.
+     * {@code new FunctionLibrary(...)} is translated the same way in scripts importing it.
+     */
+    public static final String FUNCTION_LIBRARY = "FunctionLibrary";
+    
+    // Imports, as the translators list them, that bring FunctionLibrary into a script
+    static final Set<String> FUNCTION_LIBRARY_IMPORTS = new HashSet<>(Arrays.asList(
+            "import soapui.utils.FunctionLibrary", "import soapui.utils.*"));
+    
+    // Where a Groovy script creates the FunctionLibrary
+    private static final Pattern FUNCTION_LIBRARY_CONSTRUCTOR = Pattern.compile("\\bnew\\s+soapui\\.utils\\.FunctionLibrary\\s*\\(");
+    private static final Pattern IMPORTED_FUNCTION_LIBRARY_CONSTRUCTOR = Pattern.compile("\\bnew\\s+FunctionLibrary\\s*\\(");
+    private static final Pattern FUNCTION_LIBRARY_IMPORT = Pattern.compile(
+            "(?m)^\\s*import\\s+soapui\\.utils\\.(?:FunctionLibrary\\b|\\*)");
+    
+    // Conversions kept across runs, or null
+    private static volatile ConversionDiskCache diskCache;
+    
+    private static final LiteralMatcher UNSUPPORTED_IMPORT_MATCHER;
+    
+    /** Default time budget for converting one script, in milliseconds. */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 10_000;
+    
+    private static volatile long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS;
+    
+    // Scripts passed through unconverted since the issues were last drained
+    private static final Queue<String> CONVERSION_ISSUES = new ConcurrentLinkedQueue<>();
     
     static {
-        // Groovy to JavaScript patterns
-        GROOVY_TO_JS_PATTERNS.put("def\\s+([a-zA-Z0-9_]+)\\s*=", "let $1 =");
-        GROOVY_TO_JS_PATTERNS.put("import\\s+[a-zA-Z0-9_.]+", "// $0");
-        GROOVY_TO_JS_PATTERNS.put("\\btestRunner\\b", "pm");
-        GROOVY_TO_JS_PATTERNS.put("\\bcontext\\b", "pm.context");
-        GROOVY_TO_JS_PATTERNS.put("\\blog\\.info\\b", "console.log");
-        GROOVY_TO_JS_PATTERNS.put("\\blog\\.error\\b", "console.error");
-        GROOVY_TO_JS_PATTERNS.put("\\blog\\.warn\\b", "console.warn");
-        GROOVY_TO_JS_PATTERNS.put("\\.each\\s*\\{", ".forEach(function(");
-        GROOVY_TO_JS_PATTERNS.put("\\}\\s*\\)", "})");
-        GROOVY_TO_JS_PATTERNS.put("\\$\\{([^}]+)\\}", "\" + $1 + \"");
-        
-        // SoapUI to Postman mappings
-        SOAPUI_TO_POSTMAN_MAPPINGS.put("testRunner.testCase.testSuite.project", "pm.collectionVariables");
-        SOAPUI_TO_POSTMAN_MAPPINGS.put("testRunner.testCase.testSuite", "pm.testSuite");
-        SOAPUI_TO_POSTMAN_MAPPINGS.put("testRunner.testCase", "pm.testCase");
-        SOAPUI_TO_POSTMAN_MAPPINGS.put("testRunner.testCase.testSuite.project.getPropertyValue", "pm.collectionVariables.get");
-        SOAPUI_TO_POSTMAN_MAPPINGS.put("testRunner.testCase.testSuite.project.setPropertyValue", "pm.collectionVariables.set");
-        
-        // Groovy methods to Postman equivalents
-        GROOVY_METHODS_TO_POSTMAN.put("assert\\s+([^;]+)", "pm.expect($1).to.be.true");
-        GROOVY_METHODS_TO_POSTMAN.put("assertEquals\\(([^,]+),\\s*([^)]+)\\)", "pm.expect($2).to.equal($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("assertNotNull\\(([^)]+)\\)", "pm.expect($1).to.not.be.null");
-        GROOVY_METHODS_TO_POSTMAN.put("assertNull\\(([^)]+)\\)", "pm.expect($1).to.be.null");
-        GROOVY_METHODS_TO_POSTMAN.put("sleep\\(([^)]+)\\)", "pm.test.sleep($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("random\\(([^)]+)\\)", "Math.floor(Math.random() * $1)");
-        GROOVY_METHODS_TO_POSTMAN.put("substring\\(([^,]+),\\s*([^)]+)\\)", "substring($1, $2)");
-        GROOVY_METHODS_TO_POSTMAN.put("replaceAll\\(([^,]+),\\s*([^)]+)\\)", "replace(/$2/g, $1)");
-        GROOVY_METHODS_TO_POSTMAN.put("split\\(([^,]+),\\s*([^)]+)\\)", "split($2)");
-        GROOVY_METHODS_TO_POSTMAN.put("trim\\(\\)", "trim()");
-        GROOVY_METHODS_TO_POSTMAN.put("toLowerCase\\(\\)", "toLowerCase()");
-        GROOVY_METHODS_TO_POSTMAN.put("toUpperCase\\(\\)", "toUpperCase()");
-        GROOVY_METHODS_TO_POSTMAN.put("contains\\(([^)]+)\\)", "includes($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("startsWith\\(([^)]+)\\)", "startsWith($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("endsWith\\(([^)]+)\\)", "endsWith($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("matches\\(([^)]+)\\)", "match(/$1/)");
-        GROOVY_METHODS_TO_POSTMAN.put("parse\\(([^)]+)\\)", "JSON.parse($1)");
-        GROOVY_METHODS_TO_POSTMAN.put("stringify\\(([^)]+)\\)", "JSON.stringify($1)");
-        
         // List of unsupported imports
         UNSUPPORTED_IMPORTS.add("import groovy.json.JsonSlurper");
         UNSUPPORTED_IMPORTS.add("import groovy.json.JsonOutput");
@@ -65,6 +97,174 @@ public class ScriptConverter {
         UNSUPPORTED_IMPORTS.add("import groovy.net.http.HTTPBuilder");
         UNSUPPORTED_IMPORTS.add("import groovy.util.XmlParser");
         UNSUPPORTED_IMPORTS.add("import groovy.util.XmlNodePrinter");
+        
+        // Imported class names, found together in one scan
+        List<String> classNames = new ArrayList<>();
+        for (String unsupportedImport : UNSUPPORTED_IMPORTS) {
+            classNames.add(unsupportedImport.substring(IMPORT_KEYWORD.length() + 1));
+        }
+        UNSUPPORTED_IMPORT_MATCHER = new LiteralMatcher(classNames);
+    }
+    
+    /**
+     * Create the built-in rewrite rules.
+     * 
+     * @return The default rules, in the order they are applied
+     */
+    public static ScriptRewriteRules createDefaultRules() {
+        ScriptRewriteRules rules = new ScriptRewriteRules();
+        
+        // SoapUI to Postman mappings, longest path first
+        rules.addLiteral("testRunner.testCase.testSuite.project.getPropertyValue", "pm.collectionVariables.get");
+        rules.addLiteral("testRunner.testCase.testSuite.project.setPropertyValue", "pm.collectionVariables.set");
+        rules.addLiteral("testRunner.testCase.testSuite.project", "pm.collectionVariables");
+        rules.addLiteral("testRunner.testCase.testSuite", "pm.testSuite");
+        rules.addLiteral("testRunner.testCase", "pm.testCase");
+        
+        // Handle test step execution
+        rules.add("testRunner\\.runTestStep\\(([^)]+)\\)", "pm.testCase.runTestStep($1)", "test");
+        
+        // Groovy to JavaScript patterns
+        rules.add("def\\s+([a-zA-Z0-9_]+)\\s*=", "let $1 =");
+        rules.add("import\\s+[a-zA-Z0-9_.]+", "// $0");
+        rules.add("\\btestRunner\\b", "pm");
+        rules.add("\\bcontext\\b", "pm.context");
+        rules.add("\\blog\\.info\\b", "console.log");
+        rules.add("\\blog\\.error\\b", "console.error");
+        rules.add("\\blog\\.warn\\b", "console.warn");
+        rules.add("\\.each\\s*\\{", ".forEach(function(");
+        rules.add("\\}\\s*\\)", "})");
+        rules.add("\\$\\{([^}]+)\\}", "\" + $1 + \"");
+        
+        // Groovy methods to Postman equivalents
+        rules.add("assertEquals\\(([^,]+),\\s*([^)]+)\\)", "pm.expect($2).to.equal($1)");
+        rules.add("assertNotNull\\(([^)]+)\\)", "pm.expect($1).to.not.be.null");
+        rules.add("assertNull\\(([^)]+)\\)", "pm.expect($1).to.be.null");
+        rules.add("assert\\s+([^;]+)", "pm.expect($1).to.be.true");
+        rules.add("sleep\\(([^)]+)\\)", "pm.test.sleep($1)");
+        rules.add("random\\(([^)]+)\\)", "Math.floor(Math.random() * $1)");
+        rules.add("replaceAll\\(([^,]+),\\s*([^)]+)\\)", "replace(/$2/g, $1)");
+        rules.add("split\\(([^,]+),\\s*([^)]+)\\)", "split($2)");
+        rules.add("contains\\(([^)]+)\\)", "includes($1)");
+        rules.add("matches\\(([^)]+)\\)", "match(/$1/)");
+        rules.add("parse\\(([^)]+)\\)", "JSON.parse($1)");
+        rules.add("stringify\\(([^)]+)\\)", "JSON.stringify($1)");
+        
+        // Special cases, last so their output isn't rewritten again
+        // A rule only sees its own match, so the unqualified name is taken without checking the import
+        rules.add("new\\s+(?:soapui\\.utils\\.)?FunctionLibrary\\(([^)]+)\\)", FUNCTION_LIBRARY);
+        rules.add("XmlSlurper\\.parse\\(([^)]+)\\)",
+                "// WARNING: XmlSlurper.parse() is not supported in Postman. Use pm.response.text() and parse manually.");
+        rules.add("HTTPBuilder\\.request\\(([^)]+)\\)",
+                "// WARNING: HTTPBuilder is not supported in Postman. Use pm.sendRequest() instead.");
+        
+        return rules;
+    }
+    
+    public static ScriptRewriteRules getRewriteRules() {
+        return rewriteRules;
+    }
+    
+    /**
+     * Replace the rewrite rules used by every conversion, for example with the
+     * default rules plus rules loaded from a file.
+     * 
+     * @param rules The rules to apply
+     */
+    public static void setRewriteRules(ScriptRewriteRules rules) {
+        rewriteRules = rules;
+        CONVERSION_CACHE.clear();
+    }
+    
+    public static Backend getBackend() {
+        return backend;
+    }
+    
+    /**
+     * Select how scripts are translated. The lexer backend is the default; the rule
+     * backend applies {@link #getRewriteRules()} to the whole script text.
+     * 
+     * @param scriptBackend The backend used by every conversion
+     */
+    public static void setBackend(Backend scriptBackend) {
+        backend = scriptBackend;
+        CONVERSION_CACHE.clear();
+    }
+    
+    public static ScriptConversionCache getConversionCache() {
+        return CONVERSION_CACHE;
+    }
+    
+    public static ConversionDiskCache getDiskCache() {
+        return diskCache;
+    }
+    
+    /**
+     * Use a persistent cache, consulted before converting a script or an assertion.
+     * 
+     * @param cache The cache, or null to convert without one
+     */
+    public static void setDiskCache(ConversionDiskCache cache) {
+        diskCache = cache;
+    }
+    
+    public static long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+    
+    /**
+     * Limit the time spent converting one script. A script still being translated
+     * when the budget runs out is passed through as comments, and reported by
+     * {@link #drainConversionIssues()}. The budget covers the lexer and rule
+     * backends and the printing of the AST backend's tree, but not the Groovy
+     * parse before it, nor script libraries, which are converted method by method.
+     * 
+     * @param budgetMillis The budget in milliseconds, or 0 for no limit
+     */
+    public static void setTimeBudgetMillis(long budgetMillis) {
+        timeBudgetMillis = budgetMillis;
+        CONVERSION_CACHE.clear();
+    }
+    
+    /**
+     * Whether a Groovy script creates the FunctionLibrary, by its qualified name or,
+     * when the script imports it, by its simple name.
+     * 
+     * @param groovyScript The Groovy script
+     * @return true if the script calls the FunctionLibrary constructor
+     */
+    public static boolean createsFunctionLibrary(CharSequence groovyScript) {
+        return FUNCTION_LIBRARY_CONSTRUCTOR.matcher(groovyScript).find()
+                || (IMPORTED_FUNCTION_LIBRARY_CONSTRUCTOR.matcher(groovyScript).find()
+                        && FUNCTION_LIBRARY_IMPORT.matcher(groovyScript).find());
+    }
+    
+    /**
+     * Take the issues found while converting scripts, such as scripts that ran out
+     * of time, so that each is reported once.
+     * 
+     * @return The issues since the last call, in the order they occurred
+     */
+    public static List<String> drainConversionIssues() {
+        List<String> issues = new ArrayList<>();
+        String issue;
+        while ((issue = CONVERSION_ISSUES.poll()) != null) {
+            if (!issues.contains(issue)) {
+                issues.add(issue);
+            }
+        }
+        return issues;
+    }
+    
+    /**
+     * Record an issue found while converting a script, to be reported by
+     * {@link #drainConversionIssues()}.
+     * 
+     * @param issue A description of the issue
+     */
+    static void reportConversionIssue(String issue) {
+        logger.warn(issue);
+        CONVERSION_ISSUES.add(issue);
     }
     
     /**
@@ -74,133 +274,266 @@ public class ScriptConverter {
         if (groovyScript == null || groovyScript.isEmpty()) {
             return "";
         }
+        return CONVERSION_CACHE.get(groovyScript, scriptType, () -> convertWithinBudget(groovyScript, scriptType));
+    }
+    
+    /**
+     * Convert a Groovy script read from a reader, writing the JavaScript to an
+     * appendable. The output is the same as {@link #convertToJavaScript(String, String)},
+     * but with the lexer backend the translation is written as it goes instead of
+     * being built up as a string, so a large script library takes little more memory
+     * than its source. Scripts converted this way bypass the conversion caches, which
+     * hold whole scripts. With a time budget the script is converted as a whole
+     * instead, so one that runs out of time can still be kept as comments.
+     * 
+     * @param groovyScript The Groovy script; read to the end but not closed
+     * @param scriptType The script type, such as "test", "pre-request" or "library"
+     * @param out The appendable the JavaScript is written to
+     * @throws IOException If reading the script or writing the JavaScript fails
+     */
+    public static void convertToJavaScript(Reader groovyScript, String scriptType, Appendable out) throws IOException {
+        StringBuilder script = readFully(groovyScript);
+        if (script.length() == 0) {
+            return;
+        }
         
-        StringBuilder jsContent = new StringBuilder();
+        // The warning header comes first, so the imports are found before translating
+        List<String> foundImports = findUnsupportedImports(script);
+        if (scriptType.equals("library")) {
+            StringBuilder header = new StringBuilder();
+            appendImportWarnings(foundImports, header);
+            out.append(header);
+            FunctionLibraryConverter.writeLibraryVariable(libraryName(script), script, out);
+        } else if (backend == Backend.LEXER && foundImports.isEmpty() && timeBudgetMillis == 0) {
+            out.append(wrapPrefix(scriptType));
+            new GroovyScriptTranslator().translate(script, scriptType, out);
+            out.append(wrapSuffix(scriptType));
+        } else {
+            // Imports in comments or strings aren't reported, which only the translation can tell
+            out.append(convertWithinBudget(script.toString(), scriptType));
+        }
+    }
+    
+    static StringBuilder readFully(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            text.append(buffer, 0, read);
+        }
+        return text;
+    }
+    
+    /**
+     * Build the converted form of a script library from its already translated
+     * JavaScript; the same as converting the library with the "library" type.
+     * 
+     * @param groovyScript The Groovy source of the library
+     * @param javaScript The library's JavaScript
+     * @return The library variable JSON, after any import warnings
+     */
+    static String toLibraryVariable(String groovyScript, String javaScript) {
+        StringBuilder converted = new StringBuilder(javaScript.length() + 256);
+        appendImportWarnings(findUnsupportedImports(groovyScript), converted);
+        try {
+            FunctionLibraryConverter.writeVariable(libraryName(groovyScript), javaScript, converted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return converted.toString();
+    }
+    
+    /**
+     * Name a library after its first class, or "FunctionLibrary" if it has none.
+     */
+    private static String libraryName(CharSequence groovyScript) {
+        Matcher matcher = CLASS_PATTERN.matcher(groovyScript);
+        return matcher.find() ? matcher.group(1) : "FunctionLibrary";
+    }
+    
+    private static String convertWithinBudget(String groovyScript, String scriptType) {
+        try {
+            return convertWithDiskCache(groovyScript, scriptType);
+        } catch (ConversionDeadline.ExceededException e) {
+            // Not cached on disk: with more time, or another budget, the script may convert
+            String issue = "Script conversion exceeded the " + e.getBudgetMillis() + " ms budget; " + scriptType
+                    + " script of " + groovyScript.length() + " characters starting \"" + firstLine(groovyScript)
+                    + "\" was kept as comments";
+            reportConversionIssue(issue);
+            return passThrough(groovyScript, scriptType, e.getBudgetMillis());
+        }
+    }
+    
+    private static String convertWithDiskCache(String groovyScript, String scriptType) {
+        ConversionDiskCache cache = diskCache;
+        if (cache == null) {
+            return convert(groovyScript, scriptType);
+        }
         
-        // Add documentation about unsupported imports
-        List<String> foundImports = findImports(groovyScript);
-        if (!foundImports.isEmpty()) {
-            jsContent.append("// WARNING: The following imports are not supported in Postman:\n");
-            for (String imp : foundImports) {
-                if (UNSUPPORTED_IMPORTS.contains(imp)) {
-                    jsContent.append("// ").append(imp).append(" - Use native Postman methods instead\n");
-                }
-            }
-            jsContent.append("\n");
+        // The output depends on the backend, and on the rules for the rule backend
+        String namespace = "script:" + scriptType + ":" + backend
+                + (backend == Backend.REGEX ? ":" + rewriteRules.fingerprint() : "");
+        String converted = cache.get(namespace, groovyScript);
+        if (converted == null) {
+            converted = convert(groovyScript, scriptType);
+            cache.put(namespace, groovyScript, converted);
         }
+        return converted;
+    }
+    
+    private static String convert(String groovyScript, String scriptType) {
+        ConversionDeadline deadline = ConversionDeadline.after(timeBudgetMillis);
         
-        // Handle function library initialization
+        // Translate first, so the lexer and AST backends can report the imports they found as code
+        String converted;
+        List<String> foundImports;
+        GroovyAstTranslator.Translation translation;
         if (scriptType.equals("library")) {
-            // Extract library name from class name or use default
-            Pattern classPattern = Pattern.compile("class\\s+([a-zA-Z0-9_]+)\\s*\\{");
-            Matcher matcher = classPattern.matcher(groovyScript);
-            String libraryName = matcher.find() ? matcher.group(1) : "FunctionLibrary";
-            
             // Convert the library to a Postman variable
-            jsContent.append(FunctionLibraryConverter.convertLibraryToPostmanVariable(libraryName, groovyScript));
+            converted = FunctionLibraryConverter.convertLibraryToPostmanVariable(libraryName(groovyScript), groovyScript);
+            foundImports = findUnsupportedImports(groovyScript);
+        } else if (backend == Backend.AST && (translation = AST_TRANSLATOR.translate(groovyScript, scriptType, deadline)) != null) {
+            converted = wrapScript(translation.getScript(), scriptType);
+            foundImports = unsupported(translation.getImports());
+        } else if (backend != Backend.REGEX) {
+            GroovyScriptTranslator translator = new GroovyScriptTranslator();
+            converted = wrapScript(translator.translate(deadline.guard(groovyScript), scriptType), scriptType);
+            foundImports = unsupported(translator.getImports());
         } else {
-            String convertedScript = groovyScript;
-            
-            // Apply Groovy to JavaScript patterns
-            for (Map.Entry<String, String> pattern : GROOVY_TO_JS_PATTERNS.entrySet()) {
-                convertedScript = convertedScript.replaceAll(pattern.getKey(), pattern.getValue());
+            // Apply the rewrite rules in order
+            converted = wrapScript(rewriteRules.apply(groovyScript, scriptType, deadline), scriptType);
+            foundImports = findUnsupportedImports(groovyScript);
+        }
+        
+        StringBuilder jsContent = new StringBuilder(converted.length() + 64);
+        appendImportWarnings(foundImports, jsContent);
+        jsContent.append(converted);
+        
+        return jsContent.toString();
+    }
+    
+    /**
+     * Keep a script that couldn't be converted in time as line comments, so the
+     * collection still shows what the step did.
+     */
+    private static String passThrough(String groovyScript, String scriptType, long budgetMillis) {
+        StringBuilder comments = new StringBuilder(groovyScript.length() + groovyScript.length() / 16 + 128);
+        comments.append("// WARNING: This script wasn't converted within ").append(budgetMillis)
+                .append(" ms; the original Groovy script follows\n");
+        int lineStart = 0;
+        while (lineStart <= groovyScript.length()) {
+            int lineEnd = groovyScript.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = groovyScript.length();
             }
-            
-            // Apply SoapUI to Postman mappings
-            for (Map.Entry<String, String> mapping : SOAPUI_TO_POSTMAN_MAPPINGS.entrySet()) {
-                convertedScript = convertedScript.replaceAll(mapping.getKey(), mapping.getValue());
+            int contentEnd = lineEnd > lineStart && groovyScript.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            comments.append("// ");
+            for (int i = lineStart; i < contentEnd; i++) {
+                char c = groovyScript.charAt(i);
+                // Line and paragraph separators and lone carriage returns would end a JavaScript comment
+                if (c == '\r' || c == '\u2028' || c == '\u2029') {
+                    comments.append("\\u").append(String.format("%04x", (int) c));
+                } else {
+                    comments.append(c);
+                }
             }
-            
-            // Apply Groovy methods to Postman equivalents
-            for (Map.Entry<String, String> method : GROOVY_METHODS_TO_POSTMAN.entrySet()) {
-                convertedScript = convertedScript.replaceAll(method.getKey(), method.getValue());
+            comments.append('\n');
+            lineStart = lineEnd + 1;
+        }
+        comments.setLength(comments.length() - 1);
+        return wrapScript(comments.toString(), scriptType);
+    }
+    
+    private static String firstLine(String script) {
+        String line = script.trim();
+        int end = line.indexOf('\n');
+        if (end >= 0) {
+            line = line.substring(0, end).trim();
+        }
+        return line.length() > 60 ? line.substring(0, 60) + "..." : line;
+    }
+    
+    /**
+     * Add documentation about unsupported imports.
+     */
+    private static void appendImportWarnings(List<String> foundImports, StringBuilder out) {
+        if (!foundImports.isEmpty()) {
+            out.append("// WARNING: The following imports are not supported in Postman:\n");
+            for (String imp : foundImports) {
+                out.append("// ").append(imp).append(" - Use native Postman methods instead\n");
             }
-            
-            // Handle special cases
-            convertedScript = handleSpecialCases(convertedScript, scriptType);
-            
-            // Add appropriate wrapper based on script type
-            jsContent.append(wrapScript(convertedScript, scriptType));
+            out.append("\n");
         }
-        
-        return jsContent.toString();
     }
     
     /**
-     * Find all imports in the Groovy script.
+     * Find the unsupported imports in the Groovy script, in one scan of its text.
      */
-    private static List<String> findImports(String script) {
+    private static List<String> findUnsupportedImports(CharSequence script) {
         List<String> imports = new ArrayList<>();
-        Pattern importPattern = Pattern.compile("import\\s+[a-zA-Z0-9_.]+");
-        Matcher matcher = importPattern.matcher(script);
-        while (matcher.find()) {
-            imports.add(matcher.group());
+        for (LiteralMatcher.Match match : UNSUPPORTED_IMPORT_MATCHER.findAll(script)) {
+            int end = match.getEnd();
+            if (end < script.length() && Character.isJavaIdentifierPart(script.charAt(end))) {
+                continue;
+            }
+            // The class name must follow "import" and whitespace
+            int keywordEnd = match.getStart();
+            while (keywordEnd > 0 && Character.isWhitespace(script.charAt(keywordEnd - 1))) {
+                keywordEnd--;
+            }
+            int keywordStart = keywordEnd - IMPORT_KEYWORD.length();
+            if (keywordEnd < match.getStart() && keywordStart >= 0
+                    && IMPORT_KEYWORD.contentEquals(script.subSequence(keywordStart, keywordEnd))
+                    && (keywordStart == 0 || !Character.isJavaIdentifierPart(script.charAt(keywordStart - 1)))) {
+                imports.add(IMPORT_KEYWORD + " " + UNSUPPORTED_IMPORT_MATCHER.pattern(match.getPattern()));
+            }
         }
         return imports;
     }
     
     /**
-     * Handle special cases in the script.
+     * Keep the unsupported imports of those a translator found.
      */
-    private static String handleSpecialCases(String script, String scriptType) {
-        // Handle soapui.utils.FunctionLibrary initialization
-        script = script.replaceAll(
-            "new\\s+soapui\\.utils\\.FunctionLibrary\\(([^)]+)\\)",
-            "JSON.parse(pm.collectionVariables.get('FunctionLibrary'))"
-        );
-        
-        // Handle test step execution
-        if (scriptType.equals("test")) {
-            script = script.replaceAll(
-                "testRunner\\.runTestStep\\(([^)]+)\\)",
-                "pm.testCase.runTestStep($1)"
-            );
+    private static List<String> unsupported(List<String> imports) {
+        List<String> found = new ArrayList<>();
+        for (String imp : imports) {
+            if (UNSUPPORTED_IMPORTS.contains(imp)) {
+                found.add(imp);
+            }
         }
-        
-        // Handle XML operations
-        script = script.replaceAll(
-            "XmlSlurper\\.parse\\(([^)]+)\\)",
-            "// WARNING: XmlSlurper.parse() is not supported in Postman. Use pm.response.text() and parse manually."
-        );
-        
-        // Handle HTTP operations
-        script = script.replaceAll(
-            "HTTPBuilder\\.request\\(([^)]+)\\)",
-            "// WARNING: HTTPBuilder is not supported in Postman. Use pm.sendRequest() instead."
-        );
-        
-        return script;
+        return found;
     }
     
     /**
      * Wrap the script with appropriate context.
      */
     private static String wrapScript(String script, String scriptType) {
-        StringBuilder wrapped = new StringBuilder();
-        
+        return wrapPrefix(scriptType) + script + wrapSuffix(scriptType);
+    }
+    
+    private static String wrapPrefix(String scriptType) {
         switch (scriptType) {
             case "pre-request":
-                wrapped.append("// Pre-request Script\n");
-                wrapped.append("(async function() {\n");
-                wrapped.append(script);
-                wrapped.append("\n})();");
-                break;
+                return "// Pre-request Script\n(async function() {\n";
                 
             case "test":
-                wrapped.append("// Test Script\n");
-                wrapped.append("pm.test('Test Execution', function() {\n");
-                wrapped.append(script);
-                wrapped.append("\n});");
-                break;
+                return "// Test Script\npm.test('Test Execution', function() {\n";
+                
+            default:
+                return "";
+        }
+    }
+    
+    private static String wrapSuffix(String scriptType) {
+        switch (scriptType) {
+            case "pre-request":
+                return "\n})();";
                 
-            case "library":
-                wrapped.append(script);
-                break;
+            case "test":
+                return "\n});";
                 
             default:
-                wrapped.append(script);
+                return "";
         }
-        
-        return wrapped.toString();
     }
 } 
\ No newline at end of file
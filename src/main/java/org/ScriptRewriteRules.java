@@ -0,0 +1,287 @@
+package com.readyapi.converter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Ordered list of precompiled rewrite rules applied to Groovy scripts.
+ * <p>
+ * Every rule is compiled once, when it's added, and rules are applied in the order
+ * they were added, so a conversion is deterministic. A rule whose pattern doesn't
+ * match leaves the script untouched without copying it.
+ * <p>
+ * Extra rules can be loaded from a JSON file holding an array of rules:
+ * <pre>
+ * [
+ *   {"pattern": "\\bmyHelper\\.log\\(", "replacement": "console.log("},
+ *   {"pattern": "runner.fail", "replacement": "pm.expect.fail", "literal": true, "scriptTypes": ["test"]}
+ * ]
+ * </pre>
+ * Literal rules match and replace plain text; other rules are regular expressions
+ * with {@code $n} group references in the replacement. Loaded rules run after the
+ * rules already in the list.
+ * <p>
+ * Adjacent literal rules for every script type are applied together, in a single
+ * {@link LiteralMatcher} scan where the longest literal wins, so a mapping for
+ * {@code testRunner.testCase} can't split a longer path that has its own mapping.
+ */
+public class ScriptRewriteRules {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptRewriteRules.class);
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Add a regular expression rule that applies to every script type.
+     *
+     * @param regex The pattern to match
+     * @param replacement The replacement, with {@code $n} group references
+     * @return This rule list
+     */
+    public ScriptRewriteRules add(String regex, String replacement) {
+        rules.add(new RegexRule(Pattern.compile(regex), replacement, Collections.emptySet()));
+        return this;
+    }
+
+    /**
+     * Add a regular expression rule that applies to some script types only.
+     *
+     * @param regex The pattern to match
+     * @param replacement The replacement, with {@code $n} group references
+     * @param scriptTypes The script types the rule applies to, such as "test"
+     * @return This rule list
+     */
+    public ScriptRewriteRules add(String regex, String replacement, String... scriptTypes) {
+        rules.add(new RegexRule(Pattern.compile(regex), replacement, new HashSet<>(Arrays.asList(scriptTypes))));
+        return this;
+    }
+
+    /**
+     * Add a rule that replaces plain text.
+     *
+     * @param text The text to match
+     * @param replacement The text to replace it with
+     * @return This rule list
+     */
+    public ScriptRewriteRules addLiteral(String text, String replacement) {
+        Rule last = rules.isEmpty() ? null : rules.get(rules.size() - 1);
+        if (last instanceof LiteralRules) {
+            rules.set(rules.size() - 1, ((LiteralRules) last).with(text, replacement));
+        } else {
+            rules.add(new LiteralRules(Collections.singletonList(text), Collections.singletonList(replacement)));
+        }
+        return this;
+    }
+
+    /**
+     * Load rules from a JSON file and append them to this list.
+     *
+     * @param rulesFile The rules file
+     * @return This rule list
+     * @throws IOException If the file can't be read or holds an invalid rule
+     */
+    public ScriptRewriteRules load(Path rulesFile) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(rulesFile.toFile());
+        if (!root.isArray()) {
+            throw new IOException("Script rules file must hold a JSON array: " + rulesFile);
+        }
+
+        int index = 0;
+        for (JsonNode node : root) {
+            index++;
+            String pattern = node.path("pattern").asText(null);
+            String replacement = node.path("replacement").asText(null);
+            if (pattern == null || replacement == null) {
+                throw new IOException("Rule " + index + " in " + rulesFile + " needs a pattern and a replacement");
+            }
+            boolean literal = node.path("literal").asBoolean(false);
+            Set<String> scriptTypes = new HashSet<>();
+            for (JsonNode scriptType : node.path("scriptTypes")) {
+                scriptTypes.add(scriptType.asText());
+            }
+
+            if (literal && scriptTypes.isEmpty()) {
+                addLiteral(pattern, replacement);
+                continue;
+            }
+            try {
+                Pattern compiled = Pattern.compile(literal ? Pattern.quote(pattern) : pattern);
+                rules.add(new RegexRule(compiled, literal ? Matcher.quoteReplacement(replacement) : replacement, scriptTypes));
+            } catch (PatternSyntaxException e) {
+                throw new IOException("Invalid pattern in rule " + index + " of " + rulesFile + ": " + e.getMessage(), e);
+            }
+        }
+        logger.info("Loaded {} script rewrite rules from {}", index, rulesFile);
+        return this;
+    }
+
+    /**
+     * Apply every rule to a script, in order.
+     *
+     * @param script The script to rewrite
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @return The rewritten script
+     */
+    public String apply(String script, String scriptType) {
+        return apply(script, scriptType, ConversionDeadline.NONE);
+    }
+
+    /**
+     * Apply every rule to a script, in order, within a time budget.
+     *
+     * @param script The script to rewrite
+     * @param scriptType The script type, such as "test" or "pre-request"
+     * @param deadline The deadline checked while the rules match
+     * @return The rewritten script
+     * @throws ConversionDeadline.ExceededException If the deadline passes
+     */
+    public String apply(String script, String scriptType, ConversionDeadline deadline) {
+        String result = script;
+        for (Rule rule : rules) {
+            if (rule.appliesTo(scriptType)) {
+                result = rule.apply(result, deadline);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        int count = 0;
+        for (Rule rule : rules) {
+            count += rule instanceof LiteralRules ? ((LiteralRules) rule).texts.size() : 1;
+        }
+        return count;
+    }
+
+    /**
+     * Identify the rules, so conversions cached with other rules can be told apart.
+     *
+     * @return A hash of every rule's pattern, replacement and script types, in order
+     */
+    public String fingerprint() {
+        StringBuilder description = new StringBuilder();
+        for (Rule rule : rules) {
+            rule.describe(description);
+            description.append('\n');
+        }
+        return ScriptConversionCache.hash(description.toString());
+    }
+
+    /**
+     * A step of the rewrite.
+     */
+    private interface Rule {
+        boolean appliesTo(String scriptType);
+
+        String apply(String script, ConversionDeadline deadline);
+
+        void describe(StringBuilder description);
+    }
+
+    /**
+     * A single compiled regular expression rule.
+     */
+    private static class RegexRule implements Rule {
+        private final Pattern pattern;
+        private final String replacement;
+        private final Set<String> scriptTypes;
+
+        RegexRule(Pattern pattern, String replacement, Set<String> scriptTypes) {
+            this.pattern = pattern;
+            this.replacement = replacement;
+            this.scriptTypes = scriptTypes;
+        }
+
+        @Override
+        public boolean appliesTo(String scriptType) {
+            return scriptTypes.isEmpty() || scriptTypes.contains(scriptType);
+        }
+
+        @Override
+        public String apply(String script, ConversionDeadline deadline) {
+            // The matcher reads the script through the deadline, which can stop it mid-match
+            Matcher matcher = pattern.matcher(deadline.guard(script));
+            if (!matcher.find()) {
+                return script;
+            }
+            StringBuilder result = new StringBuilder(script.length() + 16);
+            do {
+                matcher.appendReplacement(result, replacement);
+            } while (matcher.find());
+            matcher.appendTail(result);
+            return result.toString();
+        }
+
+        @Override
+        public void describe(StringBuilder description) {
+            description.append(pattern.pattern()).append('\0').append(replacement).append('\0')
+                    .append(new TreeSet<>(scriptTypes));
+        }
+    }
+
+    /**
+     * A run of adjacent literal rules, applied in one scan.
+     */
+    private static class LiteralRules implements Rule {
+        private final List<String> texts;
+        private final List<String> replacements;
+        private final LiteralMatcher matcher;
+
+        LiteralRules(List<String> texts, List<String> replacements) {
+            this.texts = texts;
+            this.replacements = replacements;
+            this.matcher = new LiteralMatcher(texts);
+        }
+
+        LiteralRules with(String text, String replacement) {
+            List<String> moreTexts = new ArrayList<>(texts);
+            List<String> moreReplacements = new ArrayList<>(replacements);
+            moreTexts.add(text);
+            moreReplacements.add(replacement);
+            return new LiteralRules(moreTexts, moreReplacements);
+        }
+
+        @Override
+        public boolean appliesTo(String scriptType) {
+            return true;
+        }
+
+        @Override
+        public String apply(String script, ConversionDeadline deadline) {
+            // A single linear scan, checked once it's done
+            List<LiteralMatcher.Match> matches = matcher.findAll(script);
+            deadline.check();
+            if (matches.isEmpty()) {
+                return script;
+            }
+            StringBuilder result = new StringBuilder(script.length() + 16);
+            int position = 0;
+            for (LiteralMatcher.Match match : matches) {
+                result.append(script, position, match.getStart()).append(replacements.get(match.getPattern()));
+                position = match.getEnd();
+            }
+            return result.append(script, position, script.length()).toString();
+        }
+
+        @Override
+        public void describe(StringBuilder description) {
+            for (int i = 0; i < texts.size(); i++) {
+                description.append(texts.get(i)).append('\0').append(replacements.get(i)).append('\0');
+            }
+        }
+    }
+}
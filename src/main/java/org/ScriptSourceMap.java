@@ -0,0 +1,178 @@
+package com.readyapi.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the scripts of a compacted collection back to where they came from.
+ * <p>
+ * {@link ScriptCompactor} removes the comments that name the test step or script
+ * library each part of a script was converted from, and shortens local variable
+ * names. This records, for every compacted script, the line where each of those
+ * parts now starts and the original name of every shortened variable.
+ */
+public class ScriptSourceMap {
+    private static final Logger logger = LoggerFactory.getLogger(ScriptSourceMap.class);
+
+    private final List<Script> scripts = new ArrayList<>();
+
+    public List<Script> getScripts() {
+        return scripts;
+    }
+
+    public void addScript(Script script) {
+        scripts.add(script);
+    }
+
+    /**
+     * Save the source map to a JSON file.
+     *
+     * @param filePath Path to save the file
+     * @throws IOException If there's an error writing the file
+     */
+    public void saveToFile(String filePath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        saveToFile(filePath, mapper.writer());
+    }
+
+    /**
+     * Save the source map to a JSON file with a given writer.
+     *
+     * @param filePath Path to save the file
+     * @param writer The JSON writer
+     * @throws IOException If there's an error writing the file
+     */
+    public void saveToFile(String filePath, ObjectWriter writer) throws IOException {
+        writer.writeValue(new File(filePath), this);
+        logger.info("Saved script source map to: {}", filePath);
+    }
+
+    /**
+     * One compacted script: an event of the collection or of one of its items.
+     */
+    public static class Script {
+        private List<String> path = new ArrayList<>();
+        private String listen;
+        private int originalLines;
+        private int lines;
+        private List<Section> sections = new ArrayList<>();
+        private Map<String, String> names = new LinkedHashMap<>();
+
+        /**
+         * @return The names of the folders and request holding the event, outermost first;
+         *         empty for a collection-level event
+         */
+        public List<String> getPath() {
+            return path;
+        }
+
+        public void setPath(List<String> path) {
+            this.path = path;
+        }
+
+        public String getListen() {
+            return listen;
+        }
+
+        public void setListen(String listen) {
+            this.listen = listen;
+        }
+
+        public int getOriginalLines() {
+            return originalLines;
+        }
+
+        public void setOriginalLines(int originalLines) {
+            this.originalLines = originalLines;
+        }
+
+        public int getLines() {
+            return lines;
+        }
+
+        public void setLines(int lines) {
+            this.lines = lines;
+        }
+
+        public List<Section> getSections() {
+            return sections;
+        }
+
+        public void setSections(List<Section> sections) {
+            this.sections = sections;
+        }
+
+        /**
+         * @return Original variable names, by their short names
+         */
+        public Map<String, String> getNames() {
+            return names;
+        }
+
+        public void setNames(Map<String, String> names) {
+            this.names = names;
+        }
+    }
+
+    /**
+     * A part of a script converted from one source, such as a test step.
+     */
+    public static class Section {
+        private String source;
+        private int line;
+        private int originalLine;
+
+        public Section() {
+        }
+
+        public Section(String source, int line, int originalLine) {
+            this.source = source;
+            this.line = line;
+            this.originalLine = originalLine;
+        }
+
+        /**
+         * @return What the part was converted from, such as "test step: Setup data"
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        /**
+         * @return Index of the part's first line in the compacted exec array
+         */
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        /**
+         * @return Index of the same line before compaction
+         */
+        public int getOriginalLine() {
+            return originalLine;
+        }
+
+        public void setOriginalLine(int originalLine) {
+            this.originalLine = originalLine;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.readyapi.converter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parse-scoped pool that deduplicates low-cardinality strings such as endpoints,
+ * media types, header names, assertion types and configuration keys.
+ * <p>
+ * Unlike {@link String#intern()}, the pool is dropped with the parse, so strings
+ * from one project are not kept alive for the rest of the process. It is safe to
+ * share between the threads of a parallel parse.
+ */
+public class StringPool {
+    private static final Logger logger = LoggerFactory.getLogger(StringPool.class);
+
+    // Approximate size of a String object plus its backing array header on a 64-bit JVM
+    private static final int STRING_OVERHEAD_BYTES = 24 + 16;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Get the pooled instance equal to a string, adding the string if it's new.
+     *
+     * @param value The string to deduplicate, may be null
+     * @return The pooled instance, or null if value is null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        String pooled = strings.putIfAbsent(value, value);
+        if (pooled == null) {
+            return value;
+        }
+        if (pooled != value) {
+            savedBytes.addAndGet(estimateSize(value));
+        }
+        return pooled;
+    }
+
+    public int getDistinctCount() {
+        return strings.size();
+    }
+
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * @return Estimated heap retained by the duplicate strings that were replaced
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * Log how many strings were deduplicated and the estimated heap saved.
+     */
+    public void logSavings() {
+        long lookupCount = lookups.get();
+        logger.info("String pool: {} distinct of {} pooled strings, ~{} KB of duplicate strings not retained",
+                strings.size(), lookupCount, savedBytes.get() / 1024);
+    }
+
+    private static long estimateSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) <= 0xFF;
+        }
+        long size = STRING_OVERHEAD_BYTES + (long) value.length() * (latin1 ? 1 : 2);
+        return (size + 7) & ~7L;
+    }
+}
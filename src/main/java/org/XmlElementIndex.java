@@ -0,0 +1,532 @@
+package com.readyapi.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-level index of the elements of an XML document.
+ * <p>
+ * The document is scanned once without decoding characters. The scanner understands
+ * comments, CDATA sections, processing instructions, DOCTYPE declarations and quoted
+ * attribute values, so markup inside them never affects the element structure. The
+ * direct children of the root are always indexed, along with any deeper elements
+ * whose local name was requested. Each indexed range can then be handed to a real
+ * XML parser on its own, so content is only decoded when it's needed.
+ */
+public class XmlElementIndex {
+    private static final Pattern ENCODING_PATTERN = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+
+    private final ByteBuffer buffer;
+    private final String encoding;
+    private final int rootStart;
+    private final int rootContentStart;
+    private final int rootEndStart;
+    private final List<Range> elements;
+    private final List<Range> children;
+
+    private XmlElementIndex(ByteBuffer buffer, String encoding, int rootStart, int rootContentStart,
+                            int rootEndStart, List<Range> elements) {
+        this.buffer = buffer;
+        this.encoding = encoding;
+        this.rootStart = rootStart;
+        this.rootContentStart = rootContentStart;
+        this.rootEndStart = rootEndStart;
+        this.elements = Collections.unmodifiableList(elements);
+
+        List<Range> rootChildren = new ArrayList<>();
+        for (Range range : elements) {
+            if (range.getDepth() == 1) {
+                rootChildren.add(range);
+            }
+        }
+        this.children = Collections.unmodifiableList(rootChildren);
+    }
+
+    /**
+     * Memory-map a file and index it. The file's bytes stay in the page cache and are
+     * never copied onto the heap by the index itself.
+     *
+     * @param file The XML file
+     * @param indexedNames Local names of elements to index below the root's children
+     * @return The element index
+     * @throws IOException If the file can't be mapped or indexed
+     */
+    public static XmlElementIndex map(Path file, Set<String> indexedNames) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to map in one region (" + size + " bytes): " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            return build(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), indexedNames);
+        }
+    }
+
+    /**
+     * Scan a document and index the direct children of its root element.
+     *
+     * @param buffer The document bytes, from position 0 to the limit
+     * @return The element index
+     * @throws IOException If the document is not well formed enough to index or uses
+     *                     an encoding that isn't ASCII compatible
+     */
+    public static XmlElementIndex build(ByteBuffer buffer) throws IOException {
+        return build(buffer, Collections.emptySet());
+    }
+
+    /**
+     * Scan a document and index the direct children of its root element plus every
+     * element with one of the given local names.
+     *
+     * @param buffer The document bytes, from position 0 to the limit
+     * @param indexedNames Local names of elements to index below the root's children
+     * @return The element index
+     * @throws IOException If the document is not well formed enough to index or uses
+     *                     an encoding that isn't ASCII compatible
+     */
+    public static XmlElementIndex build(ByteBuffer buffer, Set<String> indexedNames) throws IOException {
+        int limit = buffer.limit();
+        if (limit >= 2 && ((buffer.get(0) == (byte) 0xFE && buffer.get(1) == (byte) 0xFF)
+                || (buffer.get(0) == (byte) 0xFF && buffer.get(1) == (byte) 0xFE))) {
+            throw new IOException("UTF-16 documents can't be indexed at byte level");
+        }
+        String encoding = detectEncoding(buffer);
+        List<byte[]> indexedNameBytes = new ArrayList<>();
+        for (String indexedName : indexedNames) {
+            indexedNameBytes.add(indexedName.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<Range> elements = new ArrayList<>();
+        // Index into elements of the open element at each depth, or -1 if it isn't indexed
+        int[] openElements = new int[64];
+        int rootStart = -1;
+        int rootContentStart = -1;
+        int rootEndStart = -1;
+        int depth = 0;
+        int pos = 0;
+
+        while (pos < limit) {
+            if (buffer.get(pos) != '<') {
+                pos++;
+                continue;
+            }
+            int tagStart = pos;
+            byte next = pos + 1 < limit ? buffer.get(pos + 1) : 0;
+
+            if (next == '?') {
+                pos = skipPast(buffer, pos + 2, "?>");
+            } else if (next == '!') {
+                if (startsWith(buffer, pos, "<!--")) {
+                    pos = skipPast(buffer, pos + 4, "-->");
+                } else if (startsWith(buffer, pos, "<![CDATA[")) {
+                    pos = skipPast(buffer, pos + 9, "]]>");
+                } else {
+                    pos = skipDeclaration(buffer, pos + 2);
+                }
+            } else if (next == '/') {
+                pos = skipPast(buffer, pos + 2, ">");
+                depth--;
+                if (depth == 0) {
+                    rootEndStart = tagStart;
+                    break;
+                } else if (depth < 0) {
+                    throw new IOException("Unbalanced end tag at byte " + tagStart);
+                }
+                int open = openElements[depth];
+                if (open >= 0) {
+                    elements.set(open, elements.get(open).withEnd(pos));
+                }
+            } else {
+                int nameEnd = pos + 1;
+                while (nameEnd < limit && !isNameTerminator(buffer.get(nameEnd))) {
+                    nameEnd++;
+                }
+                pos = skipTag(buffer, nameEnd);
+                boolean selfClosing = buffer.get(pos - 2) == '/';
+
+                int indexed = -1;
+                if (depth == 0) {
+                    rootStart = tagStart;
+                    rootContentStart = pos;
+                    if (selfClosing) {
+                        rootEndStart = pos;
+                        break;
+                    }
+                } else {
+                    // Compare bytes first so unindexed tags never allocate a name
+                    String name = depth == 1 || matchesAny(buffer, tagStart + 1, nameEnd, indexedNameBytes)
+                            ? localName(buffer, tagStart + 1, nameEnd) : null;
+                    if (name != null) {
+                        indexed = elements.size();
+                        elements.add(new Range(indexed, parentOf(openElements, depth), name, depth, tagStart, selfClosing ? pos : -1));
+                    }
+                }
+                if (!selfClosing) {
+                    if (depth == openElements.length) {
+                        openElements = Arrays.copyOf(openElements, depth * 2);
+                    }
+                    openElements[depth] = indexed;
+                    depth++;
+                }
+            }
+        }
+
+        if (rootStart < 0 || rootEndStart < 0) {
+            throw new IOException("Document root element is missing or not closed");
+        }
+        return new XmlElementIndex(buffer, encoding, rootStart, rootContentStart, rootEndStart, elements);
+    }
+
+    /**
+     * @return Index of the closest indexed ancestor of an element opened at the given depth
+     */
+    private static int parentOf(int[] openElements, int depth) {
+        for (int d = depth - 1; d >= 1; d--) {
+            if (openElements[d] >= 0) {
+                return openElements[d];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the document's declared character encoding.
+     *
+     * @return The encoding name, UTF-8 when none is declared
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Get the direct children of the root element in document order.
+     *
+     * @return The child element ranges
+     */
+    public List<Range> getChildren() {
+        return children;
+    }
+
+    /**
+     * Get every indexed element in document order.
+     *
+     * @return All indexed element ranges
+     */
+    public List<Range> getElements() {
+        return elements;
+    }
+
+    /**
+     * Get the indexed elements with the given local name in document order.
+     *
+     * @param name The local element name
+     * @return The matching element ranges
+     */
+    public List<Range> getElements(String name) {
+        List<Range> matching = new ArrayList<>();
+        for (Range range : elements) {
+            if (name.equals(range.getName())) {
+                matching.add(range);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Get the indexed elements whose closest indexed ancestor is the given element.
+     *
+     * @param parent The parent element range
+     * @return The child element ranges in document order
+     */
+    public List<Range> getChildren(Range parent) {
+        List<Range> result = new ArrayList<>();
+        // Descendants directly follow their ancestor in document order
+        for (int i = parent.getIndex() + 1; i < elements.size(); i++) {
+            Range range = elements.get(i);
+            if (range.getStart() >= parent.getEnd()) {
+                break;
+            }
+            if (range.getParentIndex() == parent.getIndex()) {
+                result.add(range);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the closest indexed ancestor of an element.
+     *
+     * @param range The element range
+     * @return The parent range or null for children of the root
+     */
+    public Range getParent(Range range) {
+        return range.getParentIndex() >= 0 ? elements.get(range.getParentIndex()) : null;
+    }
+
+    /**
+     * Get the size of the indexed document in bytes.
+     *
+     * @return The document length
+     */
+    public int getLength() {
+        return buffer.limit();
+    }
+
+    /**
+     * Open a stream over the bytes of a single element.
+     *
+     * @param range The element range
+     * @return A stream of the element's markup
+     */
+    public InputStream open(Range range) {
+        return new ByteBufferInputStream(slice(range.getStart(), range.getEnd()));
+    }
+
+    /**
+     * Get a read-only view of the bytes of a single element.
+     *
+     * @param range The element range
+     * @return A buffer positioned at the element's first byte
+     */
+    public ByteBuffer bytes(Range range) {
+        return slice(range.getStart(), range.getEnd()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Open a stream over the document with only the given root children kept.
+     * <p>
+     * The stream contains the prolog, the root start tag, the given children and the
+     * root end tag, so it is a well formed document in its own right.
+     *
+     * @param kept Children of the root to include, in document order
+     * @return A stream of the reduced document
+     */
+    public InputStream openSkeleton(List<Range> kept) {
+        List<InputStream> parts = new ArrayList<>();
+        parts.add(new ByteBufferInputStream(slice(0, rootContentStart)));
+        for (Range range : kept) {
+            parts.add(open(range));
+        }
+        parts.add(new ByteBufferInputStream(slice(rootEndStart, buffer.limit())));
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private ByteBuffer slice(int start, int end) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(end);
+        duplicate.position(start);
+        return duplicate.slice();
+    }
+
+    private static String detectEncoding(ByteBuffer buffer) {
+        int length = Math.min(buffer.limit(), 256);
+        byte[] prolog = new byte[length];
+        for (int i = 0; i < length; i++) {
+            prolog[i] = buffer.get(i);
+        }
+        String head = new String(prolog, StandardCharsets.ISO_8859_1);
+        int declarationEnd = head.indexOf("?>");
+        if (head.contains("<?xml") && declarationEnd > 0) {
+            Matcher matcher = ENCODING_PATTERN.matcher(head.substring(0, declarationEnd));
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return StandardCharsets.UTF_8.name();
+    }
+
+    private static boolean isNameTerminator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '>' || b == '/';
+    }
+
+    private static String localName(ByteBuffer buffer, int start, int end) {
+        int nameStart = localNameStart(buffer, start, end);
+        byte[] name = new byte[end - nameStart];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.get(nameStart + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int localNameStart(ByteBuffer buffer, int start, int end) {
+        int nameStart = start;
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == ':') {
+                nameStart = i + 1;
+            }
+        }
+        return nameStart;
+    }
+
+    private static boolean matchesAny(ByteBuffer buffer, int start, int end, List<byte[]> names) {
+        if (names.isEmpty()) {
+            return false;
+        }
+        int nameStart = localNameStart(buffer, start, end);
+        for (byte[] name : names) {
+            if (name.length == end - nameStart) {
+                int i = 0;
+                while (i < name.length && buffer.get(nameStart + i) == name[i]) {
+                    i++;
+                }
+                if (i == name.length) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the end of a start tag, skipping over quoted attribute values.
+     *
+     * @return The position just after the closing '>'
+     */
+    private static int skipTag(ByteBuffer buffer, int pos) throws IOException {
+        int limit = buffer.limit();
+        byte quote = 0;
+        while (pos < limit) {
+            byte b = buffer.get(pos++);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return pos;
+            }
+        }
+        throw new IOException("Unterminated tag at end of document");
+    }
+
+    /**
+     * Skip a DOCTYPE or other markup declaration, including an internal subset.
+     *
+     * @return The position just after the closing '>'
+     */
+    private static int skipDeclaration(ByteBuffer buffer, int pos) throws IOException {
+        int limit = buffer.limit();
+        int brackets = 0;
+        byte quote = 0;
+        while (pos < limit) {
+            byte b = buffer.get(pos++);
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '[') {
+                brackets++;
+            } else if (b == ']') {
+                brackets--;
+            } else if (b == '>' && brackets <= 0) {
+                return pos;
+            }
+        }
+        throw new IOException("Unterminated declaration at end of document");
+    }
+
+    /**
+     * @return The position just after the first occurrence of the terminator
+     */
+    private static int skipPast(ByteBuffer buffer, int pos, String terminator) throws IOException {
+        int limit = buffer.limit() - terminator.length();
+        byte first = (byte) terminator.charAt(0);
+        for (int i = pos; i <= limit; i++) {
+            if (buffer.get(i) == first && startsWith(buffer, i, terminator)) {
+                return i + terminator.length();
+            }
+        }
+        throw new IOException("Missing '" + terminator + "' after byte " + pos);
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int pos, String prefix) {
+        if (pos + prefix.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(pos + i) != (byte) prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Byte range of a single element, from its '<' to just after its end tag.
+     */
+    public static class Range {
+        private final int index;
+        private final int parentIndex;
+        private final String name;
+        private final int depth;
+        private final int start;
+        private final int end;
+
+        public Range(int index, int parentIndex, String name, int depth, int start, int end) {
+            this.index = index;
+            this.parentIndex = parentIndex;
+            this.name = name;
+            this.depth = depth;
+            this.start = start;
+            this.end = end;
+        }
+
+        private Range withEnd(int end) {
+            return new Range(index, parentIndex, name, depth, start, end);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getParentIndex() {
+            return parentIndex;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int getLength() {
+            return end - start;
+        }
+
+        @Override
+        public String toString() {
+            return "Range{" +
+                    "name='" + name + '\'' +
+                    ", depth=" + depth +
+                    ", start=" + start +
+                    ", end=" + end +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.readyapi.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ReadyApiAssertion#toPostmanTest} for every supported
+ * assertion type, configured as ReadyAPI projects typically configure it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AssertionBenchmark {
+
+    @Param({"Valid HTTP Status Codes", "Response SLA", "XPath Match", "JSON Path Match", "Contains"})
+    public String type;
+
+    private ReadyApiAssertion assertion;
+
+    @Setup
+    public void setUp() {
+        ScriptConverter.setDiskCache(null);
+
+        assertion = new ReadyApiAssertion();
+        assertion.setName(type);
+        assertion.setType(type);
+        switch (type) {
+            case "Valid HTTP Status Codes":
+                assertion.addConfigurationProperty("codes", "200, 201, 202, 204");
+                break;
+            case "Response SLA":
+                assertion.addConfigurationProperty("SLA", "1500");
+                break;
+            case "XPath Match":
+                assertion.addConfigurationProperty("path", "/soap:Envelope/soap:Body/ns1:GetAccountResponse/ns1:Status");
+                assertion.addConfigurationProperty("content", "ACTIVE");
+                break;
+            case "JSON Path Match":
+                assertion.addConfigurationProperty("path", "account.balance.currency");
+                assertion.addConfigurationProperty("content", "'CAD'");
+                break;
+            case "Contains":
+                assertion.addConfigurationProperty("token", "\"status\":\"ACTIVE\"");
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported assertion type " + type);
+        }
+    }
+
+    @Benchmark
+    public String toPostmanTest() {
+        return assertion.toPostmanTest();
+    }
+}
@@ -0,0 +1,37 @@
+package com.readyapi.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link FunctionLibraryConverter#convertLibraryToPostmanVariable}
+ * for every corpus size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FunctionLibraryBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private String script;
+
+    @Setup
+    public void setUp() {
+        script = ScriptCorpus.load(size);
+    }
+
+    @Benchmark
+    public String convertLibraryToPostmanVariable() {
+        return FunctionLibraryConverter.convertLibraryToPostmanVariable("FunctionLibrary", script);
+    }
+}
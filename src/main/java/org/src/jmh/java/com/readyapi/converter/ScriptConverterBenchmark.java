@@ -0,0 +1,70 @@
+package com.readyapi.converter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ScriptConverter#convertToJavaScript} for every script type,
+ * backend and corpus size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScriptConverterBenchmark {
+
+    @Param({"LEXER", "AST", "REGEX"})
+    public String backend;
+
+    @Param({"test", "pre-request", "library"})
+    public String scriptType;
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private String script;
+
+    @Setup
+    public void setUp() {
+        script = ScriptCorpus.load(size);
+        ScriptConverter.setDiskCache(null);
+        ScriptConverter.setBackend(ScriptConverter.Backend.valueOf(backend));
+        // Measure the conversion itself, however long it takes
+        ScriptConverter.setTimeBudgetMillis(0);
+    }
+
+    /**
+     * A conversion of a script not seen before in the run.
+     */
+    @Benchmark
+    public String convert() {
+        ScriptConverter.getConversionCache().clear();
+        return ScriptConverter.convertToJavaScript(script, scriptType);
+    }
+
+    /**
+     * A copy of a script already converted in the run, answered by the run cache.
+     */
+    @Benchmark
+    public String convertCached() {
+        return ScriptConverter.convertToJavaScript(script, scriptType);
+    }
+
+    /**
+     * A conversion written to a writer instead of returned as a string.
+     */
+    @Benchmark
+    public void convertToWriter() throws IOException {
+        ScriptConverter.convertToJavaScript(new StringReader(script), scriptType, Writer.nullWriter());
+    }
+}
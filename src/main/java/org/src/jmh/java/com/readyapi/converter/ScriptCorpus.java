@@ -0,0 +1,37 @@
+package com.readyapi.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Groovy scripts the benchmarks convert, from the checked-in corpus.
+ * <p>
+ * {@code small} is a validation step of a few lines, {@code medium} a setup step of
+ * a hundred or so lines, and {@code huge} a shared function library of several
+ * hundred kilobytes, like the script libraries large projects carry.
+ */
+final class ScriptCorpus {
+
+    private ScriptCorpus() {
+    }
+
+    /**
+     * Load a script from the corpus.
+     *
+     * @param size "small", "medium" or "huge"
+     * @return The script text
+     */
+    static String load(String size) {
+        String resource = "/corpus/" + size + ".groovy";
+        try (InputStream in = ScriptCorpus.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No corpus script " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read corpus script " + resource, e);
+        }
+    }
+}
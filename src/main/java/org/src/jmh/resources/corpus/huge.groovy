@@ -0,0 +1,11181 @@
+package soapui.utils
+
+import groovy.json.JsonSlurper
+import groovy.json.JsonOutput
+import com.eviware.soapui.model.testsuite.TestRunner
+
+/*
+ * Shared functions for the banking regression suites. Every test case creates one
+ * instance with new soapui.utils.FunctionLibrary(log, context, testRunner).
+ */
+class FunctionLibrary {
+    def log
+    def context
+    def testRunner
+
+    FunctionLibrary(log, context, testRunner) {
+        this.log = log
+        this.context = context
+        this.testRunner = testRunner
+    }
+
+    /**
+     * Run the "Account Lookup" step and return the parsed account.
+     */
+    def getAccount(String id) {
+        context.setProperty("accountId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Account Helpers"].testSteps["Get Account"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Account failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded account ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccount(def account, Map expected) {
+        assertNotNull(account)
+        expected.each { key, value ->
+            assert account[key] == value : "Account field $key was ${account[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !account.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccounts(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List Accounts")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accounts with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountPayload(Map fields) {
+        def payload = [
+            type: "Account",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Account payload: $json"
+        return json
+    }
+
+    boolean waitForAccount(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def account = getAccount(id)
+            if (account.status == state) {
+                return true
+            }
+            log.info "Account $id is ${account.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Account $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccounts(String prefix) {
+        def removed = 0
+        findAccounts("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountId", id)
+                testRunner.runTestStepByName("Delete Account")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccounts", removed.toString())
+        return removed
+    }
+
+    String accountReference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccounts(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Account changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Payee Lookup" step and return the parsed payee.
+     */
+    def getPayee(String id) {
+        context.setProperty("payeeId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Payee Helpers"].testSteps["Get Payee"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Payee failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payee ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayee(def payee, Map expected) {
+        assertNotNull(payee)
+        expected.each { key, value ->
+            assert payee[key] == value : "Payee field $key was ${payee[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payee.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayees(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List Payees")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payees with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeePayload(Map fields) {
+        def payload = [
+            type: "Payee",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Payee payload: $json"
+        return json
+    }
+
+    boolean waitForPayee(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def payee = getPayee(id)
+            if (payee.status == state) {
+                return true
+            }
+            log.info "Payee $id is ${payee.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "Payee $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayees(String prefix) {
+        def removed = 0
+        findPayees("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeId", id)
+                testRunner.runTestStepByName("Delete Payee")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayees", removed.toString())
+        return removed
+    }
+
+    String payeeReference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayees(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Payee changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Payment Lookup" step and return the parsed payment.
+     */
+    def getPayment(String id) {
+        context.setProperty("paymentId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Payment Helpers"].testSteps["Get Payment"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Payment failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payment ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayment(def payment, Map expected) {
+        assertNotNull(payment)
+        expected.each { key, value ->
+            assert payment[key] == value : "Payment field $key was ${payment[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payment.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayments(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List Payments")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payments with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentPayload(Map fields) {
+        def payload = [
+            type: "Payment",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Payment payload: $json"
+        return json
+    }
+
+    boolean waitForPayment(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def payment = getPayment(id)
+            if (payment.status == state) {
+                return true
+            }
+            log.info "Payment $id is ${payment.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Payment $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayments(String prefix) {
+        def removed = 0
+        findPayments("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentId", id)
+                testRunner.runTestStepByName("Delete Payment")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayments", removed.toString())
+        return removed
+    }
+
+    String paymentReference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayments(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Payment changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Transfer Lookup" step and return the parsed transfer.
+     */
+    def getTransfer(String id) {
+        context.setProperty("transferId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Transfer Helpers"].testSteps["Get Transfer"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Transfer failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transfer ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransfer(def transfer, Map expected) {
+        assertNotNull(transfer)
+        expected.each { key, value ->
+            assert transfer[key] == value : "Transfer field $key was ${transfer[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transfer.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransfers(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List Transfers")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transfers with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferPayload(Map fields) {
+        def payload = [
+            type: "Transfer",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Transfer payload: $json"
+        return json
+    }
+
+    boolean waitForTransfer(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def transfer = getTransfer(id)
+            if (transfer.status == state) {
+                return true
+            }
+            log.info "Transfer $id is ${transfer.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Transfer $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransfers(String prefix) {
+        def removed = 0
+        findTransfers("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferId", id)
+                testRunner.runTestStepByName("Delete Transfer")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransfers", removed.toString())
+        return removed
+    }
+
+    String transferReference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransfers(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Transfer changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Card Lookup" step and return the parsed card.
+     */
+    def getCard(String id) {
+        context.setProperty("cardId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Card Helpers"].testSteps["Get Card"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Card failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded card ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCard(def card, Map expected) {
+        assertNotNull(card)
+        expected.each { key, value ->
+            assert card[key] == value : "Card field $key was ${card[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !card.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCards(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List Cards")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cards with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardPayload(Map fields) {
+        def payload = [
+            type: "Card",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Card payload: $json"
+        return json
+    }
+
+    boolean waitForCard(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def card = getCard(id)
+            if (card.status == state) {
+                return true
+            }
+            log.info "Card $id is ${card.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Card $id never reached $state"
+        return false
+    }
+
+    def cleanUpCards(String prefix) {
+        def removed = 0
+        findCards("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardId", id)
+                testRunner.runTestStepByName("Delete Card")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCards", removed.toString())
+        return removed
+    }
+
+    String cardReference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCards(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Card changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Statement Lookup" step and return the parsed statement.
+     */
+    def getStatement(String id) {
+        context.setProperty("statementId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Statement Helpers"].testSteps["Get Statement"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Statement failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statement ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatement(def statement, Map expected) {
+        assertNotNull(statement)
+        expected.each { key, value ->
+            assert statement[key] == value : "Statement field $key was ${statement[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statement.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatements(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List Statements")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statements with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementPayload(Map fields) {
+        def payload = [
+            type: "Statement",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Statement payload: $json"
+        return json
+    }
+
+    boolean waitForStatement(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def statement = getStatement(id)
+            if (statement.status == state) {
+                return true
+            }
+            log.info "Statement $id is ${statement.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "Statement $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatements(String prefix) {
+        def removed = 0
+        findStatements("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementId", id)
+                testRunner.runTestStepByName("Delete Statement")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatements", removed.toString())
+        return removed
+    }
+
+    String statementReference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatements(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Statement changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Customer Lookup" step and return the parsed customer.
+     */
+    def getCustomer(String id) {
+        context.setProperty("customerId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Customer Helpers"].testSteps["Get Customer"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Customer failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customer ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomer(def customer, Map expected) {
+        assertNotNull(customer)
+        expected.each { key, value ->
+            assert customer[key] == value : "Customer field $key was ${customer[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customer.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomers(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List Customers")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customers with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerPayload(Map fields) {
+        def payload = [
+            type: "Customer",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Customer payload: $json"
+        return json
+    }
+
+    boolean waitForCustomer(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def customer = getCustomer(id)
+            if (customer.status == state) {
+                return true
+            }
+            log.info "Customer $id is ${customer.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Customer $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomers(String prefix) {
+        def removed = 0
+        findCustomers("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerId", id)
+                testRunner.runTestStepByName("Delete Customer")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomers", removed.toString())
+        return removed
+    }
+
+    String customerReference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomers(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Customer changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Alert Lookup" step and return the parsed alert.
+     */
+    def getAlert(String id) {
+        context.setProperty("alertId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Alert Helpers"].testSteps["Get Alert"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Alert failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alert ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlert(def alert, Map expected) {
+        assertNotNull(alert)
+        expected.each { key, value ->
+            assert alert[key] == value : "Alert field $key was ${alert[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alert.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlerts(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List Alerts")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alerts with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertPayload(Map fields) {
+        def payload = [
+            type: "Alert",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Alert payload: $json"
+        return json
+    }
+
+    boolean waitForAlert(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def alert = getAlert(id)
+            if (alert.status == state) {
+                return true
+            }
+            log.info "Alert $id is ${alert.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Alert $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlerts(String prefix) {
+        def removed = 0
+        findAlerts("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertId", id)
+                testRunner.runTestStepByName("Delete Alert")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlerts", removed.toString())
+        return removed
+    }
+
+    String alertReference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlerts(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Alert changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Limit Lookup" step and return the parsed limit.
+     */
+    def getLimit(String id) {
+        context.setProperty("limitId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Limit Helpers"].testSteps["Get Limit"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Limit failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limit ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimit(def limit, Map expected) {
+        assertNotNull(limit)
+        expected.each { key, value ->
+            assert limit[key] == value : "Limit field $key was ${limit[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limit.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimits(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List Limits")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limits with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitPayload(Map fields) {
+        def payload = [
+            type: "Limit",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Limit payload: $json"
+        return json
+    }
+
+    boolean waitForLimit(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def limit = getLimit(id)
+            if (limit.status == state) {
+                return true
+            }
+            log.info "Limit $id is ${limit.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Limit $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimits(String prefix) {
+        def removed = 0
+        findLimits("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitId", id)
+                testRunner.runTestStepByName("Delete Limit")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimits", removed.toString())
+        return removed
+    }
+
+    String limitReference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimits(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Limit changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Device Lookup" step and return the parsed device.
+     */
+    def getDevice(String id) {
+        context.setProperty("deviceId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Device Helpers"].testSteps["Get Device"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Device failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded device ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDevice(def device, Map expected) {
+        assertNotNull(device)
+        expected.each { key, value ->
+            assert device[key] == value : "Device field $key was ${device[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !device.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDevices(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List Devices")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} devices with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDevicePayload(Map fields) {
+        def payload = [
+            type: "Device",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Device payload: $json"
+        return json
+    }
+
+    boolean waitForDevice(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def device = getDevice(id)
+            if (device.status == state) {
+                return true
+            }
+            log.info "Device $id is ${device.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Device $id never reached $state"
+        return false
+    }
+
+    def cleanUpDevices(String prefix) {
+        def removed = 0
+        findDevices("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceId", id)
+                testRunner.runTestStepByName("Delete Device")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDevices", removed.toString())
+        return removed
+    }
+
+    String deviceReference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDevices(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Device changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Session Lookup" step and return the parsed session.
+     */
+    def getSession(String id) {
+        context.setProperty("sessionId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Session Helpers"].testSteps["Get Session"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Session failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded session ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSession(def session, Map expected) {
+        assertNotNull(session)
+        expected.each { key, value ->
+            assert session[key] == value : "Session field $key was ${session[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !session.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessions(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List Sessions")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessions with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionPayload(Map fields) {
+        def payload = [
+            type: "Session",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Session payload: $json"
+        return json
+    }
+
+    boolean waitForSession(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def session = getSession(id)
+            if (session.status == state) {
+                return true
+            }
+            log.info "Session $id is ${session.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Session $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessions(String prefix) {
+        def removed = 0
+        findSessions("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionId", id)
+                testRunner.runTestStepByName("Delete Session")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessions", removed.toString())
+        return removed
+    }
+
+    String sessionReference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessions(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Session changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Loan Lookup" step and return the parsed loan.
+     */
+    def getLoan(String id) {
+        context.setProperty("loanId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Loan Helpers"].testSteps["Get Loan"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Loan failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loan ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoan(def loan, Map expected) {
+        assertNotNull(loan)
+        expected.each { key, value ->
+            assert loan[key] == value : "Loan field $key was ${loan[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loan.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoans(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List Loans")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loans with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanPayload(Map fields) {
+        def payload = [
+            type: "Loan",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Loan payload: $json"
+        return json
+    }
+
+    boolean waitForLoan(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def loan = getLoan(id)
+            if (loan.status == state) {
+                return true
+            }
+            log.info "Loan $id is ${loan.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Loan $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoans(String prefix) {
+        def removed = 0
+        findLoans("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanId", id)
+                testRunner.runTestStepByName("Delete Loan")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoans", removed.toString())
+        return removed
+    }
+
+    String loanReference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoans(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Loan changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Mortgage Lookup" step and return the parsed mortgage.
+     */
+    def getMortgage(String id) {
+        context.setProperty("mortgageId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Mortgage Helpers"].testSteps["Get Mortgage"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Mortgage failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgage ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgage(def mortgage, Map expected) {
+        assertNotNull(mortgage)
+        expected.each { key, value ->
+            assert mortgage[key] == value : "Mortgage field $key was ${mortgage[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgage.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgages(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List Mortgages")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgages with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgagePayload(Map fields) {
+        def payload = [
+            type: "Mortgage",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Mortgage payload: $json"
+        return json
+    }
+
+    boolean waitForMortgage(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgage = getMortgage(id)
+            if (mortgage.status == state) {
+                return true
+            }
+            log.info "Mortgage $id is ${mortgage.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "Mortgage $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgages(String prefix) {
+        def removed = 0
+        findMortgages("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageId", id)
+                testRunner.runTestStepByName("Delete Mortgage")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgages", removed.toString())
+        return removed
+    }
+
+    String mortgageReference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgages(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Mortgage changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Deposit Lookup" step and return the parsed deposit.
+     */
+    def getDeposit(String id) {
+        context.setProperty("depositId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Deposit Helpers"].testSteps["Get Deposit"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Deposit failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deposit ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeposit(def deposit, Map expected) {
+        assertNotNull(deposit)
+        expected.each { key, value ->
+            assert deposit[key] == value : "Deposit field $key was ${deposit[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deposit.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeposits(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List Deposits")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deposits with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositPayload(Map fields) {
+        def payload = [
+            type: "Deposit",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Deposit payload: $json"
+        return json
+    }
+
+    boolean waitForDeposit(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def deposit = getDeposit(id)
+            if (deposit.status == state) {
+                return true
+            }
+            log.info "Deposit $id is ${deposit.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Deposit $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeposits(String prefix) {
+        def removed = 0
+        findDeposits("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositId", id)
+                testRunner.runTestStepByName("Delete Deposit")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeposits", removed.toString())
+        return removed
+    }
+
+    String depositReference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeposits(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Deposit changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Cheque Lookup" step and return the parsed cheque.
+     */
+    def getCheque(String id) {
+        context.setProperty("chequeId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Cheque Helpers"].testSteps["Get Cheque"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Cheque failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cheque ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCheque(def cheque, Map expected) {
+        assertNotNull(cheque)
+        expected.each { key, value ->
+            assert cheque[key] == value : "Cheque field $key was ${cheque[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cheque.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCheques(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List Cheques")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cheques with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequePayload(Map fields) {
+        def payload = [
+            type: "Cheque",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Cheque payload: $json"
+        return json
+    }
+
+    boolean waitForCheque(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def cheque = getCheque(id)
+            if (cheque.status == state) {
+                return true
+            }
+            log.info "Cheque $id is ${cheque.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "Cheque $id never reached $state"
+        return false
+    }
+
+    def cleanUpCheques(String prefix) {
+        def removed = 0
+        findCheques("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeId", id)
+                testRunner.runTestStepByName("Delete Cheque")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCheques", removed.toString())
+        return removed
+    }
+
+    String chequeReference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCheques(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Cheque changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Rate Lookup" step and return the parsed rate.
+     */
+    def getRate(String id) {
+        context.setProperty("rateId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Rate Helpers"].testSteps["Get Rate"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Rate failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rate ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRate(def rate, Map expected) {
+        assertNotNull(rate)
+        expected.each { key, value ->
+            assert rate[key] == value : "Rate field $key was ${rate[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rate.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRates(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List Rates")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rates with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRatePayload(Map fields) {
+        def payload = [
+            type: "Rate",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Rate payload: $json"
+        return json
+    }
+
+    boolean waitForRate(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def rate = getRate(id)
+            if (rate.status == state) {
+                return true
+            }
+            log.info "Rate $id is ${rate.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Rate $id never reached $state"
+        return false
+    }
+
+    def cleanUpRates(String prefix) {
+        def removed = 0
+        findRates("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateId", id)
+                testRunner.runTestStepByName("Delete Rate")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRates", removed.toString())
+        return removed
+    }
+
+    String rateReference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRates(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Rate changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Branch Lookup" step and return the parsed branch.
+     */
+    def getBranch(String id) {
+        context.setProperty("branchId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Branch Helpers"].testSteps["Get Branch"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Branch failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branch ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranch(def branch, Map expected) {
+        assertNotNull(branch)
+        expected.each { key, value ->
+            assert branch[key] == value : "Branch field $key was ${branch[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branch.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchs(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List Branchs")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchs with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchPayload(Map fields) {
+        def payload = [
+            type: "Branch",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Branch payload: $json"
+        return json
+    }
+
+    boolean waitForBranch(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def branch = getBranch(id)
+            if (branch.status == state) {
+                return true
+            }
+            log.info "Branch $id is ${branch.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Branch $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchs(String prefix) {
+        def removed = 0
+        findBranchs("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchId", id)
+                testRunner.runTestStepByName("Delete Branch")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchs", removed.toString())
+        return removed
+    }
+
+    String branchReference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchs(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Branch changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Document Lookup" step and return the parsed document.
+     */
+    def getDocument(String id) {
+        context.setProperty("documentId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Document Helpers"].testSteps["Get Document"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Document failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded document ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocument(def document, Map expected) {
+        assertNotNull(document)
+        expected.each { key, value ->
+            assert document[key] == value : "Document field $key was ${document[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !document.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocuments(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List Documents")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documents with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentPayload(Map fields) {
+        def payload = [
+            type: "Document",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Document payload: $json"
+        return json
+    }
+
+    boolean waitForDocument(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def document = getDocument(id)
+            if (document.status == state) {
+                return true
+            }
+            log.info "Document $id is ${document.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Document $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocuments(String prefix) {
+        def removed = 0
+        findDocuments("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentId", id)
+                testRunner.runTestStepByName("Delete Document")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocuments", removed.toString())
+        return removed
+    }
+
+    String documentReference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocuments(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Document changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Consent Lookup" step and return the parsed consent.
+     */
+    def getConsent(String id) {
+        context.setProperty("consentId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Consent Helpers"].testSteps["Get Consent"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Consent failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consent ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsent(def consent, Map expected) {
+        assertNotNull(consent)
+        expected.each { key, value ->
+            assert consent[key] == value : "Consent field $key was ${consent[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consent.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsents(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List Consents")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consents with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentPayload(Map fields) {
+        def payload = [
+            type: "Consent",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Consent payload: $json"
+        return json
+    }
+
+    boolean waitForConsent(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def consent = getConsent(id)
+            if (consent.status == state) {
+                return true
+            }
+            log.info "Consent $id is ${consent.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Consent $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsents(String prefix) {
+        def removed = 0
+        findConsents("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentId", id)
+                testRunner.runTestStepByName("Delete Consent")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsents", removed.toString())
+        return removed
+    }
+
+    String consentReference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsents(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Consent changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "Profile Lookup" step and return the parsed profile.
+     */
+    def getProfile(String id) {
+        context.setProperty("profileId", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["Profile Helpers"].testSteps["Get Profile"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get Profile failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profile ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfile(def profile, Map expected) {
+        assertNotNull(profile)
+        expected.each { key, value ->
+            assert profile[key] == value : "Profile field $key was ${profile[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profile.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfiles(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List Profiles")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profiles with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfilePayload(Map fields) {
+        def payload = [
+            type: "Profile",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "Profile payload: $json"
+        return json
+    }
+
+    boolean waitForProfile(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def profile = getProfile(id)
+            if (profile.status == state) {
+                return true
+            }
+            log.info "Profile $id is ${profile.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "Profile $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfiles(String prefix) {
+        def removed = 0
+        findProfiles("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileId", id)
+                testRunner.runTestStepByName("Delete Profile")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfiles", removed.toString())
+        return removed
+    }
+
+    String profileReference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfiles(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "Profile changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AccountV2 Lookup" step and return the parsed accountV2.
+     */
+    def getAccountV2(String id) {
+        context.setProperty("accountV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AccountV2 Helpers"].testSteps["Get AccountV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AccountV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded accountV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccountV2(def accountV2, Map expected) {
+        assertNotNull(accountV2)
+        expected.each { key, value ->
+            assert accountV2[key] == value : "AccountV2 field $key was ${accountV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !accountV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccountV2s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List AccountV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accountV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountV2Payload(Map fields) {
+        def payload = [
+            type: "AccountV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AccountV2 payload: $json"
+        return json
+    }
+
+    boolean waitForAccountV2(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def accountV2 = getAccountV2(id)
+            if (accountV2.status == state) {
+                return true
+            }
+            log.info "AccountV2 $id is ${accountV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "AccountV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccountV2s(String prefix) {
+        def removed = 0
+        findAccountV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountV2Id", id)
+                testRunner.runTestStepByName("Delete AccountV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccountV2s", removed.toString())
+        return removed
+    }
+
+    String accountV2Reference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccountV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AccountV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PayeeV2 Lookup" step and return the parsed payeeV2.
+     */
+    def getPayeeV2(String id) {
+        context.setProperty("payeeV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PayeeV2 Helpers"].testSteps["Get PayeeV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PayeeV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payeeV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayeeV2(def payeeV2, Map expected) {
+        assertNotNull(payeeV2)
+        expected.each { key, value ->
+            assert payeeV2[key] == value : "PayeeV2 field $key was ${payeeV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payeeV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayeeV2s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List PayeeV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payeeV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeeV2Payload(Map fields) {
+        def payload = [
+            type: "PayeeV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PayeeV2 payload: $json"
+        return json
+    }
+
+    boolean waitForPayeeV2(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def payeeV2 = getPayeeV2(id)
+            if (payeeV2.status == state) {
+                return true
+            }
+            log.info "PayeeV2 $id is ${payeeV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "PayeeV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayeeV2s(String prefix) {
+        def removed = 0
+        findPayeeV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeV2Id", id)
+                testRunner.runTestStepByName("Delete PayeeV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayeeV2s", removed.toString())
+        return removed
+    }
+
+    String payeeV2Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayeeV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PayeeV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PaymentV2 Lookup" step and return the parsed paymentV2.
+     */
+    def getPaymentV2(String id) {
+        context.setProperty("paymentV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PaymentV2 Helpers"].testSteps["Get PaymentV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PaymentV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded paymentV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePaymentV2(def paymentV2, Map expected) {
+        assertNotNull(paymentV2)
+        expected.each { key, value ->
+            assert paymentV2[key] == value : "PaymentV2 field $key was ${paymentV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !paymentV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPaymentV2s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PaymentV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} paymentV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentV2Payload(Map fields) {
+        def payload = [
+            type: "PaymentV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PaymentV2 payload: $json"
+        return json
+    }
+
+    boolean waitForPaymentV2(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def paymentV2 = getPaymentV2(id)
+            if (paymentV2.status == state) {
+                return true
+            }
+            log.info "PaymentV2 $id is ${paymentV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "PaymentV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPaymentV2s(String prefix) {
+        def removed = 0
+        findPaymentV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentV2Id", id)
+                testRunner.runTestStepByName("Delete PaymentV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPaymentV2s", removed.toString())
+        return removed
+    }
+
+    String paymentV2Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePaymentV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PaymentV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "TransferV2 Lookup" step and return the parsed transferV2.
+     */
+    def getTransferV2(String id) {
+        context.setProperty("transferV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["TransferV2 Helpers"].testSteps["Get TransferV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get TransferV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transferV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransferV2(def transferV2, Map expected) {
+        assertNotNull(transferV2)
+        expected.each { key, value ->
+            assert transferV2[key] == value : "TransferV2 field $key was ${transferV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transferV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransferV2s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List TransferV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transferV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferV2Payload(Map fields) {
+        def payload = [
+            type: "TransferV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "TransferV2 payload: $json"
+        return json
+    }
+
+    boolean waitForTransferV2(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def transferV2 = getTransferV2(id)
+            if (transferV2.status == state) {
+                return true
+            }
+            log.info "TransferV2 $id is ${transferV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "TransferV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransferV2s(String prefix) {
+        def removed = 0
+        findTransferV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferV2Id", id)
+                testRunner.runTestStepByName("Delete TransferV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransferV2s", removed.toString())
+        return removed
+    }
+
+    String transferV2Reference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransferV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "TransferV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CardV2 Lookup" step and return the parsed cardV2.
+     */
+    def getCardV2(String id) {
+        context.setProperty("cardV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CardV2 Helpers"].testSteps["Get CardV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CardV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cardV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCardV2(def cardV2, Map expected) {
+        assertNotNull(cardV2)
+        expected.each { key, value ->
+            assert cardV2[key] == value : "CardV2 field $key was ${cardV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cardV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCardV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List CardV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cardV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardV2Payload(Map fields) {
+        def payload = [
+            type: "CardV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CardV2 payload: $json"
+        return json
+    }
+
+    boolean waitForCardV2(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def cardV2 = getCardV2(id)
+            if (cardV2.status == state) {
+                return true
+            }
+            log.info "CardV2 $id is ${cardV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CardV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCardV2s(String prefix) {
+        def removed = 0
+        findCardV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardV2Id", id)
+                testRunner.runTestStepByName("Delete CardV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCardV2s", removed.toString())
+        return removed
+    }
+
+    String cardV2Reference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCardV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CardV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "StatementV2 Lookup" step and return the parsed statementV2.
+     */
+    def getStatementV2(String id) {
+        context.setProperty("statementV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["StatementV2 Helpers"].testSteps["Get StatementV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get StatementV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statementV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatementV2(def statementV2, Map expected) {
+        assertNotNull(statementV2)
+        expected.each { key, value ->
+            assert statementV2[key] == value : "StatementV2 field $key was ${statementV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statementV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatementV2s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List StatementV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statementV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementV2Payload(Map fields) {
+        def payload = [
+            type: "StatementV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "StatementV2 payload: $json"
+        return json
+    }
+
+    boolean waitForStatementV2(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def statementV2 = getStatementV2(id)
+            if (statementV2.status == state) {
+                return true
+            }
+            log.info "StatementV2 $id is ${statementV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "StatementV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatementV2s(String prefix) {
+        def removed = 0
+        findStatementV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementV2Id", id)
+                testRunner.runTestStepByName("Delete StatementV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatementV2s", removed.toString())
+        return removed
+    }
+
+    String statementV2Reference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatementV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "StatementV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CustomerV2 Lookup" step and return the parsed customerV2.
+     */
+    def getCustomerV2(String id) {
+        context.setProperty("customerV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CustomerV2 Helpers"].testSteps["Get CustomerV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CustomerV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customerV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomerV2(def customerV2, Map expected) {
+        assertNotNull(customerV2)
+        expected.each { key, value ->
+            assert customerV2[key] == value : "CustomerV2 field $key was ${customerV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customerV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomerV2s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List CustomerV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customerV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerV2Payload(Map fields) {
+        def payload = [
+            type: "CustomerV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CustomerV2 payload: $json"
+        return json
+    }
+
+    boolean waitForCustomerV2(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def customerV2 = getCustomerV2(id)
+            if (customerV2.status == state) {
+                return true
+            }
+            log.info "CustomerV2 $id is ${customerV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CustomerV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomerV2s(String prefix) {
+        def removed = 0
+        findCustomerV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerV2Id", id)
+                testRunner.runTestStepByName("Delete CustomerV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomerV2s", removed.toString())
+        return removed
+    }
+
+    String customerV2Reference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomerV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CustomerV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AlertV2 Lookup" step and return the parsed alertV2.
+     */
+    def getAlertV2(String id) {
+        context.setProperty("alertV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AlertV2 Helpers"].testSteps["Get AlertV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AlertV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alertV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlertV2(def alertV2, Map expected) {
+        assertNotNull(alertV2)
+        expected.each { key, value ->
+            assert alertV2[key] == value : "AlertV2 field $key was ${alertV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alertV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlertV2s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List AlertV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alertV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertV2Payload(Map fields) {
+        def payload = [
+            type: "AlertV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AlertV2 payload: $json"
+        return json
+    }
+
+    boolean waitForAlertV2(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def alertV2 = getAlertV2(id)
+            if (alertV2.status == state) {
+                return true
+            }
+            log.info "AlertV2 $id is ${alertV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "AlertV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlertV2s(String prefix) {
+        def removed = 0
+        findAlertV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertV2Id", id)
+                testRunner.runTestStepByName("Delete AlertV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlertV2s", removed.toString())
+        return removed
+    }
+
+    String alertV2Reference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlertV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AlertV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LimitV2 Lookup" step and return the parsed limitV2.
+     */
+    def getLimitV2(String id) {
+        context.setProperty("limitV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LimitV2 Helpers"].testSteps["Get LimitV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LimitV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limitV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimitV2(def limitV2, Map expected) {
+        assertNotNull(limitV2)
+        expected.each { key, value ->
+            assert limitV2[key] == value : "LimitV2 field $key was ${limitV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limitV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimitV2s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List LimitV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limitV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitV2Payload(Map fields) {
+        def payload = [
+            type: "LimitV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LimitV2 payload: $json"
+        return json
+    }
+
+    boolean waitForLimitV2(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def limitV2 = getLimitV2(id)
+            if (limitV2.status == state) {
+                return true
+            }
+            log.info "LimitV2 $id is ${limitV2.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "LimitV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimitV2s(String prefix) {
+        def removed = 0
+        findLimitV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitV2Id", id)
+                testRunner.runTestStepByName("Delete LimitV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimitV2s", removed.toString())
+        return removed
+    }
+
+    String limitV2Reference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimitV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LimitV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DeviceV2 Lookup" step and return the parsed deviceV2.
+     */
+    def getDeviceV2(String id) {
+        context.setProperty("deviceV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DeviceV2 Helpers"].testSteps["Get DeviceV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DeviceV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deviceV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeviceV2(def deviceV2, Map expected) {
+        assertNotNull(deviceV2)
+        expected.each { key, value ->
+            assert deviceV2[key] == value : "DeviceV2 field $key was ${deviceV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deviceV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeviceV2s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List DeviceV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deviceV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDeviceV2Payload(Map fields) {
+        def payload = [
+            type: "DeviceV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DeviceV2 payload: $json"
+        return json
+    }
+
+    boolean waitForDeviceV2(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def deviceV2 = getDeviceV2(id)
+            if (deviceV2.status == state) {
+                return true
+            }
+            log.info "DeviceV2 $id is ${deviceV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DeviceV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeviceV2s(String prefix) {
+        def removed = 0
+        findDeviceV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceV2Id", id)
+                testRunner.runTestStepByName("Delete DeviceV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeviceV2s", removed.toString())
+        return removed
+    }
+
+    String deviceV2Reference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeviceV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DeviceV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "SessionV2 Lookup" step and return the parsed sessionV2.
+     */
+    def getSessionV2(String id) {
+        context.setProperty("sessionV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["SessionV2 Helpers"].testSteps["Get SessionV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get SessionV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded sessionV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSessionV2(def sessionV2, Map expected) {
+        assertNotNull(sessionV2)
+        expected.each { key, value ->
+            assert sessionV2[key] == value : "SessionV2 field $key was ${sessionV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !sessionV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessionV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List SessionV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessionV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionV2Payload(Map fields) {
+        def payload = [
+            type: "SessionV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "SessionV2 payload: $json"
+        return json
+    }
+
+    boolean waitForSessionV2(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def sessionV2 = getSessionV2(id)
+            if (sessionV2.status == state) {
+                return true
+            }
+            log.info "SessionV2 $id is ${sessionV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "SessionV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessionV2s(String prefix) {
+        def removed = 0
+        findSessionV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionV2Id", id)
+                testRunner.runTestStepByName("Delete SessionV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessionV2s", removed.toString())
+        return removed
+    }
+
+    String sessionV2Reference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessionV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "SessionV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LoanV2 Lookup" step and return the parsed loanV2.
+     */
+    def getLoanV2(String id) {
+        context.setProperty("loanV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LoanV2 Helpers"].testSteps["Get LoanV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LoanV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loanV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoanV2(def loanV2, Map expected) {
+        assertNotNull(loanV2)
+        expected.each { key, value ->
+            assert loanV2[key] == value : "LoanV2 field $key was ${loanV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loanV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoanV2s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List LoanV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loanV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanV2Payload(Map fields) {
+        def payload = [
+            type: "LoanV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LoanV2 payload: $json"
+        return json
+    }
+
+    boolean waitForLoanV2(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def loanV2 = getLoanV2(id)
+            if (loanV2.status == state) {
+                return true
+            }
+            log.info "LoanV2 $id is ${loanV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LoanV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoanV2s(String prefix) {
+        def removed = 0
+        findLoanV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanV2Id", id)
+                testRunner.runTestStepByName("Delete LoanV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoanV2s", removed.toString())
+        return removed
+    }
+
+    String loanV2Reference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoanV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LoanV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "MortgageV2 Lookup" step and return the parsed mortgageV2.
+     */
+    def getMortgageV2(String id) {
+        context.setProperty("mortgageV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["MortgageV2 Helpers"].testSteps["Get MortgageV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get MortgageV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgageV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgageV2(def mortgageV2, Map expected) {
+        assertNotNull(mortgageV2)
+        expected.each { key, value ->
+            assert mortgageV2[key] == value : "MortgageV2 field $key was ${mortgageV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgageV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgageV2s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List MortgageV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgageV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgageV2Payload(Map fields) {
+        def payload = [
+            type: "MortgageV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "MortgageV2 payload: $json"
+        return json
+    }
+
+    boolean waitForMortgageV2(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgageV2 = getMortgageV2(id)
+            if (mortgageV2.status == state) {
+                return true
+            }
+            log.info "MortgageV2 $id is ${mortgageV2.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "MortgageV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgageV2s(String prefix) {
+        def removed = 0
+        findMortgageV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageV2Id", id)
+                testRunner.runTestStepByName("Delete MortgageV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgageV2s", removed.toString())
+        return removed
+    }
+
+    String mortgageV2Reference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgageV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "MortgageV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DepositV2 Lookup" step and return the parsed depositV2.
+     */
+    def getDepositV2(String id) {
+        context.setProperty("depositV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DepositV2 Helpers"].testSteps["Get DepositV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DepositV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded depositV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDepositV2(def depositV2, Map expected) {
+        assertNotNull(depositV2)
+        expected.each { key, value ->
+            assert depositV2[key] == value : "DepositV2 field $key was ${depositV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !depositV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDepositV2s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List DepositV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} depositV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositV2Payload(Map fields) {
+        def payload = [
+            type: "DepositV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DepositV2 payload: $json"
+        return json
+    }
+
+    boolean waitForDepositV2(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def depositV2 = getDepositV2(id)
+            if (depositV2.status == state) {
+                return true
+            }
+            log.info "DepositV2 $id is ${depositV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DepositV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDepositV2s(String prefix) {
+        def removed = 0
+        findDepositV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositV2Id", id)
+                testRunner.runTestStepByName("Delete DepositV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDepositV2s", removed.toString())
+        return removed
+    }
+
+    String depositV2Reference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDepositV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DepositV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ChequeV2 Lookup" step and return the parsed chequeV2.
+     */
+    def getChequeV2(String id) {
+        context.setProperty("chequeV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ChequeV2 Helpers"].testSteps["Get ChequeV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ChequeV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded chequeV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateChequeV2(def chequeV2, Map expected) {
+        assertNotNull(chequeV2)
+        expected.each { key, value ->
+            assert chequeV2[key] == value : "ChequeV2 field $key was ${chequeV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !chequeV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findChequeV2s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List ChequeV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} chequeV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequeV2Payload(Map fields) {
+        def payload = [
+            type: "ChequeV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ChequeV2 payload: $json"
+        return json
+    }
+
+    boolean waitForChequeV2(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def chequeV2 = getChequeV2(id)
+            if (chequeV2.status == state) {
+                return true
+            }
+            log.info "ChequeV2 $id is ${chequeV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "ChequeV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpChequeV2s(String prefix) {
+        def removed = 0
+        findChequeV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeV2Id", id)
+                testRunner.runTestStepByName("Delete ChequeV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedChequeV2s", removed.toString())
+        return removed
+    }
+
+    String chequeV2Reference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareChequeV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ChequeV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "RateV2 Lookup" step and return the parsed rateV2.
+     */
+    def getRateV2(String id) {
+        context.setProperty("rateV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["RateV2 Helpers"].testSteps["Get RateV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get RateV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rateV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRateV2(def rateV2, Map expected) {
+        assertNotNull(rateV2)
+        expected.each { key, value ->
+            assert rateV2[key] == value : "RateV2 field $key was ${rateV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rateV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRateV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List RateV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rateV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRateV2Payload(Map fields) {
+        def payload = [
+            type: "RateV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "RateV2 payload: $json"
+        return json
+    }
+
+    boolean waitForRateV2(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def rateV2 = getRateV2(id)
+            if (rateV2.status == state) {
+                return true
+            }
+            log.info "RateV2 $id is ${rateV2.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "RateV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpRateV2s(String prefix) {
+        def removed = 0
+        findRateV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateV2Id", id)
+                testRunner.runTestStepByName("Delete RateV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRateV2s", removed.toString())
+        return removed
+    }
+
+    String rateV2Reference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRateV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "RateV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "BranchV2 Lookup" step and return the parsed branchV2.
+     */
+    def getBranchV2(String id) {
+        context.setProperty("branchV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["BranchV2 Helpers"].testSteps["Get BranchV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get BranchV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branchV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranchV2(def branchV2, Map expected) {
+        assertNotNull(branchV2)
+        expected.each { key, value ->
+            assert branchV2[key] == value : "BranchV2 field $key was ${branchV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branchV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List BranchV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchV2Payload(Map fields) {
+        def payload = [
+            type: "BranchV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "BranchV2 payload: $json"
+        return json
+    }
+
+    boolean waitForBranchV2(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def branchV2 = getBranchV2(id)
+            if (branchV2.status == state) {
+                return true
+            }
+            log.info "BranchV2 $id is ${branchV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "BranchV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchV2s(String prefix) {
+        def removed = 0
+        findBranchV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchV2Id", id)
+                testRunner.runTestStepByName("Delete BranchV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchV2s", removed.toString())
+        return removed
+    }
+
+    String branchV2Reference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "BranchV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DocumentV2 Lookup" step and return the parsed documentV2.
+     */
+    def getDocumentV2(String id) {
+        context.setProperty("documentV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DocumentV2 Helpers"].testSteps["Get DocumentV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DocumentV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded documentV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocumentV2(def documentV2, Map expected) {
+        assertNotNull(documentV2)
+        expected.each { key, value ->
+            assert documentV2[key] == value : "DocumentV2 field $key was ${documentV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !documentV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocumentV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List DocumentV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documentV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentV2Payload(Map fields) {
+        def payload = [
+            type: "DocumentV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DocumentV2 payload: $json"
+        return json
+    }
+
+    boolean waitForDocumentV2(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def documentV2 = getDocumentV2(id)
+            if (documentV2.status == state) {
+                return true
+            }
+            log.info "DocumentV2 $id is ${documentV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DocumentV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocumentV2s(String prefix) {
+        def removed = 0
+        findDocumentV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentV2Id", id)
+                testRunner.runTestStepByName("Delete DocumentV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocumentV2s", removed.toString())
+        return removed
+    }
+
+    String documentV2Reference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocumentV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DocumentV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ConsentV2 Lookup" step and return the parsed consentV2.
+     */
+    def getConsentV2(String id) {
+        context.setProperty("consentV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ConsentV2 Helpers"].testSteps["Get ConsentV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ConsentV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consentV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsentV2(def consentV2, Map expected) {
+        assertNotNull(consentV2)
+        expected.each { key, value ->
+            assert consentV2[key] == value : "ConsentV2 field $key was ${consentV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consentV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsentV2s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List ConsentV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consentV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentV2Payload(Map fields) {
+        def payload = [
+            type: "ConsentV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ConsentV2 payload: $json"
+        return json
+    }
+
+    boolean waitForConsentV2(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def consentV2 = getConsentV2(id)
+            if (consentV2.status == state) {
+                return true
+            }
+            log.info "ConsentV2 $id is ${consentV2.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "ConsentV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsentV2s(String prefix) {
+        def removed = 0
+        findConsentV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentV2Id", id)
+                testRunner.runTestStepByName("Delete ConsentV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsentV2s", removed.toString())
+        return removed
+    }
+
+    String consentV2Reference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsentV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ConsentV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ProfileV2 Lookup" step and return the parsed profileV2.
+     */
+    def getProfileV2(String id) {
+        context.setProperty("profileV2Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ProfileV2 Helpers"].testSteps["Get ProfileV2"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ProfileV2 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profileV2 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfileV2(def profileV2, Map expected) {
+        assertNotNull(profileV2)
+        expected.each { key, value ->
+            assert profileV2[key] == value : "ProfileV2 field $key was ${profileV2[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profileV2.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfileV2s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List ProfileV2s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profileV2s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfileV2Payload(Map fields) {
+        def payload = [
+            type: "ProfileV2",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ProfileV2 payload: $json"
+        return json
+    }
+
+    boolean waitForProfileV2(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def profileV2 = getProfileV2(id)
+            if (profileV2.status == state) {
+                return true
+            }
+            log.info "ProfileV2 $id is ${profileV2.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "ProfileV2 $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfileV2s(String prefix) {
+        def removed = 0
+        findProfileV2s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileV2Id", id)
+                testRunner.runTestStepByName("Delete ProfileV2")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfileV2s", removed.toString())
+        return removed
+    }
+
+    String profileV2Reference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfileV2s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ProfileV2 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AccountV3 Lookup" step and return the parsed accountV3.
+     */
+    def getAccountV3(String id) {
+        context.setProperty("accountV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AccountV3 Helpers"].testSteps["Get AccountV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AccountV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded accountV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccountV3(def accountV3, Map expected) {
+        assertNotNull(accountV3)
+        expected.each { key, value ->
+            assert accountV3[key] == value : "AccountV3 field $key was ${accountV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !accountV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccountV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List AccountV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accountV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountV3Payload(Map fields) {
+        def payload = [
+            type: "AccountV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AccountV3 payload: $json"
+        return json
+    }
+
+    boolean waitForAccountV3(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def accountV3 = getAccountV3(id)
+            if (accountV3.status == state) {
+                return true
+            }
+            log.info "AccountV3 $id is ${accountV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "AccountV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccountV3s(String prefix) {
+        def removed = 0
+        findAccountV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountV3Id", id)
+                testRunner.runTestStepByName("Delete AccountV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccountV3s", removed.toString())
+        return removed
+    }
+
+    String accountV3Reference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccountV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AccountV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PayeeV3 Lookup" step and return the parsed payeeV3.
+     */
+    def getPayeeV3(String id) {
+        context.setProperty("payeeV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PayeeV3 Helpers"].testSteps["Get PayeeV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PayeeV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payeeV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayeeV3(def payeeV3, Map expected) {
+        assertNotNull(payeeV3)
+        expected.each { key, value ->
+            assert payeeV3[key] == value : "PayeeV3 field $key was ${payeeV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payeeV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayeeV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PayeeV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payeeV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeeV3Payload(Map fields) {
+        def payload = [
+            type: "PayeeV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PayeeV3 payload: $json"
+        return json
+    }
+
+    boolean waitForPayeeV3(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def payeeV3 = getPayeeV3(id)
+            if (payeeV3.status == state) {
+                return true
+            }
+            log.info "PayeeV3 $id is ${payeeV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "PayeeV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayeeV3s(String prefix) {
+        def removed = 0
+        findPayeeV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeV3Id", id)
+                testRunner.runTestStepByName("Delete PayeeV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayeeV3s", removed.toString())
+        return removed
+    }
+
+    String payeeV3Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayeeV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PayeeV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PaymentV3 Lookup" step and return the parsed paymentV3.
+     */
+    def getPaymentV3(String id) {
+        context.setProperty("paymentV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PaymentV3 Helpers"].testSteps["Get PaymentV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PaymentV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded paymentV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePaymentV3(def paymentV3, Map expected) {
+        assertNotNull(paymentV3)
+        expected.each { key, value ->
+            assert paymentV3[key] == value : "PaymentV3 field $key was ${paymentV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !paymentV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPaymentV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PaymentV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} paymentV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentV3Payload(Map fields) {
+        def payload = [
+            type: "PaymentV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PaymentV3 payload: $json"
+        return json
+    }
+
+    boolean waitForPaymentV3(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def paymentV3 = getPaymentV3(id)
+            if (paymentV3.status == state) {
+                return true
+            }
+            log.info "PaymentV3 $id is ${paymentV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "PaymentV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPaymentV3s(String prefix) {
+        def removed = 0
+        findPaymentV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentV3Id", id)
+                testRunner.runTestStepByName("Delete PaymentV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPaymentV3s", removed.toString())
+        return removed
+    }
+
+    String paymentV3Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePaymentV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PaymentV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "TransferV3 Lookup" step and return the parsed transferV3.
+     */
+    def getTransferV3(String id) {
+        context.setProperty("transferV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["TransferV3 Helpers"].testSteps["Get TransferV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get TransferV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transferV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransferV3(def transferV3, Map expected) {
+        assertNotNull(transferV3)
+        expected.each { key, value ->
+            assert transferV3[key] == value : "TransferV3 field $key was ${transferV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transferV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransferV3s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List TransferV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transferV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferV3Payload(Map fields) {
+        def payload = [
+            type: "TransferV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "TransferV3 payload: $json"
+        return json
+    }
+
+    boolean waitForTransferV3(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def transferV3 = getTransferV3(id)
+            if (transferV3.status == state) {
+                return true
+            }
+            log.info "TransferV3 $id is ${transferV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "TransferV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransferV3s(String prefix) {
+        def removed = 0
+        findTransferV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferV3Id", id)
+                testRunner.runTestStepByName("Delete TransferV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransferV3s", removed.toString())
+        return removed
+    }
+
+    String transferV3Reference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransferV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "TransferV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CardV3 Lookup" step and return the parsed cardV3.
+     */
+    def getCardV3(String id) {
+        context.setProperty("cardV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CardV3 Helpers"].testSteps["Get CardV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CardV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cardV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCardV3(def cardV3, Map expected) {
+        assertNotNull(cardV3)
+        expected.each { key, value ->
+            assert cardV3[key] == value : "CardV3 field $key was ${cardV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cardV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCardV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List CardV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cardV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardV3Payload(Map fields) {
+        def payload = [
+            type: "CardV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CardV3 payload: $json"
+        return json
+    }
+
+    boolean waitForCardV3(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def cardV3 = getCardV3(id)
+            if (cardV3.status == state) {
+                return true
+            }
+            log.info "CardV3 $id is ${cardV3.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CardV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCardV3s(String prefix) {
+        def removed = 0
+        findCardV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardV3Id", id)
+                testRunner.runTestStepByName("Delete CardV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCardV3s", removed.toString())
+        return removed
+    }
+
+    String cardV3Reference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCardV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CardV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "StatementV3 Lookup" step and return the parsed statementV3.
+     */
+    def getStatementV3(String id) {
+        context.setProperty("statementV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["StatementV3 Helpers"].testSteps["Get StatementV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get StatementV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statementV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatementV3(def statementV3, Map expected) {
+        assertNotNull(statementV3)
+        expected.each { key, value ->
+            assert statementV3[key] == value : "StatementV3 field $key was ${statementV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statementV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatementV3s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List StatementV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statementV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementV3Payload(Map fields) {
+        def payload = [
+            type: "StatementV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "StatementV3 payload: $json"
+        return json
+    }
+
+    boolean waitForStatementV3(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def statementV3 = getStatementV3(id)
+            if (statementV3.status == state) {
+                return true
+            }
+            log.info "StatementV3 $id is ${statementV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "StatementV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatementV3s(String prefix) {
+        def removed = 0
+        findStatementV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementV3Id", id)
+                testRunner.runTestStepByName("Delete StatementV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatementV3s", removed.toString())
+        return removed
+    }
+
+    String statementV3Reference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatementV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "StatementV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CustomerV3 Lookup" step and return the parsed customerV3.
+     */
+    def getCustomerV3(String id) {
+        context.setProperty("customerV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CustomerV3 Helpers"].testSteps["Get CustomerV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CustomerV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customerV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomerV3(def customerV3, Map expected) {
+        assertNotNull(customerV3)
+        expected.each { key, value ->
+            assert customerV3[key] == value : "CustomerV3 field $key was ${customerV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customerV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomerV3s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List CustomerV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customerV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerV3Payload(Map fields) {
+        def payload = [
+            type: "CustomerV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CustomerV3 payload: $json"
+        return json
+    }
+
+    boolean waitForCustomerV3(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def customerV3 = getCustomerV3(id)
+            if (customerV3.status == state) {
+                return true
+            }
+            log.info "CustomerV3 $id is ${customerV3.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "CustomerV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomerV3s(String prefix) {
+        def removed = 0
+        findCustomerV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerV3Id", id)
+                testRunner.runTestStepByName("Delete CustomerV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomerV3s", removed.toString())
+        return removed
+    }
+
+    String customerV3Reference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomerV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CustomerV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AlertV3 Lookup" step and return the parsed alertV3.
+     */
+    def getAlertV3(String id) {
+        context.setProperty("alertV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AlertV3 Helpers"].testSteps["Get AlertV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AlertV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alertV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlertV3(def alertV3, Map expected) {
+        assertNotNull(alertV3)
+        expected.each { key, value ->
+            assert alertV3[key] == value : "AlertV3 field $key was ${alertV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alertV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlertV3s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List AlertV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alertV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertV3Payload(Map fields) {
+        def payload = [
+            type: "AlertV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AlertV3 payload: $json"
+        return json
+    }
+
+    boolean waitForAlertV3(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def alertV3 = getAlertV3(id)
+            if (alertV3.status == state) {
+                return true
+            }
+            log.info "AlertV3 $id is ${alertV3.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "AlertV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlertV3s(String prefix) {
+        def removed = 0
+        findAlertV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertV3Id", id)
+                testRunner.runTestStepByName("Delete AlertV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlertV3s", removed.toString())
+        return removed
+    }
+
+    String alertV3Reference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlertV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AlertV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LimitV3 Lookup" step and return the parsed limitV3.
+     */
+    def getLimitV3(String id) {
+        context.setProperty("limitV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LimitV3 Helpers"].testSteps["Get LimitV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LimitV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limitV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimitV3(def limitV3, Map expected) {
+        assertNotNull(limitV3)
+        expected.each { key, value ->
+            assert limitV3[key] == value : "LimitV3 field $key was ${limitV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limitV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimitV3s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List LimitV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limitV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitV3Payload(Map fields) {
+        def payload = [
+            type: "LimitV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LimitV3 payload: $json"
+        return json
+    }
+
+    boolean waitForLimitV3(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def limitV3 = getLimitV3(id)
+            if (limitV3.status == state) {
+                return true
+            }
+            log.info "LimitV3 $id is ${limitV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "LimitV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimitV3s(String prefix) {
+        def removed = 0
+        findLimitV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitV3Id", id)
+                testRunner.runTestStepByName("Delete LimitV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimitV3s", removed.toString())
+        return removed
+    }
+
+    String limitV3Reference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimitV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LimitV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DeviceV3 Lookup" step and return the parsed deviceV3.
+     */
+    def getDeviceV3(String id) {
+        context.setProperty("deviceV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DeviceV3 Helpers"].testSteps["Get DeviceV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DeviceV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deviceV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeviceV3(def deviceV3, Map expected) {
+        assertNotNull(deviceV3)
+        expected.each { key, value ->
+            assert deviceV3[key] == value : "DeviceV3 field $key was ${deviceV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deviceV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeviceV3s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List DeviceV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deviceV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDeviceV3Payload(Map fields) {
+        def payload = [
+            type: "DeviceV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DeviceV3 payload: $json"
+        return json
+    }
+
+    boolean waitForDeviceV3(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def deviceV3 = getDeviceV3(id)
+            if (deviceV3.status == state) {
+                return true
+            }
+            log.info "DeviceV3 $id is ${deviceV3.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DeviceV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeviceV3s(String prefix) {
+        def removed = 0
+        findDeviceV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceV3Id", id)
+                testRunner.runTestStepByName("Delete DeviceV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeviceV3s", removed.toString())
+        return removed
+    }
+
+    String deviceV3Reference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeviceV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DeviceV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "SessionV3 Lookup" step and return the parsed sessionV3.
+     */
+    def getSessionV3(String id) {
+        context.setProperty("sessionV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["SessionV3 Helpers"].testSteps["Get SessionV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get SessionV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded sessionV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSessionV3(def sessionV3, Map expected) {
+        assertNotNull(sessionV3)
+        expected.each { key, value ->
+            assert sessionV3[key] == value : "SessionV3 field $key was ${sessionV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !sessionV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessionV3s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List SessionV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessionV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionV3Payload(Map fields) {
+        def payload = [
+            type: "SessionV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "SessionV3 payload: $json"
+        return json
+    }
+
+    boolean waitForSessionV3(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def sessionV3 = getSessionV3(id)
+            if (sessionV3.status == state) {
+                return true
+            }
+            log.info "SessionV3 $id is ${sessionV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "SessionV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessionV3s(String prefix) {
+        def removed = 0
+        findSessionV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionV3Id", id)
+                testRunner.runTestStepByName("Delete SessionV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessionV3s", removed.toString())
+        return removed
+    }
+
+    String sessionV3Reference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessionV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "SessionV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LoanV3 Lookup" step and return the parsed loanV3.
+     */
+    def getLoanV3(String id) {
+        context.setProperty("loanV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LoanV3 Helpers"].testSteps["Get LoanV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LoanV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loanV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoanV3(def loanV3, Map expected) {
+        assertNotNull(loanV3)
+        expected.each { key, value ->
+            assert loanV3[key] == value : "LoanV3 field $key was ${loanV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loanV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoanV3s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List LoanV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loanV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanV3Payload(Map fields) {
+        def payload = [
+            type: "LoanV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LoanV3 payload: $json"
+        return json
+    }
+
+    boolean waitForLoanV3(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def loanV3 = getLoanV3(id)
+            if (loanV3.status == state) {
+                return true
+            }
+            log.info "LoanV3 $id is ${loanV3.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LoanV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoanV3s(String prefix) {
+        def removed = 0
+        findLoanV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanV3Id", id)
+                testRunner.runTestStepByName("Delete LoanV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoanV3s", removed.toString())
+        return removed
+    }
+
+    String loanV3Reference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoanV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LoanV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "MortgageV3 Lookup" step and return the parsed mortgageV3.
+     */
+    def getMortgageV3(String id) {
+        context.setProperty("mortgageV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["MortgageV3 Helpers"].testSteps["Get MortgageV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get MortgageV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgageV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgageV3(def mortgageV3, Map expected) {
+        assertNotNull(mortgageV3)
+        expected.each { key, value ->
+            assert mortgageV3[key] == value : "MortgageV3 field $key was ${mortgageV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgageV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgageV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List MortgageV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgageV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgageV3Payload(Map fields) {
+        def payload = [
+            type: "MortgageV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "MortgageV3 payload: $json"
+        return json
+    }
+
+    boolean waitForMortgageV3(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgageV3 = getMortgageV3(id)
+            if (mortgageV3.status == state) {
+                return true
+            }
+            log.info "MortgageV3 $id is ${mortgageV3.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "MortgageV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgageV3s(String prefix) {
+        def removed = 0
+        findMortgageV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageV3Id", id)
+                testRunner.runTestStepByName("Delete MortgageV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgageV3s", removed.toString())
+        return removed
+    }
+
+    String mortgageV3Reference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgageV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "MortgageV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DepositV3 Lookup" step and return the parsed depositV3.
+     */
+    def getDepositV3(String id) {
+        context.setProperty("depositV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DepositV3 Helpers"].testSteps["Get DepositV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DepositV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded depositV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDepositV3(def depositV3, Map expected) {
+        assertNotNull(depositV3)
+        expected.each { key, value ->
+            assert depositV3[key] == value : "DepositV3 field $key was ${depositV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !depositV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDepositV3s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List DepositV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} depositV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositV3Payload(Map fields) {
+        def payload = [
+            type: "DepositV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DepositV3 payload: $json"
+        return json
+    }
+
+    boolean waitForDepositV3(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def depositV3 = getDepositV3(id)
+            if (depositV3.status == state) {
+                return true
+            }
+            log.info "DepositV3 $id is ${depositV3.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DepositV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDepositV3s(String prefix) {
+        def removed = 0
+        findDepositV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositV3Id", id)
+                testRunner.runTestStepByName("Delete DepositV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDepositV3s", removed.toString())
+        return removed
+    }
+
+    String depositV3Reference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDepositV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DepositV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ChequeV3 Lookup" step and return the parsed chequeV3.
+     */
+    def getChequeV3(String id) {
+        context.setProperty("chequeV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ChequeV3 Helpers"].testSteps["Get ChequeV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ChequeV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded chequeV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateChequeV3(def chequeV3, Map expected) {
+        assertNotNull(chequeV3)
+        expected.each { key, value ->
+            assert chequeV3[key] == value : "ChequeV3 field $key was ${chequeV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !chequeV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findChequeV3s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List ChequeV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} chequeV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequeV3Payload(Map fields) {
+        def payload = [
+            type: "ChequeV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ChequeV3 payload: $json"
+        return json
+    }
+
+    boolean waitForChequeV3(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def chequeV3 = getChequeV3(id)
+            if (chequeV3.status == state) {
+                return true
+            }
+            log.info "ChequeV3 $id is ${chequeV3.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "ChequeV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpChequeV3s(String prefix) {
+        def removed = 0
+        findChequeV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeV3Id", id)
+                testRunner.runTestStepByName("Delete ChequeV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedChequeV3s", removed.toString())
+        return removed
+    }
+
+    String chequeV3Reference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareChequeV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ChequeV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "RateV3 Lookup" step and return the parsed rateV3.
+     */
+    def getRateV3(String id) {
+        context.setProperty("rateV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["RateV3 Helpers"].testSteps["Get RateV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get RateV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rateV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRateV3(def rateV3, Map expected) {
+        assertNotNull(rateV3)
+        expected.each { key, value ->
+            assert rateV3[key] == value : "RateV3 field $key was ${rateV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rateV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRateV3s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List RateV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rateV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRateV3Payload(Map fields) {
+        def payload = [
+            type: "RateV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "RateV3 payload: $json"
+        return json
+    }
+
+    boolean waitForRateV3(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def rateV3 = getRateV3(id)
+            if (rateV3.status == state) {
+                return true
+            }
+            log.info "RateV3 $id is ${rateV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "RateV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpRateV3s(String prefix) {
+        def removed = 0
+        findRateV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateV3Id", id)
+                testRunner.runTestStepByName("Delete RateV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRateV3s", removed.toString())
+        return removed
+    }
+
+    String rateV3Reference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRateV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "RateV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "BranchV3 Lookup" step and return the parsed branchV3.
+     */
+    def getBranchV3(String id) {
+        context.setProperty("branchV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["BranchV3 Helpers"].testSteps["Get BranchV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get BranchV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branchV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranchV3(def branchV3, Map expected) {
+        assertNotNull(branchV3)
+        expected.each { key, value ->
+            assert branchV3[key] == value : "BranchV3 field $key was ${branchV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branchV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchV3s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List BranchV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchV3Payload(Map fields) {
+        def payload = [
+            type: "BranchV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "BranchV3 payload: $json"
+        return json
+    }
+
+    boolean waitForBranchV3(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def branchV3 = getBranchV3(id)
+            if (branchV3.status == state) {
+                return true
+            }
+            log.info "BranchV3 $id is ${branchV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "BranchV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchV3s(String prefix) {
+        def removed = 0
+        findBranchV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchV3Id", id)
+                testRunner.runTestStepByName("Delete BranchV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchV3s", removed.toString())
+        return removed
+    }
+
+    String branchV3Reference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "BranchV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DocumentV3 Lookup" step and return the parsed documentV3.
+     */
+    def getDocumentV3(String id) {
+        context.setProperty("documentV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DocumentV3 Helpers"].testSteps["Get DocumentV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DocumentV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded documentV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocumentV3(def documentV3, Map expected) {
+        assertNotNull(documentV3)
+        expected.each { key, value ->
+            assert documentV3[key] == value : "DocumentV3 field $key was ${documentV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !documentV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocumentV3s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List DocumentV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documentV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentV3Payload(Map fields) {
+        def payload = [
+            type: "DocumentV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DocumentV3 payload: $json"
+        return json
+    }
+
+    boolean waitForDocumentV3(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def documentV3 = getDocumentV3(id)
+            if (documentV3.status == state) {
+                return true
+            }
+            log.info "DocumentV3 $id is ${documentV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "DocumentV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocumentV3s(String prefix) {
+        def removed = 0
+        findDocumentV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentV3Id", id)
+                testRunner.runTestStepByName("Delete DocumentV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocumentV3s", removed.toString())
+        return removed
+    }
+
+    String documentV3Reference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocumentV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DocumentV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ConsentV3 Lookup" step and return the parsed consentV3.
+     */
+    def getConsentV3(String id) {
+        context.setProperty("consentV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ConsentV3 Helpers"].testSteps["Get ConsentV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ConsentV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consentV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsentV3(def consentV3, Map expected) {
+        assertNotNull(consentV3)
+        expected.each { key, value ->
+            assert consentV3[key] == value : "ConsentV3 field $key was ${consentV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consentV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsentV3s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List ConsentV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consentV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentV3Payload(Map fields) {
+        def payload = [
+            type: "ConsentV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ConsentV3 payload: $json"
+        return json
+    }
+
+    boolean waitForConsentV3(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def consentV3 = getConsentV3(id)
+            if (consentV3.status == state) {
+                return true
+            }
+            log.info "ConsentV3 $id is ${consentV3.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ConsentV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsentV3s(String prefix) {
+        def removed = 0
+        findConsentV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentV3Id", id)
+                testRunner.runTestStepByName("Delete ConsentV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsentV3s", removed.toString())
+        return removed
+    }
+
+    String consentV3Reference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsentV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ConsentV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ProfileV3 Lookup" step and return the parsed profileV3.
+     */
+    def getProfileV3(String id) {
+        context.setProperty("profileV3Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ProfileV3 Helpers"].testSteps["Get ProfileV3"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ProfileV3 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profileV3 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfileV3(def profileV3, Map expected) {
+        assertNotNull(profileV3)
+        expected.each { key, value ->
+            assert profileV3[key] == value : "ProfileV3 field $key was ${profileV3[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profileV3.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfileV3s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List ProfileV3s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profileV3s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfileV3Payload(Map fields) {
+        def payload = [
+            type: "ProfileV3",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ProfileV3 payload: $json"
+        return json
+    }
+
+    boolean waitForProfileV3(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def profileV3 = getProfileV3(id)
+            if (profileV3.status == state) {
+                return true
+            }
+            log.info "ProfileV3 $id is ${profileV3.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "ProfileV3 $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfileV3s(String prefix) {
+        def removed = 0
+        findProfileV3s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileV3Id", id)
+                testRunner.runTestStepByName("Delete ProfileV3")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfileV3s", removed.toString())
+        return removed
+    }
+
+    String profileV3Reference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfileV3s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ProfileV3 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AccountV4 Lookup" step and return the parsed accountV4.
+     */
+    def getAccountV4(String id) {
+        context.setProperty("accountV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AccountV4 Helpers"].testSteps["Get AccountV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AccountV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded accountV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccountV4(def accountV4, Map expected) {
+        assertNotNull(accountV4)
+        expected.each { key, value ->
+            assert accountV4[key] == value : "AccountV4 field $key was ${accountV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !accountV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccountV4s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List AccountV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accountV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountV4Payload(Map fields) {
+        def payload = [
+            type: "AccountV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AccountV4 payload: $json"
+        return json
+    }
+
+    boolean waitForAccountV4(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def accountV4 = getAccountV4(id)
+            if (accountV4.status == state) {
+                return true
+            }
+            log.info "AccountV4 $id is ${accountV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "AccountV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccountV4s(String prefix) {
+        def removed = 0
+        findAccountV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountV4Id", id)
+                testRunner.runTestStepByName("Delete AccountV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccountV4s", removed.toString())
+        return removed
+    }
+
+    String accountV4Reference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccountV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AccountV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PayeeV4 Lookup" step and return the parsed payeeV4.
+     */
+    def getPayeeV4(String id) {
+        context.setProperty("payeeV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PayeeV4 Helpers"].testSteps["Get PayeeV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PayeeV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payeeV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayeeV4(def payeeV4, Map expected) {
+        assertNotNull(payeeV4)
+        expected.each { key, value ->
+            assert payeeV4[key] == value : "PayeeV4 field $key was ${payeeV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payeeV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayeeV4s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PayeeV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payeeV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeeV4Payload(Map fields) {
+        def payload = [
+            type: "PayeeV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PayeeV4 payload: $json"
+        return json
+    }
+
+    boolean waitForPayeeV4(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def payeeV4 = getPayeeV4(id)
+            if (payeeV4.status == state) {
+                return true
+            }
+            log.info "PayeeV4 $id is ${payeeV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "PayeeV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayeeV4s(String prefix) {
+        def removed = 0
+        findPayeeV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeV4Id", id)
+                testRunner.runTestStepByName("Delete PayeeV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayeeV4s", removed.toString())
+        return removed
+    }
+
+    String payeeV4Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayeeV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PayeeV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PaymentV4 Lookup" step and return the parsed paymentV4.
+     */
+    def getPaymentV4(String id) {
+        context.setProperty("paymentV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PaymentV4 Helpers"].testSteps["Get PaymentV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PaymentV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded paymentV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePaymentV4(def paymentV4, Map expected) {
+        assertNotNull(paymentV4)
+        expected.each { key, value ->
+            assert paymentV4[key] == value : "PaymentV4 field $key was ${paymentV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !paymentV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPaymentV4s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List PaymentV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} paymentV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentV4Payload(Map fields) {
+        def payload = [
+            type: "PaymentV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PaymentV4 payload: $json"
+        return json
+    }
+
+    boolean waitForPaymentV4(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def paymentV4 = getPaymentV4(id)
+            if (paymentV4.status == state) {
+                return true
+            }
+            log.info "PaymentV4 $id is ${paymentV4.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "PaymentV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPaymentV4s(String prefix) {
+        def removed = 0
+        findPaymentV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentV4Id", id)
+                testRunner.runTestStepByName("Delete PaymentV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPaymentV4s", removed.toString())
+        return removed
+    }
+
+    String paymentV4Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePaymentV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PaymentV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "TransferV4 Lookup" step and return the parsed transferV4.
+     */
+    def getTransferV4(String id) {
+        context.setProperty("transferV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["TransferV4 Helpers"].testSteps["Get TransferV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get TransferV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transferV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransferV4(def transferV4, Map expected) {
+        assertNotNull(transferV4)
+        expected.each { key, value ->
+            assert transferV4[key] == value : "TransferV4 field $key was ${transferV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transferV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransferV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List TransferV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transferV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferV4Payload(Map fields) {
+        def payload = [
+            type: "TransferV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "TransferV4 payload: $json"
+        return json
+    }
+
+    boolean waitForTransferV4(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def transferV4 = getTransferV4(id)
+            if (transferV4.status == state) {
+                return true
+            }
+            log.info "TransferV4 $id is ${transferV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "TransferV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransferV4s(String prefix) {
+        def removed = 0
+        findTransferV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferV4Id", id)
+                testRunner.runTestStepByName("Delete TransferV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransferV4s", removed.toString())
+        return removed
+    }
+
+    String transferV4Reference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransferV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "TransferV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CardV4 Lookup" step and return the parsed cardV4.
+     */
+    def getCardV4(String id) {
+        context.setProperty("cardV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CardV4 Helpers"].testSteps["Get CardV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CardV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cardV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCardV4(def cardV4, Map expected) {
+        assertNotNull(cardV4)
+        expected.each { key, value ->
+            assert cardV4[key] == value : "CardV4 field $key was ${cardV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cardV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCardV4s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List CardV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cardV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardV4Payload(Map fields) {
+        def payload = [
+            type: "CardV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CardV4 payload: $json"
+        return json
+    }
+
+    boolean waitForCardV4(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def cardV4 = getCardV4(id)
+            if (cardV4.status == state) {
+                return true
+            }
+            log.info "CardV4 $id is ${cardV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CardV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCardV4s(String prefix) {
+        def removed = 0
+        findCardV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardV4Id", id)
+                testRunner.runTestStepByName("Delete CardV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCardV4s", removed.toString())
+        return removed
+    }
+
+    String cardV4Reference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCardV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CardV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "StatementV4 Lookup" step and return the parsed statementV4.
+     */
+    def getStatementV4(String id) {
+        context.setProperty("statementV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["StatementV4 Helpers"].testSteps["Get StatementV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get StatementV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statementV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatementV4(def statementV4, Map expected) {
+        assertNotNull(statementV4)
+        expected.each { key, value ->
+            assert statementV4[key] == value : "StatementV4 field $key was ${statementV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statementV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatementV4s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List StatementV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statementV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementV4Payload(Map fields) {
+        def payload = [
+            type: "StatementV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "StatementV4 payload: $json"
+        return json
+    }
+
+    boolean waitForStatementV4(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def statementV4 = getStatementV4(id)
+            if (statementV4.status == state) {
+                return true
+            }
+            log.info "StatementV4 $id is ${statementV4.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "StatementV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatementV4s(String prefix) {
+        def removed = 0
+        findStatementV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementV4Id", id)
+                testRunner.runTestStepByName("Delete StatementV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatementV4s", removed.toString())
+        return removed
+    }
+
+    String statementV4Reference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatementV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "StatementV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CustomerV4 Lookup" step and return the parsed customerV4.
+     */
+    def getCustomerV4(String id) {
+        context.setProperty("customerV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CustomerV4 Helpers"].testSteps["Get CustomerV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CustomerV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customerV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomerV4(def customerV4, Map expected) {
+        assertNotNull(customerV4)
+        expected.each { key, value ->
+            assert customerV4[key] == value : "CustomerV4 field $key was ${customerV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customerV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomerV4s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List CustomerV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customerV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerV4Payload(Map fields) {
+        def payload = [
+            type: "CustomerV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CustomerV4 payload: $json"
+        return json
+    }
+
+    boolean waitForCustomerV4(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def customerV4 = getCustomerV4(id)
+            if (customerV4.status == state) {
+                return true
+            }
+            log.info "CustomerV4 $id is ${customerV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "CustomerV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomerV4s(String prefix) {
+        def removed = 0
+        findCustomerV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerV4Id", id)
+                testRunner.runTestStepByName("Delete CustomerV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomerV4s", removed.toString())
+        return removed
+    }
+
+    String customerV4Reference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomerV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CustomerV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AlertV4 Lookup" step and return the parsed alertV4.
+     */
+    def getAlertV4(String id) {
+        context.setProperty("alertV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AlertV4 Helpers"].testSteps["Get AlertV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AlertV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alertV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlertV4(def alertV4, Map expected) {
+        assertNotNull(alertV4)
+        expected.each { key, value ->
+            assert alertV4[key] == value : "AlertV4 field $key was ${alertV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alertV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlertV4s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List AlertV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alertV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertV4Payload(Map fields) {
+        def payload = [
+            type: "AlertV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AlertV4 payload: $json"
+        return json
+    }
+
+    boolean waitForAlertV4(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def alertV4 = getAlertV4(id)
+            if (alertV4.status == state) {
+                return true
+            }
+            log.info "AlertV4 $id is ${alertV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "AlertV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlertV4s(String prefix) {
+        def removed = 0
+        findAlertV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertV4Id", id)
+                testRunner.runTestStepByName("Delete AlertV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlertV4s", removed.toString())
+        return removed
+    }
+
+    String alertV4Reference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlertV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AlertV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LimitV4 Lookup" step and return the parsed limitV4.
+     */
+    def getLimitV4(String id) {
+        context.setProperty("limitV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LimitV4 Helpers"].testSteps["Get LimitV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LimitV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limitV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimitV4(def limitV4, Map expected) {
+        assertNotNull(limitV4)
+        expected.each { key, value ->
+            assert limitV4[key] == value : "LimitV4 field $key was ${limitV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limitV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimitV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List LimitV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limitV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitV4Payload(Map fields) {
+        def payload = [
+            type: "LimitV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LimitV4 payload: $json"
+        return json
+    }
+
+    boolean waitForLimitV4(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def limitV4 = getLimitV4(id)
+            if (limitV4.status == state) {
+                return true
+            }
+            log.info "LimitV4 $id is ${limitV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LimitV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimitV4s(String prefix) {
+        def removed = 0
+        findLimitV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitV4Id", id)
+                testRunner.runTestStepByName("Delete LimitV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimitV4s", removed.toString())
+        return removed
+    }
+
+    String limitV4Reference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimitV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LimitV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DeviceV4 Lookup" step and return the parsed deviceV4.
+     */
+    def getDeviceV4(String id) {
+        context.setProperty("deviceV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DeviceV4 Helpers"].testSteps["Get DeviceV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DeviceV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deviceV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeviceV4(def deviceV4, Map expected) {
+        assertNotNull(deviceV4)
+        expected.each { key, value ->
+            assert deviceV4[key] == value : "DeviceV4 field $key was ${deviceV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deviceV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeviceV4s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List DeviceV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deviceV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDeviceV4Payload(Map fields) {
+        def payload = [
+            type: "DeviceV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DeviceV4 payload: $json"
+        return json
+    }
+
+    boolean waitForDeviceV4(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def deviceV4 = getDeviceV4(id)
+            if (deviceV4.status == state) {
+                return true
+            }
+            log.info "DeviceV4 $id is ${deviceV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DeviceV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeviceV4s(String prefix) {
+        def removed = 0
+        findDeviceV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceV4Id", id)
+                testRunner.runTestStepByName("Delete DeviceV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeviceV4s", removed.toString())
+        return removed
+    }
+
+    String deviceV4Reference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeviceV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DeviceV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "SessionV4 Lookup" step and return the parsed sessionV4.
+     */
+    def getSessionV4(String id) {
+        context.setProperty("sessionV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["SessionV4 Helpers"].testSteps["Get SessionV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get SessionV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded sessionV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSessionV4(def sessionV4, Map expected) {
+        assertNotNull(sessionV4)
+        expected.each { key, value ->
+            assert sessionV4[key] == value : "SessionV4 field $key was ${sessionV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !sessionV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessionV4s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List SessionV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessionV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionV4Payload(Map fields) {
+        def payload = [
+            type: "SessionV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "SessionV4 payload: $json"
+        return json
+    }
+
+    boolean waitForSessionV4(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def sessionV4 = getSessionV4(id)
+            if (sessionV4.status == state) {
+                return true
+            }
+            log.info "SessionV4 $id is ${sessionV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "SessionV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessionV4s(String prefix) {
+        def removed = 0
+        findSessionV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionV4Id", id)
+                testRunner.runTestStepByName("Delete SessionV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessionV4s", removed.toString())
+        return removed
+    }
+
+    String sessionV4Reference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessionV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "SessionV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LoanV4 Lookup" step and return the parsed loanV4.
+     */
+    def getLoanV4(String id) {
+        context.setProperty("loanV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LoanV4 Helpers"].testSteps["Get LoanV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LoanV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loanV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoanV4(def loanV4, Map expected) {
+        assertNotNull(loanV4)
+        expected.each { key, value ->
+            assert loanV4[key] == value : "LoanV4 field $key was ${loanV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loanV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoanV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List LoanV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loanV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanV4Payload(Map fields) {
+        def payload = [
+            type: "LoanV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LoanV4 payload: $json"
+        return json
+    }
+
+    boolean waitForLoanV4(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def loanV4 = getLoanV4(id)
+            if (loanV4.status == state) {
+                return true
+            }
+            log.info "LoanV4 $id is ${loanV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LoanV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoanV4s(String prefix) {
+        def removed = 0
+        findLoanV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanV4Id", id)
+                testRunner.runTestStepByName("Delete LoanV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoanV4s", removed.toString())
+        return removed
+    }
+
+    String loanV4Reference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoanV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LoanV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "MortgageV4 Lookup" step and return the parsed mortgageV4.
+     */
+    def getMortgageV4(String id) {
+        context.setProperty("mortgageV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["MortgageV4 Helpers"].testSteps["Get MortgageV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get MortgageV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgageV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgageV4(def mortgageV4, Map expected) {
+        assertNotNull(mortgageV4)
+        expected.each { key, value ->
+            assert mortgageV4[key] == value : "MortgageV4 field $key was ${mortgageV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgageV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgageV4s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List MortgageV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgageV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgageV4Payload(Map fields) {
+        def payload = [
+            type: "MortgageV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "MortgageV4 payload: $json"
+        return json
+    }
+
+    boolean waitForMortgageV4(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgageV4 = getMortgageV4(id)
+            if (mortgageV4.status == state) {
+                return true
+            }
+            log.info "MortgageV4 $id is ${mortgageV4.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "MortgageV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgageV4s(String prefix) {
+        def removed = 0
+        findMortgageV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageV4Id", id)
+                testRunner.runTestStepByName("Delete MortgageV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgageV4s", removed.toString())
+        return removed
+    }
+
+    String mortgageV4Reference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgageV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "MortgageV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DepositV4 Lookup" step and return the parsed depositV4.
+     */
+    def getDepositV4(String id) {
+        context.setProperty("depositV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DepositV4 Helpers"].testSteps["Get DepositV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DepositV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded depositV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDepositV4(def depositV4, Map expected) {
+        assertNotNull(depositV4)
+        expected.each { key, value ->
+            assert depositV4[key] == value : "DepositV4 field $key was ${depositV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !depositV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDepositV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List DepositV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} depositV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositV4Payload(Map fields) {
+        def payload = [
+            type: "DepositV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DepositV4 payload: $json"
+        return json
+    }
+
+    boolean waitForDepositV4(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def depositV4 = getDepositV4(id)
+            if (depositV4.status == state) {
+                return true
+            }
+            log.info "DepositV4 $id is ${depositV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DepositV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDepositV4s(String prefix) {
+        def removed = 0
+        findDepositV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositV4Id", id)
+                testRunner.runTestStepByName("Delete DepositV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDepositV4s", removed.toString())
+        return removed
+    }
+
+    String depositV4Reference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDepositV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DepositV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ChequeV4 Lookup" step and return the parsed chequeV4.
+     */
+    def getChequeV4(String id) {
+        context.setProperty("chequeV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ChequeV4 Helpers"].testSteps["Get ChequeV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ChequeV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded chequeV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateChequeV4(def chequeV4, Map expected) {
+        assertNotNull(chequeV4)
+        expected.each { key, value ->
+            assert chequeV4[key] == value : "ChequeV4 field $key was ${chequeV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !chequeV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findChequeV4s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List ChequeV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} chequeV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequeV4Payload(Map fields) {
+        def payload = [
+            type: "ChequeV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ChequeV4 payload: $json"
+        return json
+    }
+
+    boolean waitForChequeV4(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def chequeV4 = getChequeV4(id)
+            if (chequeV4.status == state) {
+                return true
+            }
+            log.info "ChequeV4 $id is ${chequeV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "ChequeV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpChequeV4s(String prefix) {
+        def removed = 0
+        findChequeV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeV4Id", id)
+                testRunner.runTestStepByName("Delete ChequeV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedChequeV4s", removed.toString())
+        return removed
+    }
+
+    String chequeV4Reference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareChequeV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ChequeV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "RateV4 Lookup" step and return the parsed rateV4.
+     */
+    def getRateV4(String id) {
+        context.setProperty("rateV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["RateV4 Helpers"].testSteps["Get RateV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get RateV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rateV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRateV4(def rateV4, Map expected) {
+        assertNotNull(rateV4)
+        expected.each { key, value ->
+            assert rateV4[key] == value : "RateV4 field $key was ${rateV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rateV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRateV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List RateV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rateV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRateV4Payload(Map fields) {
+        def payload = [
+            type: "RateV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "RateV4 payload: $json"
+        return json
+    }
+
+    boolean waitForRateV4(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def rateV4 = getRateV4(id)
+            if (rateV4.status == state) {
+                return true
+            }
+            log.info "RateV4 $id is ${rateV4.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "RateV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpRateV4s(String prefix) {
+        def removed = 0
+        findRateV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateV4Id", id)
+                testRunner.runTestStepByName("Delete RateV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRateV4s", removed.toString())
+        return removed
+    }
+
+    String rateV4Reference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRateV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "RateV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "BranchV4 Lookup" step and return the parsed branchV4.
+     */
+    def getBranchV4(String id) {
+        context.setProperty("branchV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["BranchV4 Helpers"].testSteps["Get BranchV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get BranchV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branchV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranchV4(def branchV4, Map expected) {
+        assertNotNull(branchV4)
+        expected.each { key, value ->
+            assert branchV4[key] == value : "BranchV4 field $key was ${branchV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branchV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchV4s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List BranchV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchV4Payload(Map fields) {
+        def payload = [
+            type: "BranchV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "BranchV4 payload: $json"
+        return json
+    }
+
+    boolean waitForBranchV4(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def branchV4 = getBranchV4(id)
+            if (branchV4.status == state) {
+                return true
+            }
+            log.info "BranchV4 $id is ${branchV4.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "BranchV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchV4s(String prefix) {
+        def removed = 0
+        findBranchV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchV4Id", id)
+                testRunner.runTestStepByName("Delete BranchV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchV4s", removed.toString())
+        return removed
+    }
+
+    String branchV4Reference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "BranchV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DocumentV4 Lookup" step and return the parsed documentV4.
+     */
+    def getDocumentV4(String id) {
+        context.setProperty("documentV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DocumentV4 Helpers"].testSteps["Get DocumentV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DocumentV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded documentV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocumentV4(def documentV4, Map expected) {
+        assertNotNull(documentV4)
+        expected.each { key, value ->
+            assert documentV4[key] == value : "DocumentV4 field $key was ${documentV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !documentV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocumentV4s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List DocumentV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documentV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentV4Payload(Map fields) {
+        def payload = [
+            type: "DocumentV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DocumentV4 payload: $json"
+        return json
+    }
+
+    boolean waitForDocumentV4(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def documentV4 = getDocumentV4(id)
+            if (documentV4.status == state) {
+                return true
+            }
+            log.info "DocumentV4 $id is ${documentV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DocumentV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocumentV4s(String prefix) {
+        def removed = 0
+        findDocumentV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentV4Id", id)
+                testRunner.runTestStepByName("Delete DocumentV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocumentV4s", removed.toString())
+        return removed
+    }
+
+    String documentV4Reference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocumentV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DocumentV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ConsentV4 Lookup" step and return the parsed consentV4.
+     */
+    def getConsentV4(String id) {
+        context.setProperty("consentV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ConsentV4 Helpers"].testSteps["Get ConsentV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ConsentV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consentV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsentV4(def consentV4, Map expected) {
+        assertNotNull(consentV4)
+        expected.each { key, value ->
+            assert consentV4[key] == value : "ConsentV4 field $key was ${consentV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consentV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsentV4s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List ConsentV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consentV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentV4Payload(Map fields) {
+        def payload = [
+            type: "ConsentV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ConsentV4 payload: $json"
+        return json
+    }
+
+    boolean waitForConsentV4(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def consentV4 = getConsentV4(id)
+            if (consentV4.status == state) {
+                return true
+            }
+            log.info "ConsentV4 $id is ${consentV4.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "ConsentV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsentV4s(String prefix) {
+        def removed = 0
+        findConsentV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentV4Id", id)
+                testRunner.runTestStepByName("Delete ConsentV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsentV4s", removed.toString())
+        return removed
+    }
+
+    String consentV4Reference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsentV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ConsentV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ProfileV4 Lookup" step and return the parsed profileV4.
+     */
+    def getProfileV4(String id) {
+        context.setProperty("profileV4Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ProfileV4 Helpers"].testSteps["Get ProfileV4"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ProfileV4 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profileV4 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfileV4(def profileV4, Map expected) {
+        assertNotNull(profileV4)
+        expected.each { key, value ->
+            assert profileV4[key] == value : "ProfileV4 field $key was ${profileV4[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profileV4.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfileV4s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List ProfileV4s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profileV4s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfileV4Payload(Map fields) {
+        def payload = [
+            type: "ProfileV4",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ProfileV4 payload: $json"
+        return json
+    }
+
+    boolean waitForProfileV4(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def profileV4 = getProfileV4(id)
+            if (profileV4.status == state) {
+                return true
+            }
+            log.info "ProfileV4 $id is ${profileV4.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "ProfileV4 $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfileV4s(String prefix) {
+        def removed = 0
+        findProfileV4s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileV4Id", id)
+                testRunner.runTestStepByName("Delete ProfileV4")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfileV4s", removed.toString())
+        return removed
+    }
+
+    String profileV4Reference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfileV4s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ProfileV4 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AccountV5 Lookup" step and return the parsed accountV5.
+     */
+    def getAccountV5(String id) {
+        context.setProperty("accountV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AccountV5 Helpers"].testSteps["Get AccountV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AccountV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded accountV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccountV5(def accountV5, Map expected) {
+        assertNotNull(accountV5)
+        expected.each { key, value ->
+            assert accountV5[key] == value : "AccountV5 field $key was ${accountV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !accountV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccountV5s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List AccountV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accountV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountV5Payload(Map fields) {
+        def payload = [
+            type: "AccountV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AccountV5 payload: $json"
+        return json
+    }
+
+    boolean waitForAccountV5(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def accountV5 = getAccountV5(id)
+            if (accountV5.status == state) {
+                return true
+            }
+            log.info "AccountV5 $id is ${accountV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "AccountV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccountV5s(String prefix) {
+        def removed = 0
+        findAccountV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountV5Id", id)
+                testRunner.runTestStepByName("Delete AccountV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccountV5s", removed.toString())
+        return removed
+    }
+
+    String accountV5Reference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccountV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AccountV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PayeeV5 Lookup" step and return the parsed payeeV5.
+     */
+    def getPayeeV5(String id) {
+        context.setProperty("payeeV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PayeeV5 Helpers"].testSteps["Get PayeeV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PayeeV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payeeV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayeeV5(def payeeV5, Map expected) {
+        assertNotNull(payeeV5)
+        expected.each { key, value ->
+            assert payeeV5[key] == value : "PayeeV5 field $key was ${payeeV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payeeV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayeeV5s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List PayeeV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payeeV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeeV5Payload(Map fields) {
+        def payload = [
+            type: "PayeeV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PayeeV5 payload: $json"
+        return json
+    }
+
+    boolean waitForPayeeV5(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def payeeV5 = getPayeeV5(id)
+            if (payeeV5.status == state) {
+                return true
+            }
+            log.info "PayeeV5 $id is ${payeeV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "PayeeV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayeeV5s(String prefix) {
+        def removed = 0
+        findPayeeV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeV5Id", id)
+                testRunner.runTestStepByName("Delete PayeeV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayeeV5s", removed.toString())
+        return removed
+    }
+
+    String payeeV5Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayeeV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PayeeV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PaymentV5 Lookup" step and return the parsed paymentV5.
+     */
+    def getPaymentV5(String id) {
+        context.setProperty("paymentV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PaymentV5 Helpers"].testSteps["Get PaymentV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PaymentV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded paymentV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePaymentV5(def paymentV5, Map expected) {
+        assertNotNull(paymentV5)
+        expected.each { key, value ->
+            assert paymentV5[key] == value : "PaymentV5 field $key was ${paymentV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !paymentV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPaymentV5s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PaymentV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} paymentV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentV5Payload(Map fields) {
+        def payload = [
+            type: "PaymentV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PaymentV5 payload: $json"
+        return json
+    }
+
+    boolean waitForPaymentV5(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def paymentV5 = getPaymentV5(id)
+            if (paymentV5.status == state) {
+                return true
+            }
+            log.info "PaymentV5 $id is ${paymentV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "PaymentV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPaymentV5s(String prefix) {
+        def removed = 0
+        findPaymentV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentV5Id", id)
+                testRunner.runTestStepByName("Delete PaymentV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPaymentV5s", removed.toString())
+        return removed
+    }
+
+    String paymentV5Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePaymentV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PaymentV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "TransferV5 Lookup" step and return the parsed transferV5.
+     */
+    def getTransferV5(String id) {
+        context.setProperty("transferV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["TransferV5 Helpers"].testSteps["Get TransferV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get TransferV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transferV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransferV5(def transferV5, Map expected) {
+        assertNotNull(transferV5)
+        expected.each { key, value ->
+            assert transferV5[key] == value : "TransferV5 field $key was ${transferV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transferV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransferV5s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List TransferV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transferV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferV5Payload(Map fields) {
+        def payload = [
+            type: "TransferV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "TransferV5 payload: $json"
+        return json
+    }
+
+    boolean waitForTransferV5(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def transferV5 = getTransferV5(id)
+            if (transferV5.status == state) {
+                return true
+            }
+            log.info "TransferV5 $id is ${transferV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "TransferV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransferV5s(String prefix) {
+        def removed = 0
+        findTransferV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferV5Id", id)
+                testRunner.runTestStepByName("Delete TransferV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransferV5s", removed.toString())
+        return removed
+    }
+
+    String transferV5Reference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransferV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "TransferV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CardV5 Lookup" step and return the parsed cardV5.
+     */
+    def getCardV5(String id) {
+        context.setProperty("cardV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CardV5 Helpers"].testSteps["Get CardV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CardV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cardV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCardV5(def cardV5, Map expected) {
+        assertNotNull(cardV5)
+        expected.each { key, value ->
+            assert cardV5[key] == value : "CardV5 field $key was ${cardV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cardV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCardV5s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List CardV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cardV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardV5Payload(Map fields) {
+        def payload = [
+            type: "CardV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CardV5 payload: $json"
+        return json
+    }
+
+    boolean waitForCardV5(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def cardV5 = getCardV5(id)
+            if (cardV5.status == state) {
+                return true
+            }
+            log.info "CardV5 $id is ${cardV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "CardV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCardV5s(String prefix) {
+        def removed = 0
+        findCardV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardV5Id", id)
+                testRunner.runTestStepByName("Delete CardV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCardV5s", removed.toString())
+        return removed
+    }
+
+    String cardV5Reference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCardV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CardV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "StatementV5 Lookup" step and return the parsed statementV5.
+     */
+    def getStatementV5(String id) {
+        context.setProperty("statementV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["StatementV5 Helpers"].testSteps["Get StatementV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get StatementV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statementV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatementV5(def statementV5, Map expected) {
+        assertNotNull(statementV5)
+        expected.each { key, value ->
+            assert statementV5[key] == value : "StatementV5 field $key was ${statementV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statementV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatementV5s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List StatementV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statementV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementV5Payload(Map fields) {
+        def payload = [
+            type: "StatementV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "StatementV5 payload: $json"
+        return json
+    }
+
+    boolean waitForStatementV5(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def statementV5 = getStatementV5(id)
+            if (statementV5.status == state) {
+                return true
+            }
+            log.info "StatementV5 $id is ${statementV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "StatementV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatementV5s(String prefix) {
+        def removed = 0
+        findStatementV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementV5Id", id)
+                testRunner.runTestStepByName("Delete StatementV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatementV5s", removed.toString())
+        return removed
+    }
+
+    String statementV5Reference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatementV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "StatementV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CustomerV5 Lookup" step and return the parsed customerV5.
+     */
+    def getCustomerV5(String id) {
+        context.setProperty("customerV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CustomerV5 Helpers"].testSteps["Get CustomerV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CustomerV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customerV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomerV5(def customerV5, Map expected) {
+        assertNotNull(customerV5)
+        expected.each { key, value ->
+            assert customerV5[key] == value : "CustomerV5 field $key was ${customerV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customerV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomerV5s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List CustomerV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customerV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerV5Payload(Map fields) {
+        def payload = [
+            type: "CustomerV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CustomerV5 payload: $json"
+        return json
+    }
+
+    boolean waitForCustomerV5(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def customerV5 = getCustomerV5(id)
+            if (customerV5.status == state) {
+                return true
+            }
+            log.info "CustomerV5 $id is ${customerV5.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CustomerV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomerV5s(String prefix) {
+        def removed = 0
+        findCustomerV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerV5Id", id)
+                testRunner.runTestStepByName("Delete CustomerV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomerV5s", removed.toString())
+        return removed
+    }
+
+    String customerV5Reference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomerV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CustomerV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AlertV5 Lookup" step and return the parsed alertV5.
+     */
+    def getAlertV5(String id) {
+        context.setProperty("alertV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AlertV5 Helpers"].testSteps["Get AlertV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AlertV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alertV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlertV5(def alertV5, Map expected) {
+        assertNotNull(alertV5)
+        expected.each { key, value ->
+            assert alertV5[key] == value : "AlertV5 field $key was ${alertV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alertV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlertV5s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List AlertV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alertV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertV5Payload(Map fields) {
+        def payload = [
+            type: "AlertV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AlertV5 payload: $json"
+        return json
+    }
+
+    boolean waitForAlertV5(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def alertV5 = getAlertV5(id)
+            if (alertV5.status == state) {
+                return true
+            }
+            log.info "AlertV5 $id is ${alertV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "AlertV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlertV5s(String prefix) {
+        def removed = 0
+        findAlertV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertV5Id", id)
+                testRunner.runTestStepByName("Delete AlertV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlertV5s", removed.toString())
+        return removed
+    }
+
+    String alertV5Reference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlertV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AlertV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LimitV5 Lookup" step and return the parsed limitV5.
+     */
+    def getLimitV5(String id) {
+        context.setProperty("limitV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LimitV5 Helpers"].testSteps["Get LimitV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LimitV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limitV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimitV5(def limitV5, Map expected) {
+        assertNotNull(limitV5)
+        expected.each { key, value ->
+            assert limitV5[key] == value : "LimitV5 field $key was ${limitV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limitV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimitV5s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List LimitV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limitV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitV5Payload(Map fields) {
+        def payload = [
+            type: "LimitV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LimitV5 payload: $json"
+        return json
+    }
+
+    boolean waitForLimitV5(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def limitV5 = getLimitV5(id)
+            if (limitV5.status == state) {
+                return true
+            }
+            log.info "LimitV5 $id is ${limitV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LimitV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimitV5s(String prefix) {
+        def removed = 0
+        findLimitV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitV5Id", id)
+                testRunner.runTestStepByName("Delete LimitV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimitV5s", removed.toString())
+        return removed
+    }
+
+    String limitV5Reference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimitV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LimitV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DeviceV5 Lookup" step and return the parsed deviceV5.
+     */
+    def getDeviceV5(String id) {
+        context.setProperty("deviceV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DeviceV5 Helpers"].testSteps["Get DeviceV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DeviceV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deviceV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeviceV5(def deviceV5, Map expected) {
+        assertNotNull(deviceV5)
+        expected.each { key, value ->
+            assert deviceV5[key] == value : "DeviceV5 field $key was ${deviceV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deviceV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeviceV5s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List DeviceV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deviceV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDeviceV5Payload(Map fields) {
+        def payload = [
+            type: "DeviceV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DeviceV5 payload: $json"
+        return json
+    }
+
+    boolean waitForDeviceV5(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def deviceV5 = getDeviceV5(id)
+            if (deviceV5.status == state) {
+                return true
+            }
+            log.info "DeviceV5 $id is ${deviceV5.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DeviceV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeviceV5s(String prefix) {
+        def removed = 0
+        findDeviceV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceV5Id", id)
+                testRunner.runTestStepByName("Delete DeviceV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeviceV5s", removed.toString())
+        return removed
+    }
+
+    String deviceV5Reference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeviceV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DeviceV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "SessionV5 Lookup" step and return the parsed sessionV5.
+     */
+    def getSessionV5(String id) {
+        context.setProperty("sessionV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["SessionV5 Helpers"].testSteps["Get SessionV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get SessionV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded sessionV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSessionV5(def sessionV5, Map expected) {
+        assertNotNull(sessionV5)
+        expected.each { key, value ->
+            assert sessionV5[key] == value : "SessionV5 field $key was ${sessionV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !sessionV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessionV5s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List SessionV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessionV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionV5Payload(Map fields) {
+        def payload = [
+            type: "SessionV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "SessionV5 payload: $json"
+        return json
+    }
+
+    boolean waitForSessionV5(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def sessionV5 = getSessionV5(id)
+            if (sessionV5.status == state) {
+                return true
+            }
+            log.info "SessionV5 $id is ${sessionV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "SessionV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessionV5s(String prefix) {
+        def removed = 0
+        findSessionV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionV5Id", id)
+                testRunner.runTestStepByName("Delete SessionV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessionV5s", removed.toString())
+        return removed
+    }
+
+    String sessionV5Reference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessionV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "SessionV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LoanV5 Lookup" step and return the parsed loanV5.
+     */
+    def getLoanV5(String id) {
+        context.setProperty("loanV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LoanV5 Helpers"].testSteps["Get LoanV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LoanV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loanV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoanV5(def loanV5, Map expected) {
+        assertNotNull(loanV5)
+        expected.each { key, value ->
+            assert loanV5[key] == value : "LoanV5 field $key was ${loanV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loanV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoanV5s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List LoanV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loanV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanV5Payload(Map fields) {
+        def payload = [
+            type: "LoanV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LoanV5 payload: $json"
+        return json
+    }
+
+    boolean waitForLoanV5(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def loanV5 = getLoanV5(id)
+            if (loanV5.status == state) {
+                return true
+            }
+            log.info "LoanV5 $id is ${loanV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LoanV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoanV5s(String prefix) {
+        def removed = 0
+        findLoanV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanV5Id", id)
+                testRunner.runTestStepByName("Delete LoanV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoanV5s", removed.toString())
+        return removed
+    }
+
+    String loanV5Reference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoanV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LoanV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "MortgageV5 Lookup" step and return the parsed mortgageV5.
+     */
+    def getMortgageV5(String id) {
+        context.setProperty("mortgageV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["MortgageV5 Helpers"].testSteps["Get MortgageV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get MortgageV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgageV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgageV5(def mortgageV5, Map expected) {
+        assertNotNull(mortgageV5)
+        expected.each { key, value ->
+            assert mortgageV5[key] == value : "MortgageV5 field $key was ${mortgageV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgageV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgageV5s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List MortgageV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgageV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgageV5Payload(Map fields) {
+        def payload = [
+            type: "MortgageV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "MortgageV5 payload: $json"
+        return json
+    }
+
+    boolean waitForMortgageV5(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgageV5 = getMortgageV5(id)
+            if (mortgageV5.status == state) {
+                return true
+            }
+            log.info "MortgageV5 $id is ${mortgageV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "MortgageV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgageV5s(String prefix) {
+        def removed = 0
+        findMortgageV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageV5Id", id)
+                testRunner.runTestStepByName("Delete MortgageV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgageV5s", removed.toString())
+        return removed
+    }
+
+    String mortgageV5Reference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgageV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "MortgageV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DepositV5 Lookup" step and return the parsed depositV5.
+     */
+    def getDepositV5(String id) {
+        context.setProperty("depositV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DepositV5 Helpers"].testSteps["Get DepositV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DepositV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded depositV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDepositV5(def depositV5, Map expected) {
+        assertNotNull(depositV5)
+        expected.each { key, value ->
+            assert depositV5[key] == value : "DepositV5 field $key was ${depositV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !depositV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDepositV5s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List DepositV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} depositV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositV5Payload(Map fields) {
+        def payload = [
+            type: "DepositV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DepositV5 payload: $json"
+        return json
+    }
+
+    boolean waitForDepositV5(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def depositV5 = getDepositV5(id)
+            if (depositV5.status == state) {
+                return true
+            }
+            log.info "DepositV5 $id is ${depositV5.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DepositV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDepositV5s(String prefix) {
+        def removed = 0
+        findDepositV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositV5Id", id)
+                testRunner.runTestStepByName("Delete DepositV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDepositV5s", removed.toString())
+        return removed
+    }
+
+    String depositV5Reference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDepositV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DepositV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ChequeV5 Lookup" step and return the parsed chequeV5.
+     */
+    def getChequeV5(String id) {
+        context.setProperty("chequeV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ChequeV5 Helpers"].testSteps["Get ChequeV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ChequeV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded chequeV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateChequeV5(def chequeV5, Map expected) {
+        assertNotNull(chequeV5)
+        expected.each { key, value ->
+            assert chequeV5[key] == value : "ChequeV5 field $key was ${chequeV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !chequeV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findChequeV5s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List ChequeV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} chequeV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequeV5Payload(Map fields) {
+        def payload = [
+            type: "ChequeV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ChequeV5 payload: $json"
+        return json
+    }
+
+    boolean waitForChequeV5(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def chequeV5 = getChequeV5(id)
+            if (chequeV5.status == state) {
+                return true
+            }
+            log.info "ChequeV5 $id is ${chequeV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ChequeV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpChequeV5s(String prefix) {
+        def removed = 0
+        findChequeV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeV5Id", id)
+                testRunner.runTestStepByName("Delete ChequeV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedChequeV5s", removed.toString())
+        return removed
+    }
+
+    String chequeV5Reference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareChequeV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ChequeV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "RateV5 Lookup" step and return the parsed rateV5.
+     */
+    def getRateV5(String id) {
+        context.setProperty("rateV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["RateV5 Helpers"].testSteps["Get RateV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get RateV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rateV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRateV5(def rateV5, Map expected) {
+        assertNotNull(rateV5)
+        expected.each { key, value ->
+            assert rateV5[key] == value : "RateV5 field $key was ${rateV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rateV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRateV5s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List RateV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rateV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRateV5Payload(Map fields) {
+        def payload = [
+            type: "RateV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "RateV5 payload: $json"
+        return json
+    }
+
+    boolean waitForRateV5(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def rateV5 = getRateV5(id)
+            if (rateV5.status == state) {
+                return true
+            }
+            log.info "RateV5 $id is ${rateV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "RateV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpRateV5s(String prefix) {
+        def removed = 0
+        findRateV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateV5Id", id)
+                testRunner.runTestStepByName("Delete RateV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRateV5s", removed.toString())
+        return removed
+    }
+
+    String rateV5Reference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRateV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "RateV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "BranchV5 Lookup" step and return the parsed branchV5.
+     */
+    def getBranchV5(String id) {
+        context.setProperty("branchV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["BranchV5 Helpers"].testSteps["Get BranchV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get BranchV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branchV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranchV5(def branchV5, Map expected) {
+        assertNotNull(branchV5)
+        expected.each { key, value ->
+            assert branchV5[key] == value : "BranchV5 field $key was ${branchV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branchV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchV5s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List BranchV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchV5Payload(Map fields) {
+        def payload = [
+            type: "BranchV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "BranchV5 payload: $json"
+        return json
+    }
+
+    boolean waitForBranchV5(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def branchV5 = getBranchV5(id)
+            if (branchV5.status == state) {
+                return true
+            }
+            log.info "BranchV5 $id is ${branchV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "BranchV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchV5s(String prefix) {
+        def removed = 0
+        findBranchV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchV5Id", id)
+                testRunner.runTestStepByName("Delete BranchV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchV5s", removed.toString())
+        return removed
+    }
+
+    String branchV5Reference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "BranchV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DocumentV5 Lookup" step and return the parsed documentV5.
+     */
+    def getDocumentV5(String id) {
+        context.setProperty("documentV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DocumentV5 Helpers"].testSteps["Get DocumentV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DocumentV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded documentV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocumentV5(def documentV5, Map expected) {
+        assertNotNull(documentV5)
+        expected.each { key, value ->
+            assert documentV5[key] == value : "DocumentV5 field $key was ${documentV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !documentV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocumentV5s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List DocumentV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documentV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentV5Payload(Map fields) {
+        def payload = [
+            type: "DocumentV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DocumentV5 payload: $json"
+        return json
+    }
+
+    boolean waitForDocumentV5(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def documentV5 = getDocumentV5(id)
+            if (documentV5.status == state) {
+                return true
+            }
+            log.info "DocumentV5 $id is ${documentV5.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DocumentV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocumentV5s(String prefix) {
+        def removed = 0
+        findDocumentV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentV5Id", id)
+                testRunner.runTestStepByName("Delete DocumentV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocumentV5s", removed.toString())
+        return removed
+    }
+
+    String documentV5Reference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocumentV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DocumentV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ConsentV5 Lookup" step and return the parsed consentV5.
+     */
+    def getConsentV5(String id) {
+        context.setProperty("consentV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ConsentV5 Helpers"].testSteps["Get ConsentV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ConsentV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consentV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsentV5(def consentV5, Map expected) {
+        assertNotNull(consentV5)
+        expected.each { key, value ->
+            assert consentV5[key] == value : "ConsentV5 field $key was ${consentV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consentV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsentV5s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List ConsentV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consentV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentV5Payload(Map fields) {
+        def payload = [
+            type: "ConsentV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ConsentV5 payload: $json"
+        return json
+    }
+
+    boolean waitForConsentV5(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def consentV5 = getConsentV5(id)
+            if (consentV5.status == state) {
+                return true
+            }
+            log.info "ConsentV5 $id is ${consentV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ConsentV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsentV5s(String prefix) {
+        def removed = 0
+        findConsentV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentV5Id", id)
+                testRunner.runTestStepByName("Delete ConsentV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsentV5s", removed.toString())
+        return removed
+    }
+
+    String consentV5Reference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsentV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ConsentV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ProfileV5 Lookup" step and return the parsed profileV5.
+     */
+    def getProfileV5(String id) {
+        context.setProperty("profileV5Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ProfileV5 Helpers"].testSteps["Get ProfileV5"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ProfileV5 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profileV5 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfileV5(def profileV5, Map expected) {
+        assertNotNull(profileV5)
+        expected.each { key, value ->
+            assert profileV5[key] == value : "ProfileV5 field $key was ${profileV5[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profileV5.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfileV5s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List ProfileV5s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profileV5s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfileV5Payload(Map fields) {
+        def payload = [
+            type: "ProfileV5",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ProfileV5 payload: $json"
+        return json
+    }
+
+    boolean waitForProfileV5(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def profileV5 = getProfileV5(id)
+            if (profileV5.status == state) {
+                return true
+            }
+            log.info "ProfileV5 $id is ${profileV5.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ProfileV5 $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfileV5s(String prefix) {
+        def removed = 0
+        findProfileV5s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileV5Id", id)
+                testRunner.runTestStepByName("Delete ProfileV5")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfileV5s", removed.toString())
+        return removed
+    }
+
+    String profileV5Reference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfileV5s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ProfileV5 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AccountV6 Lookup" step and return the parsed accountV6.
+     */
+    def getAccountV6(String id) {
+        context.setProperty("accountV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AccountV6 Helpers"].testSteps["Get AccountV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AccountV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded accountV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAccountV6(def accountV6, Map expected) {
+        assertNotNull(accountV6)
+        expected.each { key, value ->
+            assert accountV6[key] == value : "AccountV6 field $key was ${accountV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !accountV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAccountV6s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List AccountV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} accountV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAccountV6Payload(Map fields) {
+        def payload = [
+            type: "AccountV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AccountV6 payload: $json"
+        return json
+    }
+
+    boolean waitForAccountV6(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def accountV6 = getAccountV6(id)
+            if (accountV6.status == state) {
+                return true
+            }
+            log.info "AccountV6 $id is ${accountV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "AccountV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAccountV6s(String prefix) {
+        def removed = 0
+        findAccountV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("accountV6Id", id)
+                testRunner.runTestStepByName("Delete AccountV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAccountV6s", removed.toString())
+        return removed
+    }
+
+    String accountV6Reference(String env) {
+        def prefix = env == "prod" ? "ACC" : "ACC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAccountV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AccountV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PayeeV6 Lookup" step and return the parsed payeeV6.
+     */
+    def getPayeeV6(String id) {
+        context.setProperty("payeeV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PayeeV6 Helpers"].testSteps["Get PayeeV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PayeeV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded payeeV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePayeeV6(def payeeV6, Map expected) {
+        assertNotNull(payeeV6)
+        expected.each { key, value ->
+            assert payeeV6[key] == value : "PayeeV6 field $key was ${payeeV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !payeeV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPayeeV6s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List PayeeV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} payeeV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPayeeV6Payload(Map fields) {
+        def payload = [
+            type: "PayeeV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PayeeV6 payload: $json"
+        return json
+    }
+
+    boolean waitForPayeeV6(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def payeeV6 = getPayeeV6(id)
+            if (payeeV6.status == state) {
+                return true
+            }
+            log.info "PayeeV6 $id is ${payeeV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "PayeeV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPayeeV6s(String prefix) {
+        def removed = 0
+        findPayeeV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("payeeV6Id", id)
+                testRunner.runTestStepByName("Delete PayeeV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPayeeV6s", removed.toString())
+        return removed
+    }
+
+    String payeeV6Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePayeeV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PayeeV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "PaymentV6 Lookup" step and return the parsed paymentV6.
+     */
+    def getPaymentV6(String id) {
+        context.setProperty("paymentV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["PaymentV6 Helpers"].testSteps["Get PaymentV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get PaymentV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded paymentV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validatePaymentV6(def paymentV6, Map expected) {
+        assertNotNull(paymentV6)
+        expected.each { key, value ->
+            assert paymentV6[key] == value : "PaymentV6 field $key was ${paymentV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !paymentV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findPaymentV6s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List PaymentV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} paymentV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createPaymentV6Payload(Map fields) {
+        def payload = [
+            type: "PaymentV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "PaymentV6 payload: $json"
+        return json
+    }
+
+    boolean waitForPaymentV6(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def paymentV6 = getPaymentV6(id)
+            if (paymentV6.status == state) {
+                return true
+            }
+            log.info "PaymentV6 $id is ${paymentV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "PaymentV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpPaymentV6s(String prefix) {
+        def removed = 0
+        findPaymentV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("paymentV6Id", id)
+                testRunner.runTestStepByName("Delete PaymentV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedPaymentV6s", removed.toString())
+        return removed
+    }
+
+    String paymentV6Reference(String env) {
+        def prefix = env == "prod" ? "PAY" : "PAY-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(900)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def comparePaymentV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "PaymentV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "TransferV6 Lookup" step and return the parsed transferV6.
+     */
+    def getTransferV6(String id) {
+        context.setProperty("transferV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["TransferV6 Helpers"].testSteps["Get TransferV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get TransferV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded transferV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateTransferV6(def transferV6, Map expected) {
+        assertNotNull(transferV6)
+        expected.each { key, value ->
+            assert transferV6[key] == value : "TransferV6 field $key was ${transferV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !transferV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findTransferV6s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List TransferV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} transferV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createTransferV6Payload(Map fields) {
+        def payload = [
+            type: "TransferV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "TransferV6 payload: $json"
+        return json
+    }
+
+    boolean waitForTransferV6(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def transferV6 = getTransferV6(id)
+            if (transferV6.status == state) {
+                return true
+            }
+            log.info "TransferV6 $id is ${transferV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "TransferV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpTransferV6s(String prefix) {
+        def removed = 0
+        findTransferV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("transferV6Id", id)
+                testRunner.runTestStepByName("Delete TransferV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedTransferV6s", removed.toString())
+        return removed
+    }
+
+    String transferV6Reference(String env) {
+        def prefix = env == "prod" ? "TRA" : "TRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareTransferV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "TransferV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CardV6 Lookup" step and return the parsed cardV6.
+     */
+    def getCardV6(String id) {
+        context.setProperty("cardV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CardV6 Helpers"].testSteps["Get CardV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CardV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded cardV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCardV6(def cardV6, Map expected) {
+        assertNotNull(cardV6)
+        expected.each { key, value ->
+            assert cardV6[key] == value : "CardV6 field $key was ${cardV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !cardV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCardV6s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List CardV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} cardV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCardV6Payload(Map fields) {
+        def payload = [
+            type: "CardV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CardV6 payload: $json"
+        return json
+    }
+
+    boolean waitForCardV6(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def cardV6 = getCardV6(id)
+            if (cardV6.status == state) {
+                return true
+            }
+            log.info "CardV6 $id is ${cardV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "CardV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCardV6s(String prefix) {
+        def removed = 0
+        findCardV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("cardV6Id", id)
+                testRunner.runTestStepByName("Delete CardV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCardV6s", removed.toString())
+        return removed
+    }
+
+    String cardV6Reference(String env) {
+        def prefix = env == "prod" ? "CAR" : "CAR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCardV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CardV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "StatementV6 Lookup" step and return the parsed statementV6.
+     */
+    def getStatementV6(String id) {
+        context.setProperty("statementV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["StatementV6 Helpers"].testSteps["Get StatementV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get StatementV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded statementV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateStatementV6(def statementV6, Map expected) {
+        assertNotNull(statementV6)
+        expected.each { key, value ->
+            assert statementV6[key] == value : "StatementV6 field $key was ${statementV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !statementV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findStatementV6s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List StatementV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} statementV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createStatementV6Payload(Map fields) {
+        def payload = [
+            type: "StatementV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "StatementV6 payload: $json"
+        return json
+    }
+
+    boolean waitForStatementV6(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def statementV6 = getStatementV6(id)
+            if (statementV6.status == state) {
+                return true
+            }
+            log.info "StatementV6 $id is ${statementV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "StatementV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpStatementV6s(String prefix) {
+        def removed = 0
+        findStatementV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("statementV6Id", id)
+                testRunner.runTestStepByName("Delete StatementV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedStatementV6s", removed.toString())
+        return removed
+    }
+
+    String statementV6Reference(String env) {
+        def prefix = env == "prod" ? "STA" : "STA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(700)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareStatementV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "StatementV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "CustomerV6 Lookup" step and return the parsed customerV6.
+     */
+    def getCustomerV6(String id) {
+        context.setProperty("customerV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["CustomerV6 Helpers"].testSteps["Get CustomerV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get CustomerV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded customerV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateCustomerV6(def customerV6, Map expected) {
+        assertNotNull(customerV6)
+        expected.each { key, value ->
+            assert customerV6[key] == value : "CustomerV6 field $key was ${customerV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !customerV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findCustomerV6s(String status, int limit = 9) {
+        def list = testRunner.runTestStepByName("List CustomerV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} customerV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createCustomerV6Payload(Map fields) {
+        def payload = [
+            type: "CustomerV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "CustomerV6 payload: $json"
+        return json
+    }
+
+    boolean waitForCustomerV6(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def customerV6 = getCustomerV6(id)
+            if (customerV6.status == state) {
+                return true
+            }
+            log.info "CustomerV6 $id is ${customerV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "CustomerV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpCustomerV6s(String prefix) {
+        def removed = 0
+        findCustomerV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("customerV6Id", id)
+                testRunner.runTestStepByName("Delete CustomerV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedCustomerV6s", removed.toString())
+        return removed
+    }
+
+    String customerV6Reference(String env) {
+        def prefix = env == "prod" ? "CUS" : "CUS-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareCustomerV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "CustomerV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "AlertV6 Lookup" step and return the parsed alertV6.
+     */
+    def getAlertV6(String id) {
+        context.setProperty("alertV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["AlertV6 Helpers"].testSteps["Get AlertV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get AlertV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded alertV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateAlertV6(def alertV6, Map expected) {
+        assertNotNull(alertV6)
+        expected.each { key, value ->
+            assert alertV6[key] == value : "AlertV6 field $key was ${alertV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !alertV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findAlertV6s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List AlertV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} alertV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createAlertV6Payload(Map fields) {
+        def payload = [
+            type: "AlertV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "AlertV6 payload: $json"
+        return json
+    }
+
+    boolean waitForAlertV6(String id, String state, int attempts = 5) {
+        for (int i = 1; i <= attempts; i++) {
+            def alertV6 = getAlertV6(id)
+            if (alertV6.status == state) {
+                return true
+            }
+            log.info "AlertV6 $id is ${alertV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "AlertV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpAlertV6s(String prefix) {
+        def removed = 0
+        findAlertV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("alertV6Id", id)
+                testRunner.runTestStepByName("Delete AlertV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedAlertV6s", removed.toString())
+        return removed
+    }
+
+    String alertV6Reference(String env) {
+        def prefix = env == "prod" ? "ALE" : "ALE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareAlertV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "AlertV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LimitV6 Lookup" step and return the parsed limitV6.
+     */
+    def getLimitV6(String id) {
+        context.setProperty("limitV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LimitV6 Helpers"].testSteps["Get LimitV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LimitV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded limitV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLimitV6(def limitV6, Map expected) {
+        assertNotNull(limitV6)
+        expected.each { key, value ->
+            assert limitV6[key] == value : "LimitV6 field $key was ${limitV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !limitV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLimitV6s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List LimitV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} limitV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLimitV6Payload(Map fields) {
+        def payload = [
+            type: "LimitV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LimitV6 payload: $json"
+        return json
+    }
+
+    boolean waitForLimitV6(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def limitV6 = getLimitV6(id)
+            if (limitV6.status == state) {
+                return true
+            }
+            log.info "LimitV6 $id is ${limitV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LimitV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLimitV6s(String prefix) {
+        def removed = 0
+        findLimitV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("limitV6Id", id)
+                testRunner.runTestStepByName("Delete LimitV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLimitV6s", removed.toString())
+        return removed
+    }
+
+    String limitV6Reference(String env) {
+        def prefix = env == "prod" ? "LIM" : "LIM-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLimitV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LimitV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DeviceV6 Lookup" step and return the parsed deviceV6.
+     */
+    def getDeviceV6(String id) {
+        context.setProperty("deviceV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DeviceV6 Helpers"].testSteps["Get DeviceV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DeviceV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded deviceV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDeviceV6(def deviceV6, Map expected) {
+        assertNotNull(deviceV6)
+        expected.each { key, value ->
+            assert deviceV6[key] == value : "DeviceV6 field $key was ${deviceV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !deviceV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDeviceV6s(String status, int limit = 3) {
+        def list = testRunner.runTestStepByName("List DeviceV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} deviceV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDeviceV6Payload(Map fields) {
+        def payload = [
+            type: "DeviceV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DeviceV6 payload: $json"
+        return json
+    }
+
+    boolean waitForDeviceV6(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def deviceV6 = getDeviceV6(id)
+            if (deviceV6.status == state) {
+                return true
+            }
+            log.info "DeviceV6 $id is ${deviceV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DeviceV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDeviceV6s(String prefix) {
+        def removed = 0
+        findDeviceV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("deviceV6Id", id)
+                testRunner.runTestStepByName("Delete DeviceV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDeviceV6s", removed.toString())
+        return removed
+    }
+
+    String deviceV6Reference(String env) {
+        def prefix = env == "prod" ? "DEV" : "DEV-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDeviceV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DeviceV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "SessionV6 Lookup" step and return the parsed sessionV6.
+     */
+    def getSessionV6(String id) {
+        context.setProperty("sessionV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["SessionV6 Helpers"].testSteps["Get SessionV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get SessionV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded sessionV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateSessionV6(def sessionV6, Map expected) {
+        assertNotNull(sessionV6)
+        expected.each { key, value ->
+            assert sessionV6[key] == value : "SessionV6 field $key was ${sessionV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !sessionV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findSessionV6s(String status, int limit = 7) {
+        def list = testRunner.runTestStepByName("List SessionV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} sessionV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createSessionV6Payload(Map fields) {
+        def payload = [
+            type: "SessionV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "SessionV6 payload: $json"
+        return json
+    }
+
+    boolean waitForSessionV6(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def sessionV6 = getSessionV6(id)
+            if (sessionV6.status == state) {
+                return true
+            }
+            log.info "SessionV6 $id is ${sessionV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "SessionV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpSessionV6s(String prefix) {
+        def removed = 0
+        findSessionV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("sessionV6Id", id)
+                testRunner.runTestStepByName("Delete SessionV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedSessionV6s", removed.toString())
+        return removed
+    }
+
+    String sessionV6Reference(String env) {
+        def prefix = env == "prod" ? "SES" : "SES-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(600)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareSessionV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "SessionV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "LoanV6 Lookup" step and return the parsed loanV6.
+     */
+    def getLoanV6(String id) {
+        context.setProperty("loanV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["LoanV6 Helpers"].testSteps["Get LoanV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get LoanV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded loanV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateLoanV6(def loanV6, Map expected) {
+        assertNotNull(loanV6)
+        expected.each { key, value ->
+            assert loanV6[key] == value : "LoanV6 field $key was ${loanV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !loanV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findLoanV6s(String status, int limit = 6) {
+        def list = testRunner.runTestStepByName("List LoanV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} loanV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createLoanV6Payload(Map fields) {
+        def payload = [
+            type: "LoanV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "LoanV6 payload: $json"
+        return json
+    }
+
+    boolean waitForLoanV6(String id, String state, int attempts = 8) {
+        for (int i = 1; i <= attempts; i++) {
+            def loanV6 = getLoanV6(id)
+            if (loanV6.status == state) {
+                return true
+            }
+            log.info "LoanV6 $id is ${loanV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "LoanV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpLoanV6s(String prefix) {
+        def removed = 0
+        findLoanV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("loanV6Id", id)
+                testRunner.runTestStepByName("Delete LoanV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedLoanV6s", removed.toString())
+        return removed
+    }
+
+    String loanV6Reference(String env) {
+        def prefix = env == "prod" ? "LOA" : "LOA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareLoanV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "LoanV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "MortgageV6 Lookup" step and return the parsed mortgageV6.
+     */
+    def getMortgageV6(String id) {
+        context.setProperty("mortgageV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["MortgageV6 Helpers"].testSteps["Get MortgageV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get MortgageV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded mortgageV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateMortgageV6(def mortgageV6, Map expected) {
+        assertNotNull(mortgageV6)
+        expected.each { key, value ->
+            assert mortgageV6[key] == value : "MortgageV6 field $key was ${mortgageV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !mortgageV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findMortgageV6s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List MortgageV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} mortgageV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createMortgageV6Payload(Map fields) {
+        def payload = [
+            type: "MortgageV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "MortgageV6 payload: $json"
+        return json
+    }
+
+    boolean waitForMortgageV6(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def mortgageV6 = getMortgageV6(id)
+            if (mortgageV6.status == state) {
+                return true
+            }
+            log.info "MortgageV6 $id is ${mortgageV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "MortgageV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpMortgageV6s(String prefix) {
+        def removed = 0
+        findMortgageV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("mortgageV6Id", id)
+                testRunner.runTestStepByName("Delete MortgageV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedMortgageV6s", removed.toString())
+        return removed
+    }
+
+    String mortgageV6Reference(String env) {
+        def prefix = env == "prod" ? "MOR" : "MOR-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareMortgageV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "MortgageV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DepositV6 Lookup" step and return the parsed depositV6.
+     */
+    def getDepositV6(String id) {
+        context.setProperty("depositV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DepositV6 Helpers"].testSteps["Get DepositV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DepositV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded depositV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDepositV6(def depositV6, Map expected) {
+        assertNotNull(depositV6)
+        expected.each { key, value ->
+            assert depositV6[key] == value : "DepositV6 field $key was ${depositV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !depositV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDepositV6s(String status, int limit = 4) {
+        def list = testRunner.runTestStepByName("List DepositV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} depositV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDepositV6Payload(Map fields) {
+        def payload = [
+            type: "DepositV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DepositV6 payload: $json"
+        return json
+    }
+
+    boolean waitForDepositV6(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def depositV6 = getDepositV6(id)
+            if (depositV6.status == state) {
+                return true
+            }
+            log.info "DepositV6 $id is ${depositV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "DepositV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDepositV6s(String prefix) {
+        def removed = 0
+        findDepositV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("depositV6Id", id)
+                testRunner.runTestStepByName("Delete DepositV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDepositV6s", removed.toString())
+        return removed
+    }
+
+    String depositV6Reference(String env) {
+        def prefix = env == "prod" ? "DEP" : "DEP-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDepositV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DepositV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ChequeV6 Lookup" step and return the parsed chequeV6.
+     */
+    def getChequeV6(String id) {
+        context.setProperty("chequeV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ChequeV6 Helpers"].testSteps["Get ChequeV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ChequeV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded chequeV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateChequeV6(def chequeV6, Map expected) {
+        assertNotNull(chequeV6)
+        expected.each { key, value ->
+            assert chequeV6[key] == value : "ChequeV6 field $key was ${chequeV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !chequeV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findChequeV6s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List ChequeV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} chequeV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createChequeV6Payload(Map fields) {
+        def payload = [
+            type: "ChequeV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ChequeV6 payload: $json"
+        return json
+    }
+
+    boolean waitForChequeV6(String id, String state, int attempts = 9) {
+        for (int i = 1; i <= attempts; i++) {
+            def chequeV6 = getChequeV6(id)
+            if (chequeV6.status == state) {
+                return true
+            }
+            log.info "ChequeV6 $id is ${chequeV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ChequeV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpChequeV6s(String prefix) {
+        def removed = 0
+        findChequeV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("chequeV6Id", id)
+                testRunner.runTestStepByName("Delete ChequeV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedChequeV6s", removed.toString())
+        return removed
+    }
+
+    String chequeV6Reference(String env) {
+        def prefix = env == "prod" ? "CHE" : "CHE-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareChequeV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ChequeV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "RateV6 Lookup" step and return the parsed rateV6.
+     */
+    def getRateV6(String id) {
+        context.setProperty("rateV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["RateV6 Helpers"].testSteps["Get RateV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get RateV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded rateV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateRateV6(def rateV6, Map expected) {
+        assertNotNull(rateV6)
+        expected.each { key, value ->
+            assert rateV6[key] == value : "RateV6 field $key was ${rateV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !rateV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findRateV6s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List RateV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} rateV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createRateV6Payload(Map fields) {
+        def payload = [
+            type: "RateV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "RateV6 payload: $json"
+        return json
+    }
+
+    boolean waitForRateV6(String id, String state, int attempts = 3) {
+        for (int i = 1; i <= attempts; i++) {
+            def rateV6 = getRateV6(id)
+            if (rateV6.status == state) {
+                return true
+            }
+            log.info "RateV6 $id is ${rateV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "RateV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpRateV6s(String prefix) {
+        def removed = 0
+        findRateV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("rateV6Id", id)
+                testRunner.runTestStepByName("Delete RateV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedRateV6s", removed.toString())
+        return removed
+    }
+
+    String rateV6Reference(String env) {
+        def prefix = env == "prod" ? "RAT" : "RAT-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(300)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareRateV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "RateV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "BranchV6 Lookup" step and return the parsed branchV6.
+     */
+    def getBranchV6(String id) {
+        context.setProperty("branchV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["BranchV6 Helpers"].testSteps["Get BranchV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get BranchV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded branchV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateBranchV6(def branchV6, Map expected) {
+        assertNotNull(branchV6)
+        expected.each { key, value ->
+            assert branchV6[key] == value : "BranchV6 field $key was ${branchV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !branchV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findBranchV6s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List BranchV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} branchV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createBranchV6Payload(Map fields) {
+        def payload = [
+            type: "BranchV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "BranchV6 payload: $json"
+        return json
+    }
+
+    boolean waitForBranchV6(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def branchV6 = getBranchV6(id)
+            if (branchV6.status == state) {
+                return true
+            }
+            log.info "BranchV6 $id is ${branchV6.status}, waiting for $state ($i/$attempts)"
+            sleep(1000)
+        }
+        log.error "BranchV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpBranchV6s(String prefix) {
+        def removed = 0
+        findBranchV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("branchV6Id", id)
+                testRunner.runTestStepByName("Delete BranchV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedBranchV6s", removed.toString())
+        return removed
+    }
+
+    String branchV6Reference(String env) {
+        def prefix = env == "prod" ? "BRA" : "BRA-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(500)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareBranchV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "BranchV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "DocumentV6 Lookup" step and return the parsed documentV6.
+     */
+    def getDocumentV6(String id) {
+        context.setProperty("documentV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["DocumentV6 Helpers"].testSteps["Get DocumentV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get DocumentV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded documentV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateDocumentV6(def documentV6, Map expected) {
+        assertNotNull(documentV6)
+        expected.each { key, value ->
+            assert documentV6[key] == value : "DocumentV6 field $key was ${documentV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !documentV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findDocumentV6s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List DocumentV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} documentV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createDocumentV6Payload(Map fields) {
+        def payload = [
+            type: "DocumentV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "DocumentV6 payload: $json"
+        return json
+    }
+
+    boolean waitForDocumentV6(String id, String state, int attempts = 4) {
+        for (int i = 1; i <= attempts; i++) {
+            def documentV6 = getDocumentV6(id)
+            if (documentV6.status == state) {
+                return true
+            }
+            log.info "DocumentV6 $id is ${documentV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "DocumentV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpDocumentV6s(String prefix) {
+        def removed = 0
+        findDocumentV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("documentV6Id", id)
+                testRunner.runTestStepByName("Delete DocumentV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedDocumentV6s", removed.toString())
+        return removed
+    }
+
+    String documentV6Reference(String env) {
+        def prefix = env == "prod" ? "DOC" : "DOC-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareDocumentV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "DocumentV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ConsentV6 Lookup" step and return the parsed consentV6.
+     */
+    def getConsentV6(String id) {
+        context.setProperty("consentV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ConsentV6 Helpers"].testSteps["Get ConsentV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ConsentV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded consentV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateConsentV6(def consentV6, Map expected) {
+        assertNotNull(consentV6)
+        expected.each { key, value ->
+            assert consentV6[key] == value : "ConsentV6 field $key was ${consentV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !consentV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findConsentV6s(String status, int limit = 8) {
+        def list = testRunner.runTestStepByName("List ConsentV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} consentV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createConsentV6Payload(Map fields) {
+        def payload = [
+            type: "ConsentV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ConsentV6 payload: $json"
+        return json
+    }
+
+    boolean waitForConsentV6(String id, String state, int attempts = 6) {
+        for (int i = 1; i <= attempts; i++) {
+            def consentV6 = getConsentV6(id)
+            if (consentV6.status == state) {
+                return true
+            }
+            log.info "ConsentV6 $id is ${consentV6.status}, waiting for $state ($i/$attempts)"
+            sleep(500)
+        }
+        log.error "ConsentV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpConsentV6s(String prefix) {
+        def removed = 0
+        findConsentV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("consentV6Id", id)
+                testRunner.runTestStepByName("Delete ConsentV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedConsentV6s", removed.toString())
+        return removed
+    }
+
+    String consentV6Reference(String env) {
+        def prefix = env == "prod" ? "CON" : "CON-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(800)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareConsentV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ConsentV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+
+    /**
+     * Run the "ProfileV6 Lookup" step and return the parsed profileV6.
+     */
+    def getProfileV6(String id) {
+        context.setProperty("profileV6Id", id)
+        def step = testRunner.testCase.testSuite.project.testSuites["Shared"].testCases["ProfileV6 Helpers"].testSteps["Get ProfileV6"]
+        def result = step.run(testRunner, context)
+        assert result.status.toString() != "FAILED" : "Get ProfileV6 failed for $id"
+        def json = new JsonSlurper().parseText(result.responseContent)
+        log.info "Loaded profileV6 ${json.id} (${json.status})"
+        return json
+    }
+
+    def validateProfileV6(def profileV6, Map expected) {
+        assertNotNull(profileV6)
+        expected.each { key, value ->
+            assert profileV6[key] == value : "ProfileV6 field $key was ${profileV6[key]}, expected $value"
+        }
+        def missing = expected.keySet().findAll { !profileV6.containsKey(it) }
+        assertEquals(0, missing.size())
+        return true
+    }
+
+    List findProfileV6s(String status, int limit = 5) {
+        def list = testRunner.runTestStepByName("List ProfileV6s")
+        def items = new JsonSlurper().parseText(list.responseContent).items
+        def matching = items.findAll { it.status == status }.collect { it.id }
+        if (matching.size() > limit) {
+            log.warn "Found ${matching.size()} profileV6s with status $status, keeping $limit"
+            matching = matching.take(limit)
+        }
+        return matching
+    }
+
+    String createProfileV6Payload(Map fields) {
+        def payload = [
+            type: "ProfileV6",
+            requestedBy: context.expand('${#Project#user}'),
+            createdAt: new Date().format("yyyy-MM-dd'T'HH:mm:ss"),
+            attributes: fields
+        ]
+        String json = JsonOutput.toJson(payload)
+        log.debug "ProfileV6 payload: $json"
+        return json
+    }
+
+    boolean waitForProfileV6(String id, String state, int attempts = 7) {
+        for (int i = 1; i <= attempts; i++) {
+            def profileV6 = getProfileV6(id)
+            if (profileV6.status == state) {
+                return true
+            }
+            log.info "ProfileV6 $id is ${profileV6.status}, waiting for $state ($i/$attempts)"
+            sleep(250)
+        }
+        log.error "ProfileV6 $id never reached $state"
+        return false
+    }
+
+    def cleanUpProfileV6s(String prefix) {
+        def removed = 0
+        findProfileV6s("PENDING", 100).each { id ->
+            if (id.startsWith(prefix)) {
+                context.setProperty("profileV6Id", id)
+                testRunner.runTestStepByName("Delete ProfileV6")
+                removed++
+            }
+        }
+        testRunner.testCase.setPropertyValue("removedProfileV6s", removed.toString())
+        return removed
+    }
+
+    String profileV6Reference(String env) {
+        def prefix = env == "prod" ? "PRO" : "PRO-" + env.toUpperCase()
+        def suffix = System.currentTimeMillis().toString().reverse().take(6)
+        def reference = prefix + "-" + suffix + "-" + random(400)
+        assert reference ==~ /[A-Z]+(-[A-Z]+)?-[0-9]+-[0-9]+/
+        return reference
+    }
+
+    def compareProfileV6s(def before, def after) {
+        def changes = [:]
+        before.keySet().each { key ->
+            if (before[key] != after[key]) {
+                changes[key] = [from: before[key], to: after[key]]
+            }
+        }
+        if (changes) {
+            log.info "ProfileV6 changed: " + JsonOutput.toJson(changes)
+        }
+        return changes
+    }
+}
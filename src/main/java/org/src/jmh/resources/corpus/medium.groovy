@@ -0,0 +1,123 @@
+import groovy.json.JsonSlurper
+import groovy.json.JsonOutput
+
+/*
+ * Setup for the payment scenarios: reads the environment settings, signs in,
+ * prepares payees and checks the preconditions every payment test relies on.
+ */
+def project = testRunner.testCase.testSuite.project
+def env = project.getPropertyValue("environment") ?: 'qa'
+def baseUrl = project.getPropertyValue("baseUrl")
+def retries = (project.getPropertyValue("retries") ?: "3") as int
+log.info "Preparing payment scenarios for $env against ${baseUrl}"
+
+// Sign in and keep the session for every later step
+def signIn = testRunner.runTestStepByName("Sign In")
+def signInResponse = new JsonSlurper().parseText(signIn.responseContent)
+assert signInResponse.session != null : "Sign in did not return a session"
+testRunner.testCase.setPropertyValue("session", signInResponse.session)
+context.setProperty("customerId", signInResponse.customer.id)
+
+def headers = [
+    "Authorization": "Bearer ${signInResponse.session}",
+    "Content-Type": "application/json",
+    "X-Correlation-Id": UUID.randomUUID().toString()
+]
+context.setProperty("headers", JsonOutput.toJson(headers))
+
+// Accounts the scenarios may debit
+def accounts = signInResponse.customer.accounts
+assert accounts.size() > 0 : "Customer has no accounts"
+def chequing = accounts.find { it.type == 'CHEQUING' }
+def savings = accounts.find { it.type == 'SAVINGS' }
+assertNotNull(chequing)
+testRunner.testCase.setPropertyValue("fromAccount", chequing.number)
+if (savings) {
+    testRunner.testCase.setPropertyValue("savingsAccount", savings.number)
+} else {
+    log.warn "No savings account, transfer scenarios will be skipped"
+    testRunner.testCase.setPropertyValue("skipTransfers", "true")
+}
+
+def openAccounts = accounts.findAll { it.status == 'OPEN' }
+def balances = openAccounts.collect { it.balance.amount as BigDecimal }
+def total = 0
+balances.each { amount ->
+    total += amount
+}
+log.info "Open accounts: ${openAccounts.size()}, total balance: ${total}"
+assert total >= 0
+
+// Payees: create the ones the scenarios use when they are missing
+def payeeNames = ["Hydro One", "City Water", "Telecom Plus", "Visa Card"]
+def payeeList = testRunner.runTestStepByName("List Payees")
+def payees = new JsonSlurper().parseText(payeeList.responseContent).payees
+def existing = payees.collect { it.name }
+payeeNames.each { name ->
+    if (!existing.contains(name)) {
+        log.info "Creating payee $name"
+        context.setProperty("payeeName", name)
+        def created = testRunner.runTestStepByName("Create Payee")
+        def payee = new JsonSlurper().parseText(created.responseContent)
+        assertEquals(name, payee.name)
+        existing << name
+    }
+}
+assertEquals(payeeNames.size(), payeeNames.findAll { existing.contains(it) }.size())
+
+// Limits differ per environment
+def limits = [qa: 5000, uat: 2500, prod: 1000]
+def dailyLimit = limits[env] ?: 1000
+testRunner.testCase.setPropertyValue("dailyLimit", dailyLimit.toString())
+def amount = (dailyLimit / 10) as int
+testRunner.testCase.setPropertyValue("paymentAmount", String.valueOf(amount))
+
+// Dates: payments are scheduled on the next business day
+def today = new Date()
+def calendar = Calendar.getInstance()
+calendar.setTime(today)
+calendar.add(Calendar.DAY_OF_MONTH, 1)
+while (calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SATURDAY || calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
+    calendar.add(Calendar.DAY_OF_MONTH, 1)
+}
+def scheduled = calendar.getTime().format("yyyy-MM-dd")
+testRunner.testCase.setPropertyValue("scheduledDate", scheduled)
+log.info "Payments scheduled for $scheduled"
+
+// Reference numbers must be unique per run
+def reference = "PAY-" + System.currentTimeMillis() + "-" + random(1000)
+testRunner.testCase.setPropertyValue("reference", reference)
+assert reference.matches("PAY-[0-9]+-[0-9]+")
+
+// Wait until the ledger has caught up with the sign in
+def ready = false
+for (int attempt = 1; attempt <= retries && !ready; attempt++) {
+    def status = testRunner.runTestStepByName("Ledger Status")
+    def ledger = new JsonSlurper().parseText(status.responseContent)
+    ready = ledger.state == "READY"
+    if (!ready) {
+        log.info "Ledger not ready (attempt $attempt of $retries), waiting"
+        sleep(500 * attempt)
+    }
+}
+assert ready : "Ledger did not become ready after $retries attempts"
+
+// Clean up payments left over from an earlier run
+def pending = testRunner.runTestStepByName("List Pending Payments")
+def pendingPayments = new JsonSlurper().parseText(pending.responseContent).payments
+pendingPayments.findAll { it.reference?.startsWith("PAY-") }.each { payment ->
+    context.setProperty("paymentId", payment.id)
+    testRunner.runTestStepByName("Cancel Payment")
+    log.info "Cancelled leftover payment ${payment.id}"
+}
+
+def summary = [
+    environment: env,
+    fromAccount: chequing.number,
+    dailyLimit: dailyLimit,
+    amount: amount,
+    scheduled: scheduled,
+    payees: existing.size()
+]
+log.info "Setup summary: " + JsonOutput.toJson(summary)
+testRunner.testCase.testSuite.setPropertyValue("setupComplete", "true")
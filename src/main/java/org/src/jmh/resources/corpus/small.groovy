@@ -0,0 +1,16 @@
+import groovy.json.JsonSlurper
+
+// Validate the account lookup response
+def response = context.expand('${Get Account#Response}')
+def json = new JsonSlurper().parseText(response)
+
+assert json != null : "Empty response"
+assert json.status == "ACTIVE"
+assertEquals(testRunner.testCase.getPropertyValue("accountId"), json.accountId)
+assertNotNull(json.balance)
+
+def currency = json.balance.currency ?: 'CAD'
+log.info "Account ${json.accountId} holds ${json.balance.amount} $currency"
+
+testRunner.testCase.setPropertyValue("balance", json.balance.amount.toString())
+testRunner.testCase.testSuite.project.setPropertyValue("lastAccount", json.accountId)